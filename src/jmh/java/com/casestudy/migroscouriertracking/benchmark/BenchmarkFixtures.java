@@ -0,0 +1,354 @@
+package com.casestudy.migroscouriertracking.benchmark;
+
+import com.casestudy.migroscouriertracking.courier.archive.CourierArchive;
+import com.casestudy.migroscouriertracking.courier.cache.CourierQueryResultCache;
+import com.casestudy.migroscouriertracking.courier.cache.LastVisitCache;
+import com.casestudy.migroscouriertracking.courier.cache.PingDeduplicationWindow;
+import com.casestudy.migroscouriertracking.courier.index.ResolvedStoreContext;
+import com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex;
+import com.casestudy.migroscouriertracking.courier.metrics.CourierMetrics;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierStoreVisitEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierStoreVisitId;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierTravelSummaryEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import com.casestudy.migroscouriertracking.courier.repository.CourierHourlyDistanceRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierStoreVisitRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierTravelSummaryRepository;
+import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
+import com.casestudy.migroscouriertracking.courier.service.CourierService;
+import com.casestudy.migroscouriertracking.courier.service.CourierTravelSummaryService;
+import com.casestudy.migroscouriertracking.courier.utils.validator.TimestampAfterStoreCreationValidator;
+import com.casestudy.migroscouriertracking.courier.writebehind.CourierLocationWriteBehindQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Utility class named {@link BenchmarkFixtures} generating deterministic stores, ping streams and tracks
+ * around Istanbul, and wiring services against in-memory repository stubs for the JMH benchmarks.
+ */
+@UtilityClass
+public class BenchmarkFixtures {
+
+    private final double MIN_LAT = 40.80;
+    private final double MAX_LAT = 41.20;
+    private final double MIN_LNG = 28.60;
+    private final double MAX_LNG = 29.40;
+
+    /**
+     * Roughly 80 meters expressed in degrees of latitude, used to place pings inside a store's radius.
+     */
+    private final double NEAR_STORE_OFFSET_IN_DEGREES = 0.0007;
+
+    /**
+     * Creates stores spread uniformly over the Istanbul bounding box.
+     *
+     * @param count the number of stores to create
+     * @param seed  the random seed
+     * @return the generated stores
+     */
+    public List<StoreEntity> stores(int count, long seed) {
+        Random random = new Random(seed);
+        List<StoreEntity> stores = new ArrayList<>(count);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < count; i++) {
+            stores.add(StoreEntity.builder()
+                    .id(UUID.randomUUID())
+                    .storeKey(i + 1)
+                    .name("Store " + i)
+                    .lat(MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT))
+                    .lng(MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG))
+                    .createdAt(createdAt)
+                    .build());
+        }
+        return stores;
+    }
+
+    /**
+     * Creates a ping stream in which the given share of pings lands inside a store's radius
+     * and the rest lands at random positions in the bounding box.
+     *
+     * @param stores          the stores pings are generated around
+     * @param count           the number of pings to create
+     * @param nearStoreRatio  the share of pings placed near a store, between 0 and 1
+     * @param seed            the random seed
+     * @return the generated pings, with timestamps two minutes apart
+     */
+    public List<LogCourierLocationRequest> pings(List<StoreEntity> stores, int count, double nearStoreRatio, long seed) {
+        Random random = new Random(seed);
+        List<LogCourierLocationRequest> pings = new ArrayList<>(count);
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime timestamp = LocalDateTime.of(2024, 6, 1, 8, 0);
+        for (int i = 0; i < count; i++) {
+            double lat;
+            double lng;
+            if (random.nextDouble() < nearStoreRatio) {
+                StoreEntity store = stores.get(random.nextInt(stores.size()));
+                lat = store.getLat() + (random.nextDouble() * 2 - 1) * NEAR_STORE_OFFSET_IN_DEGREES / 2;
+                lng = store.getLng() + (random.nextDouble() * 2 - 1) * NEAR_STORE_OFFSET_IN_DEGREES / 2;
+            } else {
+                lat = MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT);
+                lng = MIN_LNG + random.nextDouble() * (MAX_LNG - MIN_LNG);
+            }
+            pings.add(LogCourierLocationRequest.builder()
+                    .courierId(courierId)
+                    .lat(lat)
+                    .lng(lng)
+                    .timestamp(timestamp.plusMinutes(2L * i))
+                    .build());
+        }
+        return pings;
+    }
+
+    /**
+     * Creates a random-walk track of a single courier with steps of up to roughly 100 meters.
+     *
+     * @param length the number of points in the track
+     * @param seed   the random seed
+     * @return the track ordered by timestamp
+     */
+    public List<CourierEntity> track(int length, long seed) {
+        Random random = new Random(seed);
+        List<CourierEntity> track = new ArrayList<>(length);
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime timestamp = LocalDateTime.of(2024, 6, 1, 8, 0);
+        double lat = (MIN_LAT + MAX_LAT) / 2;
+        double lng = (MIN_LNG + MAX_LNG) / 2;
+        for (int i = 0; i < length; i++) {
+            lat += (random.nextDouble() * 2 - 1) * 0.001;
+            lng += (random.nextDouble() * 2 - 1) * 0.001;
+            track.add(CourierEntity.builder()
+                    .id(UUID.randomUUID())
+                    .courierId(courierId)
+                    .lat(lat)
+                    .lng(lng)
+                    .storeKey(i % 50 + 1)
+                    .timestamp(timestamp.plusMinutes(2L * i))
+                    .build());
+        }
+        return track;
+    }
+
+    /**
+     * Creates a {@link StoreSpatialIndex} built from the given stores.
+     *
+     * @param stores the stores to index
+     * @return the built index
+     */
+    public StoreSpatialIndex storeSpatialIndex(List<StoreEntity> stores) {
+        StoreSpatialIndex storeSpatialIndex = new StoreSpatialIndex(storeRepository(stores));
+        storeSpatialIndex.refresh();
+        return storeSpatialIndex;
+    }
+
+    /**
+     * Creates a {@link CourierService} backed by in-memory stubs: stores come from the given list,
+     * the re-entry queries find no stored entry, location saves are discarded and visit rows and travel summaries
+     * are kept in maps.
+     * Locations are written synchronously; the write-behind queue is disabled.
+     *
+     * @param stores the stores known to the service
+     * @param track  the travel history returned for any courier
+     * @return the wired service
+     */
+    public CourierService courierService(List<StoreEntity> stores, List<CourierEntity> track) {
+        StoreSpatialIndex storeSpatialIndex = storeSpatialIndex(stores);
+        ResolvedStoreContext resolvedStoreContext = new ResolvedStoreContext(storeSpatialIndex);
+        CourierRepository courierRepository = courierRepository(track);
+        LastVisitCache lastVisitCache = new LastVisitCache(courierRepository, courierStoreVisitRepository(), 100_000,
+                LastVisitCache.RE_ENTRY_WINDOW.plusSeconds(10));
+        PingDeduplicationWindow pingDeduplicationWindow = new PingDeduplicationWindow(100_000, Duration.ofMinutes(5));
+        // Disabled, so the query benchmarks measure the queries instead of cache hits
+        CourierQueryResultCache courierQueryResultCache = new CourierQueryResultCache(false, 0, Duration.ZERO);
+        // An archive over a directory that does not exist, so every courier lives in the database only
+        CourierArchive courierArchive = new CourierArchive("target/benchmark-archive", storeSpatialIndex);
+        CourierMetrics courierMetrics = new CourierMetrics(new SimpleMeterRegistry());
+        CourierTravelSummaryService courierTravelSummaryService =
+                new CourierTravelSummaryService(courierTravelSummaryRepository(), courierRepository, courierArchive,
+                        courierHourlyDistanceRepository(), courierMetrics);
+        return new CourierService(
+                courierRepository,
+                storeSpatialIndex,
+                resolvedStoreContext,
+                lastVisitCache,
+                pingDeduplicationWindow,
+                courierQueryResultCache,
+                courierTravelSummaryService,
+                new CourierLocationWriteBehindQueue(courierRepository, courierTravelSummaryService, lastVisitCache, pingDeduplicationWindow,
+                        courierQueryResultCache, TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), false, 1, 1,
+                        Duration.ZERO, Duration.ZERO, Duration.ZERO),
+                courierArchive,
+                validator(resolvedStoreContext, courierMetrics, pingDeduplicationWindow),
+                courierMetrics
+        );
+    }
+
+    /**
+     * Creates a {@link Validator} that instantiates {@link TimestampAfterStoreCreationValidator}
+     * with the given context, as Spring does when it autowires constraint validators.
+     *
+     * @param resolvedStoreContext    the context the validator resolves stores through
+     * @param courierMetrics          the metrics the validator records its duration to
+     * @param pingDeduplicationWindow the window of recently logged pings the validator skips
+     * @return the validator
+     */
+    private Validator validator(ResolvedStoreContext resolvedStoreContext, CourierMetrics courierMetrics,
+                                PingDeduplicationWindow pingDeduplicationWindow) {
+        ConstraintValidatorFactory defaultFactory = Validation.byDefaultProvider().configure()
+                .getDefaultConstraintValidatorFactory();
+        ConstraintValidatorFactory factory = new ConstraintValidatorFactory() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends ConstraintValidator<?, ?>> T getInstance(Class<T> key) {
+                if (key == TimestampAfterStoreCreationValidator.class) {
+                    return (T) new TimestampAfterStoreCreationValidator(resolvedStoreContext, courierMetrics, pingDeduplicationWindow);
+                }
+                return defaultFactory.getInstance(key);
+            }
+
+            @Override
+            public void releaseInstance(ConstraintValidator<?, ?> instance) {
+                defaultFactory.releaseInstance(instance);
+            }
+
+        };
+        return Validation.byDefaultProvider().configure()
+                .constraintValidatorFactory(factory)
+                .buildValidatorFactory()
+                .getValidator();
+    }
+
+    /**
+     * Creates a {@link StoreRepository} stub whose {@code findAll} returns the given stores.
+     *
+     * @param stores the stores to return
+     * @return the stub
+     */
+    public StoreRepository storeRepository(List<StoreEntity> stores) {
+        return stub(StoreRepository.class, (methodName, args) -> switch (methodName) {
+            case "findAll" -> stores;
+            default -> throw new UnsupportedOperationException(methodName);
+        });
+    }
+
+    /**
+     * Creates a {@link CourierRepository} stub that returns the given track for history queries,
+     * never finds a previous store entry, and discards writes.
+     *
+     * @param track the travel history to return
+     * @return the stub
+     */
+    public CourierRepository courierRepository(List<CourierEntity> track) {
+        return stub(CourierRepository.class, (methodName, args) -> switch (methodName) {
+            case "save" -> args[0];
+            case "batchInsert" -> null;
+            case "findByCourierId", "findByCourierIdOrderByTimestampAsc" -> track;
+            case "findLastTimestampByCourierIdAndStoreKey",
+                 "findLastTimestampByCourierIdAndStoreKeyAndTimestampBetween" -> Optional.empty();
+            case "existsByCourierIdAndTimestampAndLatAndLng", "existsByCourierIdAndIdNotIn" -> false;
+            default -> throw new UnsupportedOperationException(methodName);
+        });
+    }
+
+    /**
+     * Creates a {@link CourierTravelSummaryRepository} stub that keeps summaries in a map.
+     *
+     * @return the stub
+     */
+    public CourierTravelSummaryRepository courierTravelSummaryRepository() {
+        Map<String, CourierTravelSummaryEntity> summaries = new HashMap<>();
+        return stub(CourierTravelSummaryRepository.class, (methodName, args) -> switch (methodName) {
+            case "findById", "findByCourierIdForUpdate" -> Optional.ofNullable(summaries.get((String) args[0]));
+            case "existsById" -> summaries.containsKey((String) args[0]);
+            case "insertIfAbsent" -> {
+                summaries.putIfAbsent((String) args[0], new CourierTravelSummaryEntity((String) args[0], 0.0,
+                        (Double) args[1], (Double) args[2], (LocalDateTime) args[3]));
+                yield null;
+            }
+            case "save" -> {
+                CourierTravelSummaryEntity summary = (CourierTravelSummaryEntity) args[0];
+                summaries.put(summary.getCourierId(), summary);
+                yield summary;
+            }
+            default -> throw new UnsupportedOperationException(methodName);
+        });
+    }
+
+    /**
+     * Creates a {@link CourierStoreVisitRepository} stub that keeps the visit rows in a map.
+     *
+     * @return the stub
+     */
+    public CourierStoreVisitRepository courierStoreVisitRepository() {
+        Map<CourierStoreVisitId, CourierStoreVisitEntity> visits = new HashMap<>();
+        return stub(CourierStoreVisitRepository.class, (methodName, args) -> switch (methodName) {
+            case "insertIfAbsent" -> {
+                CourierStoreVisitId id = new CourierStoreVisitId((String) args[0], (Integer) args[1]);
+                visits.putIfAbsent(id, new CourierStoreVisitEntity(id, null));
+                yield null;
+            }
+            case "findByCourierIdAndStoreKeyForUpdate" ->
+                    Optional.ofNullable(visits.get(new CourierStoreVisitId((String) args[0], (Integer) args[1])));
+            default -> throw new UnsupportedOperationException(methodName);
+        });
+    }
+
+    /**
+     * Creates a {@link CourierHourlyDistanceRepository} stub that keeps the hourly buckets in a map.
+     *
+     * @return the stub
+     */
+    public CourierHourlyDistanceRepository courierHourlyDistanceRepository() {
+        Map<String, NavigableMap<LocalDateTime, Double>> buckets = new HashMap<>();
+        return stub(CourierHourlyDistanceRepository.class, (methodName, args) -> switch (methodName) {
+            case "addDistance" -> {
+                buckets.computeIfAbsent((String) args[0], courierId -> new TreeMap<>())
+                        .merge((LocalDateTime) args[1], (Double) args[2], Double::sum);
+                yield null;
+            }
+            case "deleteByCourierId" -> {
+                buckets.remove((String) args[0]);
+                yield null;
+            }
+            case "sumDistanceInKilometers" -> buckets.getOrDefault((String) args[0], new TreeMap<>())
+                    .subMap((LocalDateTime) args[1], (LocalDateTime) args[2]).values().stream()
+                    .mapToDouble(Double::doubleValue)
+                    .sum();
+            default -> throw new UnsupportedOperationException(methodName);
+        });
+    }
+
+    /**
+     * Handles a call made on a repository stub.
+     */
+    @FunctionalInterface
+    private interface StubHandler {
+
+        Object handle(String methodName, Object[] args);
+
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T stub(Class<T> type, StubHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> type.getSimpleName() + "Stub";
+            default -> handler.handle(method.getName(), args);
+        });
+    }
+
+}
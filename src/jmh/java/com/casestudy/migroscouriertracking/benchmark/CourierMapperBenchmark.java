@@ -0,0 +1,49 @@
+package com.casestudy.migroscouriertracking.benchmark;
+
+import com.casestudy.migroscouriertracking.courier.index.StoreDictionary;
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.model.mapper.CourierEntityToCourierMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark named {@link CourierMapperBenchmark} measuring the throughput of {@link CourierEntityToCourierMapper}
+ * for single entities and for whole travel histories, resolving store keys through a {@link StoreDictionary}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CourierMapperBenchmark {
+
+    @Param({"1000", "100000"})
+    private int trackLength;
+
+    private final CourierEntityToCourierMapper courierEntityToCourierMapper = CourierEntityToCourierMapper.initialize();
+
+    private StoreDictionary storeDictionary;
+    private List<CourierEntity> track;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storeDictionary = StoreDictionary.of(BenchmarkFixtures.stores(50, 11L));
+        track = BenchmarkFixtures.track(trackLength, 11L);
+    }
+
+    @Benchmark
+    public Courier mapSingle() {
+        return courierEntityToCourierMapper.map(track.get(next++ % trackLength), storeDictionary);
+    }
+
+    @Benchmark
+    public List<Courier> mapTrack() {
+        return courierEntityToCourierMapper.map(track, storeDictionary);
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.casestudy.migroscouriertracking.benchmark;
+
+import com.casestudy.migroscouriertracking.courier.model.Location;
+import com.casestudy.migroscouriertracking.courier.model.enums.DistanceType;
+import com.casestudy.migroscouriertracking.courier.strategy.DistanceInKilometersCalculatorStrategy;
+import com.casestudy.migroscouriertracking.courier.strategy.DistanceInMetersCalculatorStrategy;
+import com.casestudy.migroscouriertracking.courier.utils.DistanceUtils;
+import com.casestudy.migroscouriertracking.courier.utils.HaversineUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark named {@link DistanceBenchmark} measuring single distance calculations
+ * through the strategies, {@link DistanceUtils} and the primitive {@link HaversineUtils} kernel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DistanceBenchmark {
+
+    private final DistanceInKilometersCalculatorStrategy kilometersStrategy = new DistanceInKilometersCalculatorStrategy();
+    private final DistanceInMetersCalculatorStrategy metersStrategy = new DistanceInMetersCalculatorStrategy();
+
+    private double courierLat = 40.9923800;
+    private double courierLng = 29.1244700;
+    private double storeLat = 40.9923307;
+    private double storeLng = 29.1244229;
+
+    @Benchmark
+    public double kilometersStrategyWithLocations() {
+        return kilometersStrategy.calculateDistance(new Location(courierLat, courierLng), new Location(storeLat, storeLng));
+    }
+
+    @Benchmark
+    public double metersStrategyWithCoordinates() {
+        return metersStrategy.calculateDistance(courierLat, courierLng, storeLat, storeLng);
+    }
+
+    @Benchmark
+    public double distanceUtilsCalculateDistance() {
+        return DistanceUtils.calculateDistance(courierLat, courierLng, storeLat, storeLng, DistanceType.KILOMETERS);
+    }
+
+    @Benchmark
+    public boolean distanceUtilsIsWithinRadius() {
+        return DistanceUtils.isWithinRadius(courierLat, courierLng, storeLat, storeLng, 100.0);
+    }
+
+    @Benchmark
+    public double haversineKernel() {
+        return HaversineUtils.distanceInMeters(courierLat, courierLng, storeLat, storeLng);
+    }
+
+}
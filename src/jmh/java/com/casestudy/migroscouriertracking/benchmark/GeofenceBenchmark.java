@@ -0,0 +1,72 @@
+package com.casestudy.migroscouriertracking.benchmark;
+
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.NearestStore;
+import com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import com.casestudy.migroscouriertracking.courier.utils.DistanceUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark named {@link GeofenceBenchmark} comparing the {@link StoreSpatialIndex} lookup
+ * with a linear scan over every store for fixtures of 10, 1k and 100k stores,
+ * and measuring the k-nearest store search used by the nearest stores endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeofenceBenchmark {
+
+    private static final int PING_COUNT = 4096;
+
+    private static final int NEAREST_STORE_COUNT = 5;
+
+    @Param({"10", "1000", "100000"})
+    private int storeCount;
+
+    private List<StoreEntity> stores;
+    private StoreSpatialIndex storeSpatialIndex;
+    private double[] lats;
+    private double[] lngs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stores = BenchmarkFixtures.stores(storeCount, 42L);
+        storeSpatialIndex = BenchmarkFixtures.storeSpatialIndex(stores);
+        List<LogCourierLocationRequest> pings = BenchmarkFixtures.pings(stores, PING_COUNT, 0.8, 7L);
+        lats = pings.stream().mapToDouble(LogCourierLocationRequest::getLat).toArray();
+        lngs = pings.stream().mapToDouble(LogCourierLocationRequest::getLng).toArray();
+    }
+
+    @Benchmark
+    public Optional<CatalogStore> spatialIndexLookup() {
+        int i = next++ & (PING_COUNT - 1);
+        return storeSpatialIndex.findNearestStoreWithinRadius(lats[i], lngs[i], StoreSpatialIndex.STORE_RADIUS_IN_METERS);
+    }
+
+    @Benchmark
+    public Optional<StoreEntity> linearScan() {
+        int i = next++ & (PING_COUNT - 1);
+        double lat = lats[i];
+        double lng = lngs[i];
+        return stores.stream()
+                .filter(store -> DistanceUtils.isWithinRadius(lat, lng, store.getLat(), store.getLng(), StoreSpatialIndex.STORE_RADIUS_IN_METERS))
+                .findFirst();
+    }
+
+    @Benchmark
+    public List<NearestStore> nearestStores() {
+        int i = next++ & (PING_COUNT - 1);
+        return storeSpatialIndex.findNearestStores(lats[i], lngs[i], NEAREST_STORE_COUNT);
+    }
+
+}
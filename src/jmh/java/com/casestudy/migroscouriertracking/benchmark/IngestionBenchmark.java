@@ -0,0 +1,59 @@
+package com.casestudy.migroscouriertracking.benchmark;
+
+import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.LogCourierLocationResponse;
+import com.casestudy.migroscouriertracking.courier.service.CourierService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark named {@link IngestionBenchmark} measuring {@link CourierService#logCourierLocation}
+ * and the batch path over a realistic ping stream in which most pings land near a store.
+ * Repositories are in-memory stubs, so the numbers cover the service logic without database latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IngestionBenchmark {
+
+    private static final int PING_COUNT = 4096;
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"10", "1000", "100000"})
+    private int storeCount;
+
+    private CourierService courierService;
+    private List<LogCourierLocationRequest> pings;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var stores = BenchmarkFixtures.stores(storeCount, 42L);
+        courierService = BenchmarkFixtures.courierService(stores, List.of());
+        pings = BenchmarkFixtures.pings(stores, PING_COUNT, 0.8, 7L);
+    }
+
+    @Benchmark
+    public boolean logCourierLocation() {
+        LogCourierLocationRequest ping = pings.get(next++ & (PING_COUNT - 1));
+        try {
+            courierService.logCourierLocation(ping);
+            return true;
+        } catch (RuntimeException rejected) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public List<LogCourierLocationResponse> logCourierLocations() {
+        int from = (next++ * BATCH_SIZE) & (PING_COUNT - 1);
+        return courierService.logCourierLocations(pings.subList(from, Math.min(from + BATCH_SIZE, PING_COUNT)));
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.casestudy.migroscouriertracking.benchmark;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.model.enums.DistanceType;
+import com.casestudy.migroscouriertracking.courier.service.CourierService;
+import com.casestudy.migroscouriertracking.courier.utils.DistanceUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark named {@link TotalDistanceBenchmark} measuring total-distance aggregation over long tracks,
+ * both through {@link CourierService#getTotalTravelDistance} and as a plain loop over the track.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TotalDistanceBenchmark {
+
+    @Param({"1000", "100000"})
+    private int trackLength;
+
+    private List<CourierEntity> track;
+    private CourierService courierService;
+    private String courierId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        track = BenchmarkFixtures.track(trackLength, 11L);
+        courierId = track.get(0).getCourierId();
+        courierService = BenchmarkFixtures.courierService(BenchmarkFixtures.stores(10, 42L), track);
+    }
+
+    @Benchmark
+    public double serviceTotalTravelDistance() {
+        return courierService.getTotalTravelDistance(courierId);
+    }
+
+    @Benchmark
+    public double trackLoop() {
+        double total = 0.0;
+        for (int i = 1; i < track.size(); i++) {
+            CourierEntity previous = track.get(i - 1);
+            CourierEntity current = track.get(i);
+            total += DistanceUtils.calculateDistance(previous.getLat(), previous.getLng(),
+                    current.getLat(), current.getLng(), DistanceType.KILOMETERS);
+        }
+        return total;
+    }
+
+}
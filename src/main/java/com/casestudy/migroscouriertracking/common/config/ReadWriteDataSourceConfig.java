@@ -0,0 +1,105 @@
+package com.casestudy.migroscouriertracking.common.config;
+
+import com.casestudy.migroscouriertracking.common.datasource.ReadWriteRoutingDataSource;
+import com.casestudy.migroscouriertracking.common.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration class named {@link ReadWriteDataSourceConfig} that splits database access between the primary,
+ * configured by {@code spring.datasource}, and a read replica, configured by {@code courier.datasource.replica}.
+ * It replaces the auto-configured data source with a {@link ReadWriteRoutingDataSource}, so read-only transactions are
+ * served by the replica while the {@link ReplicaLagMonitor} finds it within {@code courier.datasource.replica.max-lag},
+ * and everything else, including Flyway migrations, runs on the primary.
+ * It is only registered when {@code courier.datasource.replica.enabled} is true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "courier.datasource.replica.enabled", havingValue = "true")
+public class ReadWriteDataSourceConfig {
+
+    /**
+     * Creates the connection pool of the primary from the {@code spring.datasource} properties.
+     *
+     * @param dataSourceProperties the {@code spring.datasource} properties
+     * @return the connection pool of the primary
+     */
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the connection pool of the read replica, sized by the {@code courier.datasource.replica.hikari} properties.
+     *
+     * @param url      the JDBC URL of the replica
+     * @param username the user name of the replica
+     * @param password the password of the replica
+     * @return the connection pool of the replica
+     */
+    @Bean
+    @ConfigurationProperties("courier.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${courier.datasource.replica.url}") String url,
+                                              @Value("${courier.datasource.replica.username}") String username,
+                                              @Value("${courier.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    /**
+     * Creates the monitor measuring the lag of the replica.
+     *
+     * @param primaryDataSource the connection pool of the primary
+     * @param replicaDataSource the connection pool of the replica
+     * @param maxLag            the maximum staleness of the replica for reads to be served by it
+     * @return the monitor
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${courier.datasource.replica.max-lag:PT5S}") Duration maxLag) {
+        return new ReplicaLagMonitor(new JdbcTemplate(primaryDataSource), new JdbcTemplate(replicaDataSource), maxLag);
+    }
+
+    /**
+     * Creates the data source used by JPA and the repositories, which picks the primary or the replica
+     * on the first statement of each transaction.
+     *
+     * @param primaryDataSource the connection pool of the primary
+     * @param replicaDataSource the connection pool of the replica
+     * @param replicaLagMonitor the monitor measuring the lag of the replica
+     * @return the routing data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.casestudy.migroscouriertracking.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class named {@link SchedulingConfig} that enables {@code @Scheduled} jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,147 @@
+package com.casestudy.migroscouriertracking.common.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Diagnostic component named {@link VirtualThreadPinningMonitor} that listens to the JFR {@code jdk.VirtualThreadPinned}
+ * event and logs every virtual thread that blocked while pinned to its carrier for longer than the threshold.
+ * Pinning inside the JDBC driver or the connection pool is reported separately, since it is what turns
+ * a database round trip into a blocked carrier thread when requests run on virtual threads.
+ * It is only registered when {@code courier.virtual-threads.pinning-monitor.enabled} is true.
+ */
+@Component
+@ConditionalOnProperty(name = "courier.virtual-threads.pinning-monitor.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final List<String> JDBC_PACKAGES = List.of("com.mysql.", "com.zaxxer.hikari.", "java.sql.", "org.hibernate.");
+
+    private static final int LOGGED_FRAME_COUNT = 12;
+
+    private final Duration threshold;
+
+    private final AtomicLong pinnedCount = new AtomicLong();
+
+    private final AtomicLong jdbcPinnedCount = new AtomicLong();
+
+    private RecordingStream recordingStream;
+
+    /**
+     * Creates the monitor with the configured threshold.
+     *
+     * @param threshold the minimum time a virtual thread must stay pinned before it is reported
+     */
+    @Autowired
+    public VirtualThreadPinningMonitor(@Value("${courier.virtual-threads.pinning-monitor.threshold:PT0.02S}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Starts listening to pinning events once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (recordingStream != null) {
+            return;
+        }
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("Virtual thread pinning monitor started with a threshold of {} ms", threshold.toMillis());
+    }
+
+    /**
+     * Stops listening to pinning events.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+
+    /**
+     * Returns how many pinning events were reported since the monitor started.
+     *
+     * @return the number of reported pinning events
+     */
+    public long getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    /**
+     * Returns how many of the reported pinning events happened inside JDBC, the connection pool or Hibernate.
+     *
+     * @return the number of reported pinning events with a JDBC frame on the stack
+     */
+    public long getJdbcPinnedCount() {
+        return jdbcPinnedCount.get();
+    }
+
+    /**
+     * Counts and logs a pinning event together with the top of the stack it was recorded at.
+     *
+     * @param event the recorded {@code jdk.VirtualThreadPinned} event
+     */
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        List<RecordedFrame> frames = event.getStackTrace() == null
+                ? List.of()
+                : event.getStackTrace().getFrames();
+        boolean jdbc = frames.stream().anyMatch(VirtualThreadPinningMonitor::isJdbcFrame);
+        if (jdbc) {
+            jdbcPinnedCount.incrementAndGet();
+        }
+        log.warn("Virtual thread pinned for {} ms{}:\n{}", event.getDuration().toMillis(),
+                jdbc ? " inside JDBC" : "", format(event.getStackTrace()));
+    }
+
+    /**
+     * Checks whether a stack frame belongs to the JDBC driver, the connection pool or Hibernate.
+     *
+     * @param frame the stack frame to check
+     * @return true if the frame belongs to the JDBC stack; false otherwise
+     */
+    private static boolean isJdbcFrame(RecordedFrame frame) {
+        String typeName = frame.getMethod().getType().getName();
+        return JDBC_PACKAGES.stream().anyMatch(typeName::startsWith);
+    }
+
+    /**
+     * Formats the top frames of a stack trace for logging.
+     *
+     * @param stackTrace the stack trace to format, may be null
+     * @return the formatted frames, one per line
+     */
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t<no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAME_COUNT)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+
+}
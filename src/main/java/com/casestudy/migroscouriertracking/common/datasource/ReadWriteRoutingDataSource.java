@@ -0,0 +1,57 @@
+package com.casestudy.migroscouriertracking.common.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routing data source named {@link ReadWriteRoutingDataSource} that hands out connections of the read replica
+ * inside read-only transactions, {@code @Transactional(readOnly = true)}, and connections of the primary otherwise.
+ * Read-only transactions fall back to the primary whenever the {@link ReplicaLagMonitor} does not consider the replica
+ * fresh enough.
+ * The read-only flag of a transaction is only set after the transaction manager has begun it, so this data source must
+ * be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers choosing
+ * the connection to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The data sources a connection can be routed to.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    /**
+     * Creates the routing data source.
+     *
+     * @param primary           the data source of the primary, used for writes and as the fallback
+     * @param replica           the data source of the read replica
+     * @param replicaLagMonitor the monitor telling whether the replica is fresh enough
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Chooses the replica for read-only transactions while it is fresh enough, and the primary otherwise.
+     *
+     * @return the route of the connection
+     */
+    @Override
+    protected Route determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaLagMonitor.isReplicaUsable()
+                ? Route.REPLICA
+                : Route.PRIMARY;
+    }
+
+}
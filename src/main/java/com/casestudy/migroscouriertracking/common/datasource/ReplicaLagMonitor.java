@@ -0,0 +1,119 @@
+package com.casestudy.migroscouriertracking.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Class named {@link ReplicaLagMonitor} that decides whether read-only transactions may be served by the read replica.
+ * Each check reads the age of the {@code replication_heartbeat} row on the replica and then refreshes the row on the
+ * primary. Since the replica has applied every change committed before the heartbeat it last applied, its staleness
+ * is at most that age, growing by the time elapsed since the check; the replica is usable while this bound stays within
+ * the maximum lag. A replica that cannot be read, or whose heartbeat is too old, sends reads back to the primary
+ * until a later check finds it fresh again.
+ * The check interval must be shorter than the maximum lag, and the bound relies on the clocks of the primary and the
+ * replica being in sync.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final String READ_HEARTBEAT_AGE_SQL =
+            "SELECT TIMESTAMPDIFF(MICROSECOND, beat_at, UTC_TIMESTAMP(6)) FROM replication_heartbeat WHERE id = 1";
+
+    static final String REFRESH_HEARTBEAT_SQL =
+            "UPDATE replication_heartbeat SET beat_at = UTC_TIMESTAMP(6) WHERE id = 1";
+
+    private final JdbcTemplate primaryJdbcTemplate;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+
+    private final long maxLagNanos;
+
+    private final LongSupplier nanoTime;
+
+    /**
+     * The {@link System#nanoTime()} until which the replica is within the maximum lag; the replica starts unusable.
+     */
+    private volatile long usableUntil;
+
+    private volatile boolean usable;
+
+    /**
+     * Creates the monitor.
+     *
+     * @param primaryJdbcTemplate the template running against the primary
+     * @param replicaJdbcTemplate the template running against the read replica
+     * @param maxLag              the maximum staleness of the replica for reads to be served by it
+     */
+    public ReplicaLagMonitor(JdbcTemplate primaryJdbcTemplate, JdbcTemplate replicaJdbcTemplate, Duration maxLag) {
+        this(primaryJdbcTemplate, replicaJdbcTemplate, maxLag, System::nanoTime);
+    }
+
+    ReplicaLagMonitor(JdbcTemplate primaryJdbcTemplate, JdbcTemplate replicaJdbcTemplate, Duration maxLag, LongSupplier nanoTime) {
+        this.primaryJdbcTemplate = primaryJdbcTemplate;
+        this.replicaJdbcTemplate = replicaJdbcTemplate;
+        this.maxLagNanos = maxLag.toNanos();
+        this.nanoTime = nanoTime;
+        this.usableUntil = nanoTime.getAsLong();
+    }
+
+    /**
+     * Returns whether the replica is currently known to be within the maximum lag.
+     *
+     * @return true if read-only transactions may be served by the replica
+     */
+    public boolean isReplicaUsable() {
+        return nanoTime.getAsLong() - usableUntil < 0;
+    }
+
+    /**
+     * Measures the lag of the replica and refreshes the heartbeat on the primary.
+     */
+    @Scheduled(fixedDelayString = "${courier.datasource.replica.lag-check-interval:PT1S}")
+    public void check() {
+        long checkedAt = nanoTime.getAsLong();
+        Long lagMicros = readHeartbeatAgeMicros();
+        long lagNanos = lagMicros == null ? Long.MAX_VALUE : Math.max(0, lagMicros) * 1_000;
+        usableUntil = lagNanos > maxLagNanos ? checkedAt : checkedAt + (maxLagNanos - lagNanos);
+        logTransition(lagNanos <= maxLagNanos, lagMicros);
+
+        try {
+            primaryJdbcTemplate.update(REFRESH_HEARTBEAT_SQL);
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh the replication heartbeat on the primary", e);
+        }
+    }
+
+    /**
+     * Reads the age of the heartbeat last applied by the replica.
+     *
+     * @return the age in microseconds, or null if the replica cannot be read or has no heartbeat
+     */
+    private Long readHeartbeatAgeMicros() {
+        try {
+            return replicaJdbcTemplate.queryForObject(READ_HEARTBEAT_AGE_SQL, Long.class);
+        } catch (DataAccessException e) {
+            log.debug("Could not read the replication heartbeat from the replica", e);
+            return null;
+        }
+    }
+
+    private void logTransition(boolean fresh, Long lagMicros) {
+        if (fresh == usable) {
+            return;
+        }
+        usable = fresh;
+        if (fresh) {
+            log.info("Read replica is {} ms behind, serving read-only transactions from it", lagMicros / 1_000);
+        } else if (lagMicros == null) {
+            log.warn("Read replica is unreachable, serving read-only transactions from the primary");
+        } else {
+            log.warn("Read replica is {} ms behind, serving read-only transactions from the primary", lagMicros / 1_000);
+        }
+    }
+
+}
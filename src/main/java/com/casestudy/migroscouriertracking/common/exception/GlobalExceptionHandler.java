@@ -4,8 +4,10 @@ import com.casestudy.migroscouriertracking.common.model.CustomError;
 import com.casestudy.migroscouriertracking.courier.exception.*;
 import jakarta.validation.ConstraintViolationException;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -109,6 +111,24 @@ public class GlobalExceptionHandler {
 
     }
 
+    /**
+     * Handles HttpMessageNotReadableException thrown when a request body cannot be read, such as malformed JSON
+     * or a corrupt location ping frame.
+     *
+     * @param ex the HttpMessageNotReadableException thrown
+     * @return ResponseEntity containing the custom error response with the exception message
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    protected ResponseEntity<CustomError> handleHttpMessageNotReadable(final HttpMessageNotReadableException ex) {
+        CustomError customError = CustomError.builder()
+                .httpStatus(HttpStatus.BAD_REQUEST)
+                .header(CustomError.Header.BAD_REQUEST.getName())
+                .message(ex.getMessage())
+                .build();
+
+        return new ResponseEntity<>(customError, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles generic RuntimeException that may occur in the application.
      *
@@ -145,16 +165,34 @@ public class GlobalExceptionHandler {
 
     /**
      * Handles StoreFarAwayException thrown when a store is considered too far away.
+     * The nearest store and its distance are added as sub errors when they are known.
      *
      * @param ex the StoreFarAwayException thrown
      * @return ResponseEntity containing the custom error response with the exception message
      */
     @ExceptionHandler(StoreFarAwayException.class)
     protected ResponseEntity<CustomError> handleStoreFarAway(final StoreFarAwayException ex) {
+        List<CustomError.CustomSubError> subErrors = null;
+        if (ex.getNearestStoreName() != null) {
+            subErrors = List.of(
+                    CustomError.CustomSubError.builder()
+                            .message("The nearest store")
+                            .field("nearestStore")
+                            .value(ex.getNearestStoreName())
+                            .build(),
+                    CustomError.CustomSubError.builder()
+                            .message("The distance to the nearest store in meters")
+                            .field("nearestStoreDistanceInMeters")
+                            .value(Math.round(ex.getNearestStoreDistanceInMeters()))
+                            .build()
+            );
+        }
+
         CustomError customError = CustomError.builder()
                 .httpStatus(HttpStatus.BAD_REQUEST)
                 .header(CustomError.Header.API_ERROR.getName())
                 .message(ex.getMessage())
+                .subErrors(subErrors)
                 .build();
 
         return new ResponseEntity<>(customError, HttpStatus.BAD_REQUEST);
@@ -195,6 +233,23 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(customError, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles StoreAlreadyExistsException thrown when a store is created or renamed with the name of another store.
+     *
+     * @param ex the StoreAlreadyExistsException thrown
+     * @return ResponseEntity containing the custom error response with the exception message
+     */
+    @ExceptionHandler(StoreAlreadyExistsException.class)
+    protected ResponseEntity<CustomError> handleStoreAlreadyExists(final StoreAlreadyExistsException ex) {
+        CustomError customError = CustomError.builder()
+                .httpStatus(HttpStatus.CONFLICT)
+                .header(CustomError.Header.API_ERROR.getName())
+                .message(ex.getMessage())
+                .build();
+
+        return new ResponseEntity<>(customError, HttpStatus.CONFLICT);
+    }
+
     /**
      * Handles StoreReentryTooSoonException thrown when a courier attempts to reenter the
      * circumference of a store within a restricted time frame.
@@ -230,4 +285,41 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(customError, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles InvalidCursorException thrown when a pagination cursor cannot be decoded.
+     *
+     * @param ex the InvalidCursorException thrown
+     * @return ResponseEntity containing the custom error response with the exception message
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    protected ResponseEntity<CustomError> handleInvalidCursor(final InvalidCursorException ex) {
+        CustomError customError = CustomError.builder()
+                .httpStatus(HttpStatus.BAD_REQUEST)
+                .header(CustomError.Header.BAD_REQUEST.getName())
+                .message(ex.getMessage())
+                .build();
+
+        return new ResponseEntity<>(customError, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles LocationQueueFullException thrown when a courier location cannot be queued for writing.
+     * The courier is asked to retry after a second.
+     *
+     * @param ex the LocationQueueFullException thrown
+     * @return ResponseEntity containing the custom error response with the exception message
+     */
+    @ExceptionHandler(LocationQueueFullException.class)
+    protected ResponseEntity<CustomError> handleLocationQueueFull(final LocationQueueFullException ex) {
+        CustomError customError = CustomError.builder()
+                .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(CustomError.Header.PROCESS_ERROR.getName())
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(customError);
+    }
+
 }
@@ -0,0 +1,51 @@
+package com.casestudy.migroscouriertracking.courier.archive;
+
+import com.casestudy.migroscouriertracking.courier.index.StoreDictionary;
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * A location named {@link ArchivedLocation} as it is kept in a segment of the {@link CourierArchive}.
+ * Like a row of the {@code couriers} table it references its store by store key, so the store name is only resolved
+ * through the {@link StoreDictionary} when the location is read, and a rename reaches archived locations as well.
+ *
+ * @param id        the unique identifier of the location
+ * @param lat       the latitude of the location
+ * @param lng       the longitude of the location
+ * @param storeKey  the key of the store the location was logged at, or null if its store is unknown
+ * @param timestamp the timestamp of the location
+ */
+public record ArchivedLocation(String id, double lat, double lng, Integer storeKey, LocalDateTime timestamp) {
+
+    /**
+     * Creates the archived form of a location read from the table.
+     *
+     * @param entity the location read from the table
+     * @return the archived location
+     */
+    public static ArchivedLocation of(CourierEntity entity) {
+        return new ArchivedLocation(entity.getId().toString(), entity.getLat(), entity.getLng(), entity.getStoreKey(),
+                entity.getTimestamp());
+    }
+
+    /**
+     * Resolves the location of the given courier with the current store names.
+     *
+     * @param courierId       the unique identifier of the courier the location belongs to
+     * @param storeDictionary the dictionary resolving the store key to the store name
+     * @return the location with its store name
+     */
+    public Courier toCourier(String courierId, StoreDictionary storeDictionary) {
+        return Courier.builder()
+                .id(id)
+                .courierId(courierId)
+                .lat(lat)
+                .lng(lng)
+                .storeName(storeDictionary.nameOf(storeKey))
+                .timestamp(timestamp)
+                .build();
+    }
+
+}
@@ -0,0 +1,401 @@
+package com.casestudy.migroscouriertracking.courier.archive;
+
+import com.casestudy.migroscouriertracking.courier.index.StoreDictionary;
+import com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex;
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Archive tier named {@link CourierArchive} that keeps old courier locations in compressed segment files on local disk
+ * instead of the {@code couriers} table.
+ * Every courier has a directory of its own with one segment per day, {@code <courierId>/<yyyy-MM-dd>.seg},
+ * encoded by {@link CourierSegmentCodec} and read through a memory-mapped file.
+ * Segments reference stores by store key like the table does, and names are resolved through the current
+ * {@link StoreDictionary} on every read, so a renamed store shows its new name in archived locations too.
+ * A segment is replaced atomically, so readers see either the previous or the new version of a day.
+ * Locations are written here before they are deleted from the table, so a location can briefly be in both places;
+ * {@link #merge(List, List)} and {@link #notArchivedFilter(String)} drop such duplicates.
+ */
+@Component
+@Slf4j
+public class CourierArchive {
+
+    private static final Pattern COURIER_ID =
+            Pattern.compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * The order of travels within a page, by timestamp and then by ID, so a page position is unique when timestamps repeat.
+     */
+    private static final Comparator<Courier> TRAVEL_ORDER =
+            Comparator.comparing(Courier::getTimestamp).thenComparing(Courier::getId);
+
+    private final Path directory;
+    private final Supplier<StoreDictionary> storeDictionary;
+
+    /**
+     * Creates the archive over the configured directory, which is created on the first write.
+     *
+     * @param directory         the directory the segments are kept in
+     * @param storeSpatialIndex the index providing the dictionary the store keys are resolved with
+     */
+    @Autowired
+    public CourierArchive(@Value("${courier.archive.directory:archive}") String directory, StoreSpatialIndex storeSpatialIndex) {
+        this(directory, storeSpatialIndex::dictionary);
+    }
+
+    CourierArchive(String directory, Supplier<StoreDictionary> storeDictionary) {
+        this.directory = Path.of(directory);
+        this.storeDictionary = storeDictionary;
+    }
+
+    /**
+     * Checks whether a courier has archived locations.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return true if at least one segment exists for the courier; false otherwise
+     */
+    public boolean existsByCourierId(String courierId) {
+        return !segmentsOf(courierId).isEmpty();
+    }
+
+    /**
+     * Reads all archived locations of a courier.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return the archived locations in timestamp order, or an empty list if the courier has none
+     */
+    public List<Courier> findByCourierId(String courierId) {
+        List<Path> segments = segmentsOf(courierId);
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        List<Courier> travels = new ArrayList<>();
+        segments.forEach(segment -> travels.addAll(read(courierId, segment)));
+        return travels;
+    }
+
+    /**
+     * Passes every archived location of a courier to the given consumer in timestamp order,
+     * reading one segment at a time instead of building the full list in memory.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param consumer  the consumer receiving each archived location
+     */
+    public void forEachByCourierId(String courierId, Consumer<Courier> consumer) {
+        segmentsOf(courierId).forEach(segment -> read(courierId, segment).forEach(consumer));
+    }
+
+    /**
+     * Reads the page of archived locations of a courier that follows the given position, ordered by timestamp and
+     * then by ID, only opening the segments from the day of the position onwards.
+     *
+     * @param courierId      the unique identifier of the courier
+     * @param afterTimestamp the timestamp of the last location of the previous page, or null for the first page
+     * @param afterId        the ID of the last location of the previous page, or null for the first page
+     * @param limit          the maximum number of locations in the page
+     * @return the archived locations following the position
+     */
+    public List<Courier> findPageByCourierIdAfter(String courierId, LocalDateTime afterTimestamp, String afterId, int limit) {
+        String firstSegment = afterTimestamp == null ? null : afterTimestamp.toLocalDate() + SEGMENT_SUFFIX;
+        List<Courier> page = new ArrayList<>();
+        for (Path segment : segmentsOf(courierId)) {
+            if (firstSegment != null && segment.getFileName().toString().compareTo(firstSegment) < 0) {
+                continue;
+            }
+            List<Courier> travels = new ArrayList<>(read(courierId, segment));
+            travels.sort(TRAVEL_ORDER);
+            for (Courier travel : travels) {
+                if (afterTimestamp != null && !isAfter(travel, afterTimestamp, afterId)) {
+                    continue;
+                }
+                page.add(travel);
+                if (page.size() == limit) {
+                    return page;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Returns a filter dropping locations read from the table that are archived as well, as happens while the
+     * {@link com.casestudy.migroscouriertracking.courier.job.CourierArchiveJob} moves them.
+     * Only locations of archived days are looked up, loading the IDs of one day at a time, so locations are expected
+     * in timestamp order.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return the filter accepting the locations that are not archived
+     */
+    public Predicate<Courier> notArchivedFilter(String courierId) {
+        List<Path> segments = segmentsOf(courierId);
+        if (segments.isEmpty()) {
+            return travel -> true;
+        }
+        String lastSegment = segments.get(segments.size() - 1).getFileName().toString();
+        return new Predicate<>() {
+
+            private LocalDate day;
+
+            private Set<String> archivedIds = Set.of();
+
+            @Override
+            public boolean test(Courier travel) {
+                LocalDate travelDay = travel.getTimestamp().toLocalDate();
+                if ((travelDay + SEGMENT_SUFFIX).compareTo(lastSegment) > 0) {
+                    return true;
+                }
+                if (!travelDay.equals(day)) {
+                    day = travelDay;
+                    Path segment = directory.resolve(courierId).resolve(travelDay + SEGMENT_SUFFIX);
+                    archivedIds = Files.exists(segment)
+                            ? readLocations(segment).stream().map(ArchivedLocation::id).collect(Collectors.toSet())
+                            : Set.of();
+                }
+                return !archivedIds.contains(travel.getId());
+            }
+
+        };
+    }
+
+    /**
+     * Reads the archived locations of a courier logged within the range [start, end), only opening the segments of those days.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param start     the inclusive start of the range
+     * @param end       the exclusive end of the range
+     * @return the archived locations within the range in timestamp order
+     */
+    public List<Courier> findByCourierIdAndTimestampBetween(String courierId, LocalDateTime start, LocalDateTime end) {
+        String firstSegment = start.toLocalDate() + SEGMENT_SUFFIX;
+        String lastSegment = end.toLocalDate() + SEGMENT_SUFFIX;
+        List<Courier> travels = new ArrayList<>();
+        for (Path segment : segmentsOf(courierId)) {
+            String name = segment.getFileName().toString();
+            if (name.compareTo(firstSegment) >= 0 && name.compareTo(lastSegment) <= 0) {
+                read(courierId, segment).stream()
+                        .filter(travel -> !travel.getTimestamp().isBefore(start) && travel.getTimestamp().isBefore(end))
+                        .forEach(travels::add);
+            }
+        }
+        return travels;
+    }
+
+    /**
+     * Reads the latest archived location of a courier logged before the given time, opening segments from that day backwards.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param before    the exclusive upper bound of the timestamp
+     * @return the latest earlier archived location, or an empty Optional if there is none
+     */
+    public Optional<Courier> findLastBefore(String courierId, LocalDateTime before) {
+        String lastSegment = before.toLocalDate() + SEGMENT_SUFFIX;
+        List<Path> segments = segmentsOf(courierId);
+        for (int index = segments.size() - 1; index >= 0; index--) {
+            if (segments.get(index).getFileName().toString().compareTo(lastSegment) > 0) {
+                continue;
+            }
+            List<Courier> travels = read(courierId, segments.get(index));
+            for (int travel = travels.size() - 1; travel >= 0; travel--) {
+                if (travels.get(travel).getTimestamp().isBefore(before)) {
+                    return Optional.of(travels.get(travel));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads the earliest archived location of a courier logged after the given time, opening segments from that day onwards.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param after     the exclusive lower bound of the timestamp
+     * @return the earliest later archived location, or an empty Optional if there is none
+     */
+    public Optional<Courier> findFirstAfter(String courierId, LocalDateTime after) {
+        String firstSegment = after.toLocalDate() + SEGMENT_SUFFIX;
+        for (Path segment : segmentsOf(courierId)) {
+            if (segment.getFileName().toString().compareTo(firstSegment) < 0) {
+                continue;
+            }
+            for (Courier travel : read(courierId, segment)) {
+                if (travel.getTimestamp().isAfter(after)) {
+                    return Optional.of(travel);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Adds locations of a courier to its daily segments, merging them with the locations already archived for those days.
+     * Locations that are already archived are kept once.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param travels   the locations to archive, as read from the table
+     * @throws IllegalArgumentException if the courier ID is not a UUID
+     * @throws UncheckedIOException if a segment cannot be written
+     */
+    public void append(String courierId, List<CourierEntity> travels) {
+        if (!COURIER_ID.matcher(courierId).matches()) {
+            throw new IllegalArgumentException("Courier ID " + courierId + " is not a UUID");
+        }
+        if (travels.isEmpty()) {
+            return;
+        }
+
+        Map<LocalDate, List<ArchivedLocation>> travelsByDay = travels.stream()
+                .map(ArchivedLocation::of)
+                .collect(Collectors.groupingBy(travel -> travel.timestamp().toLocalDate(), TreeMap::new, Collectors.toList()));
+        try {
+            Path courierDirectory = Files.createDirectories(directory.resolve(courierId));
+            for (Map.Entry<LocalDate, List<ArchivedLocation>> day : travelsByDay.entrySet()) {
+                Path segment = courierDirectory.resolve(day.getKey() + SEGMENT_SUFFIX);
+                List<ArchivedLocation> archived = Files.exists(segment) ? readLocations(segment) : List.of();
+                Set<String> archivedIds = archived.stream().map(ArchivedLocation::id).collect(Collectors.toSet());
+                List<ArchivedLocation> merged = new ArrayList<>(archived);
+                day.getValue().stream()
+                        .filter(travel -> !archivedIds.contains(travel.id()))
+                        .forEach(merged::add);
+                write(segment, CourierSegmentCodec.encode(merged));
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not archive locations of courier " + courierId, exception);
+        }
+    }
+
+    /**
+     * Appends live locations to archived ones, skipping live locations whose ID is already archived.
+     *
+     * @param archived the archived locations
+     * @param live     the locations read from the table
+     * @return the archived locations followed by the live locations that are not archived
+     */
+    public static List<Courier> merge(List<Courier> archived, List<Courier> live) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Set<String> archivedIds = new HashSet<>(archived.size() * 2);
+        archived.forEach(travel -> archivedIds.add(travel.getId()));
+
+        List<Courier> merged = new ArrayList<>(archived.size() + live.size());
+        merged.addAll(archived);
+        live.stream()
+                .filter(travel -> !archivedIds.contains(travel.getId()))
+                .forEach(merged::add);
+        return merged;
+    }
+
+    private static boolean isAfter(Courier travel, LocalDateTime timestamp, String id) {
+        int comparison = travel.getTimestamp().compareTo(timestamp);
+        return comparison > 0 || comparison == 0 && travel.getId().compareTo(id) > 0;
+    }
+
+    /**
+     * Lists the segments of a courier in day order.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return the segment files, or an empty list if the courier has none or the ID is not a UUID
+     */
+    private List<Path> segmentsOf(String courierId) {
+        if (courierId == null || !COURIER_ID.matcher(courierId).matches()) {
+            return List.of();
+        }
+        Path courierDirectory = directory.resolve(courierId);
+        if (!Files.isDirectory(courierDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(courierDirectory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.comparing(file -> file.getFileName().toString()))
+                    .toList();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not list archived segments of courier " + courierId, exception);
+        }
+    }
+
+    /**
+     * Decodes a segment and resolves the store names of its locations through the current dictionary.
+     *
+     * @param courierId the unique identifier of the courier the segment belongs to
+     * @param segment   the segment file
+     * @return the locations of the segment
+     */
+    private List<Courier> read(String courierId, Path segment) {
+        List<ArchivedLocation> travels = readLocations(segment);
+        StoreDictionary dictionary = storeDictionary.get();
+        List<Courier> resolved = new ArrayList<>(travels.size());
+        travels.forEach(travel -> resolved.add(travel.toCourier(courierId, dictionary)));
+        return resolved;
+    }
+
+    /**
+     * Decodes a segment through a read-only memory mapping of its file.
+     *
+     * @param segment the segment file
+     * @return the locations of the segment
+     */
+    private List<ArchivedLocation> readLocations(Path segment) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return CourierSegmentCodec.decode(buffer);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not read archived segment " + segment, exception);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalStateException("Archived segment " + segment + " is corrupt", exception);
+        }
+    }
+
+    /**
+     * Writes a segment to a temporary file, forces it to disk and moves it over the previous version.
+     *
+     * @param segment the segment file
+     * @param bytes   the encoded segment
+     * @throws IOException if the segment cannot be written
+     */
+    private static void write(Path segment, byte[] bytes) throws IOException {
+        Path temporary = segment.resolveSibling(segment.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Wrote archived segment {} of {} bytes", segment, bytes.length);
+    }
+
+}
@@ -0,0 +1,296 @@
+package com.casestudy.migroscouriertracking.courier.archive;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Utility class named {@link CourierSegmentCodec} that encodes the {@link ArchivedLocation archived locations} of one
+ * courier into a compact columnar segment and decodes it back.
+ * A segment stores its locations in timestamp order, one column after another:
+ * <ul>
+ *     <li>timestamps as microseconds, each one a varint delta from the previous one,</li>
+ *     <li>latitudes and longitudes scaled to integers of {@value #COORDINATE_SCALE} units per degree,
+ *     each one a zig-zag varint delta from the previous one,</li>
+ *     <li>store keys as varint indexes into a dictionary of the keys written once per segment,</li>
+ *     <li>IDs as 16 raw bytes when they are all UUIDs, or as length-prefixed strings otherwise.</li>
+ * </ul>
+ * Coordinates keep seven decimals, about a centimeter, which is the precision the pings are logged with.
+ */
+@UtilityClass
+public class CourierSegmentCodec {
+
+    static final int MAGIC = 0x43534547;
+
+    static final byte VERSION = 1;
+
+    static final double COORDINATE_SCALE = 1e7;
+
+    private static final byte UUID_IDS = 0;
+
+    private static final byte STRING_IDS = 1;
+
+    /**
+     * Encodes the locations of a courier into a segment.
+     *
+     * @param travels the locations to encode; they are written in timestamp order
+     * @return the encoded segment
+     */
+    public byte[] encode(List<ArchivedLocation> travels) {
+        List<ArchivedLocation> ordered = travels.stream()
+                .sorted(Comparator.comparing(ArchivedLocation::timestamp))
+                .toList();
+        SegmentOutput output = new SegmentOutput(32 + ordered.size() * 24);
+
+        output.writeInt(MAGIC);
+        output.write(VERSION);
+        output.writeVarLong(ordered.size());
+        if (ordered.isEmpty()) {
+            return output.toByteArray();
+        }
+
+        Map<Integer, Integer> dictionary = new HashMap<>();
+        List<Integer> storeKeys = new ArrayList<>();
+        for (ArchivedLocation travel : ordered) {
+            dictionary.computeIfAbsent(travel.storeKey(), storeKey -> {
+                storeKeys.add(storeKey);
+                return storeKeys.size() - 1;
+            });
+        }
+        output.writeVarLong(storeKeys.size());
+        // Shifted by one, so zero stands for an unknown store
+        storeKeys.forEach(storeKey -> output.writeVarLong(storeKey == null ? 0 : storeKey + 1L));
+
+        long previousMicros = toMicros(ordered.get(0).timestamp());
+        output.writeLong(previousMicros);
+        for (ArchivedLocation travel : ordered) {
+            long micros = toMicros(travel.timestamp());
+            output.writeVarLong(micros - previousMicros);
+            previousMicros = micros;
+        }
+
+        writeCoordinates(output, ordered.stream().mapToDouble(ArchivedLocation::lat).toArray());
+        writeCoordinates(output, ordered.stream().mapToDouble(ArchivedLocation::lng).toArray());
+
+        for (ArchivedLocation travel : ordered) {
+            output.writeVarLong(dictionary.get(travel.storeKey()));
+        }
+
+        List<UUID> uuids = toUuids(ordered);
+        if (uuids != null) {
+            output.write(UUID_IDS);
+            for (UUID uuid : uuids) {
+                output.writeLong(uuid.getMostSignificantBits());
+                output.writeLong(uuid.getLeastSignificantBits());
+            }
+        } else {
+            output.write(STRING_IDS);
+            ordered.forEach(travel -> output.writeString(travel.id()));
+        }
+
+        return output.toByteArray();
+    }
+
+    /**
+     * Decodes a segment.
+     *
+     * @param buffer the segment, read from its position to its limit
+     * @return the locations of the segment in timestamp order
+     * @throws IllegalArgumentException if the buffer does not hold a valid segment
+     */
+    public List<ArchivedLocation> decode(ByteBuffer buffer) {
+        try {
+            return decodeSegment(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ArithmeticException | DateTimeException exception) {
+            throw new IllegalArgumentException("Courier segment is truncated or corrupt", exception);
+        }
+    }
+
+    private List<ArchivedLocation> decodeSegment(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a courier segment");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported courier segment version " + version);
+        }
+        int count = readLength(buffer);
+        if (count == 0) {
+            return List.of();
+        }
+
+        int dictionarySize = readLength(buffer);
+        Integer[] storeKeys = new Integer[dictionarySize];
+        for (int index = 0; index < dictionarySize; index++) {
+            storeKeys[index] = readStoreKey(buffer);
+        }
+
+        long[] micros = new long[count];
+        long previousMicros = buffer.getLong();
+        for (int index = 0; index < count; index++) {
+            previousMicros = Math.addExact(previousMicros, readVarLong(buffer));
+            micros[index] = previousMicros;
+        }
+
+        double[] lats = readCoordinates(buffer, count);
+        double[] lngs = readCoordinates(buffer, count);
+
+        Integer[] stores = new Integer[count];
+        for (int index = 0; index < count; index++) {
+            stores[index] = storeKeys[Math.toIntExact(readVarLong(buffer))];
+        }
+
+        String[] ids = new String[count];
+        byte idKind = buffer.get();
+        for (int index = 0; index < count; index++) {
+            ids[index] = switch (idKind) {
+                case UUID_IDS -> new UUID(buffer.getLong(), buffer.getLong()).toString();
+                case STRING_IDS -> readString(buffer);
+                default -> throw new IllegalArgumentException("Unknown ID encoding " + idKind);
+            };
+        }
+
+        List<ArchivedLocation> travels = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            travels.add(new ArchivedLocation(ids[index], lats[index], lngs[index], stores[index], fromMicros(micros[index])));
+        }
+        return travels;
+    }
+
+    private static void writeCoordinates(SegmentOutput output, double[] coordinates) {
+        long previous = 0;
+        for (double coordinate : coordinates) {
+            long scaled = Math.round(coordinate * COORDINATE_SCALE);
+            output.writeVarLong(zigZag(scaled - previous));
+            previous = scaled;
+        }
+    }
+
+    private static double[] readCoordinates(ByteBuffer buffer, int count) {
+        double[] coordinates = new double[count];
+        long previous = 0;
+        for (int index = 0; index < count; index++) {
+            previous += unZigZag(readVarLong(buffer));
+            coordinates[index] = previous / COORDINATE_SCALE;
+        }
+        return coordinates;
+    }
+
+    private static List<UUID> toUuids(List<ArchivedLocation> travels) {
+        List<UUID> uuids = new ArrayList<>(travels.size());
+        for (ArchivedLocation travel : travels) {
+            try {
+                UUID uuid = UUID.fromString(travel.id());
+                if (!uuid.toString().equals(travel.id())) {
+                    return null;
+                }
+                uuids.add(uuid);
+            } catch (IllegalArgumentException | NullPointerException exception) {
+                return null;
+            }
+        }
+        return uuids;
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), timestamp);
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+
+    /**
+     * Reads a count or length, which can never exceed the bytes left in the segment.
+     */
+    private static int readLength(ByteBuffer buffer) {
+        long length = readVarLong(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Length " + length + " exceeds the segment");
+        }
+        return (int) length;
+    }
+
+    private static Integer readStoreKey(ByteBuffer buffer) {
+        long shifted = readVarLong(buffer);
+        return shifted == 0 ? null : Math.toIntExact(shifted - 1);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[readLength(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Growable byte output with the primitive writes a segment is made of.
+     */
+    private static final class SegmentOutput extends ByteArrayOutputStream {
+
+        private SegmentOutput(int initialSize) {
+            super(initialSize);
+        }
+
+        private void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        private void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+    }
+
+}
@@ -0,0 +1,364 @@
+package com.casestudy.migroscouriertracking.courier.cache;
+
+import com.casestudy.migroscouriertracking.courier.index.StoreChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache named {@link CourierQueryResultCache} holding the results of the travel queries dashboards
+ * poll for the same couriers, keyed by courier and {@link Query}, so a repeated poll skips the database query and the
+ * mapping of its rows.
+ * Like the {@link LastVisitCache}, keys are spread over {@value #STRIPE_COUNT} independently locked LRU stripes, with
+ * every query of a courier in the same stripe, and entries expire after a configured time.
+ * Saving a location of a courier invalidates the results of that courier when the saving transaction completes.
+ * A result still being loaded when its courier is invalidated is not stored, so a query that read the rows before the
+ * new location was committed cannot put a stale result back. The time to live bounds the staleness of results the
+ * invalidation cannot see, such as ones read from a lagging read replica or locations saved by another instance.
+ * Hits, misses, puts, evictions and invalidations are published as the {@code cache.*} meters of the
+ * {@value #CACHE_NAME} cache.
+ */
+@Component
+public class CourierQueryResultCache implements MeterBinder {
+
+    static final int STRIPE_COUNT = 64;
+
+    static final String CACHE_NAME = "courier.queries";
+
+    /**
+     * The queries whose results are cached.
+     */
+    public enum Query {
+        PAST_TRAVELS,
+        TOTAL_DISTANCE
+    }
+
+    private final boolean enabled;
+    private final Stripe[] stripes;
+    private final long ttlInNanos;
+    private final LongSupplier nanoTime;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    /**
+     * Creates the cache with the configured bounds.
+     *
+     * @param enabled    whether results are cached at all
+     * @param maxEntries the maximum number of results kept across all stripes
+     * @param ttl        how long a result is kept after it was loaded
+     */
+    @Autowired
+    public CourierQueryResultCache(@Value("${courier.query-cache.enabled:true}") boolean enabled,
+                                   @Value("${courier.query-cache.max-entries:10000}") int maxEntries,
+                                   @Value("${courier.query-cache.ttl:PT30S}") Duration ttl) {
+        this(enabled, maxEntries, ttl, System::nanoTime);
+    }
+
+    CourierQueryResultCache(boolean enabled, int maxEntries, Duration ttl, LongSupplier nanoTime) {
+        this.enabled = enabled;
+        this.ttlInNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+        int maxEntriesPerStripe = Math.max(1, (maxEntries + STRIPE_COUNT - 1) / STRIPE_COUNT);
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(maxEntriesPerStripe, evictionCount);
+        }
+    }
+
+    /**
+     * Returns the cached result of a query of a courier, loading and caching it on a miss.
+     * The loader runs outside the lock of the stripe; an exception it throws is passed on and nothing is cached.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param query     the query the result belongs to
+     * @param loader    the function running the query, which must return an immutable result
+     * @param <T>       the type of the result
+     * @return the cached or loaded result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String courierId, Query query, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Key key = new Key(courierId, query);
+        Stripe stripe = stripeOf(courierId);
+        Entry loading = new Entry(null, 0L);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null && entry.value() != null) {
+                if (entry.expiresAt() - nanoTime.getAsLong() >= 0) {
+                    hitCount.increment();
+                    return (T) entry.value();
+                }
+                evictionCount.increment();
+            }
+            missCount.increment();
+            // A placeholder, so an invalidation while the result is loading can be detected by its removal
+            stripe.entries.put(key, loading);
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException exception) {
+            replaceIfLoading(stripe, key, loading, null);
+            throw exception;
+        }
+        replaceIfLoading(stripe, key, loading, value);
+        return value;
+    }
+
+    /**
+     * Invalidates every cached result of a courier whose locations have changed.
+     * Within a transaction the results are invalidated both immediately and once the transaction completes,
+     * so a result loaded before the change is committed does not outlive it.
+     *
+     * @param courierId the unique identifier of the courier
+     */
+    public void invalidate(String courierId) {
+        if (!enabled) {
+            return;
+        }
+        remove(courierId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(courierId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Invalidates every cached result.
+     */
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                invalidationCount.add(stripe.entries.size());
+                stripe.entries.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Invalidates every cached result once a store has changed, since cached travels carry the store names.
+     * It runs after the {@link com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex}, whose listener has
+     * the highest precedence, has rebuilt its store dictionary, so results loaded after the invalidation carry the new names.
+     *
+     * @param event the {@link StoreChangedEvent} published for the changed store
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onStoreChanged(StoreChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Returns the number of cached results, including expired ones and ones still loading.
+     *
+     * @return the number of cached results
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the hit, miss, put, eviction and invalidation counts since the cache was created.
+     *
+     * @return the statistics of the cache
+     */
+    public Stats stats() {
+        return new Stats(hitCount.sum(), missCount.sum(), putCount.sum(), evictionCount.sum(), invalidationCount.sum());
+    }
+
+    /**
+     * Publishes the statistics of the cache as the standard {@code cache.*} meters.
+     *
+     * @param meterRegistry the registry the meters are published to
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        new Meters(this).bindTo(meterRegistry);
+    }
+
+    private void replaceIfLoading(Stripe stripe, Key key, Entry loading, Object value) {
+        stripe.lock.lock();
+        try {
+            if (stripe.entries.get(key) != loading) {
+                return;
+            }
+            if (value == null) {
+                stripe.entries.remove(key);
+            } else {
+                stripe.entries.put(key, new Entry(value, nanoTime.getAsLong() + ttlInNanos));
+                putCount.increment();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void remove(String courierId) {
+        Stripe stripe = stripeOf(courierId);
+        stripe.lock.lock();
+        try {
+            for (Query query : Query.values()) {
+                if (stripe.entries.remove(new Key(courierId, query)) != null) {
+                    invalidationCount.increment();
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeOf(String courierId) {
+        int hash = courierId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+    }
+
+    /**
+     * The statistics of the cache.
+     *
+     * @param hitCount          the number of lookups answered from the cache
+     * @param missCount         the number of lookups that ran the query
+     * @param putCount          the number of loaded results stored
+     * @param evictionCount     the number of results dropped because the cache was full or they expired
+     * @param invalidationCount the number of results dropped because the locations of their courier changed
+     */
+    public record Stats(long hitCount, long missCount, long putCount, long evictionCount, long invalidationCount) {
+    }
+
+    /**
+     * The key of a cached result.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param query     the query the result belongs to
+     */
+    private record Key(String courierId, Query query) {
+    }
+
+    /**
+     * A cached result and the time it expires, in {@link System#nanoTime()} units.
+     * An entry without a value is the placeholder of a result still loading.
+     *
+     * @param value     the result, or null while it is loading
+     * @param expiresAt the time the entry expires
+     */
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    /**
+     * A lock together with the access-ordered map it guards, dropping its least recently used entry when full.
+     */
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Map<Key, Entry> entries;
+
+        private Stripe(int maxEntries, LongAdder evictionCount) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    if (size() > maxEntries) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+    }
+
+    /**
+     * The {@link CacheMeterBinder} publishing the statistics of the cache.
+     */
+    private static final class Meters extends CacheMeterBinder<CourierQueryResultCache> {
+
+        private Meters(CourierQueryResultCache cache) {
+            super(cache, CACHE_NAME, Tags.empty());
+        }
+
+        @Override
+        protected Long size() {
+            CourierQueryResultCache cache = getCache();
+            return cache == null ? null : (long) cache.size();
+        }
+
+        @Override
+        protected long hitCount() {
+            CourierQueryResultCache cache = getCache();
+            return cache == null ? 0L : cache.hitCount.sum();
+        }
+
+        @Override
+        protected Long missCount() {
+            CourierQueryResultCache cache = getCache();
+            return cache == null ? null : cache.missCount.sum();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            CourierQueryResultCache cache = getCache();
+            return cache == null ? null : cache.evictionCount.sum();
+        }
+
+        @Override
+        protected long putCount() {
+            CourierQueryResultCache cache = getCache();
+            return cache == null ? 0L : cache.putCount.sum();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+            FunctionCounter.builder("cache.invalidations", getCache(), cache -> cache.invalidationCount.sum())
+                    .tags(getTagsWithCacheName())
+                    .description("The number of cached results dropped because the locations of their courier changed")
+                    .register(registry);
+        }
+
+    }
+
+}
@@ -0,0 +1,333 @@
+package com.casestudy.migroscouriertracking.courier.cache;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierStoreVisitEntity;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierStoreVisitRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache named {@link LastVisitCache} holding the last accepted timestamp per courier and store,
+ * used to enforce the one-minute store re-entry rule.
+ * The database is the authority: a ping is decided while the {@link CourierStoreVisitEntity} row of its courier and
+ * store is locked, and the newest visit is recorded in that row in the same transaction, so two concurrent pings of the
+ * same courier at the same store cannot both pass, even on different instances.
+ * The cache only serves as a fast negative check: a ping right after a cached visit is rejected without touching
+ * the database, while every other ping is decided on the locked row.
+ * Keys are spread over {@value #STRIPE_COUNT} independently locked stripes, each a small LRU map,
+ * so threads logging different couriers rarely contend. The database is consulted outside the lock of the stripe,
+ * and only holds up other pings of the same courier at the same store on this instance, which wait for its outcome
+ * and are usually rejected from the cache instead of waiting for the row lock.
+ * Entries expire a little after the re-entry window and are evicted when the transaction that recorded them
+ * does not commit.
+ */
+@Component
+public class LastVisitCache {
+
+    /**
+     * The minimum time between two accepted visits of a courier to the same store.
+     */
+    public static final Duration RE_ENTRY_WINDOW = Duration.ofMinutes(1);
+
+    static final int STRIPE_COUNT = 64;
+
+    private final CourierRepository courierRepository;
+    private final CourierStoreVisitRepository courierStoreVisitRepository;
+    private final Stripe[] stripes;
+    private final long ttlInNanos;
+    private final LongSupplier nanoTime;
+
+    /**
+     * Creates the cache with the configured bounds.
+     *
+     * @param courierRepository           the repository the stored visits are read from
+     * @param courierStoreVisitRepository the repository of the visit rows pings are decided on
+     * @param maxEntries                  the maximum number of entries kept across all stripes
+     * @param ttl                         how long an entry is kept after it was last written
+     */
+    @Autowired
+    public LastVisitCache(CourierRepository courierRepository,
+                          CourierStoreVisitRepository courierStoreVisitRepository,
+                          @Value("${courier.last-visit-cache.max-entries:100000}") int maxEntries,
+                          @Value("${courier.last-visit-cache.ttl:PT70S}") Duration ttl) {
+        this(courierRepository, courierStoreVisitRepository, maxEntries, ttl, System::nanoTime);
+    }
+
+    LastVisitCache(CourierRepository courierRepository, CourierStoreVisitRepository courierStoreVisitRepository,
+                   int maxEntries, Duration ttl, LongSupplier nanoTime) {
+        this.courierRepository = courierRepository;
+        this.courierStoreVisitRepository = courierStoreVisitRepository;
+        this.ttlInNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+        int maxEntriesPerStripe = Math.max(1, (maxEntries + STRIPE_COUNT - 1) / STRIPE_COUNT);
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(maxEntriesPerStripe);
+        }
+    }
+
+    /**
+     * Records a visit of a courier to a store unless the courier already visited the store
+     * within the {@link #RE_ENTRY_WINDOW} before the given timestamp.
+     * Must be called in a transaction, which holds the lock on the visit row of the courier and store until it ends.
+     * If the surrounding transaction does not commit, the recorded visit is evicted again.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param storeKey  the key of the store
+     * @param timestamp the timestamp of the visit
+     * @return true if the visit was recorded; false if it is a re-entry that came too soon
+     */
+    public boolean tryRecordVisit(String courierId, int storeKey, LocalDateTime timestamp) {
+        String key = keyOf(courierId, storeKey);
+        Stripe stripe = stripeOf(key);
+
+        while (true) {
+            Loading pending;
+            Loading claim = null;
+            stripe.lock.lock();
+            try {
+                pending = stripe.loading.get(key);
+                if (pending == null) {
+                    Entry entry = liveEntry(stripe, key);
+                    if (entry != null && !entry.newestVisit().isAfter(timestamp)
+                            && lastVisitInWindow(entry.newestVisit(), timestamp) != null) {
+                        // A cached visit right before the ping rejects it without asking the database
+                        return false;
+                    }
+                    claim = new Loading();
+                    stripe.loading.put(key, claim);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+
+            if (pending != null) {
+                // Another ping of the courier at the store is being decided; check again once its outcome is cached
+                pending.done.join();
+                continue;
+            }
+            return decideAndRecord(stripe, key, courierId, storeKey, timestamp, claim);
+        }
+    }
+
+    /**
+     * Forgets a visit of a courier to a store whose location was never stored: the visit row is deleted if it still
+     * names the visit, so the next ping is decided from the stored locations, and the cached visit is removed.
+     * The row is deleted first, so a ping deciding on it meanwhile cannot cache the visit again after it was removed.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param storeKey  the key of the store
+     * @param timestamp the timestamp of the visit that was never stored
+     */
+    public void evict(String courierId, int storeKey, LocalDateTime timestamp) {
+        courierStoreVisitRepository.deleteByCourierIdAndStoreKeyAndLastVisit(courierId, storeKey, timestamp);
+        evict(keyOf(courierId, storeKey));
+    }
+
+    /**
+     * Returns the number of cached entries, including expired entries that have not been cleaned up yet.
+     *
+     * @return the number of cached entries
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Decides a ping on the locked visit row of its courier and store, outside the lock of the stripe, records the
+     * newest visit in the row and caches it while the key is claimed by the given {@link Loading}.
+     * A row without a visit, created by this ping or by a rolled back or dropped one, falls back to the stored locations.
+     *
+     * @return whether the visit was recorded
+     */
+    private boolean decideAndRecord(Stripe stripe, String key, String courierId, int storeKey,
+                                    LocalDateTime timestamp, Loading claim) {
+        try {
+            courierStoreVisitRepository.insertIfAbsent(courierId, storeKey);
+            CourierStoreVisitEntity visit = courierStoreVisitRepository.findByCourierIdAndStoreKeyForUpdate(courierId, storeKey)
+                    .orElseThrow(() -> new IllegalStateException("Visit of courier " + courierId + " at store " + storeKey + " was not created"));
+            LocalDateTime newestVisit = visit.getLastVisit() != null
+                    ? visit.getLastVisit()
+                    : courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, storeKey).orElse(null);
+
+            LocalDateTime lastVisitInWindow;
+            if (newestVisit == null || !newestVisit.isAfter(timestamp)) {
+                lastVisitInWindow = lastVisitInWindow(newestVisit, timestamp);
+            } else {
+                // The ping is older than the newest known visit, so look for a visit right before it
+                lastVisitInWindow = courierRepository.findLastTimestampByCourierIdAndStoreKeyAndTimestampBetween(
+                        courierId, storeKey, timestamp.minus(RE_ENTRY_WINDOW), timestamp).orElse(null);
+            }
+
+            boolean accepted = lastVisitInWindow == null;
+            LocalDateTime newestAfterVisit = accepted && (newestVisit == null || timestamp.isAfter(newestVisit))
+                    ? timestamp
+                    : newestVisit;
+            if (newestAfterVisit != null && !newestAfterVisit.equals(visit.getLastVisit())) {
+                // Written with the transaction, which releases the row lock once it ends
+                visit.setLastVisit(newestAfterVisit);
+            }
+
+            stripe.lock.lock();
+            try {
+                stripe.loading.remove(key);
+                record(stripe, key, newestAfterVisit, accepted);
+                return accepted;
+            } finally {
+                stripe.lock.unlock();
+            }
+        } catch (RuntimeException exception) {
+            stripe.lock.lock();
+            try {
+                stripe.loading.remove(key);
+            } finally {
+                stripe.lock.unlock();
+            }
+            throw exception;
+        } finally {
+            claim.done.complete(null);
+        }
+    }
+
+    /**
+     * Caches the newest visit after deciding a ping. Must be called holding the lock of the stripe.
+     */
+    private void record(Stripe stripe, String key, LocalDateTime newestVisit, boolean accepted) {
+        if (newestVisit != null) {
+            stripe.entries.put(key, new Entry(newestVisit, nanoTime.getAsLong() + ttlInNanos));
+        }
+
+        if (accepted) {
+            evictOnRollback(key);
+        }
+    }
+
+    /**
+     * Returns the cached entry of a key unless it has expired. Must be called holding the lock of the stripe.
+     */
+    private Entry liveEntry(Stripe stripe, String key) {
+        Entry entry = stripe.entries.get(key);
+        if (entry != null && entry.expiresAt() - nanoTime.getAsLong() < 0) {
+            stripe.entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the newest visit if it lies within the re-entry window before a ping that is not older than it.
+     */
+    private static LocalDateTime lastVisitInWindow(LocalDateTime newestVisit, LocalDateTime timestamp) {
+        return newestVisit != null && !newestVisit.isBefore(timestamp.minus(RE_ENTRY_WINDOW)) ? newestVisit : null;
+    }
+
+    private void evict(String key) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts the given key once the current transaction completes without committing.
+     * Outside a transaction the visit is kept as recorded.
+     *
+     * @param key the key of the recorded visit
+     */
+    private void evictOnRollback(String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(key);
+                }
+            }
+        });
+    }
+
+    private Stripe stripeOf(String key) {
+        return stripes[stripeIndexOf(key)];
+    }
+
+    static int stripeIndexOf(String courierId, int storeKey) {
+        return stripeIndexOf(keyOf(courierId, storeKey));
+    }
+
+    private static int stripeIndexOf(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1);
+    }
+
+    private static String keyOf(String courierId, int storeKey) {
+        return courierId + '|' + storeKey;
+    }
+
+    /**
+     * The newest accepted visit of a courier to a store and the time the entry expires, in {@link System#nanoTime()} units.
+     *
+     * @param newestVisit the newest accepted visit timestamp
+     * @param expiresAt   the time the entry expires
+     */
+    private record Entry(LocalDateTime newestVisit, long expiresAt) {
+    }
+
+    /**
+     * The claim of a key whose ping is being decided in the database, completed once the outcome is cached.
+     */
+    private static final class Loading {
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    }
+
+    /**
+     * A lock together with the access-ordered map it guards, dropping its least recently used entry when full,
+     * and the claims of the keys being decided.
+     */
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Map<String, Entry> entries;
+
+        private final Map<String, Loading> loading = new HashMap<>();
+
+        private Stripe(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,384 @@
+package com.casestudy.migroscouriertracking.courier.cache;
+
+import com.casestudy.migroscouriertracking.courier.exception.StoreFarAwayException;
+import com.casestudy.migroscouriertracking.courier.exception.StoreReentryTooSoonException;
+import com.casestudy.migroscouriertracking.courier.exception.TimestampBeforeStoreCreateException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory window named {@link PingDeduplicationWindow} remembering the outcome of recently logged pings,
+ * so a client retrying a ping after a timeout gets the original outcome back without a second geofence lookup,
+ * re-entry check or insert.
+ * A ping is identified by its courier, timestamp and coordinates; a retry repeats all four.
+ * Like the {@link LastVisitCache}, keys are spread over {@value #STRIPE_COUNT} independently locked LRU stripes and
+ * entries expire after a configured time. An accepted ping is remembered as soon as it is accepted and evicted again
+ * when the transaction that accepted it does not commit; a rejected ping is remembered with the reason it was
+ * rejected for, which does not depend on a commit, and never replaces an accepted one.
+ * A ping being processed is claimed through {@link #findOrClaim}, so a retry arriving meanwhile waits for the outcome
+ * of the original instead of being checked against the re-entry rule the original has just recorded.
+ * The window only sees pings logged through this instance; the unique key on the same four columns of the
+ * {@code couriers} table catches the retries it misses.
+ */
+@Component
+public class PingDeduplicationWindow {
+
+    static final int STRIPE_COUNT = 64;
+
+    private final Stripe[] stripes;
+    private final long ttlInNanos;
+    private final LongSupplier nanoTime;
+
+    /**
+     * Creates the window with the configured bounds.
+     *
+     * @param maxEntries the maximum number of pings remembered across all stripes
+     * @param ttl        how long the outcome of a ping is remembered
+     */
+    @Autowired
+    public PingDeduplicationWindow(@Value("${courier.ping-dedup.max-entries:100000}") int maxEntries,
+                                   @Value("${courier.ping-dedup.ttl:PT5M}") Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    PingDeduplicationWindow(int maxEntries, Duration ttl, LongSupplier nanoTime) {
+        this.ttlInNanos = ttl.toNanos();
+        this.nanoTime = nanoTime;
+        int maxEntriesPerStripe = Math.max(1, (maxEntries + STRIPE_COUNT - 1) / STRIPE_COUNT);
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(maxEntriesPerStripe);
+        }
+    }
+
+    /**
+     * Looks up the outcome of a ping logged within the window.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the ping
+     * @param lat       the latitude of the ping
+     * @param lng       the longitude of the ping
+     * @return the outcome of the earlier ping, or an empty Optional if the ping was not seen within the window
+     */
+    public Optional<Outcome> find(String courierId, LocalDateTime timestamp, double lat, double lng) {
+        String key = keyOf(courierId, timestamp, lat, lng);
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = liveEntry(stripe, key);
+            return entry == null ? Optional.empty() : Optional.of(entry.outcome());
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Looks up the outcome of a ping logged within the window, waiting for it while the same ping is being processed,
+     * and otherwise claims the ping for the caller.
+     * A caller that gets an empty Optional owns the claim: it records the outcome of the ping and then calls
+     * {@link #release} whatever the outcome, so pings waiting for it go on.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the ping
+     * @param lat       the latitude of the ping
+     * @param lng       the longitude of the ping
+     * @return the outcome of the earlier ping, or an empty Optional if the ping is new and now claimed by the caller
+     */
+    public Optional<Outcome> findOrClaim(String courierId, LocalDateTime timestamp, double lat, double lng) {
+        String key = keyOf(courierId, timestamp, lat, lng);
+        Stripe stripe = stripeOf(key);
+        while (true) {
+            Loading pending;
+            stripe.lock.lock();
+            try {
+                Entry entry = liveEntry(stripe, key);
+                if (entry != null) {
+                    return Optional.of(entry.outcome());
+                }
+                pending = stripe.loading.get(key);
+                if (pending == null) {
+                    stripe.loading.put(key, new Loading());
+                    return Optional.empty();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            // The same ping is being processed; decide once its outcome is remembered or its claim is released
+            pending.done.join();
+        }
+    }
+
+    /**
+     * Releases the claim of a ping taken through {@link #findOrClaim}, letting pings waiting for its outcome go on.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the ping
+     * @param lat       the latitude of the ping
+     * @param lng       the longitude of the ping
+     */
+    public void release(String courierId, LocalDateTime timestamp, double lat, double lng) {
+        String key = keyOf(courierId, timestamp, lat, lng);
+        Stripe stripe = stripeOf(key);
+        Loading loading;
+        stripe.lock.lock();
+        try {
+            loading = stripe.loading.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (loading != null) {
+            loading.done.complete(null);
+        }
+    }
+
+    /**
+     * Remembers an accepted ping. If the surrounding transaction does not commit, the ping is forgotten again.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the ping
+     * @param lat       the latitude of the ping
+     * @param lng       the longitude of the ping
+     */
+    public void recordAccepted(String courierId, LocalDateTime timestamp, double lat, double lng) {
+        String key = keyOf(courierId, timestamp, lat, lng);
+        put(key, Outcome.ACCEPTED);
+        evictOnRollback(key);
+    }
+
+    /**
+     * Remembers a rejected ping together with the reason it was rejected for, unless the same ping is remembered
+     * as accepted.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the ping
+     * @param lat       the latitude of the ping
+     * @param lng       the longitude of the ping
+     * @param rejection the exception the ping was rejected with
+     * @throws IllegalArgumentException if the exception is not one a ping is rejected with
+     */
+    public void recordRejected(String courierId, LocalDateTime timestamp, double lat, double lng, RuntimeException rejection) {
+        put(keyOf(courierId, timestamp, lat, lng), Outcome.rejectedWith(rejection));
+    }
+
+    /**
+     * Forgets a ping, so a retry of it is processed again.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the ping
+     * @param lat       the latitude of the ping
+     * @param lng       the longitude of the ping
+     */
+    public void evict(String courierId, LocalDateTime timestamp, double lat, double lng) {
+        evict(keyOf(courierId, timestamp, lat, lng));
+    }
+
+    /**
+     * Returns the number of remembered pings, including expired entries that have not been cleaned up yet.
+     *
+     * @return the number of remembered pings
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private void put(String key, Outcome outcome) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = liveEntry(stripe, key);
+            if (entry != null && entry.outcome().isAccepted() && !outcome.isAccepted()) {
+                // A retry rejected while the original was in flight must not hide that the original was accepted
+                return;
+            }
+            stripe.entries.put(key, new Entry(outcome, nanoTime.getAsLong() + ttlInNanos));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the remembered entry of a key unless it has expired. Must be called holding the lock of the stripe.
+     */
+    private Entry liveEntry(Stripe stripe, String key) {
+        Entry entry = stripe.entries.get(key);
+        if (entry != null && entry.expiresAt() - nanoTime.getAsLong() < 0) {
+            stripe.entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private void evict(String key) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts the given key once the current transaction completes without committing.
+     * Outside a transaction the ping is kept as recorded.
+     *
+     * @param key the key of the accepted ping
+     */
+    private void evictOnRollback(String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(key);
+                }
+            }
+        });
+    }
+
+    private Stripe stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+    }
+
+    private static String keyOf(String courierId, LocalDateTime timestamp, double lat, double lng) {
+        return courierId + '|' + timestamp + '|' + lat + '|' + lng;
+    }
+
+    /**
+     * The reason a ping was rejected for.
+     */
+    public enum Reason {
+        FAR_AWAY,
+        TIMESTAMP_BEFORE_CREATION,
+        REENTRY_TOO_SOON
+    }
+
+    /**
+     * The outcome of a logged ping. A rejection is kept as its reason and details rather than as the exception itself,
+     * so every retry is answered with an exception of its own.
+     *
+     * @param reason                       the reason the ping was rejected for, or null if it was accepted
+     * @param message                      the message the ping was rejected with, or null if it was accepted
+     * @param nearestStoreName             the nearest store of a ping rejected as far away, or null
+     * @param nearestStoreDistanceInMeters the distance to that store in meters, or null
+     */
+    public record Outcome(Reason reason, String message, String nearestStoreName, Double nearestStoreDistanceInMeters) {
+
+        /**
+         * The outcome of an accepted ping.
+         */
+        public static final Outcome ACCEPTED = new Outcome(null, null, null, null);
+
+        /**
+         * Creates the outcome of a ping rejected with the given exception.
+         *
+         * @param rejection the exception the ping was rejected with
+         * @return the outcome of the ping
+         * @throws IllegalArgumentException if the exception is not one a ping is rejected with
+         */
+        public static Outcome rejectedWith(RuntimeException rejection) {
+            return switch (rejection) {
+                case StoreFarAwayException farAway -> new Outcome(Reason.FAR_AWAY, farAway.getMessage(),
+                        farAway.getNearestStoreName(), farAway.getNearestStoreDistanceInMeters());
+                case TimestampBeforeStoreCreateException beforeCreation ->
+                        new Outcome(Reason.TIMESTAMP_BEFORE_CREATION, beforeCreation.getMessage(), null, null);
+                case StoreReentryTooSoonException reentry -> new Outcome(Reason.REENTRY_TOO_SOON, reentry.getMessage(), null, null);
+                default -> throw new IllegalArgumentException("Pings are not rejected with " + rejection.getClass().getName());
+            };
+        }
+
+        /**
+         * Checks whether the ping was accepted.
+         *
+         * @return true if the ping was accepted; false if it was rejected
+         */
+        public boolean isAccepted() {
+            return reason == null;
+        }
+
+        /**
+         * Creates a new exception for a retry of the rejected ping, equal to the one the ping was rejected with.
+         *
+         * @return the exception to throw
+         * @throws IllegalStateException if the ping was accepted
+         */
+        public RuntimeException newRejection() {
+            if (reason == null) {
+                throw new IllegalStateException("The ping was accepted");
+            }
+            return switch (reason) {
+                case FAR_AWAY -> new StoreFarAwayException(message, nearestStoreName, nearestStoreDistanceInMeters);
+                case TIMESTAMP_BEFORE_CREATION -> new TimestampBeforeStoreCreateException(message);
+                case REENTRY_TOO_SOON -> new StoreReentryTooSoonException(message);
+            };
+        }
+
+    }
+
+    /**
+     * The outcome of a ping and the time the entry expires, in {@link System#nanoTime()} units.
+     *
+     * @param outcome   the outcome of the ping
+     * @param expiresAt the time the entry expires
+     */
+    private record Entry(Outcome outcome, long expiresAt) {
+    }
+
+    /**
+     * The claim of a ping being processed, completed once it is released.
+     */
+    private static final class Loading {
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    }
+
+    /**
+     * A lock together with the access-ordered map it guards, dropping its least recently used entry when full,
+     * and the claims of the pings being processed.
+     */
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Map<String, Entry> entries;
+
+        private final Map<String, Loading> loading = new HashMap<>();
+
+        private Stripe(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+    }
+
+}
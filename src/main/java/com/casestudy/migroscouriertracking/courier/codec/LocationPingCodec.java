@@ -0,0 +1,136 @@
+package com.casestudy.migroscouriertracking.courier.codec;
+
+import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
+import lombok.experimental.UtilityClass;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Utility class named {@link LocationPingCodec} that encodes courier location pings into a compact fixed-layout
+ * binary frame and decodes them back, as an alternative to JSON for high-volume ingestion.
+ * A frame is a header of the magic number, the version and the ping count, followed by {@value #PING_SIZE} bytes
+ * per ping, all big-endian:
+ * <ul>
+ *     <li>the courier UUID as its most and least significant 64 bits,</li>
+ *     <li>the latitude and the longitude as IEEE 754 doubles,</li>
+ *     <li>the timestamp as Unix epoch seconds, read as a local time in the zone given to the codec.</li>
+ * </ul>
+ * Every field is read at a fixed offset straight into a primitive, so decoding parses no text; the canonical courier ID
+ * string is the only string built per ping. A frame whose length does not match its count is rejected before any ping
+ * is decoded.
+ */
+@UtilityClass
+public class LocationPingCodec {
+
+    static final int MAGIC = 0x43504E47;
+
+    static final byte VERSION = 1;
+
+    static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES;
+
+    static final int PING_SIZE = 2 * Long.BYTES + 2 * Double.BYTES + Long.BYTES;
+
+    /**
+     * The maximum number of pings in one frame, the most the batch endpoint accepts.
+     */
+    public static final int MAX_PINGS = 1000;
+
+    /**
+     * Returns the size of a frame holding the given number of pings.
+     *
+     * @param count the number of pings
+     * @return the size of the frame in bytes
+     */
+    public int frameSize(int count) {
+        return HEADER_SIZE + count * PING_SIZE;
+    }
+
+    /**
+     * Encodes pings into a frame.
+     *
+     * @param pings the pings to encode; every field must be set and the courier ID must be a UUID
+     * @param zone  the zone the timestamps of the pings are local times in
+     * @return the encoded frame
+     * @throws IllegalArgumentException if there are more than {@value #MAX_PINGS} pings or a courier ID is not a UUID
+     */
+    public byte[] encode(List<LogCourierLocationRequest> pings, ZoneId zone) {
+        if (pings.size() > MAX_PINGS) {
+            throw new IllegalArgumentException("A location ping frame holds at most " + MAX_PINGS + " pings");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(frameSize(pings.size()))
+                .putInt(MAGIC)
+                .put(VERSION)
+                .putInt(pings.size());
+        for (LogCourierLocationRequest ping : pings) {
+            UUID courierId = UUID.fromString(ping.getCourierId());
+            buffer.putLong(courierId.getMostSignificantBits())
+                    .putLong(courierId.getLeastSignificantBits())
+                    .putDouble(ping.getLat())
+                    .putDouble(ping.getLng())
+                    .putLong(ping.getTimestamp().atZone(zone).toEpochSecond());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes the pings of a frame.
+     *
+     * @param buffer the frame, read from its position to its limit
+     * @param zone   the zone the timestamps are converted to local times in
+     * @return the decoded pings in the order they were encoded
+     * @throws IllegalArgumentException if the buffer does not hold exactly one valid frame
+     */
+    public List<LogCourierLocationRequest> decode(ByteBuffer buffer, ZoneId zone) {
+        try {
+            return decodeFrame(buffer, zone);
+        } catch (BufferUnderflowException | DateTimeException exception) {
+            throw new IllegalArgumentException("Location ping frame is truncated or corrupt", exception);
+        }
+    }
+
+    private List<LogCourierLocationRequest> decodeFrame(ByteBuffer buffer, ZoneId zone) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a location ping frame");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported location ping frame version " + version);
+        }
+        int count = buffer.getInt();
+        if (count < 0 || count > MAX_PINGS) {
+            throw new IllegalArgumentException("A location ping frame holds between 0 and " + MAX_PINGS + " pings, got " + count);
+        }
+        if (buffer.remaining() != count * PING_SIZE) {
+            throw new IllegalArgumentException("Location ping frame of " + count + " pings has "
+                    + buffer.remaining() + " bytes of pings instead of " + count * PING_SIZE);
+        }
+
+        List<LogCourierLocationRequest> pings = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            long mostSigBits = buffer.getLong();
+            long leastSigBits = buffer.getLong();
+            double lat = buffer.getDouble();
+            double lng = buffer.getDouble();
+            long epochSecond = buffer.getLong();
+            if (!Double.isFinite(lat) || !Double.isFinite(lng)) {
+                throw new IllegalArgumentException("Coordinates of ping " + index + " are not finite numbers");
+            }
+            pings.add(LogCourierLocationRequest.builder()
+                    .courierId(new UUID(mostSigBits, leastSigBits).toString())
+                    .lat(lat)
+                    .lng(lng)
+                    .timestamp(LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone))
+                    .build());
+        }
+        return pings;
+    }
+
+}
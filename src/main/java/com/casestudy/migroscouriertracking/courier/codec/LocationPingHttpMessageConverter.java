@@ -0,0 +1,123 @@
+package com.casestudy.migroscouriertracking.courier.codec;
+
+import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HTTP message converter named {@link LocationPingHttpMessageConverter} that reads request bodies of the
+ * {@value #MEDIA_TYPE_VALUE} content type, a frame of the {@link LocationPingCodec}, into a
+ * {@link LogCourierLocationRequest} or a list of them, so devices can log locations without the cost of JSON.
+ * A single location must be sent as a frame of exactly one ping. Frame timestamps are converted to local times in the
+ * zone of the application, the zone JSON timestamps are read in. JSON stays the default content type, and nothing is
+ * written in this format.
+ */
+@Component
+public class LocationPingHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    /**
+     * The content type of location ping frames.
+     */
+    public static final String MEDIA_TYPE_VALUE = "application/vnd.courier-ping";
+
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    static final int MAX_BODY_SIZE = LocationPingCodec.frameSize(LocationPingCodec.MAX_PINGS);
+
+    private final ZoneId zone;
+
+    /**
+     * Creates the converter reading timestamps in the default zone of the application.
+     */
+    @Autowired
+    public LocationPingHttpMessageConverter() {
+        this(ZoneId.systemDefault());
+    }
+
+    LocationPingHttpMessageConverter(ZoneId zone) {
+        super(MEDIA_TYPE);
+        this.zone = zone;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == LogCourierLocationRequest.class;
+    }
+
+    /**
+     * Returns whether the given type is a {@link LogCourierLocationRequest} or a list of them sent as a frame.
+     *
+     * @param type         the type to read
+     * @param contextClass the class of the controller the type is declared in
+     * @param mediaType    the content type of the request
+     * @return true if the converter reads the request body
+     */
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return (type == LogCourierLocationRequest.class || isPingList(type)) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        List<LogCourierLocationRequest> pings = readPings(inputMessage);
+        if (type != LogCourierLocationRequest.class) {
+            return pings;
+        }
+        if (pings.size() != 1) {
+            throw new HttpMessageNotReadableException(
+                    "A single location must be sent as a frame of exactly one ping, got " + pings.size(), inputMessage);
+        }
+        return pings.get(0);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Location ping frames are only read");
+    }
+
+    private List<LogCourierLocationRequest> readPings(HttpInputMessage inputMessage) throws IOException {
+        // One byte past the largest frame is enough to tell that a body is too large without buffering all of it
+        byte[] body = inputMessage.getBody().readNBytes(MAX_BODY_SIZE + 1);
+        if (body.length > MAX_BODY_SIZE) {
+            throw new HttpMessageNotReadableException(
+                    "Location ping frame is larger than " + MAX_BODY_SIZE + " bytes", inputMessage);
+        }
+        try {
+            return LocationPingCodec.decode(ByteBuffer.wrap(body), zone);
+        } catch (IllegalArgumentException exception) {
+            throw new HttpMessageNotReadableException(exception.getMessage(), exception, inputMessage);
+        }
+    }
+
+    private static boolean isPingList(Type type) {
+        return type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getRawType() instanceof Class<?> rawType
+                && rawType.isAssignableFrom(ArrayList.class)
+                && parameterizedType.getActualTypeArguments()[0] == LogCourierLocationRequest.class;
+    }
+
+}
@@ -21,6 +21,7 @@ public class DataLoader {
 
     /**
      * Loads initial store data into the database when the application starts.
+     * The schema is kept between restarts, so the stores are only loaded into an empty table.
      *
      * @return a CommandLineRunner that loads a predefined list of StoreEntity
      *         instances into the StoreRepository.
@@ -28,6 +29,10 @@ public class DataLoader {
     @Bean
     public CommandLineRunner loadInitialData() {
         return args -> {
+            if (storeRepository.count() > 0) {
+                return;
+            }
+
             List<StoreEntity> stores = Arrays.asList(
                     StoreEntity.builder()
                             .name("Ataşehir MMM Migros")
@@ -1,19 +1,39 @@
 package com.casestudy.migroscouriertracking.courier.controller;
 
 import com.casestudy.migroscouriertracking.common.model.dto.response.CustomResponse;
+import com.casestudy.migroscouriertracking.courier.codec.LocationPingHttpMessageConverter;
 import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.CourierTravelPage;
+import com.casestudy.migroscouriertracking.courier.model.SimplifiedTrack;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.DistanceRangeQueryRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.TravelQueryRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.response.CourierResponse;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.CourierTravelPageResponse;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.LogCourierLocationResponse;
 import com.casestudy.migroscouriertracking.courier.model.mapper.CourierToCourierResponseMapper;
 import com.casestudy.migroscouriertracking.courier.service.CourierService;
+import com.casestudy.migroscouriertracking.courier.utils.TrackSimplificationUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.validator.constraints.UUID;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * REST controller named {@link CourierController} for managing courier operations.
@@ -26,51 +46,123 @@ import java.util.List;
 @Validated
 public class CourierController {
 
+    static final String TRACK_POINT_COUNT_HEADER = "X-Track-Point-Count";
+
+    static final String TRACK_DISTANCE_ERROR_HEADER = "X-Track-Distance-Error-Meters";
+
     private final CourierService courierService;
+    private final ObjectMapper objectMapper;
 
     private final CourierToCourierResponseMapper courierToCourierResponseMapper = CourierToCourierResponseMapper.initialize();;
 
     /**
-     * Logs the location of a courier.
+     * Logs the location of a courier, sent as JSON or as a {@link LocationPingHttpMessageConverter} frame of one ping.
      *
      * @param logRequest the request containing the courier's location details
      * @return a CustomResponse indicating the success of the operation
      */
-    @PostMapping("/log-location")
+    @PostMapping(value = "/log-location",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, LocationPingHttpMessageConverter.MEDIA_TYPE_VALUE})
     public CustomResponse<String> logCourierLocation(
             @RequestBody @Valid LogCourierLocationRequest logRequest) {
         courierService.logCourierLocation(logRequest);
         return CustomResponse.successOf("Location logged successfully.");
     }
 
+    /**
+     * Logs a batch of courier locations, such as pings buffered by a courier's phone while it was offline.
+     * Each ping is accepted or rejected on its own, so one invalid ping does not reject the whole batch.
+     * The pings are sent as a JSON array or as a {@link LocationPingHttpMessageConverter} frame.
+     *
+     * @param logRequests the requests containing the couriers' location details
+     * @return a CustomResponse containing the outcome of each ping in the order they were sent
+     */
+    @PostMapping(value = "/log-locations",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, LocationPingHttpMessageConverter.MEDIA_TYPE_VALUE})
+    public CustomResponse<List<LogCourierLocationResponse>> logCourierLocations(
+            @RequestBody @NotEmpty @Size(max = 1000) List<LogCourierLocationRequest> logRequests) {
+        List<LogCourierLocationResponse> response = courierService.logCourierLocations(logRequests);
+        return CustomResponse.successOf(response);
+    }
+
     /**
      * Retrieves the past travels of a courier by their ID.
+     * With a tolerance, the track is simplified before it is returned; see {@link #toTravelsResponse(List, Double)}.
      *
      * @param courierId the ID of the courier whose travels are to be retrieved
+     * @param tolerance the optional simplification tolerance in meters
      * @return a CustomResponse containing a list of CourierResponse objects representing the courier's past travels
      */
     @GetMapping("/travels/{courierId}")
-    public CustomResponse<List<CourierResponse>> getPastTravels(
-            @PathVariable @UUID String courierId) {
+    public ResponseEntity<CustomResponse<List<CourierResponse>>> getPastTravels(
+            @PathVariable @UUID String courierId,
+            @RequestParam(required = false) @DecimalMin("0.0") @DecimalMax("10000.0") Double tolerance) {
         List<Courier> travels = courierService.getPastTravelsByCourierId(courierId);
-        List<CourierResponse> response = courierToCourierResponseMapper.map(travels);
+        return toTravelsResponse(travels, tolerance);
+    }
+
+    /**
+     * Retrieves one page of the past travels of a courier, ordered by timestamp.
+     *
+     * @param courierId the ID of the courier whose travels are to be retrieved
+     * @param cursor    the {@code nextCursor} of the previous page; omitted for the first page
+     * @param size      the maximum number of travels in the page
+     * @return a CustomResponse containing the page of travels and the cursor of the next page
+     */
+    @GetMapping("/travels/{courierId}/page")
+    public CustomResponse<CourierTravelPageResponse> getPastTravelsPage(
+            @PathVariable @UUID String courierId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int size) {
+        CourierTravelPage page = courierService.getPastTravelsPageByCourierId(courierId, cursor, size);
+        CourierTravelPageResponse response = CourierTravelPageResponse.builder()
+                .travels(courierToCourierResponseMapper.map(page.getTravels()))
+                .nextCursor(page.getNextCursor())
+                .build();
         return CustomResponse.successOf(response);
     }
 
+    /**
+     * Streams all past travels of a courier as newline-delimited JSON, ordered by timestamp.
+     * Each travel is written as soon as it is read from the database, so the full history is never held in memory.
+     *
+     * @param courierId the ID of the courier whose travels are to be streamed
+     * @return a streamed body with one CourierResponse per line
+     */
+    @GetMapping(value = "/travels/{courierId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPastTravels(
+            @PathVariable @UUID String courierId) {
+        courierService.checkPastTravelsExist(courierId);
+        StreamingResponseBody body = outputStream -> courierService.streamPastTravelsByCourierId(courierId, courier -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(courierToCourierResponseMapper.map(courier)));
+                outputStream.write('\n');
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     /**
      * Retrieves travels of a courier based on courier ID, store name, and time range.
      *
+     * With a tolerance, the track is simplified before it is returned; see {@link #toTravelsResponse(List, Double)}.
+     *
      * @param courierId the unique identifier of the courier (UUID format)
      * @param request the {@link TravelQueryRequest} containing the store name and time range for the query
+     * @param tolerance the optional simplification tolerance in meters
      * @return a CustomResponse containing a list of CourierResponse objects matching the criteria
      */
     @PostMapping("/travels/{courierId}")
-    public CustomResponse<List<CourierResponse>> getTravelsByCourierIdAndTravelQueryRequest(
+    public ResponseEntity<CustomResponse<List<CourierResponse>>> getTravelsByCourierIdAndTravelQueryRequest(
             @PathVariable @UUID String courierId,
-            @RequestBody @Valid TravelQueryRequest request) {
+            @RequestBody @Valid TravelQueryRequest request,
+            @RequestParam(required = false) @DecimalMin("0.0") @DecimalMax("10000.0") Double tolerance) {
         List<Courier> travels = courierService.getTravelsByCourierIdStoreNameAndTimeRange(courierId,request);
-        List<CourierResponse> response = courierToCourierResponseMapper.map(travels);
-        return CustomResponse.successOf(response);
+        return toTravelsResponse(travels, tolerance);
     }
 
     /**
@@ -87,4 +179,42 @@ public class CourierController {
         return CustomResponse.successOf(formattedDistance);
     }
 
+    /**
+     * Retrieves the distance a courier travelled within a time range.
+     *
+     * @param courierId the ID of the courier whose travel distance is to be retrieved
+     * @param request   the time range [start, end) given as {@code start} and {@code end} query parameters
+     * @return a CustomResponse containing the travel distance within the range formatted as a string
+     */
+    @GetMapping("/travels/{courierId}/total-distance/range")
+    public CustomResponse<String> getTotalTravelDistanceBetween(
+            @PathVariable @UUID String courierId,
+            @Valid DistanceRangeQueryRequest request) {
+        double distanceInKm = courierService.getTotalTravelDistanceBetween(courierId, request);
+        String formattedDistance = String.format("%.2f km", distanceInKm);
+        return CustomResponse.successOf(formattedDistance);
+    }
+
+    /**
+     * Builds the response of a travel query.
+     * Without a tolerance the travels are returned as they are. With a tolerance the track is simplified with
+     * {@link TrackSimplificationUtils}, so every dropped travel lies within that many meters of the returned track,
+     * and the response headers report the point count of the original track and how many meters shorter
+     * the returned track is than the original one.
+     *
+     * @param travels   the travels matching the query
+     * @param tolerance the simplification tolerance in meters, or null to return every travel
+     * @return the response containing the returned travels
+     */
+    private ResponseEntity<CustomResponse<List<CourierResponse>>> toTravelsResponse(List<Courier> travels, Double tolerance) {
+        if (tolerance == null) {
+            return ResponseEntity.ok(CustomResponse.successOf(courierToCourierResponseMapper.map(travels)));
+        }
+        SimplifiedTrack track = TrackSimplificationUtils.simplify(travels, tolerance);
+        return ResponseEntity.ok()
+                .header(TRACK_POINT_COUNT_HEADER, String.valueOf(track.getOriginalPointCount()))
+                .header(TRACK_DISTANCE_ERROR_HEADER, String.format(Locale.ROOT, "%.2f", track.getDistanceErrorInMeters()))
+                .body(CustomResponse.successOf(courierToCourierResponseMapper.map(track.getTravels())));
+    }
+
 }
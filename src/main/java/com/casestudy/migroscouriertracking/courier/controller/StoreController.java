@@ -0,0 +1,125 @@
+package com.casestudy.migroscouriertracking.courier.controller;
+
+import com.casestudy.migroscouriertracking.common.model.dto.response.CustomResponse;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.NearestStore;
+import com.casestudy.migroscouriertracking.courier.index.StoreCatalog;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.CreateStoreRequest;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.UpdateStoreRequest;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.NearestStoreResponse;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.StoreCatalogResponse;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.StoreResponse;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import com.casestudy.migroscouriertracking.courier.model.mapper.StoreEntityToStoreResponseMapper;
+import com.casestudy.migroscouriertracking.courier.service.StoreService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.validator.constraints.UUID;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller named {@link StoreController} for managing the store catalog.
+ * Changes take effect for location logging as soon as they are committed, without a restart.
+ */
+@RestController
+@RequestMapping("/api/stores")
+@RequiredArgsConstructor
+@Validated
+public class StoreController {
+
+    private final StoreService storeService;
+
+    private final StoreEntityToStoreResponseMapper storeEntityToStoreResponseMapper = StoreEntityToStoreResponseMapper.initialize();
+
+    /**
+     * Retrieves all stores of the current store catalog.
+     *
+     * @return a CustomResponse containing the stores and the version of the catalog
+     */
+    @GetMapping
+    public CustomResponse<StoreCatalogResponse> getStores() {
+        StoreCatalog catalog = storeService.getStoreCatalog();
+        StoreCatalogResponse response = StoreCatalogResponse.builder()
+                .version(catalog.version())
+                .stores(storeEntityToStoreResponseMapper.mapCatalogStores(catalog.stores()))
+                .build();
+        return CustomResponse.successOf(response);
+    }
+
+    /**
+     * Retrieves the stores closest to a location, nearest first.
+     *
+     * @param lat the latitude of the location
+     * @param lng the longitude of the location
+     * @param k   the maximum number of stores to return
+     * @return a CustomResponse containing the nearest stores and their distance in meters
+     */
+    @GetMapping("/nearest")
+    public CustomResponse<List<NearestStoreResponse>> getNearestStores(
+            @RequestParam @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+            @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90") double lat,
+            @RequestParam @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+            @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180") double lng,
+            @RequestParam(defaultValue = "5") @Min(1) @Max(100) int k) {
+        List<NearestStore> nearestStores = storeService.findNearestStores(lat, lng, k);
+        return CustomResponse.successOf(storeEntityToStoreResponseMapper.mapNearestStores(nearestStores));
+    }
+
+    /**
+     * Retrieves a store by its ID.
+     *
+     * @param storeId the ID of the store
+     * @return a CustomResponse containing the store
+     */
+    @GetMapping("/{storeId}")
+    public CustomResponse<StoreResponse> getStore(@PathVariable @UUID String storeId) {
+        CatalogStore store = storeService.getStoreById(storeId);
+        return CustomResponse.successOf(storeEntityToStoreResponseMapper.mapCatalogStore(store));
+    }
+
+    /**
+     * Adds a store to the store catalog.
+     *
+     * @param request the request containing the name, location and optional creation time of the store
+     * @return a CustomResponse containing the created store
+     */
+    @PostMapping
+    public CustomResponse<StoreResponse> createStore(@RequestBody @Valid CreateStoreRequest request) {
+        StoreEntity store = storeService.createStore(request);
+        return CustomResponse.successOf(storeEntityToStoreResponseMapper.map(store));
+    }
+
+    /**
+     * Changes the name or location of a store.
+     *
+     * @param storeId the ID of the store
+     * @param request the request containing the new name and location of the store
+     * @return a CustomResponse containing the updated store
+     */
+    @PutMapping("/{storeId}")
+    public CustomResponse<StoreResponse> updateStore(@PathVariable @UUID String storeId,
+                                                     @RequestBody @Valid UpdateStoreRequest request) {
+        StoreEntity store = storeService.updateStore(storeId, request);
+        return CustomResponse.successOf(storeEntityToStoreResponseMapper.map(store));
+    }
+
+    /**
+     * Removes a store from the store catalog.
+     *
+     * @param storeId the ID of the store
+     * @return a CustomResponse indicating the success of the operation
+     */
+    @DeleteMapping("/{storeId}")
+    public CustomResponse<String> deleteStore(@PathVariable @UUID String storeId) {
+        storeService.deleteStore(storeId);
+        return CustomResponse.successOf("Store deleted successfully.");
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.casestudy.migroscouriertracking.courier.exception;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidCursorException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+}
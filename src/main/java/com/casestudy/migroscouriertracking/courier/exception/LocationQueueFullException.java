@@ -0,0 +1,18 @@
+package com.casestudy.migroscouriertracking.courier.exception;
+
+/**
+ * Exception thrown when a courier location cannot be queued for a write-behind group commit,
+ * either because the queue stayed full or because the application is shutting down.
+ */
+public class LocationQueueFullException extends RuntimeException {
+
+    /**
+     * Constructs a new LocationQueueFullException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception
+     */
+    public LocationQueueFullException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.casestudy.migroscouriertracking.courier.exception;
+
+/**
+ * Exception thrown when a store is created or renamed with the name of another store.
+ */
+public class StoreAlreadyExistsException extends RuntimeException {
+
+    /**
+     * Constructs a new StoreAlreadyExistsException with the specified detail message.
+     *
+     * @param message the detail message explaining the reason for the exception
+     */
+    public StoreAlreadyExistsException(String message) {
+        super(message);
+    }
+
+}
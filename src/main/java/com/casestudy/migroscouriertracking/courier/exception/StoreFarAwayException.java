@@ -1,17 +1,38 @@
 package com.casestudy.migroscouriertracking.courier.exception;
 
+import lombok.Getter;
+
 /**
  * Exception thrown when a store is considered too far away for a specific operation.
+ * It optionally carries the nearest store and its distance, so the caller can tell how far off the location was.
  */
+@Getter
 public class StoreFarAwayException extends RuntimeException {
 
+    private final String nearestStoreName;
+
+    private final Double nearestStoreDistanceInMeters;
+
     /**
      * Constructs a new StoreFarAwayException with the specified detail message.
      *
      * @param message the detail message explaining the reason for the exception
      */
     public StoreFarAwayException(String message) {
+        this(message, null, null);
+    }
+
+    /**
+     * Constructs a new StoreFarAwayException with the specified detail message and the nearest store.
+     *
+     * @param message                      the detail message explaining the reason for the exception
+     * @param nearestStoreName             the name of the nearest store, or null if there is no store
+     * @param nearestStoreDistanceInMeters the distance to the nearest store in meters, or null if there is no store
+     */
+    public StoreFarAwayException(String message, String nearestStoreName, Double nearestStoreDistanceInMeters) {
         super(message);
+        this.nearestStoreName = nearestStoreName;
+        this.nearestStoreDistanceInMeters = nearestStoreDistanceInMeters;
     }
 
 }
@@ -0,0 +1,33 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable copy named {@link CatalogStore} of a store as it is held in a {@link StoreCatalog} snapshot.
+ * Snapshots are read by many threads without locking, so they keep their own copies of the stores
+ * instead of the {@link StoreEntity} instances a persistence context manages and may still change.
+ *
+ * @param id        the ID of the store
+ * @param storeKey  the compact key courier locations reference the store by
+ * @param name      the name of the store
+ * @param lat       the latitude of the store
+ * @param lng       the longitude of the store
+ * @param createdAt the creation time of the store
+ */
+public record CatalogStore(UUID id, Integer storeKey, String name, double lat, double lng, LocalDateTime createdAt) {
+
+    /**
+     * Copies a store read from the database.
+     *
+     * @param store the store to copy
+     * @return the immutable copy of the store
+     */
+    public static CatalogStore of(StoreEntity store) {
+        return new CatalogStore(store.getId(), store.getStoreKey(), store.getName(), store.getLat(), store.getLng(),
+                store.getCreatedAt());
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+/**
+ * Result named {@link NearestStore} of a nearest store search of the {@link StoreSpatialIndex}.
+ *
+ * @param store            the store
+ * @param distanceInMeters the distance from the searched location to the store in meters
+ */
+public record NearestStore(CatalogStore store, double distanceInMeters) {
+
+}
@@ -0,0 +1,68 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Component named {@link ResolvedStoreContext} that resolves the store a location belongs to
+ * and remembers the result for the rest of the current HTTP request.
+ * Request validation and the service layer both resolve the store for the same ping,
+ * so the geofence lookup is performed once per request and both see the same store.
+ * Outside an HTTP request every call performs a fresh lookup.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResolvedStoreContext {
+
+    private static final String RESOLVED_STORE_ATTRIBUTE = ResolvedStoreContext.class.getName() + ".RESOLVED_STORE";
+
+    private final StoreSpatialIndex storeSpatialIndex;
+
+    /**
+     * Resolves the nearest store within {@link StoreSpatialIndex#STORE_RADIUS_IN_METERS} of the given location.
+     * The result is reused when the same location is resolved again within the current request.
+     *
+     * @param lat the latitude of the location
+     * @param lng the longitude of the location
+     * @return the store the location belongs to, or an empty Optional if it is far away from all stores
+     */
+    public Optional<CatalogStore> resolve(double lat, double lng) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return lookup(lat, lng);
+        }
+
+        Object cached = requestAttributes.getAttribute(RESOLVED_STORE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof ResolvedStore resolvedStore && resolvedStore.matches(lat, lng)) {
+            return resolvedStore.store();
+        }
+
+        Optional<CatalogStore> store = lookup(lat, lng);
+        requestAttributes.setAttribute(RESOLVED_STORE_ATTRIBUTE, new ResolvedStore(lat, lng, store), RequestAttributes.SCOPE_REQUEST);
+        return store;
+    }
+
+    private Optional<CatalogStore> lookup(double lat, double lng) {
+        return storeSpatialIndex.findNearestStoreWithinRadius(lat, lng, StoreSpatialIndex.STORE_RADIUS_IN_METERS);
+    }
+
+    /**
+     * The store resolved for a location within the current request.
+     *
+     * @param lat   the latitude that was resolved
+     * @param lng   the longitude that was resolved
+     * @param store the resolved store, if any
+     */
+    private record ResolvedStore(double lat, double lng, Optional<CatalogStore> store) {
+
+        private boolean matches(double otherLat, double otherLng) {
+            return Double.compare(lat, otherLat) == 0 && Double.compare(lng, otherLng) == 0;
+        }
+
+    }
+
+}
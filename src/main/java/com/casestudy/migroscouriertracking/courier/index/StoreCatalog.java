@@ -0,0 +1,14 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot named {@link StoreCatalog} of all stores known to the {@link StoreSpatialIndex}.
+ * The version grows by one every time a new snapshot is published after stores change.
+ *
+ * @param version the version of the snapshot
+ * @param stores  the stores of the snapshot
+ */
+public record StoreCatalog(long version, List<CatalogStore> stores) {
+
+}
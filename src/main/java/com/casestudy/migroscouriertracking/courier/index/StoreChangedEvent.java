@@ -0,0 +1,14 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+
+import java.util.UUID;
+
+/**
+ * Event named {@link StoreChangedEvent} published whenever a {@link StoreEntity} is created, updated or removed.
+ *
+ * @param storeId the ID of the changed store
+ */
+public record StoreChangedEvent(UUID storeId) {
+
+}
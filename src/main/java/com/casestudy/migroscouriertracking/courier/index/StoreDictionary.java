@@ -0,0 +1,70 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable dictionary named {@link StoreDictionary} between the compact store keys that courier locations reference
+ * stores by and the store names shown to clients.
+ * It covers every store ever created, including deleted ones, so past locations keep resolving to a name,
+ * and a rename changes the name of every location of the store without touching the locations.
+ * A name resolves to the key of the store that currently has it; a name only deleted stores had resolves to the
+ * most recently created of them.
+ *
+ * @param namesByKey the store names keyed by store key
+ * @param keysByName the store keys keyed by store name
+ */
+public record StoreDictionary(Map<Integer, String> namesByKey, Map<String, Integer> keysByName) {
+
+    static final StoreDictionary EMPTY = new StoreDictionary(Map.of(), Map.of());
+
+    /**
+     * Builds the dictionary of the given stores.
+     *
+     * @param stores all stores, including deleted ones
+     * @return the dictionary of the stores
+     */
+    public static StoreDictionary of(Collection<StoreEntity> stores) {
+        Map<Integer, String> namesByKey = new HashMap<>();
+        Map<String, Integer> keysByName = new HashMap<>();
+        Map<String, Boolean> activeByName = new HashMap<>();
+        stores.stream()
+                .filter(store -> store.getStoreKey() != null)
+                .sorted(Comparator.comparing(StoreEntity::getStoreKey))
+                .forEach(store -> {
+                    namesByKey.put(store.getStoreKey(), store.getName());
+                    boolean active = !store.isDeleted();
+                    if (active || !activeByName.getOrDefault(store.getName(), false)) {
+                        keysByName.put(store.getName(), store.getStoreKey());
+                        activeByName.put(store.getName(), active);
+                    }
+                });
+        return new StoreDictionary(Map.copyOf(namesByKey), Map.copyOf(keysByName));
+    }
+
+    /**
+     * Returns the name of the store with the given key.
+     *
+     * @param storeKey the key of the store
+     * @return the name of the store, or null if no store has the key
+     */
+    public String nameOf(Integer storeKey) {
+        return storeKey == null ? null : namesByKey.get(storeKey);
+    }
+
+    /**
+     * Returns the key of the store with the given name.
+     *
+     * @param storeName the name of the store
+     * @return the key of the store, or an empty Optional if no store ever had the name
+     */
+    public Optional<Integer> keyOf(String storeName) {
+        return storeName == null ? Optional.empty() : Optional.ofNullable(keysByName.get(storeName));
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener named {@link StoreEntityListener} that publishes a {@link StoreChangedEvent}
+ * whenever a {@link StoreEntity} is written, so that {@link StoreSpatialIndex} can be refreshed.
+ */
+@Component
+@RequiredArgsConstructor
+public class StoreEntityListener {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * Publishes a {@link StoreChangedEvent} after a store is inserted, updated or deleted.
+     *
+     * @param store the changed store
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onStoreChanged(StoreEntity store) {
+        applicationEventPublisher.publishEvent(new StoreChangedEvent(store.getId()));
+    }
+
+}
@@ -0,0 +1,423 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
+import com.casestudy.migroscouriertracking.courier.utils.HaversineUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory spatial index named {@link StoreSpatialIndex} that buckets stores into a fixed-size latitude/longitude grid.
+ * A lookup only inspects the cells surrounding the given location instead of every store in the database,
+ * so the cost of a geofence check does not grow with the number of stores.
+ * The grid is part of an immutable, versioned {@link StoreCatalog} snapshot published through an {@link AtomicReference}:
+ * readers such as the geofence check and the store creation time validator use whichever snapshot is current
+ * without locking, while a store change builds the next version from {@link StoreRepository} after its transaction
+ * commits and swaps it in, so ingestion never waits for a rebuild.
+ * Each store keeps its coordinates in radians together with the cosine of its latitude,
+ * so a lookup runs the allocation-free {@link HaversineUtils} kernel with an equirectangular pre-check.
+ * A snapshot holds immutable {@link CatalogStore} copies of the stores rather than the entities read to build it.
+ * Deleted stores are left out of the catalog and the grid but kept in the {@link StoreDictionary} of the snapshot,
+ * which resolves the store keys of logged locations to names; as both come from the same snapshot, every store
+ * the index returns can be resolved by the dictionary that is current at the same time.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StoreSpatialIndex {
+
+    /**
+     * The radius in meters around a store within which a courier is considered to be at the store.
+     */
+    public static final double STORE_RADIUS_IN_METERS = 100.0;
+
+    static final double CELL_SIZE_IN_DEGREES = 0.01;
+
+    private static final double METERS_PER_DEGREE_OF_LATITUDE = 111_320.0;
+
+    private static final int LNG_CELL_COUNT = (int) Math.round(360.0 / CELL_SIZE_IN_DEGREES);
+
+    private static final int MIN_CELLS_BEFORE_LINEAR_SCAN = 1024;
+
+    private final StoreRepository storeRepository;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.UNLOADED);
+
+    /**
+     * Builds the first snapshot once the application has started and the initial stores are loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Publishes a new snapshot once a transaction that changed stores has been committed.
+     * The rebuild runs on the thread that changed the store; lookups keep using the previous snapshot until it is swapped in.
+     * It runs before every other listener of the event, so listeners such as the query result cache invalidation
+     * see the new store dictionary.
+     *
+     * @param event the {@link StoreChangedEvent} published for the changed store
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStoreChanged(StoreChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Builds a new snapshot from all stores currently in the database and publishes it with the next version.
+     * Rebuilds are serialized so a slower rebuild cannot replace the snapshot of a newer one. The rebuild queries
+     * the database, so it is guarded by a {@link ReentrantLock} rather than a monitor, which would pin the carrier
+     * of a virtual thread for the duration of the query.
+     */
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            List<StoreEntity> stores = Optional.ofNullable(storeRepository.findAll()).orElse(List.of());
+            Snapshot next = Snapshot.of(snapshot.get().catalog().version() + 1, stores);
+            snapshot.set(next);
+            log.debug("Store spatial index version {} built with {} stores in {} cells",
+                    next.catalog().version(), next.catalog().stores().size(), next.grid().cells().size());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current store catalog.
+     *
+     * @return the immutable snapshot of all stores together with its version
+     */
+    public StoreCatalog catalog() {
+        return currentSnapshot().catalog();
+    }
+
+    /**
+     * Returns the dictionary between the keys and names of all stores, including deleted ones.
+     *
+     * @return the current store dictionary
+     */
+    public StoreDictionary dictionary() {
+        return currentSnapshot().dictionary();
+    }
+
+    /**
+     * Finds a store of the current snapshot by its ID.
+     *
+     * @param storeId the ID of the store
+     * @return the store, or an empty Optional if there is no such store
+     */
+    public Optional<CatalogStore> findById(UUID storeId) {
+        return Optional.ofNullable(currentSnapshot().storesById().get(storeId));
+    }
+
+    /**
+     * Checks whether the index contains no stores.
+     *
+     * @return true if there are no stores in the index; false otherwise
+     */
+    public boolean isEmpty() {
+        return currentSnapshot().catalog().stores().isEmpty();
+    }
+
+    /**
+     * Finds the store closest to the given location among those within the given radius.
+     * Only the grid cells that can contain such a store are inspected.
+     *
+     * @param lat            the latitude of the location
+     * @param lng            the longitude of the location
+     * @param radiusInMeters the radius in meters within which to search
+     * @return the nearest store within the radius, or an empty Optional if there is none
+     */
+    public Optional<CatalogStore> findNearestStoreWithinRadius(double lat, double lng, double radiusInMeters) {
+        Grid current = currentSnapshot().grid();
+        if (current.cells().isEmpty()) {
+            return Optional.empty();
+        }
+
+        int latCell = latCellOf(lat);
+        int lngCell = lngCellOf(lng);
+        int latSpan = latCellSpan(radiusInMeters);
+        int lngSpan = lngCellSpan(lat, radiusInMeters);
+
+        CatalogStore nearestStore = null;
+        double nearestDistance = Double.MAX_VALUE;
+
+        for (int latOffset = -latSpan; latOffset <= latSpan; latOffset++) {
+            for (int lngOffset = -lngSpan; lngOffset <= lngSpan; lngOffset++) {
+                List<IndexedStore> cellStores = current.cells().get(cellKey(latCell + latOffset, lngCell + lngOffset));
+                if (cellStores == null) {
+                    continue;
+                }
+                for (IndexedStore indexedStore : cellStores) {
+                    double distance = HaversineUtils.distanceInMetersWithinRadius(indexedStore.latInRadians(),
+                            indexedStore.lngInRadians(), indexedStore.cosLat(), lat, lng, radiusInMeters);
+                    if (distance <= radiusInMeters && distance < nearestDistance) {
+                        nearestStore = indexedStore.store();
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+
+        return Optional.ofNullable(nearestStore);
+    }
+
+    /**
+     * Finds the {@code k} stores closest to the given location, ordered by distance.
+     * Grid cells are searched in rings of growing size around the location while a bounded max-heap keeps the
+     * {@code k} best candidates; the search stops once no store in an unvisited cell can be closer than the
+     * farthest candidate. When the rings would cover more cells than there are stores, for example when the
+     * location is far from every store, the remaining search scans all stores of the snapshot instead.
+     *
+     * @param lat the latitude of the location
+     * @param lng the longitude of the location
+     * @param k   the maximum number of stores to return
+     * @return up to {@code k} stores with their distance in meters, nearest first
+     */
+    public List<NearestStore> findNearestStores(double lat, double lng, int k) {
+        Snapshot current = currentSnapshot();
+        List<IndexedStore> allStores = current.indexedStores();
+        if (k <= 0 || allStores.isEmpty()) {
+            return List.of();
+        }
+
+        double latInRadians = Math.toRadians(lat);
+        double lngInRadians = Math.toRadians(lng);
+        double cosLat = Math.cos(latInRadians);
+        PriorityQueue<NearestStore> candidates = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(NearestStore::distanceInMeters).reversed());
+
+        int latCell = latCellOf(lat);
+        int lngCell = lngCellOf(lng);
+        int maxRing = maxRingBeforeLinearScan(allStores.size(), k);
+        boolean complete = false;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int latOffset = -ring; latOffset <= ring; latOffset++) {
+                boolean edgeRow = Math.abs(latOffset) == ring;
+                for (int lngOffset = -ring; lngOffset <= ring; lngOffset += edgeRow ? 1 : 2 * ring) {
+                    List<IndexedStore> cellStores = current.grid().cells().get(cellKey(latCell + latOffset, lngCell + lngOffset));
+                    if (cellStores != null) {
+                        cellStores.forEach(store -> offer(candidates, k, store, latInRadians, lngInRadians, cosLat));
+                    }
+                }
+            }
+            if (candidates.size() == k && candidates.peek().distanceInMeters() <= unvisitedLowerBoundInMeters(lat, ring)) {
+                complete = true;
+                break;
+            }
+        }
+
+        if (!complete) {
+            candidates.clear();
+            allStores.forEach(store -> offer(candidates, k, store, latInRadians, lngInRadians, cosLat));
+        }
+
+        List<NearestStore> nearestStores = new ArrayList<>(candidates);
+        nearestStores.sort(Comparator.comparingDouble(NearestStore::distanceInMeters));
+        return nearestStores;
+    }
+
+    /**
+     * Adds a store to the bounded max-heap of candidates if it is closer than the farthest candidate.
+     *
+     * @param candidates   the candidates ordered with the farthest first
+     * @param k            the maximum number of candidates
+     * @param store        the store to offer
+     * @param latInRadians the latitude of the location in radians
+     * @param lngInRadians the longitude of the location in radians
+     * @param cosLat       the cosine of the latitude of the location
+     */
+    private static void offer(PriorityQueue<NearestStore> candidates, int k, IndexedStore store,
+                              double latInRadians, double lngInRadians, double cosLat) {
+        double distance = HaversineUtils.EARTH_RADIUS_IN_METERS * HaversineUtils.centralAngleOfRadians(
+                store.latInRadians(), store.lngInRadians(), store.cosLat(), latInRadians, lngInRadians, cosLat);
+        if (candidates.size() < k) {
+            candidates.add(new NearestStore(store.store(), distance));
+        } else if (distance < candidates.peek().distanceInMeters()) {
+            candidates.poll();
+            candidates.add(new NearestStore(store.store(), distance));
+        }
+    }
+
+    /**
+     * Calculates the largest ring worth searching before scanning all stores is cheaper.
+     *
+     * @param storeCount the number of stores in the snapshot
+     * @param k          the number of stores to find
+     * @return the largest ring to search, or -1 to scan all stores right away
+     */
+    private static int maxRingBeforeLinearScan(int storeCount, int k) {
+        if (k >= storeCount) {
+            return -1;
+        }
+        int maxCells = Math.max(MIN_CELLS_BEFORE_LINEAR_SCAN, storeCount);
+        int ring = (int) ((Math.sqrt(maxCells) - 1) / 2);
+        return Math.min(ring, LNG_CELL_COUNT / 2 - 1);
+    }
+
+    /**
+     * Calculates a lower bound of the distance from a location to any store outside the rings searched so far.
+     * Such a store is more than {@code ring} cells away in latitude or in longitude; the longitude bound uses
+     * the haversine inequality {@code sin(d / 2) >= cos(maxLat) * sin(dLng / 2)} with the highest latitude the
+     * store can have.
+     *
+     * @param lat  the latitude of the location
+     * @param ring the last ring that was searched
+     * @return the lower bound in meters
+     */
+    private static double unvisitedLowerBoundInMeters(double lat, int ring) {
+        double minDiffInRadians = Math.toRadians(ring * CELL_SIZE_IN_DEGREES);
+        double latBound = HaversineUtils.EARTH_RADIUS_IN_METERS * minDiffInRadians;
+
+        double maxLat = Math.min(90.0, Math.abs(lat) + (ring + 1) * CELL_SIZE_IN_DEGREES);
+        double sinHalfDistance = Math.cos(Math.toRadians(maxLat)) * Math.sin(minDiffInRadians / 2);
+        double lngBound = HaversineUtils.EARTH_RADIUS_IN_METERS * 2 * Math.asin(Math.min(1.0, sinHalfDistance));
+
+        return Math.min(latBound, lngBound);
+    }
+
+    /**
+     * Returns the current snapshot, building the first one if the index is used before the application is ready.
+     *
+     * @return the current snapshot
+     */
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot.get();
+        if (current == Snapshot.UNLOADED) {
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    /**
+     * Calculates how many cells north and south of a location must be inspected to cover the radius.
+     *
+     * @param radiusInMeters the search radius in meters
+     * @return the number of cells to inspect on each side
+     */
+    private static int latCellSpan(double radiusInMeters) {
+        double radiusInDegrees = radiusInMeters / METERS_PER_DEGREE_OF_LATITUDE;
+        return Math.max(1, (int) Math.ceil(radiusInDegrees / CELL_SIZE_IN_DEGREES));
+    }
+
+    /**
+     * Calculates how many cells east and west of a location must be inspected to cover the radius.
+     * Longitude degrees shrink towards the poles, so the span grows with the latitude.
+     *
+     * @param lat            the latitude of the location
+     * @param radiusInMeters the search radius in meters
+     * @return the number of cells to inspect on each side
+     */
+    private static int lngCellSpan(double lat, double radiusInMeters) {
+        double metersPerDegreeOfLongitude = METERS_PER_DEGREE_OF_LATITUDE * Math.cos(Math.toRadians(lat));
+        if (metersPerDegreeOfLongitude <= radiusInMeters) {
+            return LNG_CELL_COUNT / 2;
+        }
+        double radiusInDegrees = radiusInMeters / metersPerDegreeOfLongitude;
+        return Math.min(LNG_CELL_COUNT / 2, Math.max(1, (int) Math.ceil(radiusInDegrees / CELL_SIZE_IN_DEGREES)));
+    }
+
+    static int latCellOf(double lat) {
+        return (int) Math.floor(lat / CELL_SIZE_IN_DEGREES);
+    }
+
+    static int lngCellOf(double lng) {
+        return (int) Math.floor((lng + 180.0) / CELL_SIZE_IN_DEGREES);
+    }
+
+    /**
+     * Combines a latitude and a longitude cell into a single key, wrapping longitude cells around the antimeridian.
+     * Neighbouring cells get consecutive keys, which keeps their {@link Long#hashCode()} values distinct.
+     *
+     * @param latCell the latitude cell
+     * @param lngCell the longitude cell
+     * @return the key of the cell
+     */
+    static long cellKey(int latCell, int lngCell) {
+        int wrappedLngCell = Math.floorMod(lngCell, LNG_CELL_COUNT);
+        return (long) latCell * LNG_CELL_COUNT + wrappedLngCell;
+    }
+
+    /**
+     * A store together with its precomputed coordinates in radians and the cosine of its latitude.
+     *
+     * @param store        the indexed store
+     * @param latInRadians the latitude of the store in radians
+     * @param lngInRadians the longitude of the store in radians
+     * @param cosLat       the cosine of the latitude of the store
+     */
+    private record IndexedStore(CatalogStore store, double latInRadians, double lngInRadians, double cosLat) {
+
+        private static IndexedStore of(CatalogStore store) {
+            double latInRadians = Math.toRadians(store.lat());
+            return new IndexedStore(store, latInRadians, Math.toRadians(store.lng()), Math.cos(latInRadians));
+        }
+
+    }
+
+    /**
+     * Immutable grid of stores keyed by cell.
+     *
+     * @param cells the stores of each non-empty cell
+     */
+    private record Grid(Map<Long, List<IndexedStore>> cells) {
+
+        private static Grid of(List<IndexedStore> stores) {
+            Map<Long, List<IndexedStore>> cells = new HashMap<>();
+            for (IndexedStore indexedStore : stores) {
+                CatalogStore store = indexedStore.store();
+                long key = cellKey(latCellOf(store.lat()), lngCellOf(store.lng()));
+                cells.computeIfAbsent(key, ignored -> new ArrayList<>()).add(indexedStore);
+            }
+            cells.replaceAll((key, cellStores) -> List.copyOf(cellStores));
+            return new Grid(Map.copyOf(cells));
+        }
+
+    }
+
+    /**
+     * Immutable version of the store catalog together with the lookup structures built from it.
+     *
+     * @param catalog       the stores and the version of the snapshot
+     * @param storesById    the stores keyed by ID
+     * @param indexedStores the stores with their precomputed coordinates, for scans over all stores
+     * @param grid          the stores bucketed by grid cell
+     * @param dictionary    the keys and names of all stores, including deleted ones
+     */
+    private record Snapshot(StoreCatalog catalog, Map<UUID, CatalogStore> storesById,
+                            List<IndexedStore> indexedStores, Grid grid, StoreDictionary dictionary) {
+
+        private static final Snapshot UNLOADED = new Snapshot(new StoreCatalog(0, List.of()), Map.of(), List.of(),
+                new Grid(Map.of()), StoreDictionary.EMPTY);
+
+        private static Snapshot of(long version, List<StoreEntity> allStores) {
+            List<CatalogStore> stores = allStores.stream()
+                    .filter(store -> !store.isDeleted())
+                    .map(CatalogStore::of)
+                    .toList();
+            Map<UUID, CatalogStore> storesById = new HashMap<>();
+            stores.forEach(store -> storesById.put(store.id(), store));
+            List<IndexedStore> indexedStores = stores.stream().map(IndexedStore::of).toList();
+            return new Snapshot(new StoreCatalog(version, stores), Map.copyOf(storesById),
+                    indexedStores, Grid.of(indexedStores), StoreDictionary.of(allStores));
+        }
+
+    }
+
+}
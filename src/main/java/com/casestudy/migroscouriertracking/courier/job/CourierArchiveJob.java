@@ -0,0 +1,112 @@
+package com.casestudy.migroscouriertracking.courier.job;
+
+import com.casestudy.migroscouriertracking.courier.archive.CourierArchive;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Job named {@link CourierArchiveJob} that moves courier locations older than {@code max-age} from the
+ * {@code couriers} table into the {@link CourierArchive}.
+ * The cutoff is rounded down to the start of a day, so every archived day is complete.
+ * Each courier is moved in its own transaction: its locations are written to their daily segments first and
+ * deleted from the table afterwards, so a failure leaves them in the table to be archived again by the next run.
+ * Archived locations keep referencing their store by store key, so they show the current name of the store like the table does.
+ * It is only registered when {@code courier.archive.enabled} is true.
+ */
+@Component
+@ConditionalOnProperty(name = "courier.archive.enabled", havingValue = "true")
+@Slf4j
+public class CourierArchiveJob {
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final CourierRepository courierRepository;
+    private final CourierArchive courierArchive;
+    private final TransactionOperations transactionOperations;
+    private final Duration maxAge;
+
+    /**
+     * Creates the job with the configured age.
+     *
+     * @param courierRepository     the repository the locations are read from and deleted with
+     * @param courierArchive        the archive the locations are moved into
+     * @param transactionOperations the template each courier is moved in
+     * @param maxAge                how old a location must be before it is archived
+     */
+    @Autowired
+    public CourierArchiveJob(CourierRepository courierRepository,
+                             CourierArchive courierArchive,
+                             TransactionOperations transactionOperations,
+                             @Value("${courier.archive.max-age:P90D}") Duration maxAge) {
+        this.courierRepository = courierRepository;
+        this.courierArchive = courierArchive;
+        this.transactionOperations = transactionOperations;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Archives the locations older than the configured age on the configured schedule.
+     */
+    @Scheduled(cron = "${courier.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        archive(LocalDateTime.now().minus(maxAge).truncatedTo(ChronoUnit.DAYS));
+    }
+
+    /**
+     * Archives the locations of every courier logged before the cutoff.
+     *
+     * @param cutoff the exclusive upper bound of the archived timestamps
+     */
+    void archive(LocalDateTime cutoff) {
+        List<String> courierIds = courierRepository.findDistinctCourierIdsByTimestampBefore(cutoff);
+        log.info("Archiving locations before {} of {} couriers", cutoff, courierIds.size());
+
+        int archived = 0;
+        int failed = 0;
+        for (String courierId : courierIds) {
+            try {
+                archived += archiveCourier(courierId, cutoff);
+            } catch (RuntimeException exception) {
+                failed++;
+                log.error("Archiving locations of courier {} failed", courierId, exception);
+            }
+        }
+
+        log.info("Archived {} locations of {} couriers, {} couriers failed", archived, courierIds.size() - failed, failed);
+    }
+
+    /**
+     * Moves the locations of a courier logged before the cutoff into the archive.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param cutoff    the exclusive upper bound of the archived timestamps
+     * @return the number of archived locations
+     */
+    private int archiveCourier(String courierId, LocalDateTime cutoff) {
+        Integer archived = transactionOperations.execute(status -> {
+            List<CourierEntity> travels = courierRepository.findByCourierIdAndTimestampBeforeOrderByTimestampAsc(courierId, cutoff);
+            courierArchive.append(courierId, travels);
+            // Delete by ID, so a late location inserted meanwhile is left for the next run instead of being lost
+            List<UUID> ids = travels.stream().map(CourierEntity::getId).toList();
+            for (int from = 0; from < ids.size(); from += DELETE_BATCH_SIZE) {
+                courierRepository.deleteAllByIdInBatch(ids.subList(from, Math.min(ids.size(), from + DELETE_BATCH_SIZE)));
+            }
+            return travels.size();
+        });
+        return archived == null ? 0 : archived;
+    }
+
+}
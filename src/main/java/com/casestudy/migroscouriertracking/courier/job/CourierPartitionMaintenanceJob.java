@@ -0,0 +1,199 @@
+package com.casestudy.migroscouriertracking.courier.job;
+
+import com.casestudy.migroscouriertracking.courier.model.CourierPartition;
+import com.casestudy.migroscouriertracking.courier.repository.CourierPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Job named {@link CourierPartitionMaintenanceJob} that keeps the monthly range partitions of the {@code couriers} table
+ * ahead of the clock and removes the months past retention.
+ * Once the application has started and then on the configured schedule, it splits a partition for every month up to
+ * {@code premake-months} ahead out of the {@value CourierPartitionRepository#FUTURE_PARTITION} partition,
+ * so new locations never land in the open-ended partition.
+ * Splitting copies the rows of that partition, so it is skipped with a warning while the partition holds rows;
+ * the {@code V4} migration creates the months up to three months after it ran, so this only happens after the job
+ * has not run for longer than its premake window.
+ * Months that ended more than {@code retention-months} ago are dropped, or moved into archive tables
+ * if {@code archive-expired} is true; a retention of zero keeps every month.
+ * While the {@link CourierArchiveJob} is enabled it owns retention: a month is only removed once it ended before the
+ * archive cutoff and the archive has moved every row out of it, and a retention shorter than the archive
+ * {@code max-age} fails the startup, since it would remove months whose rows were never archived.
+ * It is only registered when {@code courier.partitions.maintenance.enabled} is true.
+ */
+@Component
+@ConditionalOnProperty(name = "courier.partitions.maintenance.enabled", havingValue = "true")
+@Slf4j
+public class CourierPartitionMaintenanceJob {
+
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final CourierPartitionRepository courierPartitionRepository;
+
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final boolean archiveExpired;
+    private final boolean segmentArchiveEnabled;
+    private final Duration segmentArchiveMaxAge;
+
+    /**
+     * Creates the job with the configured partition window.
+     *
+     * @param courierPartitionRepository the repository the partitions are read and changed with
+     * @param premakeMonths              how many months after the current one must already have a partition
+     * @param retentionMonths            how many months before the current one are kept, or zero to keep all of them
+     * @param archiveExpired             whether expired months are moved into archive tables instead of being dropped
+     * @param segmentArchiveEnabled      whether the {@link CourierArchiveJob} moves old locations into the segment archive
+     * @param segmentArchiveMaxAge       how old a location must be before the {@link CourierArchiveJob} archives it
+     * @throws IllegalStateException if the retention would remove months the segment archive has not archived yet
+     */
+    @Autowired
+    public CourierPartitionMaintenanceJob(CourierPartitionRepository courierPartitionRepository,
+                                          @Value("${courier.partitions.maintenance.premake-months:3}") int premakeMonths,
+                                          @Value("${courier.partitions.maintenance.retention-months:0}") int retentionMonths,
+                                          @Value("${courier.partitions.maintenance.archive-expired:false}") boolean archiveExpired,
+                                          @Value("${courier.archive.enabled:false}") boolean segmentArchiveEnabled,
+                                          @Value("${courier.archive.max-age:P90D}") Duration segmentArchiveMaxAge) {
+        // The shortest span of retention months, so every removed month is older than the archive max-age
+        if (segmentArchiveEnabled && retentionMonths > 0 && Duration.ofDays(28L * retentionMonths).compareTo(segmentArchiveMaxAge) < 0) {
+            throw new IllegalStateException("Courier partition retention of " + retentionMonths
+                    + " months is shorter than the courier archive max-age of " + segmentArchiveMaxAge
+                    + "; partitions would be removed before their locations are archived");
+        }
+        this.courierPartitionRepository = courierPartitionRepository;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.archiveExpired = archiveExpired;
+        this.segmentArchiveEnabled = segmentArchiveEnabled;
+        this.segmentArchiveMaxAge = segmentArchiveMaxAge;
+    }
+
+    /**
+     * Maintains the partitions once the application has started, before the first scheduled run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    /**
+     * Maintains the partitions on the configured schedule.
+     */
+    @Scheduled(cron = "${courier.partitions.maintenance.cron:0 0 3 * * *}")
+    public void maintain() {
+        try {
+            maintain(LocalDate.now());
+        } catch (RuntimeException exception) {
+            log.error("Courier partition maintenance failed", exception);
+        }
+    }
+
+    /**
+     * Adds the missing future partitions and removes the expired ones as of the given day.
+     *
+     * @param today the current day
+     */
+    void maintain(LocalDate today) {
+        List<CourierPartition> partitions = courierPartitionRepository.findPartitions();
+        if (partitions.stream().noneMatch(partition -> CourierPartitionRepository.FUTURE_PARTITION.equals(partition.name()))) {
+            log.warn("The couriers table has no {} partition; skipping partition maintenance", CourierPartitionRepository.FUTURE_PARTITION);
+            return;
+        }
+
+        List<CourierPartition> missing = missingPartitions(partitions, today);
+        if (!missing.isEmpty()) {
+            if (courierPartitionRepository.isPartitionEmpty(CourierPartitionRepository.FUTURE_PARTITION)) {
+                courierPartitionRepository.addPartitions(missing);
+                log.info("Added courier partitions {}", missing.stream().map(CourierPartition::name).toList());
+            } else {
+                // Splitting would copy those rows while holding a lock on the table, so leave it to an operator
+                log.warn("The {} partition holds rows; not splitting courier partitions {} out of it",
+                        CourierPartitionRepository.FUTURE_PARTITION, missing.stream().map(CourierPartition::name).toList());
+            }
+        }
+
+        List<String> expired = expiredPartitions(partitions, today);
+        if (segmentArchiveEnabled) {
+            List<String> unarchived = expired.stream()
+                    .filter(partitionName -> !courierPartitionRepository.isPartitionEmpty(partitionName))
+                    .toList();
+            if (!unarchived.isEmpty()) {
+                log.warn("Expired courier partitions {} still hold locations that were not archived; keeping them", unarchived);
+                expired = expired.stream().filter(partitionName -> !unarchived.contains(partitionName)).toList();
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        if (archiveExpired) {
+            for (String partitionName : expired) {
+                String archiveTable = courierPartitionRepository.archivePartition(partitionName);
+                log.info("Archived courier partition {} into {}", partitionName, archiveTable);
+            }
+        } else {
+            courierPartitionRepository.dropPartitions(expired);
+            log.info("Dropped expired courier partitions {}", expired);
+        }
+    }
+
+    /**
+     * Lists the monthly partitions needed after the highest bounded partition so that every month up to
+     * {@code premakeMonths} after the current one has a partition of its own.
+     *
+     * @param partitions the existing partitions in ascending order
+     * @param today      the current day
+     * @return the partitions to add in ascending order
+     */
+    List<CourierPartition> missingPartitions(List<CourierPartition> partitions, LocalDate today) {
+        LocalDateTime target = today.withDayOfMonth(1).plusMonths(premakeMonths + 1L).atStartOfDay();
+        LocalDateTime lowerBound = partitions.stream()
+                .filter(partition -> !partition.isOpenEnded())
+                .map(CourierPartition::upperBound)
+                .max(LocalDateTime::compareTo)
+                .orElse(today.withDayOfMonth(1).atStartOfDay());
+
+        List<CourierPartition> missing = new ArrayList<>();
+        while (lowerBound.isBefore(target)) {
+            LocalDateTime upperBound = lowerBound.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+            missing.add(new CourierPartition(PARTITION_NAME_FORMAT.format(lowerBound), upperBound));
+            lowerBound = upperBound;
+        }
+        return missing;
+    }
+
+    /**
+     * Lists the bounded partitions that only hold rows from before the retention window
+     * and, while the segment archive is enabled, from before its cutoff.
+     *
+     * @param partitions the existing partitions in ascending order
+     * @param today      the current day
+     * @return the names of the partitions to drop or archive, oldest first
+     */
+    List<String> expiredPartitions(List<CourierPartition> partitions, LocalDate today) {
+        if (retentionMonths <= 0) {
+            return List.of();
+        }
+        LocalDateTime retentionStart = today.withDayOfMonth(1).minusMonths(retentionMonths).atStartOfDay();
+        LocalDateTime archiveCutoff = today.atStartOfDay().minus(segmentArchiveMaxAge);
+        LocalDateTime retainedFrom = segmentArchiveEnabled && archiveCutoff.isBefore(retentionStart) ? archiveCutoff : retentionStart;
+        return partitions.stream()
+                .filter(partition -> !partition.isOpenEnded())
+                .filter(partition -> !partition.upperBound().isAfter(retainedFrom))
+                .map(CourierPartition::name)
+                .toList();
+    }
+
+}
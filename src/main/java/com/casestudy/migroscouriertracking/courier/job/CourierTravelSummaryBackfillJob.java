@@ -0,0 +1,51 @@
+package com.casestudy.migroscouriertracking.courier.job;
+
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.service.CourierTravelSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Job named {@link CourierTravelSummaryBackfillJob} that rebuilds the travel summary of every courier
+ * from the existing rows of the {@code couriers} table once the application has started.
+ * It is only registered when {@code courier.travel-summary.backfill.enabled} is true, which is needed once
+ * for locations logged before travel summaries were introduced.
+ * Each courier is rebuilt in its own transaction, so a failure does not undo the couriers already processed.
+ */
+@Component
+@ConditionalOnProperty(name = "courier.travel-summary.backfill.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CourierTravelSummaryBackfillJob {
+
+    private final CourierRepository courierRepository;
+    private final CourierTravelSummaryService courierTravelSummaryService;
+
+    /**
+     * Rebuilds the travel summaries of all couriers.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<String> courierIds = courierRepository.findDistinctCourierIds();
+        log.info("Backfilling travel summaries of {} couriers", courierIds.size());
+
+        int failed = 0;
+        for (String courierId : courierIds) {
+            try {
+                courierTravelSummaryService.rebuild(courierId);
+            } catch (RuntimeException exception) {
+                failed++;
+                log.error("Travel summary backfill failed for courier {}", courierId, exception);
+            }
+        }
+
+        log.info("Travel summary backfill finished: {} rebuilt, {} failed", courierIds.size() - failed, failed);
+    }
+
+}
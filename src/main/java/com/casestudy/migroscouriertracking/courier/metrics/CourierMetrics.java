@@ -0,0 +1,177 @@
+package com.casestudy.migroscouriertracking.courier.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Component named {@link CourierMetrics} that publishes the Micrometer meters of location ingestion and travel queries.
+ * Every meter is registered once at startup and kept in an array indexed by the ordinal of its enum, so recording
+ * on the hot path is a plain array read and a {@link System#nanoTime()} pair, without tag lookups or allocations.
+ * <ul>
+ *     <li>{@code courier.ingest.stage} — latency histogram of each {@link Stage} of logging a location</li>
+ *     <li>{@code courier.ingest.rejections} — locations rejected per {@link Rejection} reason</li>
+ *     <li>{@code courier.ingest.duplicates} — retried pings answered with the outcome of the earlier ping</li>
+ *     <li>{@code courier.travels.query.rows} — rows returned per {@link TravelQuery}</li>
+ *     <li>{@code courier.distance.points} — locations read per {@link DistanceComputation}</li>
+ * </ul>
+ */
+@Component
+public class CourierMetrics {
+
+    /**
+     * The stages of logging a courier location.
+     */
+    public enum Stage {
+        VALIDATION,
+        STORE_RESOLUTION,
+        REENTRY_CHECK,
+        PERSISTENCE
+    }
+
+    /**
+     * The reasons a courier location is rejected for.
+     */
+    public enum Rejection {
+        FAR_AWAY,
+        REENTRY_TOO_SOON,
+        TIMESTAMP_BEFORE_CREATION
+    }
+
+    /**
+     * The queries returning the travels of a courier.
+     */
+    public enum TravelQuery {
+        PAST,
+        PAGE,
+        STORE_AND_TIME_RANGE
+    }
+
+    /**
+     * The computations summing the distance between consecutive locations of a courier.
+     */
+    public enum DistanceComputation {
+        SUMMARY_APPEND,
+        SUMMARY_REBUILD,
+        TIME_RANGE
+    }
+
+    private final Timer[] stageTimers;
+    private final Counter[] rejectionCounters;
+    private final Counter duplicateCounter;
+    private final DistributionSummary[] travelQueryRows;
+    private final DistributionSummary[] distancePoints;
+
+    /**
+     * Creates and registers the meters.
+     *
+     * @param meterRegistry the registry the meters are published to
+     */
+    public CourierMetrics(MeterRegistry meterRegistry) {
+        Stage[] stages = Stage.values();
+        this.stageTimers = new Timer[stages.length];
+        for (Stage stage : stages) {
+            stageTimers[stage.ordinal()] = Timer.builder("courier.ingest.stage")
+                    .description("Duration of one stage of logging a courier location")
+                    .tag("stage", tagValue(stage))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(500))
+                    .maximumExpectedValue(Duration.ofSeconds(5))
+                    .register(meterRegistry);
+        }
+
+        Rejection[] rejections = Rejection.values();
+        this.rejectionCounters = new Counter[rejections.length];
+        for (Rejection rejection : rejections) {
+            rejectionCounters[rejection.ordinal()] = Counter.builder("courier.ingest.rejections")
+                    .description("Courier locations rejected by the store and re-entry rules")
+                    .tag("reason", tagValue(rejection))
+                    .register(meterRegistry);
+        }
+
+        this.duplicateCounter = Counter.builder("courier.ingest.duplicates")
+                .description("Retried courier locations answered with the outcome of the earlier ping")
+                .register(meterRegistry);
+
+        TravelQuery[] travelQueries = TravelQuery.values();
+        this.travelQueryRows = new DistributionSummary[travelQueries.length];
+        for (TravelQuery travelQuery : travelQueries) {
+            travelQueryRows[travelQuery.ordinal()] = DistributionSummary.builder("courier.travels.query.rows")
+                    .description("Number of travels returned by one travel query")
+                    .baseUnit("rows")
+                    .tag("query", tagValue(travelQuery))
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(1_000_000.0)
+                    .register(meterRegistry);
+        }
+
+        DistanceComputation[] distanceComputations = DistanceComputation.values();
+        this.distancePoints = new DistributionSummary[distanceComputations.length];
+        for (DistanceComputation distanceComputation : distanceComputations) {
+            distancePoints[distanceComputation.ordinal()] = DistributionSummary.builder("courier.distance.points")
+                    .description("Number of locations read by one distance computation")
+                    .baseUnit("points")
+                    .tag("operation", tagValue(distanceComputation))
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(1_000_000.0)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a stage started.
+     *
+     * @param stage     the stage that finished
+     * @param startedAt the {@link System#nanoTime()} at which the stage started
+     */
+    public void recordStage(Stage stage, long startedAt) {
+        stageTimers[stage.ordinal()].record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a rejected courier location.
+     *
+     * @param rejection the reason the location was rejected for
+     */
+    public void recordRejection(Rejection rejection) {
+        rejectionCounters[rejection.ordinal()].increment();
+    }
+
+    /**
+     * Counts a retried courier location that was not processed again.
+     */
+    public void recordDuplicate() {
+        duplicateCounter.increment();
+    }
+
+    /**
+     * Records the number of travels a travel query returned.
+     *
+     * @param travelQuery the query that was run
+     * @param rows        the number of returned travels
+     */
+    public void recordTravelQueryRows(TravelQuery travelQuery, int rows) {
+        travelQueryRows[travelQuery.ordinal()].record(rows);
+    }
+
+    /**
+     * Records the number of locations a distance computation read.
+     *
+     * @param distanceComputation the computation that was run
+     * @param points              the number of locations read
+     */
+    public void recordDistancePoints(DistanceComputation distanceComputation, int points) {
+        distancePoints[distanceComputation.ordinal()].record(points);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+}
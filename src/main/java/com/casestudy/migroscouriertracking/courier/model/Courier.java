@@ -3,6 +3,7 @@ package com.casestudy.migroscouriertracking.courier.model;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * Represents a domain object named {@link Courier} with relevant details including location and associated store.
@@ -22,5 +23,19 @@ public class Courier {
     private String storeName;
     private LocalDateTime timestamp;
 
+    /**
+     * Creates a courier from the columns of a persisted location, used by JPQL constructor expressions.
+     *
+     * @param id        the binary primary key of the location
+     * @param courierId the unique identifier of the courier
+     * @param lat       the latitude of the location
+     * @param lng       the longitude of the location
+     * @param storeName the name of the store the location was logged at
+     * @param timestamp the timestamp of the location
+     */
+    public Courier(UUID id, String courierId, Double lat, Double lng, String storeName, LocalDateTime timestamp) {
+        this(id.toString(), courierId, lat, lng, storeName, timestamp);
+    }
+
 }
 
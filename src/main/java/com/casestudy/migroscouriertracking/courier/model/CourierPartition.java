@@ -0,0 +1,23 @@
+package com.casestudy.migroscouriertracking.courier.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a range partition named {@link CourierPartition} of the {@code couriers} table.
+ * A partition holds the rows whose timestamp is before its upper bound and not before the upper bound of the previous one.
+ *
+ * @param name       the name of the partition
+ * @param upperBound the exclusive upper bound of the partition, or null for the {@code MAXVALUE} partition
+ */
+public record CourierPartition(String name, LocalDateTime upperBound) {
+
+    /**
+     * Checks whether the partition is the open-ended {@code MAXVALUE} partition that catches all future rows.
+     *
+     * @return true if the partition has no upper bound; false otherwise
+     */
+    public boolean isOpenEnded() {
+        return upperBound == null;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.casestudy.migroscouriertracking.courier.model;
+
+import com.casestudy.migroscouriertracking.courier.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Represents the position named {@link CourierTravelCursor} after which the next page of a courier's travels starts.
+ * Travels are ordered by timestamp and then by ID, so the pair identifies a position even when timestamps repeat.
+ * Archived travels come before the travels in the table, so the cursor also remembers which of the two it points into.
+ * It is exchanged with clients as an opaque URL-safe token.
+ *
+ * @param archived  whether the last travel of the previous page was read from the archive
+ * @param timestamp the timestamp of the last travel of the previous page
+ * @param id        the ID of the last travel of the previous page
+ */
+public record CourierTravelCursor(boolean archived, LocalDateTime timestamp, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    private static final String ARCHIVED_PREFIX = "archive" + SEPARATOR;
+
+    /**
+     * Creates the cursor pointing after a travel read from the table.
+     *
+     * @param timestamp the timestamp of the last travel of the previous page
+     * @param id        the ID of the last travel of the previous page
+     */
+    public CourierTravelCursor(LocalDateTime timestamp, UUID id) {
+        this(false, timestamp, id);
+    }
+
+    /**
+     * Creates the cursor pointing after the given travel read from the table.
+     *
+     * @param courier the last travel of a page
+     * @return the cursor of the next page
+     */
+    public static CourierTravelCursor after(Courier courier) {
+        return new CourierTravelCursor(false, courier.getTimestamp(), UUID.fromString(courier.getId()));
+    }
+
+    /**
+     * Creates the cursor pointing after the given archived travel.
+     *
+     * @param courier the last travel of a page
+     * @return the cursor of the next page
+     */
+    public static CourierTravelCursor afterArchived(Courier courier) {
+        return new CourierTravelCursor(true, courier.getTimestamp(), UUID.fromString(courier.getId()));
+    }
+
+    /**
+     * Encodes the cursor into an opaque token.
+     *
+     * @return the URL-safe token of the cursor
+     */
+    public String encode() {
+        String value = (archived ? ARCHIVED_PREFIX : "") + timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the token to decode
+     * @return the decoded cursor
+     * @throws InvalidCursorException if the token is not a valid cursor
+     */
+    public static CourierTravelCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            boolean archived = value.startsWith(ARCHIVED_PREFIX);
+            if (archived) {
+                value = value.substring(ARCHIVED_PREFIX.length());
+            }
+            int separatorIndex = value.indexOf(SEPARATOR);
+            if (separatorIndex <= 0 || separatorIndex == value.length() - 1) {
+                throw new InvalidCursorException("Invalid cursor: " + token);
+            }
+            return new CourierTravelCursor(archived, LocalDateTime.parse(value.substring(0, separatorIndex)), UUID.fromString(value.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException exception) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.casestudy.migroscouriertracking.courier.model;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Represents a domain object named {@link CourierTravelPage} holding one page of a courier's travels
+ * together with the cursor of the next page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourierTravelPage {
+
+    private List<Courier> travels;
+    private String nextCursor;
+
+}
@@ -0,0 +1,34 @@
+package com.casestudy.migroscouriertracking.courier.model;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Represents a domain object named {@link SimplifiedTrack} holding the travels kept by simplifying a courier's track,
+ * together with the size and length of the original track.
+ * The simplified track can only be shorter than the original one, and {@link #getDistanceErrorInMeters()}
+ * is exactly how much shorter it is.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SimplifiedTrack {
+
+    private List<Courier> travels;
+    private int originalPointCount;
+    private double originalDistanceInMeters;
+    private double distanceInMeters;
+
+    /**
+     * Returns how much of the original track's length was lost by the simplification.
+     *
+     * @return the difference between the original and simplified track lengths in meters
+     */
+    public double getDistanceErrorInMeters() {
+        return Math.max(0.0, originalDistanceInMeters - distanceInMeters);
+    }
+
+}
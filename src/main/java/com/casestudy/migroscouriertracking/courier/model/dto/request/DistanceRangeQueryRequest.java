@@ -0,0 +1,39 @@
+package com.casestudy.migroscouriertracking.courier.model.dto.request;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a request named {@link DistanceRangeQueryRequest} for the distance a courier travelled
+ * within the time range [start, end), bound from query parameters.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DistanceRangeQueryRequest {
+
+    @NotNull(message = "Start time cannot be null")
+    @DateTimeFormat(pattern = "dd/MM/yyyy HH:mm")
+    private LocalDateTime start;
+
+    @NotNull(message = "End time cannot be null")
+    @DateTimeFormat(pattern = "dd/MM/yyyy HH:mm")
+    private LocalDateTime end;
+
+    /**
+     * Validates that the start time is before the end time.
+     *
+     * @return true if the start time is before the end time; false otherwise.
+     */
+    @AssertTrue(message = "Start time must be before end time")
+    public boolean isValidTimeRange() {
+        return start != null && end != null && start.isBefore(end);
+    }
+
+}
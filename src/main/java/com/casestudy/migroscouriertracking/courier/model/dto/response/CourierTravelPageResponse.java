@@ -0,0 +1,24 @@
+package com.casestudy.migroscouriertracking.courier.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Represents the response named {@link CourierTravelPageResponse} containing one page of a courier's travels.
+ * The next page is requested with {@code nextCursor}, which is absent on the last page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourierTravelPageResponse {
+
+    private List<CourierResponse> travels;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+}
@@ -0,0 +1,27 @@
+package com.casestudy.migroscouriertracking.courier.model.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the response named {@link LogCourierLocationResponse} containing the outcome of a single ping
+ * within a batch of courier locations.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogCourierLocationResponse {
+
+    private Integer index;
+    private String courierId;
+    private LocalDateTime timestamp;
+    private Boolean logged;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String message;
+
+}
@@ -0,0 +1,21 @@
+package com.casestudy.migroscouriertracking.courier.model.dto.response;
+
+import lombok.*;
+
+/**
+ * Represents the response named {@link NearestStoreResponse} containing a store and its distance from a searched location.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearestStoreResponse {
+
+    private String id;
+    private String name;
+    private Double lat;
+    private Double lng;
+    private Double distanceInMeters;
+
+}
@@ -0,0 +1,20 @@
+package com.casestudy.migroscouriertracking.courier.model.dto.response;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Represents the response named {@link StoreCatalogResponse} containing all stores of one version of the store catalog.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoreCatalogResponse {
+
+    private long version;
+    private List<StoreResponse> stores;
+
+}
@@ -0,0 +1,23 @@
+package com.casestudy.migroscouriertracking.courier.model.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the response named {@link StoreResponse} containing the location and creation time of a store.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoreResponse {
+
+    private String id;
+    private String name;
+    private Double lat;
+    private Double lng;
+    private LocalDateTime createdAt;
+
+}
@@ -2,15 +2,30 @@ package com.casestudy.migroscouriertracking.courier.model.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
  * Represents a courier entity named {@link CourierEntity} that holds information about a courier's location and associated data.
+ * The table and its lookup indexes are created by the Flyway migrations under {@code db/migration}.
+ * The table is range-partitioned by month on {@code timestamp}, so its primary key is {@code (id, timestamp)};
+ * the ID alone stays unique and is what the entity is identified by.
+ * A ping is logged at most once: the courier, timestamp and coordinates together are unique.
+ * IDs are time-ordered UUIDs of version 7 stored as {@code BINARY(16)}, so rows logged under sustained ingestion
+ * are appended at the end of the clustered index and every secondary index carries 16 bytes per row instead of 36.
+ * The store a location was logged at is referenced by its integer {@link StoreEntity#getStoreKey() store key};
+ * its name is resolved through the {@link com.casestudy.migroscouriertracking.courier.index.StoreDictionary}.
  */
 @Entity
-@Table(name = "couriers")
+@Table(name = "couriers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_couriers_ping", columnNames = {"courier_id", "timestamp", "lat", "lng"})
+}, indexes = {
+        @Index(name = "idx_couriers_courier_id_store_key_timestamp", columnList = "courier_id, store_key, timestamp"),
+        @Index(name = "idx_couriers_courier_id_timestamp", columnList = "courier_id, timestamp")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,9 +34,10 @@ import java.util.UUID;
 public class CourierEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    @Column(name = "id", updatable = false, nullable = false)
-    private String id = UUID.randomUUID().toString();
+    @GeneratedUuidV7
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", columnDefinition = "BINARY(16)", updatable = false, nullable = false)
+    private UUID id;
 
     @Column(name = "courier_id", nullable = false)
     private String courierId;
@@ -32,8 +48,8 @@ public class CourierEntity {
     @Column(nullable = false)
     private Double lng;
 
-    @Column(name = "store_name", nullable = false)
-    private String storeName;
+    @Column(name = "store_key", nullable = false)
+    private Integer storeKey;
 
     @Column(nullable = false)
     private LocalDateTime timestamp;
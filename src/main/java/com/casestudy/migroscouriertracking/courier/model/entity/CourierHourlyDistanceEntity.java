@@ -0,0 +1,27 @@
+package com.casestudy.migroscouriertracking.courier.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Represents an hourly distance bucket named {@link CourierHourlyDistanceEntity} that holds the distance of every segment
+ * a courier finished within one hour, a segment being the path from one location of the courier to its next one.
+ * Buckets are kept up to date together with the {@link CourierTravelSummaryEntity}, so the distance travelled in
+ * whole hours can be summed without loading the locations.
+ */
+@Entity
+@Table(name = "courier_hourly_distances")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourierHourlyDistanceEntity {
+
+    @EmbeddedId
+    private CourierHourlyDistanceId id;
+
+    @Column(name = "distance_in_kilometers", nullable = false)
+    private Double distanceInKilometers;
+
+}
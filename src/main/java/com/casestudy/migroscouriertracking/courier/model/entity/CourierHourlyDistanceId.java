@@ -0,0 +1,29 @@
+package com.casestudy.migroscouriertracking.courier.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Represents the composite key named {@link CourierHourlyDistanceId} of a {@link CourierHourlyDistanceEntity}:
+ * a courier and the start of an hour.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode
+public class CourierHourlyDistanceId implements Serializable {
+
+    @Column(name = "courier_id", updatable = false, nullable = false)
+    private String courierId;
+
+    @Column(name = "bucket_start", updatable = false, nullable = false)
+    private LocalDateTime bucketStart;
+
+}
@@ -0,0 +1,29 @@
+package com.casestudy.migroscouriertracking.courier.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the newest accepted visit named {@link CourierStoreVisitEntity} of a courier to a store.
+ * Its row is locked while a ping of the courier at the store is checked against the store re-entry rule,
+ * so the rule holds across instances without every ping reading the locations of the courier.
+ * The last visit is null for a row created before the first visit is decided.
+ */
+@Entity
+@Table(name = "courier_store_visits")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourierStoreVisitEntity {
+
+    @EmbeddedId
+    private CourierStoreVisitId id;
+
+    @Column(name = "last_visit")
+    private LocalDateTime lastVisit;
+
+}
@@ -0,0 +1,28 @@
+package com.casestudy.migroscouriertracking.courier.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Represents the composite key named {@link CourierStoreVisitId} of a {@link CourierStoreVisitEntity}:
+ * a courier and the key of a store.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode
+public class CourierStoreVisitId implements Serializable {
+
+    @Column(name = "courier_id", updatable = false, nullable = false)
+    private String courierId;
+
+    @Column(name = "store_key", updatable = false, nullable = false)
+    private Integer storeKey;
+
+}
@@ -0,0 +1,38 @@
+package com.casestudy.migroscouriertracking.courier.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a courier travel summary entity named {@link CourierTravelSummaryEntity} that holds the running total
+ * distance of a courier together with the last location it was computed up to.
+ * It is kept up to date with every accepted location, so the total distance can be read without loading the travel history.
+ */
+@Entity
+@Table(name = "courier_travel_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourierTravelSummaryEntity {
+
+    @Id
+    @Column(name = "courier_id", updatable = false, nullable = false)
+    private String courierId;
+
+    @Column(name = "total_distance_in_kilometers", nullable = false)
+    private Double totalDistanceInKilometers;
+
+    @Column(name = "last_lat", nullable = false)
+    private Double lastLat;
+
+    @Column(name = "last_lng", nullable = false)
+    private Double lastLng;
+
+    @Column(name = "last_timestamp", nullable = false)
+    private LocalDateTime lastTimestamp;
+
+}
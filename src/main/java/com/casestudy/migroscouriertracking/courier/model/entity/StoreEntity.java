@@ -1,16 +1,25 @@
 package com.casestudy.migroscouriertracking.courier.model.entity;
 
+import com.casestudy.migroscouriertracking.courier.index.StoreEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
  * Represents a store entity named {@link StoreEntity} that holds information about a store's location and creation time.
+ * Its ID is a time-ordered UUID of version 7 stored as {@code BINARY(16)}.
+ * Courier locations reference a store by its {@code store_key}, a compact integer assigned by the database on insert.
+ * A deleted store is kept with its deletion time, so the locations logged at it still resolve to its name;
+ * names are unique among the stores that are not deleted, which the {@code uk_stores_name} index enforces.
  */
 @Entity
 @Table(name = "stores")
+@EntityListeners(StoreEntityListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,9 +28,14 @@ import java.util.UUID;
 public class StoreEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    @Column(name = "id", updatable = false, nullable = false)
-    private String id = UUID.randomUUID().toString();
+    @GeneratedUuidV7
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", columnDefinition = "BINARY(16)", updatable = false, nullable = false)
+    private UUID id;
+
+    @Generated
+    @Column(name = "store_key", insertable = false, updatable = false)
+    private Integer storeKey;
 
     @Column(nullable = false)
     private String name;
@@ -36,5 +50,17 @@ public class StoreEntity {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    /**
+     * Checks whether the store was deleted.
+     *
+     * @return true if the store was deleted; false otherwise
+     */
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+
 }
 
@@ -0,0 +1,43 @@
+package com.casestudy.migroscouriertracking.courier.model.entity;
+
+import com.casestudy.migroscouriertracking.courier.utils.UuidV7Utils;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.util.EnumSet;
+
+import static org.hibernate.generator.EventTypeSets.INSERT_ONLY;
+
+/**
+ * Identifier generator named {@link UuidV7Generator} that assigns a time-ordered UUID of version 7
+ * from {@link UuidV7Utils} to an entity annotated with {@link GeneratedUuidV7} when it is persisted.
+ * An identifier assigned by the application before persisting is kept.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return currentValue != null ? currentValue : UuidV7Utils.randomUuid();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return INSERT_ONLY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+}
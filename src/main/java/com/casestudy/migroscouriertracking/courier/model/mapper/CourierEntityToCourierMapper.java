@@ -1,10 +1,12 @@
 package com.casestudy.migroscouriertracking.courier.model.mapper;
 
-import com.casestudy.migroscouriertracking.common.model.mapper.BaseMapper;
+import com.casestudy.migroscouriertracking.courier.index.StoreDictionary;
 import com.casestudy.migroscouriertracking.courier.model.Courier;
 import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 import org.mapstruct.factory.Mappers;
 
 import java.util.List;
@@ -13,31 +15,46 @@ import java.util.List;
  * Mapper interface for converting {@link CourierEntity} to {@link Courier}.
  * This interface defines the mapping between the CourierEntity and Courier classes,
  * allowing for easy transformation of data between these two representations.
+ * The store key of an entity is resolved to the store name through the given {@link StoreDictionary}.
  */
 @Mapper
-public interface CourierEntityToCourierMapper extends BaseMapper<CourierEntity, Courier> {
+public interface CourierEntityToCourierMapper {
 
     /**
      * Maps a single {@link CourierEntity} to a {@link Courier}.
      *
-     * @param source the {@link CourierEntity} to map
+     * @param source          the {@link CourierEntity} to map
+     * @param storeDictionary the dictionary resolving the store key to the store name
      * @return the mapped {@link Courier}
      */
     @Mapping(target = "id", source = "id")
     @Mapping(target = "courierId", source = "courierId")
     @Mapping(target = "lat", source = "lat")
     @Mapping(target = "lng", source = "lng")
-    @Mapping(target = "storeName", source = "storeName")
+    @Mapping(target = "storeName", source = "storeKey", qualifiedByName = "storeName")
     @Mapping(target = "timestamp", source = "timestamp")
-    Courier map(CourierEntity source);
+    Courier map(CourierEntity source, @Context StoreDictionary storeDictionary);
 
     /**
      * Maps a list of {@link CourierEntity} to a list of {@link Courier}.
      *
-     * @param sources the list of {@link CourierEntity} to map
+     * @param sources         the list of {@link CourierEntity} to map
+     * @param storeDictionary the dictionary resolving the store keys to store names
      * @return the list of mapped {@link Courier}
      */
-    List<Courier> map(List<CourierEntity> sources);
+    List<Courier> map(List<CourierEntity> sources, @Context StoreDictionary storeDictionary);
+
+    /**
+     * Resolves a store key to the store name.
+     *
+     * @param storeKey        the key of the store
+     * @param storeDictionary the dictionary resolving the store key
+     * @return the name of the store, or null if the key is unknown
+     */
+    @Named("storeName")
+    default String storeName(Integer storeKey, @Context StoreDictionary storeDictionary) {
+        return storeDictionary.nameOf(storeKey);
+    }
 
     /**
      * Initializes and returns an instance of {@link CourierEntityToCourierMapper}.
@@ -0,0 +1,84 @@
+package com.casestudy.migroscouriertracking.courier.model.mapper;
+
+import com.casestudy.migroscouriertracking.common.model.mapper.BaseMapper;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.NearestStore;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.NearestStoreResponse;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.StoreResponse;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+
+/**
+ * Mapper interface for converting {@link StoreEntity} and {@link CatalogStore} to {@link StoreResponse}
+ * and {@link NearestStore} to {@link NearestStoreResponse}.
+ */
+@Mapper
+public interface StoreEntityToStoreResponseMapper extends BaseMapper<StoreEntity, StoreResponse> {
+
+    /**
+     * Maps a single {@link StoreEntity} to a {@link StoreResponse}.
+     *
+     * @param source the {@link StoreEntity} to map
+     * @return the mapped {@link StoreResponse}
+     */
+    StoreResponse map(StoreEntity source);
+
+    /**
+     * Maps a list of {@link StoreEntity} to a list of {@link StoreResponse}.
+     *
+     * @param sources the list of {@link StoreEntity} to map
+     * @return the list of mapped {@link StoreResponse}
+     */
+    List<StoreResponse> map(List<StoreEntity> sources);
+
+    /**
+     * Maps a single {@link CatalogStore} to a {@link StoreResponse}.
+     *
+     * @param source the {@link CatalogStore} to map
+     * @return the mapped {@link StoreResponse}
+     */
+    StoreResponse mapCatalogStore(CatalogStore source);
+
+    /**
+     * Maps a list of {@link CatalogStore} to a list of {@link StoreResponse}.
+     *
+     * @param sources the list of {@link CatalogStore} to map
+     * @return the list of mapped {@link StoreResponse}
+     */
+    List<StoreResponse> mapCatalogStores(List<CatalogStore> sources);
+
+    /**
+     * Maps a single {@link NearestStore} to a {@link NearestStoreResponse}.
+     *
+     * @param source the {@link NearestStore} to map
+     * @return the mapped {@link NearestStoreResponse}
+     */
+    @Mapping(target = "id", source = "store.id")
+    @Mapping(target = "name", source = "store.name")
+    @Mapping(target = "lat", source = "store.lat")
+    @Mapping(target = "lng", source = "store.lng")
+    @Mapping(target = "distanceInMeters", source = "distanceInMeters")
+    NearestStoreResponse mapNearestStore(NearestStore source);
+
+    /**
+     * Maps a list of {@link NearestStore} to a list of {@link NearestStoreResponse}.
+     *
+     * @param sources the list of {@link NearestStore} to map
+     * @return the list of mapped {@link NearestStoreResponse}
+     */
+    List<NearestStoreResponse> mapNearestStores(List<NearestStore> sources);
+
+    /**
+     * Initializes and returns an instance of {@link StoreEntityToStoreResponseMapper}.
+     *
+     * @return a new instance of {@link StoreEntityToStoreResponseMapper}
+     */
+    static StoreEntityToStoreResponseMapper initialize() {
+        return Mappers.getMapper(StoreEntityToStoreResponseMapper.class);
+    }
+
+}
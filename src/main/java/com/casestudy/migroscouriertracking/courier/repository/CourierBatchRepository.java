@@ -0,0 +1,21 @@
+package com.casestudy.migroscouriertracking.courier.repository;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+
+import java.util.List;
+
+/**
+ * Repository fragment named {@link CourierBatchRepository} for writing many {@link CourierEntity} rows at once.
+ */
+public interface CourierBatchRepository {
+
+    /**
+     * Inserts the given courier entities using JDBC batch statements instead of one persist per row.
+     * Entities without an ID are assigned a new one before being inserted.
+     * An entity repeating a stored ping, with the same courier, timestamp and coordinates, is skipped.
+     *
+     * @param couriers the courier entities to insert
+     */
+    void batchInsert(List<CourierEntity> couriers);
+
+}
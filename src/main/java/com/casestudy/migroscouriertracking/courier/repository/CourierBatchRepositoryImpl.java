@@ -0,0 +1,53 @@
+package com.casestudy.migroscouriertracking.courier.repository;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.utils.UuidV7Utils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC implementation named {@link CourierBatchRepositoryImpl} of {@link CourierBatchRepository}.
+ * Rows are sent in batches of {@value #BATCH_SIZE}; with {@code rewriteBatchedStatements=true}
+ * the MySQL driver turns each batch into a single multi-row insert.
+ * A row hitting the {@code uk_couriers_ping} unique key is left as it is by the no-op update,
+ * which only fires on a duplicate key and, unlike {@code INSERT IGNORE}, does not hide other errors.
+ * Locations without an ID get a time-ordered UUID from {@link UuidV7Utils}, bound as the 16 bytes of the key column.
+ */
+@RequiredArgsConstructor
+public class CourierBatchRepositoryImpl implements CourierBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_COURIER_SQL =
+            "INSERT INTO couriers (id, courier_id, lat, lng, store_key, timestamp) VALUES (?, ?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE id = id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void batchInsert(List<CourierEntity> couriers) {
+        if (couriers.isEmpty()) {
+            return;
+        }
+
+        couriers.stream()
+                .filter(courier -> courier.getId() == null)
+                .forEach(courier -> courier.setId(UuidV7Utils.randomUuid()));
+
+        jdbcTemplate.batchUpdate(INSERT_COURIER_SQL, couriers, BATCH_SIZE, (preparedStatement, courier) -> {
+            preparedStatement.setBytes(1, UuidV7Utils.toBytes(courier.getId()));
+            preparedStatement.setString(2, courier.getCourierId());
+            preparedStatement.setDouble(3, courier.getLat());
+            preparedStatement.setDouble(4, courier.getLng());
+            preparedStatement.setInt(5, courier.getStoreKey());
+            preparedStatement.setTimestamp(6, Timestamp.valueOf(courier.getTimestamp()));
+        });
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.casestudy.migroscouriertracking.courier.repository;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierHourlyDistanceEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierHourlyDistanceId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface named {@link CourierHourlyDistanceRepository} for accessing and manipulating
+ * {@link CourierHourlyDistanceEntity} data.
+ * Extends {@link JpaRepository} to provide basic CRUD operations, an upsert that adds to a bucket
+ * and the sum of a range of buckets.
+ */
+public interface CourierHourlyDistanceRepository extends JpaRepository<CourierHourlyDistanceEntity, CourierHourlyDistanceId> {
+
+    /**
+     * Adds a distance to the bucket of a courier and hour, creating the bucket if it does not exist yet.
+     *
+     * @param courierId            the unique identifier of the courier
+     * @param bucketStart          the start of the hour
+     * @param distanceInKilometers the distance to add in kilometers
+     */
+    @Modifying
+    @Query(value = "INSERT INTO courier_hourly_distances (courier_id, bucket_start, distance_in_kilometers) " +
+            "VALUES (:courierId, :bucketStart, :distanceInKilometers) AS added " +
+            "ON DUPLICATE KEY UPDATE distance_in_kilometers = courier_hourly_distances.distance_in_kilometers + added.distance_in_kilometers",
+            nativeQuery = true)
+    void addDistance(@Param("courierId") String courierId,
+                     @Param("bucketStart") LocalDateTime bucketStart,
+                     @Param("distanceInKilometers") double distanceInKilometers);
+
+    /**
+     * Sums the buckets of a courier whose hour starts within the given range.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param from      the inclusive start of the first hour
+     * @param to        the exclusive end of the range
+     * @return the summed distance in kilometers, or zero if there are no buckets in the range
+     */
+    @Query("SELECT COALESCE(SUM(d.distanceInKilometers), 0.0) FROM CourierHourlyDistanceEntity d " +
+            "WHERE d.id.courierId = :courierId AND d.id.bucketStart >= :from AND d.id.bucketStart < :to")
+    double sumDistanceInKilometers(@Param("courierId") String courierId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    /**
+     * Deletes all buckets of a courier.
+     *
+     * @param courierId the unique identifier of the courier
+     */
+    @Modifying
+    @Query("DELETE FROM CourierHourlyDistanceEntity d WHERE d.id.courierId = :courierId")
+    void deleteByCourierId(@Param("courierId") String courierId);
+
+}
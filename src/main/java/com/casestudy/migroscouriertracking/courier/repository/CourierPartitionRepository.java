@@ -0,0 +1,118 @@
+package com.casestudy.migroscouriertracking.courier.repository;
+
+import com.casestudy.migroscouriertracking.courier.model.CourierPartition;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC repository named {@link CourierPartitionRepository} that reads and changes the range partitions
+ * of the {@code couriers} table.
+ * Dropping and archiving partitions only touch table metadata and the partition being removed, so neither rewrites or
+ * deletes rows one by one. Adding partitions copies the rows of {@value #FUTURE_PARTITION}, so it is only cheap while
+ * that partition is empty.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CourierPartitionRepository {
+
+    public static final String FUTURE_PARTITION = "p_future";
+
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String FIND_PARTITIONS_SQL =
+            "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'couriers' AND PARTITION_NAME IS NOT NULL " +
+                    "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the partitions of the {@code couriers} table in ascending order of their upper bounds.
+     *
+     * @return the partitions, or an empty list if the table is not partitioned
+     */
+    public List<CourierPartition> findPartitions() {
+        return jdbcTemplate.query(FIND_PARTITIONS_SQL, (resultSet, rowNum) -> new CourierPartition(
+                resultSet.getString("PARTITION_NAME"),
+                parseUpperBound(resultSet.getString("PARTITION_DESCRIPTION"))));
+    }
+
+    /**
+     * Checks whether a partition holds no rows, reading at most one row of it.
+     *
+     * @param partitionName the name of the partition
+     * @return true if the partition is empty; false otherwise
+     */
+    public boolean isPartitionEmpty(String partitionName) {
+        return jdbcTemplate.queryForList("SELECT 1 FROM couriers PARTITION (" + partitionName + ") LIMIT 1").isEmpty();
+    }
+
+    /**
+     * Splits the given partitions off the front of {@value #FUTURE_PARTITION}.
+     * This rebuilds the future partition and copies every row it holds, so callers only split it while it is empty.
+     *
+     * @param partitions the partitions to add, in ascending order of their upper bounds
+     */
+    public void addPartitions(List<CourierPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        String definitions = partitions.stream()
+                .map(partition -> "PARTITION " + partition.name() + " VALUES LESS THAN ('" + BOUND_FORMAT.format(partition.upperBound()) + "')")
+                .collect(Collectors.joining(", "));
+        jdbcTemplate.execute("ALTER TABLE couriers REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                definitions + ", PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+    }
+
+    /**
+     * Drops the given partitions together with their rows.
+     *
+     * @param partitionNames the names of the partitions to drop
+     */
+    public void dropPartitions(List<String> partitionNames) {
+        if (partitionNames.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE couriers DROP PARTITION " + String.join(", ", partitionNames));
+    }
+
+    /**
+     * Moves the rows of a partition into a table of their own named {@code couriers_archive_<partition>}
+     * by exchanging the partition with an empty copy of the table, and then drops the emptied partition.
+     *
+     * @param partitionName the name of the partition to archive
+     * @return the name of the archive table
+     */
+    public String archivePartition(String partitionName) {
+        String archiveTable = "couriers_archive_" + partitionName;
+        jdbcTemplate.execute("CREATE TABLE " + archiveTable + " LIKE couriers");
+        jdbcTemplate.execute("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+        jdbcTemplate.execute("ALTER TABLE couriers EXCHANGE PARTITION " + partitionName + " WITH TABLE " + archiveTable);
+        dropPartitions(List.of(partitionName));
+        return archiveTable;
+    }
+
+    /**
+     * Parses the description of a {@code RANGE COLUMNS} partition, e.g. {@code '2024-01-01 00:00:00'} or {@code MAXVALUE}.
+     *
+     * @param description the partition description reported by {@code information_schema}
+     * @return the upper bound, or null for {@code MAXVALUE}
+     */
+    static LocalDateTime parseUpperBound(String description) {
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        if (value.length() == 10) {
+            value += " 00:00:00";
+        }
+        return LocalDateTime.parse(value, BOUND_FORMAT);
+    }
+
+}
@@ -1,36 +1,84 @@
 package com.casestudy.migroscouriertracking.courier.repository;
 
+import com.casestudy.migroscouriertracking.courier.model.Courier;
 import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface named {@link CourierRepository} for accessing and manipulating {@link CourierEntity} data.
- * Extends {@link JpaRepository} to provide basic CRUD operations and custom query methods.
+ * Extends {@link JpaRepository} to provide basic CRUD operations and custom query methods,
+ * and {@link CourierBatchRepository} to insert many rows at once.
  */
-public interface CourierRepository extends JpaRepository<CourierEntity, String> {
+public interface CourierRepository extends JpaRepository<CourierEntity, UUID>, CourierBatchRepository {
 
     /**
      * Finds a list of CourierEntities associated with the specified courier ID.
+     * It runs in a read-only transaction of its own, so it can be served by the read replica
+     * when it is called outside a transaction.
      *
      * @param courierId the unique identifier of the courier
      * @return a list of CourierEntities that match the given courier ID
      */
+    @Transactional(readOnly = true)
     List<CourierEntity> findByCourierId(String courierId);
 
     /**
-     * Finds a list of CourierEntities associated with the specified courier ID, store name,
+     * Finds a list of CourierEntities associated with the specified courier ID, store key,
      * and within the provided timestamp range, ordered by timestamp in descending order.
      *
      * @param courierId the unique identifier of the courier
-     * @param storeName the name of the store
+     * @param storeKey  the key of the store
      * @param start     the start timestamp of the range
      * @param end       the end timestamp of the range
      * @return a list of CourierEntities that match the given criteria, ordered by timestamp descending
      */
-    List<CourierEntity> findByCourierIdAndStoreNameAndTimestampBetweenOrderByTimestampDesc(String courierId, String storeName, LocalDateTime start, LocalDateTime end);
+    List<CourierEntity> findByCourierIdAndStoreKeyAndTimestampBetweenOrderByTimestampDesc(String courierId, Integer storeKey, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Finds the timestamp of the latest entry of a courier at a store.
+     * Only a single value is read, and it is served entirely from the (courier_id, store_key, timestamp) index.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param storeKey  the key of the store
+     * @return the latest timestamp, or an empty Optional if the courier never visited the store
+     */
+    @Query("SELECT c.timestamp FROM CourierEntity c " +
+            "WHERE c.courierId = :courierId AND c.storeKey = :storeKey " +
+            "ORDER BY c.timestamp DESC LIMIT 1")
+    Optional<LocalDateTime> findLastTimestampByCourierIdAndStoreKey(@Param("courierId") String courierId,
+                                                                    @Param("storeKey") Integer storeKey);
+
+    /**
+     * Finds the timestamp of the latest entry of a courier at a store within the provided timestamp range.
+     * Only a single value is read, and it is served entirely from the (courier_id, store_key, timestamp) index.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param storeKey  the key of the store
+     * @param start     the start timestamp of the range
+     * @param end       the end timestamp of the range
+     * @return the latest timestamp within the range, or an empty Optional if there is none
+     */
+    @Query("SELECT c.timestamp FROM CourierEntity c " +
+            "WHERE c.courierId = :courierId AND c.storeKey = :storeKey AND c.timestamp BETWEEN :start AND :end " +
+            "ORDER BY c.timestamp DESC LIMIT 1")
+    Optional<LocalDateTime> findLastTimestampByCourierIdAndStoreKeyAndTimestampBetween(@Param("courierId") String courierId,
+                                                                                      @Param("storeKey") Integer storeKey,
+                                                                                      @Param("start") LocalDateTime start,
+                                                                                      @Param("end") LocalDateTime end);
 
     /**
      * Finds a list of CourierEntities associated with the specified courier ID and orders them by timestamp in ascending order.
@@ -40,4 +88,137 @@ public interface CourierRepository extends JpaRepository<CourierEntity, String>
      */
     List<CourierEntity> findByCourierIdOrderByTimestampAsc(String courierId);
 
+    /**
+     * Finds the first page of a courier's travels, ordered by timestamp and then by ID.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param pageable  the page size; only the size is used
+     * @return the first travels of the courier
+     */
+    @Query("SELECT c FROM CourierEntity c WHERE c.courierId = :courierId ORDER BY c.timestamp ASC, c.id ASC")
+    List<CourierEntity> findPageByCourierId(@Param("courierId") String courierId, Pageable pageable);
+
+    /**
+     * Finds the page of a courier's travels that follows the given position, ordered by timestamp and then by ID.
+     * The position is compared by key instead of skipping rows, so every page costs the same regardless of its depth.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the last travel of the previous page
+     * @param id        the ID of the last travel of the previous page
+     * @param pageable  the page size; only the size is used
+     * @return the travels of the courier after the given position
+     */
+    @Query("SELECT c FROM CourierEntity c WHERE c.courierId = :courierId " +
+            "AND (c.timestamp > :timestamp OR (c.timestamp = :timestamp AND c.id > :id)) " +
+            "ORDER BY c.timestamp ASC, c.id ASC")
+    List<CourierEntity> findPageByCourierIdAfter(@Param("courierId") String courierId,
+                                                 @Param("timestamp") LocalDateTime timestamp,
+                                                 @Param("id") UUID id,
+                                                 Pageable pageable);
+
+    /**
+     * Streams all travels of a courier as {@link Courier} objects, ordered by timestamp and then by ID.
+     * Rows are fetched from MySQL one at a time and are not attached to the persistence context,
+     * so memory use does not grow with the courier's history. The stream must be consumed within a transaction and closed.
+     * The store name of each travel is looked up in the small {@code stores} table by its unique store key.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return a stream of the courier's travels
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.casestudy.migroscouriertracking.courier.model.Courier(c.id, c.courierId, c.lat, c.lng, s.name, c.timestamp) " +
+            "FROM CourierEntity c JOIN StoreEntity s ON s.storeKey = c.storeKey WHERE c.courierId = :courierId ORDER BY c.timestamp ASC, c.id ASC")
+    Stream<Courier> streamByCourierId(@Param("courierId") String courierId);
+
+    /**
+     * Checks whether a courier has logged at least one location.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return true if the courier has travel records; false otherwise
+     */
+    boolean existsByCourierId(String courierId);
+
+    /**
+     * Checks whether a ping with the given courier, timestamp and coordinates is already stored,
+     * served by the {@code uk_couriers_ping} unique key.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the ping
+     * @param lat       the latitude of the ping
+     * @param lng       the longitude of the ping
+     * @return true if the ping is already stored; false otherwise
+     */
+    boolean existsByCourierIdAndTimestampAndLatAndLng(String courierId, LocalDateTime timestamp, Double lat, Double lng);
+
+    /**
+     * Finds the unique identifiers of all couriers that have logged at least one location.
+     *
+     * @return the distinct courier IDs
+     */
+    @Query("SELECT DISTINCT c.courierId FROM CourierEntity c")
+    List<String> findDistinctCourierIds();
+
+    /**
+     * Finds the unique identifiers of all couriers with locations logged before the given time.
+     *
+     * @param cutoff the exclusive upper bound of the timestamps
+     * @return the distinct courier IDs
+     */
+    @Query("SELECT DISTINCT c.courierId FROM CourierEntity c WHERE c.timestamp < :cutoff")
+    List<String> findDistinctCourierIdsByTimestampBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Finds the locations of a courier logged before the given time, ordered by timestamp in ascending order.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param cutoff    the exclusive upper bound of the timestamps
+     * @return the locations of the courier before the cutoff
+     */
+    List<CourierEntity> findByCourierIdAndTimestampBeforeOrderByTimestampAsc(String courierId, LocalDateTime cutoff);
+
+    /**
+     * Finds the locations of a courier logged within the range [start, end), ordered by timestamp in ascending order.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param start     the inclusive start of the range
+     * @param end       the exclusive end of the range
+     * @return the locations of the courier within the range
+     */
+    List<CourierEntity> findByCourierIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(String courierId,
+                                                                                                         LocalDateTime start,
+                                                                                                         LocalDateTime end);
+
+    /**
+     * Finds the latest location of a courier logged before the given time.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param before    the exclusive upper bound of the timestamp
+     * @return the latest earlier location, or an empty Optional if there is none
+     */
+    Optional<CourierEntity> findFirstByCourierIdAndTimestampBeforeOrderByTimestampDesc(String courierId, LocalDateTime before);
+
+    /**
+     * Finds the earliest location of a courier logged after the given time, skipping the given locations.
+     *
+     * @param courierId   the unique identifier of the courier
+     * @param after       the exclusive lower bound of the timestamp
+     * @param excludedIds the IDs of the locations to skip
+     * @return the earliest later location, or an empty Optional if there is none
+     */
+    Optional<CourierEntity> findFirstByCourierIdAndTimestampAfterAndIdNotInOrderByTimestampAsc(String courierId,
+                                                                                               LocalDateTime after,
+                                                                                               Collection<UUID> excludedIds);
+
+    /**
+     * Checks whether a courier has locations other than the given ones.
+     *
+     * @param courierId   the unique identifier of the courier
+     * @param excludedIds the IDs of the locations to disregard
+     * @return true if the courier has any other location; false otherwise
+     */
+    boolean existsByCourierIdAndIdNotIn(String courierId, Collection<UUID> excludedIds);
+
 }
@@ -0,0 +1,68 @@
+package com.casestudy.migroscouriertracking.courier.repository;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierStoreVisitEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierStoreVisitId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface named {@link CourierStoreVisitRepository} for accessing and manipulating {@link CourierStoreVisitEntity} data.
+ * Extends {@link JpaRepository} to provide basic CRUD operations, an insert of a missing visit row, a locking read
+ * for deciding a ping and the removal of a visit whose location was never stored.
+ */
+public interface CourierStoreVisitRepository extends JpaRepository<CourierStoreVisitEntity, CourierStoreVisitId> {
+
+    /**
+     * Creates the visit row of a courier and store without a visit, unless it already exists.
+     * Called before {@link #findByCourierIdAndStoreKeyForUpdate(String, Integer)}, so the lock is always taken on an
+     * existing row instead of on the gap a missing row would be inserted into, which concurrent first visits deadlock on.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param storeKey  the key of the store
+     */
+    @Modifying
+    @Query(value = "INSERT INTO courier_store_visits (courier_id, store_key, last_visit) " +
+            "VALUES (:courierId, :storeKey, NULL) " +
+            "ON DUPLICATE KEY UPDATE courier_id = courier_id",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("courierId") String courierId,
+                        @Param("storeKey") Integer storeKey);
+
+    /**
+     * Finds the visit row of a courier and store and locks it until the current transaction ends,
+     * so concurrent pings of the courier at the store are decided one after another, whichever instance they reach.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param storeKey  the key of the store
+     * @return the visit row, or an empty Optional if none exists yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM CourierStoreVisitEntity v WHERE v.id.courierId = :courierId AND v.id.storeKey = :storeKey")
+    Optional<CourierStoreVisitEntity> findByCourierIdAndStoreKeyForUpdate(@Param("courierId") String courierId,
+                                                                          @Param("storeKey") Integer storeKey);
+
+    /**
+     * Deletes the visit row of a courier and store if its last visit is the given one, so the next ping is decided
+     * from the stored locations again. Runs in a transaction of its own, since it is called once a location could not be stored.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param storeKey  the key of the store
+     * @param lastVisit the visit that was never stored
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CourierStoreVisitEntity v " +
+            "WHERE v.id.courierId = :courierId AND v.id.storeKey = :storeKey AND v.lastVisit = :lastVisit")
+    void deleteByCourierIdAndStoreKeyAndLastVisit(@Param("courierId") String courierId,
+                                                  @Param("storeKey") Integer storeKey,
+                                                  @Param("lastVisit") LocalDateTime lastVisit);
+
+}
@@ -0,0 +1,51 @@
+package com.casestudy.migroscouriertracking.courier.repository;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierTravelSummaryEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface named {@link CourierTravelSummaryRepository} for accessing and manipulating {@link CourierTravelSummaryEntity} data.
+ * Extends {@link JpaRepository} to provide basic CRUD operations, an insert of a missing summary and a locking read for updates.
+ */
+public interface CourierTravelSummaryRepository extends JpaRepository<CourierTravelSummaryEntity, String> {
+
+    /**
+     * Creates the summary of a courier whose only location is the given one, unless the courier already has a summary.
+     * Called before {@link #findByCourierIdForUpdate(String)}, so the lock is always taken on an existing row instead of
+     * on the gap a missing row would be inserted into, which concurrent first locations of new couriers deadlock on.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param lat       the latitude of the first location
+     * @param lng       the longitude of the first location
+     * @param timestamp the timestamp of the first location
+     */
+    @Modifying
+    @Query(value = "INSERT INTO courier_travel_summaries (courier_id, total_distance_in_kilometers, last_lat, last_lng, last_timestamp) " +
+            "VALUES (:courierId, 0, :lat, :lng, :timestamp) " +
+            "ON DUPLICATE KEY UPDATE courier_id = courier_id",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("courierId") String courierId,
+                        @Param("lat") double lat,
+                        @Param("lng") double lng,
+                        @Param("timestamp") LocalDateTime timestamp);
+
+    /**
+     * Finds the travel summary of a courier and locks its row until the current transaction ends,
+     * so concurrent locations of the same courier are added one after another.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return the travel summary of the courier, or an empty Optional if none exists yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CourierTravelSummaryEntity s WHERE s.courierId = :courierId")
+    Optional<CourierTravelSummaryEntity> findByCourierIdForUpdate(@Param("courierId") String courierId);
+
+}
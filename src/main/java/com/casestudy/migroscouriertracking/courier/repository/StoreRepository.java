@@ -3,10 +3,39 @@ package com.casestudy.migroscouriertracking.courier.repository;
 import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+import java.util.UUID;
+
 /**
  * Repository interface named {@link StoreRepository} for accessing and manipulating {@link StoreEntity} data.
  * Extends {@link JpaRepository} to provide basic CRUD operations.
+ * Deleted stores stay in the table, so {@link #findAll()} returns them too; the derived queries below skip them.
  */
-public interface StoreRepository extends JpaRepository<StoreEntity, String> {
+public interface StoreRepository extends JpaRepository<StoreEntity, UUID> {
+
+    /**
+     * Finds a store that was not deleted by its ID.
+     *
+     * @param id the ID of the store
+     * @return the store, or an empty Optional if there is no such store or it was deleted
+     */
+    Optional<StoreEntity> findByIdAndDeletedAtIsNull(UUID id);
+
+    /**
+     * Checks whether a store that was not deleted has the given name.
+     *
+     * @param name the name of the store
+     * @return true if such a store exists; false otherwise
+     */
+    boolean existsByNameAndDeletedAtIsNull(String name);
+
+    /**
+     * Checks whether a store other than the given one that was not deleted has the given name.
+     *
+     * @param name the name of the store
+     * @param id   the ID of the store to ignore
+     * @return true if another store has the name; false otherwise
+     */
+    boolean existsByNameAndIdNotAndDeletedAtIsNull(String name, UUID id);
 
 }
@@ -1,115 +1,449 @@
 package com.casestudy.migroscouriertracking.courier.service;
 
+import com.casestudy.migroscouriertracking.courier.archive.CourierArchive;
+import com.casestudy.migroscouriertracking.courier.cache.CourierQueryResultCache;
+import com.casestudy.migroscouriertracking.courier.cache.LastVisitCache;
+import com.casestudy.migroscouriertracking.courier.cache.PingDeduplicationWindow;
 import com.casestudy.migroscouriertracking.courier.exception.*;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.ResolvedStoreContext;
+import com.casestudy.migroscouriertracking.courier.index.StoreDictionary;
+import com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex;
+import com.casestudy.migroscouriertracking.courier.metrics.CourierMetrics;
 import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.CourierTravelCursor;
+import com.casestudy.migroscouriertracking.courier.model.CourierTravelPage;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.DistanceRangeQueryRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.TravelQueryRequest;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.LogCourierLocationResponse;
 import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
-import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
-import com.casestudy.migroscouriertracking.courier.model.enums.DistanceType;
 import com.casestudy.migroscouriertracking.courier.model.mapper.CourierEntityToCourierMapper;
 import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
-import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
-import com.casestudy.migroscouriertracking.courier.utils.DistanceUtils;
+import com.casestudy.migroscouriertracking.courier.writebehind.CourierLocationWriteBehindQueue;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Service class named {@link CourierService} responsible for handling courier-related operations,
  * including logging courier locations and retrieving travel records.
+ * The latency of each ingestion stage, the rejections and the rows returned by travel queries
+ * are published through {@link CourierMetrics}.
+ * The past travels and the total travel distance of a courier are served from the {@link CourierQueryResultCache},
+ * which is invalidated for a courier whenever one of its locations is saved.
  */
 @Service
 @RequiredArgsConstructor
 public class CourierService {
 
     private final CourierRepository courierRepository;
-    private final StoreRepository storeRepository;
+    private final StoreSpatialIndex storeSpatialIndex;
+    private final ResolvedStoreContext resolvedStoreContext;
+    private final LastVisitCache lastVisitCache;
+    private final PingDeduplicationWindow pingDeduplicationWindow;
+    private final CourierQueryResultCache courierQueryResultCache;
+    private final CourierTravelSummaryService courierTravelSummaryService;
+    private final CourierLocationWriteBehindQueue courierLocationWriteBehindQueue;
+    private final CourierArchive courierArchive;
+    private final Validator validator;
+    private final CourierMetrics courierMetrics;
 
     private final CourierEntityToCourierMapper courierEntityToCourierMapper = CourierEntityToCourierMapper.initialize();
 
     /**
      * Logs the location of a courier based on the provided log request.
-     * Validates if the courier is within a certain radius of any store,
+     * Validates if the courier is within a certain radius of any store, reusing the store already resolved
+     * during request validation through the {@link ResolvedStoreContext},
      * ensures the timestamp is not before the store's creation time,
-     * and saves the courier's location if the last entry was more than one minute ago.
+     * and saves the courier's location if the last entry was more than one minute ago,
+     * which is checked and recorded atomically through the {@link LastVisitCache}.
+     * The courier's travel summary is updated in the same transaction.
+     * In write-behind mode the accepted location is handed to the {@link CourierLocationWriteBehindQueue} instead,
+     * which persists it and updates the travel summary in its next group commit.
+     * A retry of a ping logged earlier gets the outcome of the earlier ping from the {@link PingDeduplicationWindow},
+     * waiting for it while the earlier ping is still being processed, or is found in the database when the window
+     * no longer remembers it, and is not stored again.
      *
      * @param logRequest the request object containing courier location details
      * @throws StoreNotFoundException if no stores are found in the database
      * @throws TimestampBeforeStoreCreateException if the timestamp is before the store's creation time
      * @throws StoreFarAwayException if the courier is far away from all stores
+     * @throws LocationQueueFullException if write-behind is enabled and the location cannot be queued
      */
+    @Transactional
     public void logCourierLocation(LogCourierLocationRequest logRequest) {
+        Optional<PingDeduplicationWindow.Outcome> earlierOutcome = findEarlierOutcome(logRequest);
+        if (earlierOutcome.isPresent()) {
+            if (!earlierOutcome.get().isAccepted()) {
+                throw earlierOutcome.get().newRejection();
+            }
+            return;
+        }
+
+        Optional<CourierEntity> acceptedLocation = acceptLocation(logRequest);
+        if (acceptedLocation.isEmpty()) {
+            return;
+        }
+        CourierEntity courier = acceptedLocation.get();
+        long startedAt = System.nanoTime();
+        if (courierLocationWriteBehindQueue.isEnabled()) {
+            courierLocationWriteBehindQueue.enqueue(courier);
+        } else {
+            courierRepository.batchInsert(List.of(courier));
+            courierTravelSummaryService.recordAcceptedLocations(List.of(courier));
+            courierQueryResultCache.invalidate(courier.getCourierId());
+        }
+        courierMetrics.recordStage(CourierMetrics.Stage.PERSISTENCE, startedAt);
+    }
+
+    /**
+     * Logs a batch of courier locations, typically pings buffered by a courier's phone while offline.
+     * The pings are processed per courier in timestamp order and each one is validated and checked against
+     * the same store and re-entry rules as {@link #logCourierLocation(LogCourierLocationRequest)};
+     * pings accepted earlier in the batch are already recorded in the {@link LastVisitCache}.
+     * Retried pings get the outcome of the earlier ping, as in {@link #logCourierLocation(LogCourierLocationRequest)}.
+     * A rejected ping does not affect the others; all accepted pings are persisted with a single JDBC batch
+     * and added to the travel summaries of their couriers.
+     *
+     * @param logRequests the request objects containing courier location details
+     * @return the outcome of each ping, in the same order as the requests
+     */
+    @Transactional
+    public List<LogCourierLocationResponse> logCourierLocations(List<LogCourierLocationRequest> logRequests) {
+        LogCourierLocationResponse[] responses = new LogCourierLocationResponse[logRequests.size()];
+        List<CourierEntity> acceptedLocations = new ArrayList<>();
+
+        Comparator<Integer> courierThenTimestamp = Comparator
+                .comparing((Integer index) -> Optional.ofNullable(logRequests.get(index)).map(LogCourierLocationRequest::getCourierId).orElse(null),
+                        Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(index -> Optional.ofNullable(logRequests.get(index)).map(LogCourierLocationRequest::getTimestamp).orElse(null),
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+
+        IntStream.range(0, logRequests.size())
+                .boxed()
+                .sorted(courierThenTimestamp)
+                .forEach(index -> {
+                    LogCourierLocationRequest logRequest = logRequests.get(index);
+                    String violations = validate(logRequest);
+                    if (violations != null) {
+                        responses[index] = toLogCourierLocationResponse(index, logRequest, false, violations);
+                        return;
+                    }
+
+                    Optional<PingDeduplicationWindow.Outcome> earlierOutcome = findEarlierOutcome(logRequest);
+                    if (earlierOutcome.isPresent()) {
+                        responses[index] = toLogCourierLocationResponse(index, logRequest, earlierOutcome.get().isAccepted(),
+                                earlierOutcome.get().message());
+                        return;
+                    }
+
+                    try {
+                        acceptLocation(logRequest).ifPresent(acceptedLocations::add);
+                        responses[index] = toLogCourierLocationResponse(index, logRequest, true, null);
+                    } catch (StoreNotFoundException | StoreFarAwayException | TimestampBeforeStoreCreateException |
+                             StoreReentryTooSoonException exception) {
+                        responses[index] = toLogCourierLocationResponse(index, logRequest, false, exception.getMessage());
+                    }
+                });
+
+        long startedAt = System.nanoTime();
+        courierRepository.batchInsert(acceptedLocations);
+        courierTravelSummaryService.recordAcceptedLocations(acceptedLocations);
+        acceptedLocations.stream()
+                .map(CourierEntity::getCourierId)
+                .distinct()
+                .forEach(courierQueryResultCache::invalidate);
+        courierMetrics.recordStage(CourierMetrics.Stage.PERSISTENCE, startedAt);
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Looks up the outcome of an earlier logging of the same ping in the {@link PingDeduplicationWindow},
+     * and otherwise claims the ping until {@link #acceptLocation(LogCourierLocationRequest)} has decided it.
+     *
+     * @param logRequest the request object containing courier location details
+     * @return the outcome of the earlier ping, or an empty Optional if the ping is new
+     */
+    private Optional<PingDeduplicationWindow.Outcome> findEarlierOutcome(LogCourierLocationRequest logRequest) {
+        Optional<PingDeduplicationWindow.Outcome> earlierOutcome = pingDeduplicationWindow.findOrClaim(
+                logRequest.getCourierId(), logRequest.getTimestamp(), logRequest.getLat(), logRequest.getLng());
+        if (earlierOutcome.isPresent()) {
+            courierMetrics.recordDuplicate();
+        }
+        return earlierOutcome;
+    }
+
+    /**
+     * Applies the store and re-entry rules to a courier location claimed in the {@link PingDeduplicationWindow},
+     * remembers the outcome there and releases the claim.
+     *
+     * @param logRequest the request object containing courier location details
+     * @return the courier entity to persist, or an empty Optional if the ping is already stored
+     * @throws StoreNotFoundException if no stores are found in the database
+     * @throws TimestampBeforeStoreCreateException if the timestamp is before the store's creation time
+     * @throws StoreFarAwayException if the courier is far away from all stores
+     * @throws StoreReentryTooSoonException if the courier entered the same store less than a minute ago
+     */
+    private Optional<CourierEntity> acceptLocation(LogCourierLocationRequest logRequest) {
+        String courierId = logRequest.getCourierId();
+        LocalDateTime timestamp = logRequest.getTimestamp();
+        double lat = logRequest.getLat();
+        double lng = logRequest.getLng();
+        try {
+            Optional<CourierEntity> courier = createAcceptedLocation(logRequest);
+            pingDeduplicationWindow.recordAccepted(courierId, timestamp, lat, lng);
+            return courier;
+        } catch (StoreFarAwayException | TimestampBeforeStoreCreateException | StoreReentryTooSoonException exception) {
+            pingDeduplicationWindow.recordRejected(courierId, timestamp, lat, lng, exception);
+            throw exception;
+        } finally {
+            pingDeduplicationWindow.release(courierId, timestamp, lat, lng);
+        }
+    }
+
+    /**
+     * Applies the store and re-entry rules to a courier location and builds the entity to persist.
+     *
+     * The re-entry check is the last rule, so a visit recorded in the {@link LastVisitCache} is always persisted.
+     * A ping failing the re-entry check because it repeats a stored ping is a retry, not a re-entry.
+     *
+     * @param logRequest the request object containing courier location details
+     * @return the courier entity to persist, or an empty Optional if the ping is already stored
+     * @throws StoreNotFoundException if no stores are found in the database
+     * @throws TimestampBeforeStoreCreateException if the timestamp is before the store's creation time
+     * @throws StoreFarAwayException if the courier is far away from all stores
+     * @throws StoreReentryTooSoonException if the courier entered the same store less than a minute ago
+     */
+    private Optional<CourierEntity> createAcceptedLocation(LogCourierLocationRequest logRequest) {
         String courierId = logRequest.getCourierId();
         double lat = logRequest.getLat();
         double lng = logRequest.getLng();
         LocalDateTime timestamp = logRequest.getTimestamp();
-        List<StoreEntity> stores = storeRepository.findAll();
 
-        Optional.ofNullable(stores)
-                .orElseThrow(() -> new StoreNotFoundException("No stores found in the database."));
+        if (storeSpatialIndex.isEmpty()) {
+            throw new StoreNotFoundException("No stores found in the database.");
+        }
 
-        stores.stream()
-                .filter(store -> DistanceUtils.isWithinRadius(lat, lng, store.getLat(), store.getLng(), 100.0))
-                .findFirst()
-                .ifPresentOrElse(store -> {
-                    if (timestamp.isBefore(store.getCreatedAt())) {
-                        throw new TimestampBeforeStoreCreateException("Timestamp is before store's creation time.");
-                    }
+        long startedAt = System.nanoTime();
+        Optional<CatalogStore> resolvedStore = resolvedStoreContext.resolve(lat, lng);
+        courierMetrics.recordStage(CourierMetrics.Stage.STORE_RESOLUTION, startedAt);
+        if (resolvedStore.isEmpty()) {
+            courierMetrics.recordRejection(CourierMetrics.Rejection.FAR_AWAY);
+            throw storeFarAway(lat, lng);
+        }
+        CatalogStore store = resolvedStore.get();
 
-                    // Find the last travel entry for the courier at this store
-                    CourierEntity lastTravel = findLastTravelEntry(courierId, store.getName(), timestamp);
-                    if (lastTravel == null || DistanceUtils.isMoreThanOneMinuteAgo(lastTravel.getTimestamp(), timestamp)) {
-                        CourierEntity courier = CourierEntity.builder()
-                                .courierId(courierId)
-                                .lat(lat)
-                                .lng(lng)
-                                .storeName(store.getName())
-                                .timestamp(timestamp)
-                                .build();
-                        courierRepository.save(courier); // Exit after saving the first valid entry
-                    } else {
-                        throw new StoreReentryTooSoonException("Reentry to the same store's circumference is too soon. Please wait before logging again.");
-                    }
-                }, () -> {
-                    throw new StoreFarAwayException("Courier is far away from all stores.");
-                });
+        if (timestamp.isBefore(store.createdAt())) {
+            courierMetrics.recordRejection(CourierMetrics.Rejection.TIMESTAMP_BEFORE_CREATION);
+            throw new TimestampBeforeStoreCreateException("Timestamp is before store's creation time.");
+        }
+
+        // Check the last visit of the courier to this store and record this one
+        startedAt = System.nanoTime();
+        boolean visitRecorded = lastVisitCache.tryRecordVisit(courierId, store.storeKey(), timestamp);
+        courierMetrics.recordStage(CourierMetrics.Stage.REENTRY_CHECK, startedAt);
+        if (!visitRecorded) {
+            if (courierRepository.existsByCourierIdAndTimestampAndLatAndLng(courierId, timestamp, lat, lng)) {
+                courierMetrics.recordDuplicate();
+                return Optional.empty();
+            }
+            courierMetrics.recordRejection(CourierMetrics.Rejection.REENTRY_TOO_SOON);
+            throw new StoreReentryTooSoonException("Reentry to the same store's circumference is too soon. Please wait before logging again.");
+        }
 
+        return Optional.of(CourierEntity.builder()
+                .courierId(courierId)
+                .lat(lat)
+                .lng(lng)
+                .storeKey(store.storeKey())
+                .timestamp(timestamp)
+                .build());
     }
 
     /**
-     * Finds the last travel entry for a specific courier within a given timestamp range.
+     * Creates the exception for a location outside the radius of every store, naming the nearest store and its distance.
      *
-     * @param courierId        the unique identifier of the courier
-     * @param storeName        the name of the store
-     * @param currentTimestamp the current timestamp to compare with
-     * @return the last travel entry for the courier, or null if not found
+     * @param lat the latitude of the location
+     * @param lng the longitude of the location
+     * @return the exception to throw
      */
-    private CourierEntity findLastTravelEntry(String courierId, String storeName, LocalDateTime currentTimestamp) {
-        LocalDateTime oneMinuteAgo = currentTimestamp.minusMinutes(1);
-        return courierRepository.findByCourierIdAndStoreNameAndTimestampBetweenOrderByTimestampDesc(courierId, storeName, oneMinuteAgo, currentTimestamp)
-                .stream()
+    private StoreFarAwayException storeFarAway(double lat, double lng) {
+        String message = "Courier is far away from all stores.";
+        return storeSpatialIndex.findNearestStores(lat, lng, 1).stream()
                 .findFirst()
-                .orElse(null);
+                .map(nearest -> new StoreFarAwayException(message, nearest.store().name(), nearest.distanceInMeters()))
+                .orElseGet(() -> new StoreFarAwayException(message));
+    }
+
+    /**
+     * Validates a single courier location request of a batch.
+     *
+     * @param logRequest the request object to validate
+     * @return the joined violation messages, or null if the request is valid
+     */
+    private String validate(LogCourierLocationRequest logRequest) {
+        if (logRequest == null) {
+            return "Location must not be null";
+        }
+        Set<ConstraintViolation<LogCourierLocationRequest>> violations = validator.validate(logRequest);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static LogCourierLocationResponse toLogCourierLocationResponse(int index, LogCourierLocationRequest logRequest,
+                                                                          boolean logged, String message) {
+        return LogCourierLocationResponse.builder()
+                .index(index)
+                .courierId(logRequest != null ? logRequest.getCourierId() : null)
+                .timestamp(logRequest != null ? logRequest.getTimestamp() : null)
+                .logged(logged)
+                .message(message)
+                .build();
     }
 
     /**
      * Retrieves the past travels of a courier by their unique ID.
+     * Travels moved to the {@link CourierArchive} are returned first, followed by the travels still in the database.
+     * The travels are cached in the {@link CourierQueryResultCache} until a location of the courier is saved.
+     * A cache hit does not open a transaction; on a miss the query runs in the read-only transaction of the repository,
+     * so it can still be served by the read replica.
      *
      * @param courierId the unique identifier of the courier
      * @return a list of Courier objects representing the courier's past travels
      * @throws CourierNotFoundException if no travels are found for the given courier ID
      */
     public List<Courier> getPastTravelsByCourierId(String courierId) {
+        return courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.PAST_TRAVELS,
+                () -> findPastTravelsByCourierId(courierId));
+    }
+
+    /**
+     * Reads the past travels of a courier from the {@link CourierArchive} and the database.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return an immutable list of the courier's past travels
+     * @throws CourierNotFoundException if no travels are found for the given courier ID
+     */
+    private List<Courier> findPastTravelsByCourierId(String courierId) {
+        List<Courier> archivedTravels = courierArchive.findByCourierId(courierId);
         List<CourierEntity> entities = courierRepository.findByCourierId(courierId);
-        Optional.ofNullable(entities)
-                .filter(e -> !e.isEmpty())
-                .orElseThrow(() -> new CourierNotFoundException("Courier with ID " + courierId + " not found."));
-        return courierEntityToCourierMapper.map(entities);
+        if ((entities == null || entities.isEmpty()) && archivedTravels.isEmpty()) {
+            throw new CourierNotFoundException("Courier with ID " + courierId + " not found.");
+        }
+        List<Courier> travels = CourierArchive.merge(archivedTravels,
+                entities == null ? List.of() : courierEntityToCourierMapper.map(entities, storeSpatialIndex.dictionary()));
+        courierMetrics.recordTravelQueryRows(CourierMetrics.TravelQuery.PAST, travels.size());
+        return List.copyOf(travels);
+    }
+
+    /**
+     * Retrieves one page of the past travels of a courier, ordered by timestamp and then by ID.
+     * Travels moved to the {@link CourierArchive} come first, followed by the travels still in the database, and the
+     * cursor remembers which of the two the page ended in.
+     * Pages are located by keyset on (timestamp, id), so deep pages are as cheap as the first one.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param size      the maximum number of travels in the page
+     * @return the page of travels and the cursor of the next page, which is null on the last page
+     * @throws CourierNotFoundException if the courier has no travels
+     * @throws InvalidCursorException if the cursor cannot be decoded
+     */
+    @Transactional(readOnly = true)
+    public CourierTravelPage getPastTravelsPageByCourierId(String courierId, String cursor, int size) {
+        CourierTravelCursor after = cursor == null ? null : CourierTravelCursor.decode(cursor);
+
+        // Fetch one extra travel to find out whether there is a next page
+        List<Courier> archivedTravels = after != null && !after.archived()
+                ? List.of()
+                : courierArchive.findPageByCourierIdAfter(courierId,
+                after == null ? null : after.timestamp(), after == null ? null : after.id().toString(), size + 1);
+
+        List<Courier> travels;
+        String nextCursor;
+        if (archivedTravels.size() > size) {
+            travels = archivedTravels.subList(0, size);
+            nextCursor = CourierTravelCursor.afterArchived(travels.get(size - 1)).encode();
+        } else {
+            int tableSize = size - archivedTravels.size();
+            Pageable pageable = PageRequest.ofSize(tableSize + 1);
+            List<CourierEntity> entities = after != null && !after.archived()
+                    ? courierRepository.findPageByCourierIdAfter(courierId, after.timestamp(), after.id(), pageable)
+                    : courierRepository.findPageByCourierId(courierId, pageable);
+
+            boolean hasNextPage = entities.size() > tableSize;
+            List<Courier> liveTravels = courierEntityToCourierMapper.map(hasNextPage ? entities.subList(0, tableSize) : entities,
+                    storeSpatialIndex.dictionary());
+            if (!hasNextPage) {
+                nextCursor = null;
+            } else if (liveTravels.isEmpty()) {
+                nextCursor = CourierTravelCursor.afterArchived(archivedTravels.get(archivedTravels.size() - 1)).encode();
+            } else {
+                nextCursor = CourierTravelCursor.after(liveTravels.get(liveTravels.size() - 1)).encode();
+            }
+
+            travels = new ArrayList<>(archivedTravels);
+            // Travels being archived right now can still be in the table as well
+            liveTravels.stream().filter(courierArchive.notArchivedFilter(courierId)).forEach(travels::add);
+        }
+
+        if (after == null && travels.isEmpty() && nextCursor == null) {
+            throw new CourierNotFoundException("Courier with ID " + courierId + " not found.");
+        }
+        courierMetrics.recordTravelQueryRows(CourierMetrics.TravelQuery.PAGE, travels.size());
+
+        return CourierTravelPage.builder()
+                .travels(travels)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Ensures that a courier has past travels in the database or the {@link CourierArchive},
+     * so a streamed response can fail before it starts.
+     *
+     * @param courierId the unique identifier of the courier
+     * @throws CourierNotFoundException if the courier has no travels
+     */
+    public void checkPastTravelsExist(String courierId) {
+        if (!courierRepository.existsByCourierId(courierId) && !courierArchive.existsByCourierId(courierId)) {
+            throw new CourierNotFoundException("Courier with ID " + courierId + " not found.");
+        }
+    }
+
+    /**
+     * Passes every past travel of a courier to the given consumer as it is read, ordered by timestamp and then by ID,
+     * without building the full list in memory.
+     * Travels moved to the {@link CourierArchive} are passed first, one segment at a time, followed by the travels
+     * still in the database, since every archived day is older than the travels left in the table.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param consumer  the consumer receiving each travel
+     */
+    @Transactional(readOnly = true)
+    public void streamPastTravelsByCourierId(String courierId, Consumer<Courier> consumer) {
+        courierArchive.forEachByCourierId(courierId, consumer);
+        try (Stream<Courier> travels = courierRepository.streamByCourierId(courierId)) {
+            // Travels being archived right now can still be in the table as well
+            travels.filter(courierArchive.notArchivedFilter(courierId)).forEach(consumer);
+        }
     }
 
     /**
@@ -119,40 +453,59 @@ public class CourierService {
      * @return a list of Courier objects representing the courier's travels
      * @throws CourierNotFoundException if no travels are found for the given criteria
      */
+    @Transactional(readOnly = true)
     public List<Courier> getTravelsByCourierIdStoreNameAndTimeRange(String courierId,TravelQueryRequest request) {
         String storeName = request.getStoreName();
         LocalDateTime start = request.getStart();
         LocalDateTime end = request.getEnd();
 
-        List<CourierEntity> entities = courierRepository.findByCourierIdAndStoreNameAndTimestampBetweenOrderByTimestampDesc(courierId, storeName, start, end);
+        StoreDictionary storeDictionary = storeSpatialIndex.dictionary();
+        List<CourierEntity> entities = storeDictionary.keyOf(storeName)
+                .map(storeKey -> courierRepository.findByCourierIdAndStoreKeyAndTimestampBetweenOrderByTimestampDesc(courierId, storeKey, start, end))
+                .orElse(null);
         Optional.ofNullable(entities)
                 .filter(e -> !e.isEmpty())
                 .orElseThrow(() -> new CourierNotFoundException("No travels found for Courier ID " + courierId + " in store " + storeName + " between " + start + " and " + end + "."));
-        return courierEntityToCourierMapper.map(entities);
+        courierMetrics.recordTravelQueryRows(CourierMetrics.TravelQuery.STORE_AND_TIME_RANGE, entities.size());
+        return courierEntityToCourierMapper.map(entities, storeDictionary);
     }
 
     /**
-     * Calculates the total travel distance of a courier based on their travel records.
+     * Retrieves the total travel distance of a courier from its running travel summary,
+     * so the cost does not grow with the number of travel records.
+     * The summary covers archived travels as well, since it is rebuilt from both the archive and the database.
+     * The summary is read in a read-only transaction first, so it can be served by the read replica; a courier without
+     * a summary there has its summary found or rebuilt on the primary.
+     * The distance is cached in the {@link CourierQueryResultCache} until a location of the courier is saved.
      *
      * @param courierId the unique identifier of the courier
      * @return the total travel distance in kilometers
      * @throws CourierNotFoundException if no travel records are found for the given courier ID
      */
     public double getTotalTravelDistance(String courierId) {
-        List<CourierEntity> travels = courierRepository.findByCourierIdOrderByTimestampAsc(courierId);
-        Optional.ofNullable(travels)
-                .filter(t -> !t.isEmpty())
-                .orElseThrow(() -> new CourierNotFoundException("No travel records found for Courier ID " + courierId + "."));
-
-        return IntStream.range(1, travels.size())
-                .mapToDouble(i -> {
-                    CourierEntity prevTravel = travels.get(i - 1);
-                    CourierEntity currentTravel = travels.get(i);
-                    return DistanceUtils.calculateDistance(prevTravel.getLat(), prevTravel.getLng(),
-                            currentTravel.getLat(), currentTravel.getLng(), DistanceType.KILOMETERS);
-                })
-                .sum();
+        return courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE,
+                () -> courierTravelSummaryService.findSummarizedTotalDistanceInKilometers(courierId)
+                        .or(() -> courierTravelSummaryService.findTotalDistanceInKilometers(courierId))
+                        .orElseThrow(() -> new CourierNotFoundException("No travel records found for Courier ID " + courierId + ".")));
+    }
 
+    /**
+     * Retrieves the distance a courier travelled within the time range [start, end).
+     * Whole hours of the range are read from the hourly distance buckets kept next to the travel summary,
+     * so the cost grows with the number of hours rather than the number of travel records.
+     * The whole query, including the check that the courier has travels, is read-only and can be served by the read replica.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param request   the time range of the query
+     * @return the distance travelled within the range in kilometers
+     * @throws CourierNotFoundException if no travel records are found for the given courier ID
+     */
+    @Transactional(readOnly = true)
+    public double getTotalTravelDistanceBetween(String courierId, DistanceRangeQueryRequest request) {
+        if (!courierRepository.existsByCourierId(courierId) && !courierArchive.existsByCourierId(courierId)) {
+            throw new CourierNotFoundException("No travel records found for Courier ID " + courierId + ".");
+        }
+        return courierTravelSummaryService.findDistanceInKilometersBetween(courierId, request.getStart(), request.getEnd());
     }
 
 }
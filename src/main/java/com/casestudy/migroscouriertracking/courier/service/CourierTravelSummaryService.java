@@ -0,0 +1,378 @@
+package com.casestudy.migroscouriertracking.courier.service;
+
+import com.casestudy.migroscouriertracking.courier.archive.CourierArchive;
+import com.casestudy.migroscouriertracking.courier.metrics.CourierMetrics;
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierHourlyDistanceEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierTravelSummaryEntity;
+import com.casestudy.migroscouriertracking.courier.model.enums.DistanceType;
+import com.casestudy.migroscouriertracking.courier.repository.CourierHourlyDistanceRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierTravelSummaryRepository;
+import com.casestudy.migroscouriertracking.courier.utils.DistanceUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service class named {@link CourierTravelSummaryService} responsible for maintaining the running
+ * {@link CourierTravelSummaryEntity} of each courier.
+ * Accepted locations are added to the summary in the same transaction that persists them, so reading the
+ * total travel distance does not depend on the length of the courier's history.
+ * A location older than the last summarized one, such as a ping a courier's phone buffered while offline, is spliced in
+ * between its neighbours instead: the segment between them is replaced by the two segments through the location.
+ * A missing summary row is inserted before it is locked, so the lock never falls on the gap of a missing row.
+ * Every segment, the path from one location of a courier to its next one, is also added to the
+ * {@link CourierHourlyDistanceEntity} bucket of the hour it ends in, so the distance travelled within a time range
+ * is read from one bucket per whole hour plus the locations of the partial hours at its edges.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourierTravelSummaryService {
+
+    private final CourierTravelSummaryRepository courierTravelSummaryRepository;
+    private final CourierRepository courierRepository;
+    private final CourierArchive courierArchive;
+    private final CourierHourlyDistanceRepository courierHourlyDistanceRepository;
+    private final CourierMetrics courierMetrics;
+
+    /**
+     * Adds locations that have just been persisted to the travel summaries of their couriers.
+     * Must be called after the locations are written, within the same transaction.
+     *
+     * @param locations the accepted courier locations
+     */
+    @Transactional
+    public void recordAcceptedLocations(List<CourierEntity> locations) {
+        locations.stream()
+                .collect(Collectors.groupingBy(CourierEntity::getCourierId, LinkedHashMap::new, Collectors.toList()))
+                .forEach(this::recordAcceptedLocationsOfCourier);
+    }
+
+    /**
+     * Finds the total travel distance of a courier from its existing summary, without rebuilding a missing one,
+     * in a read-only transaction that may be served by the read replica.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return the total travel distance in kilometers, or an empty Optional if the courier has no summary
+     */
+    @Transactional(readOnly = true)
+    public Optional<Double> findSummarizedTotalDistanceInKilometers(String courierId) {
+        return courierTravelSummaryRepository.findById(courierId)
+                .map(CourierTravelSummaryEntity::getTotalDistanceInKilometers);
+    }
+
+    /**
+     * Finds the total travel distance of a courier, rebuilding the summary from the travel history
+     * if the courier has no summary yet.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return the total travel distance in kilometers, or an empty Optional if the courier has no travel records
+     */
+    @Transactional
+    public Optional<Double> findTotalDistanceInKilometers(String courierId) {
+        return courierTravelSummaryRepository.findById(courierId)
+                .or(() -> rebuild(courierId))
+                .map(CourierTravelSummaryEntity::getTotalDistanceInKilometers);
+    }
+
+    /**
+     * Calculates the distance of the segments a courier finished within the range [start, end).
+     * Whole hours inside the range are read from their hourly buckets; only the locations of the partial hours
+     * at the edges, and the location before each edge, are read to add the segments ending in those hours.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param start     the inclusive start of the range
+     * @param end       the exclusive end of the range
+     * @return the distance travelled within the range in kilometers
+     */
+    @Transactional(readOnly = true)
+    public double findDistanceInKilometersBetween(String courierId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime firstWholeHour = start.truncatedTo(ChronoUnit.HOURS);
+        if (firstWholeHour.isBefore(start)) {
+            firstWholeHour = firstWholeHour.plusHours(1);
+        }
+        LocalDateTime endOfLastWholeHour = end.truncatedTo(ChronoUnit.HOURS);
+        if (!firstWholeHour.isBefore(endOfLastWholeHour)) {
+            return sumSegmentsEndingBetween(courierId, start, end);
+        }
+
+        return sumSegmentsEndingBetween(courierId, start, firstWholeHour)
+                + courierHourlyDistanceRepository.sumDistanceInKilometers(courierId, firstWholeHour, endOfLastWholeHour)
+                + sumSegmentsEndingBetween(courierId, endOfLastWholeHour, end);
+    }
+
+    /**
+     * Sums the segments of a courier that end within the range [start, end) from its locations.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param start     the inclusive start of the range
+     * @param end       the exclusive end of the range
+     * @return the distance of the segments in kilometers
+     */
+    private double sumSegmentsEndingBetween(String courierId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return 0.0;
+        }
+        List<Courier> archivedTravels = courierArchive.findByCourierIdAndTimestampBetween(courierId, start, end);
+        List<CourierEntity> persistedTravels = courierRepository
+                .findByCourierIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(courierId, start, end);
+        if (archivedTravels.isEmpty() && persistedTravels.isEmpty()) {
+            return 0.0;
+        }
+
+        List<CourierEntity> travels = Stream.concat(
+                        findPreviousTravel(courierId, start).stream(),
+                        merge(archivedTravels, persistedTravels).stream())
+                .toList();
+
+        courierMetrics.recordDistancePoints(CourierMetrics.DistanceComputation.TIME_RANGE, travels.size());
+        double distance = 0.0;
+        for (int index = 1; index < travels.size(); index++) {
+            CourierEntity from = travels.get(index - 1);
+            CourierEntity to = travels.get(index);
+            distance += DistanceUtils.calculateDistance(from.getLat(), from.getLng(), to.getLat(), to.getLng(), DistanceType.KILOMETERS);
+        }
+        return distance;
+    }
+
+    /**
+     * Rebuilds the travel summary of a courier from all of its persisted locations,
+     * including the ones moved to the {@link CourierArchive}.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return the rebuilt summary, or an empty Optional if the courier has no travel records
+     */
+    @Transactional
+    public Optional<CourierTravelSummaryEntity> rebuild(String courierId) {
+        List<CourierEntity> travels = findAllTravelsOrderByTimestampAsc(courierId);
+        if (travels.isEmpty()) {
+            return Optional.empty();
+        }
+
+        CourierEntity firstTravel = travels.get(0);
+        courierTravelSummaryRepository.insertIfAbsent(courierId, firstTravel.getLat(), firstTravel.getLng(), firstTravel.getTimestamp());
+        CourierTravelSummaryEntity summary = courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)
+                .orElseGet(() -> CourierTravelSummaryEntity.builder().courierId(courierId).build());
+        summary.setTotalDistanceInKilometers(0.0);
+        summary.setLastLat(firstTravel.getLat());
+        summary.setLastLng(firstTravel.getLng());
+        summary.setLastTimestamp(firstTravel.getTimestamp());
+
+        Map<LocalDateTime, Double> distancesByHour = new TreeMap<>();
+        travels.stream().skip(1).forEach(travel -> append(summary, travel, distancesByHour));
+
+        courierHourlyDistanceRepository.deleteByCourierId(courierId);
+        distancesByHour.forEach((bucketStart, distance) ->
+                courierHourlyDistanceRepository.addDistance(courierId, bucketStart, distance));
+
+        courierMetrics.recordDistancePoints(CourierMetrics.DistanceComputation.SUMMARY_REBUILD, travels.size());
+        log.debug("Travel summary of courier {} rebuilt from {} locations", courierId, travels.size());
+        return Optional.of(courierTravelSummaryRepository.save(summary));
+    }
+
+    /**
+     * Finds the latest archived or persisted location of a courier logged before the given time.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param before    the exclusive upper bound of the timestamp
+     * @return the latest earlier location, or an empty Optional if there is none
+     */
+    private Optional<CourierEntity> findPreviousTravel(String courierId, LocalDateTime before) {
+        return Stream.concat(
+                        courierRepository.findFirstByCourierIdAndTimestampBeforeOrderByTimestampDesc(courierId, before).stream(),
+                        courierArchive.findLastBefore(courierId, before).map(CourierTravelSummaryService::toEntity).stream())
+                .max(Comparator.comparing(CourierEntity::getTimestamp));
+    }
+
+    /**
+     * Finds the earliest archived or persisted location of a courier logged after the given time,
+     * skipping the given persisted locations.
+     *
+     * @param courierId   the unique identifier of the courier
+     * @param after       the exclusive lower bound of the timestamp
+     * @param excludedIds the IDs of the persisted locations to skip
+     * @return the earliest later location, or an empty Optional if there is none
+     */
+    private Optional<CourierEntity> findNextTravel(String courierId, LocalDateTime after, Set<UUID> excludedIds) {
+        return Stream.concat(
+                        courierRepository.findFirstByCourierIdAndTimestampAfterAndIdNotInOrderByTimestampAsc(courierId, after, excludedIds).stream(),
+                        courierArchive.findFirstAfter(courierId, after).map(CourierTravelSummaryService::toEntity).stream())
+                .min(Comparator.comparing(CourierEntity::getTimestamp));
+    }
+
+    /**
+     * Finds the archived and persisted locations of a courier, in timestamp order.
+     *
+     * @param courierId the unique identifier of the courier
+     * @return the locations of the courier
+     */
+    private List<CourierEntity> findAllTravelsOrderByTimestampAsc(String courierId) {
+        List<CourierEntity> persistedTravels = courierRepository.findByCourierIdOrderByTimestampAsc(courierId);
+        if (persistedTravels == null) {
+            persistedTravels = List.of();
+        }
+        return merge(courierArchive.findByCourierId(courierId), persistedTravels);
+    }
+
+    /**
+     * Merges archived and persisted locations of a courier in timestamp order,
+     * skipping persisted locations that are already archived.
+     *
+     * @param archivedTravels  the archived locations
+     * @param persistedTravels the persisted locations
+     * @return the merged locations
+     */
+    private static List<CourierEntity> merge(List<Courier> archivedTravels, List<CourierEntity> persistedTravels) {
+        if (archivedTravels.isEmpty()) {
+            return persistedTravels;
+        }
+
+        Set<String> archivedIds = archivedTravels.stream().map(Courier::getId).collect(Collectors.toSet());
+        return Stream.concat(
+                        archivedTravels.stream().map(CourierTravelSummaryService::toEntity),
+                        persistedTravels.stream().filter(travel -> !archivedIds.contains(travel.getId().toString())))
+                .sorted(Comparator.comparing(CourierEntity::getTimestamp))
+                .toList();
+    }
+
+    private static CourierEntity toEntity(Courier travel) {
+        return CourierEntity.builder()
+                .id(UUID.fromString(travel.getId()))
+                .courierId(travel.getCourierId())
+                .lat(travel.getLat())
+                .lng(travel.getLng())
+                .timestamp(travel.getTimestamp())
+                .build();
+    }
+
+    /**
+     * Adds the locations of a single courier to its summary, in timestamp order.
+     * The first locations of a new courier create its summary; a courier that has locations but no summary,
+     * because they were logged before summaries were kept, gets its summary rebuilt from the history once.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param locations the accepted locations of the courier
+     */
+    private void recordAcceptedLocationsOfCourier(String courierId, List<CourierEntity> locations) {
+        List<CourierEntity> orderedLocations = locations.stream()
+                .sorted(Comparator.comparing(CourierEntity::getTimestamp))
+                .toList();
+        Set<UUID> locationIds = orderedLocations.stream()
+                .map(CourierEntity::getId)
+                .collect(Collectors.toSet());
+
+        if (!courierTravelSummaryRepository.existsById(courierId)
+                && (courierRepository.existsByCourierIdAndIdNotIn(courierId, locationIds) || courierArchive.existsByCourierId(courierId))) {
+            // The persisted history already contains the new locations
+            rebuild(courierId);
+            return;
+        }
+
+        CourierEntity firstLocation = orderedLocations.get(0);
+        courierTravelSummaryRepository.insertIfAbsent(courierId, firstLocation.getLat(), firstLocation.getLng(), firstLocation.getTimestamp());
+        CourierTravelSummaryEntity summary = courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)
+                .orElseThrow(() -> new IllegalStateException("Travel summary of courier " + courierId + " was not created"));
+
+        Map<LocalDateTime, Double> distancesByHour = new TreeMap<>();
+        for (CourierEntity location : orderedLocations) {
+            if (isLastSummarized(summary, location)) {
+                // The location a new summary was created from
+                continue;
+            }
+            if (!location.getTimestamp().isBefore(summary.getLastTimestamp())) {
+                append(summary, location, distancesByHour);
+            } else if (!splice(summary, location, locationIds, distancesByHour)) {
+                // No later location to splice it before; the summary does not match the history
+                rebuild(courierId);
+                return;
+            }
+        }
+        courierMetrics.recordDistancePoints(CourierMetrics.DistanceComputation.SUMMARY_APPEND, orderedLocations.size());
+        courierTravelSummaryRepository.save(summary);
+        distancesByHour.forEach((bucketStart, distance) ->
+                courierHourlyDistanceRepository.addDistance(courierId, bucketStart, distance));
+    }
+
+    /**
+     * Adds a location older than the last summarized one between its neighbours: the segment from the previous
+     * location to the next one is replaced by the segments from the previous location to this one and from this one
+     * to the next, in the total and in the buckets of the hours the segments end in.
+     * Only the two neighbours are read. The next one skips the given locations: locations accepted together with this
+     * one are spliced in timestamp order, so the earlier ones are already summarized and the later ones are not yet.
+     *
+     * @param summary         the summary to splice the location into
+     * @param location        the out-of-order location
+     * @param acceptedIds     the IDs of the locations accepted together with this one
+     * @param distancesByHour the distances per hour the changed segments are added to
+     * @return true if the location was spliced in; false if the courier has no later location
+     */
+    private boolean splice(CourierTravelSummaryEntity summary, CourierEntity location, Set<UUID> acceptedIds,
+                           Map<LocalDateTime, Double> distancesByHour) {
+        String courierId = summary.getCourierId();
+        Optional<CourierEntity> next = findNextTravel(courierId, location.getTimestamp(), acceptedIds);
+        if (next.isEmpty()) {
+            return false;
+        }
+        CourierEntity nextTravel = next.get();
+        LocalDateTime nextHour = nextTravel.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+
+        double splicedDistance = distanceBetween(location, nextTravel);
+        distancesByHour.merge(nextHour, splicedDistance, Double::sum);
+        Optional<CourierEntity> previous = findPreviousTravel(courierId, location.getTimestamp());
+        if (previous.isPresent()) {
+            double replacedDistance = distanceBetween(previous.get(), nextTravel);
+            double distanceToLocation = distanceBetween(previous.get(), location);
+            distancesByHour.merge(nextHour, -replacedDistance, Double::sum);
+            distancesByHour.merge(location.getTimestamp().truncatedTo(ChronoUnit.HOURS), distanceToLocation, Double::sum);
+            splicedDistance += distanceToLocation - replacedDistance;
+        }
+        summary.setTotalDistanceInKilometers(summary.getTotalDistanceInKilometers() + splicedDistance);
+        return true;
+    }
+
+    private static boolean isLastSummarized(CourierTravelSummaryEntity summary, CourierEntity location) {
+        return location.getTimestamp().equals(summary.getLastTimestamp())
+                && location.getLat().equals(summary.getLastLat())
+                && location.getLng().equals(summary.getLastLng());
+    }
+
+    private static double distanceBetween(CourierEntity from, CourierEntity to) {
+        return DistanceUtils.calculateDistance(from.getLat(), from.getLng(), to.getLat(), to.getLng(), DistanceType.KILOMETERS);
+    }
+
+    /**
+     * Extends a summary with the segment from its last location to the given location
+     * and adds the segment to the distance of the hour it ends in.
+     *
+     * @param summary         the summary to extend
+     * @param location        the next location of the courier
+     * @param distancesByHour the distances per hour the segment is added to
+     */
+    private static void append(CourierTravelSummaryEntity summary, CourierEntity location, Map<LocalDateTime, Double> distancesByHour) {
+        double segmentDistance = DistanceUtils.calculateDistance(summary.getLastLat(), summary.getLastLng(),
+                location.getLat(), location.getLng(), DistanceType.KILOMETERS);
+        distancesByHour.merge(location.getTimestamp().truncatedTo(ChronoUnit.HOURS), segmentDistance, Double::sum);
+        summary.setTotalDistanceInKilometers(summary.getTotalDistanceInKilometers() + segmentDistance);
+        summary.setLastLat(location.getLat());
+        summary.setLastLng(location.getLng());
+        summary.setLastTimestamp(location.getTimestamp());
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.casestudy.migroscouriertracking.courier.service;
+
+import com.casestudy.migroscouriertracking.courier.exception.StoreAlreadyExistsException;
+import com.casestudy.migroscouriertracking.courier.exception.StoreNotFoundException;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.NearestStore;
+import com.casestudy.migroscouriertracking.courier.index.StoreCatalog;
+import com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.CreateStoreRequest;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.UpdateStoreRequest;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Service class named {@link StoreService} responsible for managing the store catalog.
+ * Reads are served from the current snapshot of the {@link StoreSpatialIndex} without touching the database.
+ * Writes go to the database; once their transaction commits, the index publishes a new snapshot version,
+ * which is already visible when the write returns.
+ */
+@Service
+@RequiredArgsConstructor
+public class StoreService {
+
+    private final StoreRepository storeRepository;
+    private final StoreSpatialIndex storeSpatialIndex;
+
+    /**
+     * Retrieves the current version of the store catalog.
+     *
+     * @return the current store catalog
+     */
+    public StoreCatalog getStoreCatalog() {
+        return storeSpatialIndex.catalog();
+    }
+
+    /**
+     * Retrieves a store of the current store catalog by its ID.
+     *
+     * @param storeId the ID of the store
+     * @return the store
+     * @throws StoreNotFoundException if there is no store with the given ID
+     */
+    public CatalogStore getStoreById(String storeId) {
+        return storeSpatialIndex.findById(UUID.fromString(storeId))
+                .orElseThrow(() -> storeNotFound(storeId));
+    }
+
+    /**
+     * Finds the stores closest to a location in the current store catalog.
+     *
+     * @param lat the latitude of the location
+     * @param lng the longitude of the location
+     * @param k   the maximum number of stores to return
+     * @return up to {@code k} stores with their distance in meters, nearest first
+     */
+    public List<NearestStore> findNearestStores(double lat, double lng, int k) {
+        return storeSpatialIndex.findNearestStores(lat, lng, k);
+    }
+
+    /**
+     * Adds a store to the store catalog.
+     *
+     * @param request the request containing the name, location and optional creation time of the store
+     * @return the created store
+     * @throws StoreAlreadyExistsException if a store with the same name exists
+     */
+    @Transactional
+    public StoreEntity createStore(CreateStoreRequest request) {
+        if (storeRepository.existsByNameAndDeletedAtIsNull(request.getName())) {
+            throw new StoreAlreadyExistsException("Store with name " + request.getName() + " already exists.");
+        }
+
+        StoreEntity store = StoreEntity.builder()
+                .name(request.getName())
+                .lat(request.getLat())
+                .lng(request.getLng())
+                .createdAt(Optional.ofNullable(request.getCreatedAt()).orElseGet(LocalDateTime::now))
+                .build();
+        return storeRepository.save(store);
+    }
+
+    /**
+     * Changes the name or location of a store.
+     * Travels reference the store by its key, so travels already logged at the store are returned with the new name.
+     *
+     * @param storeId the ID of the store
+     * @param request the request containing the new name and location of the store
+     * @return the updated store
+     * @throws StoreNotFoundException if there is no store with the given ID
+     * @throws StoreAlreadyExistsException if another store has the new name
+     */
+    @Transactional
+    public StoreEntity updateStore(String storeId, UpdateStoreRequest request) {
+        StoreEntity store = storeRepository.findByIdAndDeletedAtIsNull(UUID.fromString(storeId))
+                .orElseThrow(() -> storeNotFound(storeId));
+
+        if (storeRepository.existsByNameAndIdNotAndDeletedAtIsNull(request.getName(), store.getId())) {
+            throw new StoreAlreadyExistsException("Store with name " + request.getName() + " already exists.");
+        }
+
+        store.setName(request.getName());
+        store.setLat(request.getLat());
+        store.setLng(request.getLng());
+        return storeRepository.save(store);
+    }
+
+    /**
+     * Removes a store from the store catalog.
+     * The store is only marked as deleted, so travels already logged at it keep resolving to its name.
+     *
+     * @param storeId the ID of the store
+     * @throws StoreNotFoundException if there is no store with the given ID
+     */
+    @Transactional
+    public void deleteStore(String storeId) {
+        StoreEntity store = storeRepository.findByIdAndDeletedAtIsNull(UUID.fromString(storeId))
+                .orElseThrow(() -> storeNotFound(storeId));
+        store.setDeletedAt(LocalDateTime.now());
+        storeRepository.save(store);
+    }
+
+    private static StoreNotFoundException storeNotFound(String storeId) {
+        return new StoreNotFoundException("Store with ID " + storeId + " not found.");
+    }
+
+}
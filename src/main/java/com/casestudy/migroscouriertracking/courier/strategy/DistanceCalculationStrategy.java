@@ -16,6 +16,19 @@ public interface DistanceCalculationStrategy {
      * @param endLoc   the ending location
      * @return the calculated distance between the two locations in the desired unit
      */
-    double calculateDistance(Location startLoc, Location endLoc);
+    default double calculateDistance(Location startLoc, Location endLoc) {
+        return calculateDistance(startLoc.getLatitude(), startLoc.getLongitude(), endLoc.getLatitude(), endLoc.getLongitude());
+    }
+
+    /**
+     * Calculates the distance between two locations given as raw coordinates, without allocating {@link Location} objects.
+     *
+     * @param startLat the latitude of the starting location
+     * @param startLng the longitude of the starting location
+     * @param endLat   the latitude of the ending location
+     * @param endLng   the longitude of the ending location
+     * @return the calculated distance between the two locations in the desired unit
+     */
+    double calculateDistance(double startLat, double startLng, double endLat, double endLng);
 
 }
@@ -7,7 +7,7 @@ import com.casestudy.migroscouriertracking.courier.strategy.DistanceInKilometers
 import com.casestudy.migroscouriertracking.courier.strategy.DistanceInMetersCalculatorStrategy;
 import lombok.experimental.UtilityClass;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 /**
@@ -16,10 +16,10 @@ import java.util.Map;
 @UtilityClass
 public class DistanceCalculationUtil {
 
-    private final Map<DistanceType, DistanceCalculationStrategy> distanceCalculationStrategies = new HashMap<>() {{
-        put(DistanceType.METERS, new DistanceInMetersCalculatorStrategy());
-        put(DistanceType.KILOMETERS, new DistanceInKilometersCalculatorStrategy());
-    }};
+    private final Map<DistanceType, DistanceCalculationStrategy> distanceCalculationStrategies = new EnumMap<>(Map.of(
+            DistanceType.METERS, new DistanceInMetersCalculatorStrategy(),
+            DistanceType.KILOMETERS, new DistanceInKilometersCalculatorStrategy()
+    ));
 
     /**
      * Calculates the distance between two locations based on the specified distance type.
@@ -31,9 +31,24 @@ public class DistanceCalculationUtil {
      * @throws IllegalArgumentException if the specified distance type is invalid
      */
     public double calculateDistance(Location startLoc, Location endLoc, DistanceType distanceType) {
+        return calculateDistance(startLoc.getLatitude(), startLoc.getLongitude(), endLoc.getLatitude(), endLoc.getLongitude(), distanceType);
+    }
+
+    /**
+     * Calculates the distance between two locations given as raw coordinates based on the specified distance type.
+     *
+     * @param startLat     the latitude of the starting location
+     * @param startLng     the longitude of the starting location
+     * @param endLat       the latitude of the ending location
+     * @param endLng       the longitude of the ending location
+     * @param distanceType the type of distance to calculate (e.g., METERS or KILOMETERS)
+     * @return the calculated distance between the two locations
+     * @throws IllegalArgumentException if the specified distance type is invalid
+     */
+    public double calculateDistance(double startLat, double startLng, double endLat, double endLng, DistanceType distanceType) {
         DistanceCalculationStrategy strategy = distanceCalculationStrategies.get(distanceType);
         if (strategy != null) {
-            return strategy.calculateDistance(startLoc, endLoc);
+            return strategy.calculateDistance(startLat, startLng, endLat, endLng);
         } else {
             throw new IllegalArgumentException("Invalid distance type");
         }
@@ -1,6 +1,5 @@
 package com.casestudy.migroscouriertracking.courier.utils;
 
-import com.casestudy.migroscouriertracking.courier.model.Location;
 import com.casestudy.migroscouriertracking.courier.model.enums.DistanceType;
 import lombok.experimental.UtilityClass;
 
@@ -24,11 +23,7 @@ public class DistanceUtils {
      * @return true if the courier is within the specified radius of the store; false otherwise
      */
     public boolean isWithinRadius(double courierLat, double courierLng, double storeLat, double storeLng, double radiusInMeters) {
-        double radiusInKm = radiusInMeters / 1000.0;
-        Location courierLocation = new Location(courierLat, courierLng);
-        Location storeLocation = new Location(storeLat, storeLng);
-        double distance = DistanceCalculationUtil.calculateDistance(courierLocation, storeLocation, DistanceType.KILOMETERS);
-        return distance <= radiusInKm;
+        return HaversineUtils.distanceInMeters(courierLat, courierLng, storeLat, storeLng) <= radiusInMeters;
     }
 
     /**
@@ -42,9 +37,7 @@ public class DistanceUtils {
      * @return the calculated distance between the two locations
      */
     public double calculateDistance(double lat1, double lng1, double lat2, double lng2, DistanceType distanceType) {
-        Location startLocation = new Location(lat1, lng1);
-        Location endLocation = new Location(lat2, lng2);
-        return DistanceCalculationUtil.calculateDistance(startLocation, endLocation, distanceType);
+        return DistanceCalculationUtil.calculateDistance(lat1, lng1, lat2, lng2, distanceType);
     }
 
     /**
@@ -0,0 +1,144 @@
+package com.casestudy.migroscouriertracking.courier.utils;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Utility class named {@link HaversineUtils} providing an allocation-free haversine kernel
+ * that works directly on latitude and longitude values.
+ * Callers that compare one location against many fixed points, such as stores, can precompute
+ * the radians and cosine of latitude of those points once and use the radian based methods.
+ */
+@UtilityClass
+public class HaversineUtils {
+
+    /**
+     * The mean radius of the Earth in meters.
+     */
+    public final double EARTH_RADIUS_IN_METERS = 6371000.0;
+
+    /**
+     * The mean radius of the Earth in kilometers.
+     */
+    public final double EARTH_RADIUS_IN_KILOMETERS = 6371.0;
+
+    /**
+     * Ratio by which the equirectangular approximation may exceed the radius before a location is rejected
+     * without computing the exact haversine distance.
+     */
+    private final double EQUIRECTANGULAR_PRE_CHECK_MARGIN = 1.1;
+
+    /**
+     * Calculates the distance between two locations given in degrees, in meters.
+     *
+     * @param lat1 the latitude of the first location
+     * @param lng1 the longitude of the first location
+     * @param lat2 the latitude of the second location
+     * @param lng2 the longitude of the second location
+     * @return the distance between the two locations in meters
+     */
+    public double distanceInMeters(double lat1, double lng1, double lat2, double lng2) {
+        return EARTH_RADIUS_IN_METERS * centralAngle(lat1, lng1, lat2, lng2);
+    }
+
+    /**
+     * Calculates the distance between two locations given in degrees, in kilometers.
+     *
+     * @param lat1 the latitude of the first location
+     * @param lng1 the longitude of the first location
+     * @param lat2 the latitude of the second location
+     * @param lng2 the longitude of the second location
+     * @return the distance between the two locations in kilometers
+     */
+    public double distanceInKilometers(double lat1, double lng1, double lat2, double lng2) {
+        return EARTH_RADIUS_IN_KILOMETERS * centralAngle(lat1, lng1, lat2, lng2);
+    }
+
+    /**
+     * Calculates the central angle between two locations given in degrees using the haversine formula.
+     *
+     * @param lat1 the latitude of the first location
+     * @param lng1 the longitude of the first location
+     * @param lat2 the latitude of the second location
+     * @param lng2 the longitude of the second location
+     * @return the central angle in radians
+     */
+    public double centralAngle(double lat1, double lng1, double lat2, double lng2) {
+        double latOne = Math.toRadians(lat1);
+        double latTwo = Math.toRadians(lat2);
+        return centralAngleOfRadians(latOne, Math.toRadians(lng1), Math.cos(latOne),
+                latTwo, Math.toRadians(lng2), Math.cos(latTwo));
+    }
+
+    /**
+     * Calculates the central angle between two locations given in radians, reusing precomputed cosines of their latitudes.
+     *
+     * @param latOne    the latitude of the first location in radians
+     * @param lngOne    the longitude of the first location in radians
+     * @param cosLatOne the cosine of the latitude of the first location
+     * @param latTwo    the latitude of the second location in radians
+     * @param lngTwo    the longitude of the second location in radians
+     * @param cosLatTwo the cosine of the latitude of the second location
+     * @return the central angle in radians
+     */
+    public double centralAngleOfRadians(double latOne, double lngOne, double cosLatOne,
+                                        double latTwo, double lngTwo, double cosLatTwo) {
+        double sinHalfDiffOfLat = Math.sin((latTwo - latOne) / 2);
+        double sinHalfDiffOfLng = Math.sin((lngTwo - lngOne) / 2);
+
+        double ax = sinHalfDiffOfLat * sinHalfDiffOfLat +
+                cosLatOne * cosLatTwo * sinHalfDiffOfLng * sinHalfDiffOfLng;
+        return 2 * Math.atan2(Math.sqrt(ax), Math.sqrt(1 - ax));
+    }
+
+    /**
+     * Approximates the distance between two close locations given in radians with the equirectangular projection.
+     * It costs a few multiplications and no trigonometry, but is only accurate for short distances.
+     *
+     * @param latOne    the latitude of the first location in radians
+     * @param lngOne    the longitude of the first location in radians
+     * @param cosLatOne the cosine of the latitude of the first location
+     * @param latTwo    the latitude of the second location in radians
+     * @param lngTwo    the longitude of the second location in radians
+     * @return the approximate distance between the two locations in meters
+     */
+    public double equirectangularDistanceInMeters(double latOne, double lngOne, double cosLatOne,
+                                                  double latTwo, double lngTwo) {
+        double diffOfLng = lngTwo - lngOne;
+        if (diffOfLng > Math.PI) {
+            diffOfLng -= 2 * Math.PI;
+        } else if (diffOfLng < -Math.PI) {
+            diffOfLng += 2 * Math.PI;
+        }
+        double x = diffOfLng * cosLatOne;
+        double y = latTwo - latOne;
+        return EARTH_RADIUS_IN_METERS * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Calculates the distance in meters from a fixed point given in radians to a location given in degrees,
+     * returning {@link Double#POSITIVE_INFINITY} without computing the haversine formula
+     * when the equirectangular approximation already places the location well outside the radius.
+     *
+     * @param pointLat       the latitude of the fixed point in radians
+     * @param pointLng       the longitude of the fixed point in radians
+     * @param cosPointLat    the cosine of the latitude of the fixed point
+     * @param lat            the latitude of the location in degrees
+     * @param lng            the longitude of the location in degrees
+     * @param radiusInMeters the radius in meters the caller is interested in
+     * @return the exact distance in meters, or {@link Double#POSITIVE_INFINITY} if the location is clearly outside the radius
+     */
+    public double distanceInMetersWithinRadius(double pointLat, double pointLng, double cosPointLat,
+                                               double lat, double lng, double radiusInMeters) {
+        double latInRadians = Math.toRadians(lat);
+        double lngInRadians = Math.toRadians(lng);
+
+        double approximateDistance = equirectangularDistanceInMeters(pointLat, pointLng, cosPointLat, latInRadians, lngInRadians);
+        if (approximateDistance > radiusInMeters * EQUIRECTANGULAR_PRE_CHECK_MARGIN) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return EARTH_RADIUS_IN_METERS * centralAngleOfRadians(pointLat, pointLng, cosPointLat,
+                latInRadians, lngInRadians, Math.cos(latInRadians));
+    }
+
+}
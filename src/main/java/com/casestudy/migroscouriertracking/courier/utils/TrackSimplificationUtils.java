@@ -0,0 +1,163 @@
+package com.casestudy.migroscouriertracking.courier.utils;
+
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.SimplifiedTrack;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Utility class named {@link TrackSimplificationUtils} that simplifies courier tracks with the Douglas-Peucker algorithm.
+ * Locations are projected onto a local plane in meters around the mean latitude of the track, so the tolerance
+ * is a distance in meters from the simplified line; longitudes are unwrapped first, so tracks crossing the
+ * antimeridian stay continuous.
+ * Ranges left to split are kept on an explicit stack instead of the call stack, so tracks of any length
+ * are simplified without recursion.
+ */
+@UtilityClass
+public class TrackSimplificationUtils {
+
+    /**
+     * Simplifies a courier's track so that every dropped location lies within the tolerance of the line through the kept ones.
+     * The first and last locations are always kept.
+     *
+     * @param travels           the travels of the courier, in any order; they are simplified in timestamp order
+     * @param toleranceInMeters the maximum distance in meters between a dropped location and the simplified track
+     * @return the kept travels in timestamp order with the point count and lengths of both tracks
+     */
+    public SimplifiedTrack simplify(List<Courier> travels, double toleranceInMeters) {
+        List<Courier> ordered = travels.stream()
+                .sorted(Comparator.comparing(Courier::getTimestamp))
+                .toList();
+        boolean[] kept = douglasPeucker(ordered, toleranceInMeters);
+
+        List<Courier> keptTravels = new ArrayList<>();
+        for (int index = 0; index < ordered.size(); index++) {
+            if (kept[index]) {
+                keptTravels.add(ordered.get(index));
+            }
+        }
+
+        return SimplifiedTrack.builder()
+                .travels(keptTravels)
+                .originalPointCount(ordered.size())
+                .originalDistanceInMeters(lengthInMeters(ordered))
+                .distanceInMeters(lengthInMeters(keptTravels))
+                .build();
+    }
+
+    /**
+     * Marks the locations the Douglas-Peucker algorithm keeps.
+     *
+     * @param track             the locations in track order
+     * @param toleranceInMeters the maximum distance in meters between a dropped location and the simplified track
+     * @return a flag per location telling whether it is kept
+     */
+    private boolean[] douglasPeucker(List<Courier> track, double toleranceInMeters) {
+        int size = track.size();
+        boolean[] kept = new boolean[size];
+        if (size <= 2) {
+            Arrays.fill(kept, true);
+            return kept;
+        }
+
+        double[] x = new double[size];
+        double[] y = new double[size];
+        project(track, x, y);
+
+        kept[0] = true;
+        kept[size - 1] = true;
+
+        // Every split keeps one more location, so at most size - 1 ranges are ever pushed
+        int[] stack = new int[2 * size];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = size - 1;
+        while (top > 0) {
+            int end = stack[--top];
+            int start = stack[--top];
+
+            double maxDistance = -1;
+            int farthest = -1;
+            for (int index = start + 1; index < end; index++) {
+                double distance = distanceToSegment(x[index], y[index], x[start], y[start], x[end], y[end]);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = index;
+                }
+            }
+
+            if (farthest >= 0 && maxDistance > toleranceInMeters) {
+                kept[farthest] = true;
+                stack[top++] = start;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = end;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Projects locations onto a plane in meters with the equirectangular projection around the track's mean latitude.
+     *
+     * @param track the locations to project
+     * @param x     receives the east offsets in meters
+     * @param y     receives the north offsets in meters
+     */
+    private void project(List<Courier> track, double[] x, double[] y) {
+        double meanLat = track.stream().mapToDouble(Courier::getLat).average().orElse(0.0);
+        double metersPerDegree = Math.toRadians(1) * HaversineUtils.EARTH_RADIUS_IN_METERS;
+        double metersPerDegreeOfLng = metersPerDegree * Math.cos(Math.toRadians(meanLat));
+
+        double lng = track.get(0).getLng();
+        for (int index = 0; index < track.size(); index++) {
+            if (index > 0) {
+                double diffOfLng = track.get(index).getLng() - track.get(index - 1).getLng();
+                if (diffOfLng > 180) {
+                    diffOfLng -= 360;
+                } else if (diffOfLng < -180) {
+                    diffOfLng += 360;
+                }
+                lng += diffOfLng;
+            }
+            x[index] = lng * metersPerDegreeOfLng;
+            y[index] = track.get(index).getLat() * metersPerDegree;
+        }
+    }
+
+    /**
+     * Calculates the distance from a point to a segment on the plane.
+     * The segment is used rather than its line, so a location far past either end of a short chord,
+     * such as the far end of a round trip, is never dropped.
+     */
+    private double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return Math.sqrt(ex * ex + ey * ey);
+    }
+
+    /**
+     * Calculates the great-circle length of a track.
+     *
+     * @param track the locations in track order
+     * @return the length of the track in meters
+     */
+    private double lengthInMeters(List<Courier> track) {
+        double length = 0.0;
+        for (int index = 1; index < track.size(); index++) {
+            Courier from = track.get(index - 1);
+            Courier to = track.get(index);
+            length += HaversineUtils.distanceInMeters(from.getLat(), from.getLng(), to.getLat(), to.getLng());
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.casestudy.migroscouriertracking.courier.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utility class named {@link UuidV7Utils} for generating time-ordered UUIDs of version 7 (RFC 9562)
+ * and converting UUIDs to and from the 16 bytes they are stored as.
+ * The first 48 bits hold the Unix time in milliseconds and the 12 bits after the version hold a counter,
+ * so UUIDs generated by this process are strictly increasing, even within a millisecond or when the clock steps back;
+ * the remaining 62 bits are random. Primary keys generated this way are appended at the right edge of the
+ * clustered index instead of being inserted at random pages.
+ */
+@UtilityClass
+public class UuidV7Utils {
+
+    private static final int COUNTER_BITS = 12;
+
+    private static final long VERSION_7 = 0x7000L;
+
+    private static final long VARIANT_RFC_9562 = 0x8000_0000_0000_0000L;
+
+    /**
+     * The last issued Unix millisecond shifted left by {@value #COUNTER_BITS} bits, plus the counter within it.
+     */
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+    /**
+     * Generates a new time-ordered UUID of version 7.
+     *
+     * @return the generated UUID
+     */
+    public UUID randomUuid() {
+        long timestampAndCounter = nextTimestampAndCounter(System.currentTimeMillis());
+        long mostSigBits = (timestampAndCounter >>> COUNTER_BITS) << 16
+                | VERSION_7
+                | timestampAndCounter & ((1L << COUNTER_BITS) - 1);
+        long leastSigBits = VARIANT_RFC_9562 | ThreadLocalRandom.current().nextLong() >>> 2;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * Returns the Unix time in milliseconds a version 7 UUID was generated at.
+     *
+     * @param uuid the version 7 UUID
+     * @return the Unix time in milliseconds
+     * @throws IllegalArgumentException if the UUID is not of version 7
+     */
+    public long timestampOf(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * Converts a UUID to its 16 bytes in big-endian order, the layout of a {@code BINARY(16)} column.
+     *
+     * @param uuid the UUID to convert
+     * @return the 16 bytes of the UUID
+     */
+    public byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Converts 16 bytes in big-endian order back to a UUID.
+     *
+     * @param bytes the 16 bytes of the UUID
+     * @return the UUID
+     * @throws IllegalArgumentException if the array does not hold exactly 16 bytes
+     */
+    public UUID fromBytes(byte[] bytes) {
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("A UUID has 16 bytes, got " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Issues the next timestamp and counter, moving to the current millisecond when the clock has passed the last
+     * issued one and incrementing the counter otherwise; a counter overflow carries into the next millisecond.
+     *
+     * @param currentTimeMillis the current Unix time in milliseconds
+     * @return the issued millisecond shifted left by {@value #COUNTER_BITS} bits, plus the counter within it
+     */
+    private long nextTimestampAndCounter(long currentTimeMillis) {
+        long candidate = currentTimeMillis << COUNTER_BITS;
+        while (true) {
+            long last = LAST_TIMESTAMP_AND_COUNTER.get();
+            long next = Math.max(candidate, last + 1);
+            if (LAST_TIMESTAMP_AND_COUNTER.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+}
@@ -1,10 +1,11 @@
 package com.casestudy.migroscouriertracking.courier.utils.validator;
 
+import com.casestudy.migroscouriertracking.courier.cache.PingDeduplicationWindow;
 import com.casestudy.migroscouriertracking.courier.exception.TimestampAfterStoreCreationException;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.ResolvedStoreContext;
+import com.casestudy.migroscouriertracking.courier.metrics.CourierMetrics;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
-import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
-import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
-import com.casestudy.migroscouriertracking.courier.utils.DistanceUtils;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,9 @@ import java.util.Optional;
 /**
  * Validator for the {@link TimestampAfterStoreCreation} annotation that checks
  * if a given timestamp is after the creation time of the nearest store.
+ * Its duration is recorded as the {@link CourierMetrics.Stage#VALIDATION} stage of logging a location.
+ * A retried ping remembered by the {@link PingDeduplicationWindow} passed this check the first time,
+ * so it is accepted without another store lookup.
  *
  * @see #isValid(LogCourierLocationRequest, ConstraintValidatorContext)
  * @see #initialize(TimestampAfterStoreCreation)
@@ -24,7 +28,9 @@ import java.util.Optional;
 @Slf4j
 public class TimestampAfterStoreCreationValidator implements ConstraintValidator<TimestampAfterStoreCreation, LogCourierLocationRequest> {
 
-    private final StoreRepository storeRepository;
+    private final ResolvedStoreContext resolvedStoreContext;
+    private final CourierMetrics courierMetrics;
+    private final PingDeduplicationWindow pingDeduplicationWindow;
 
     /**
      * Initializes the validator with the specified {@link TimestampAfterStoreCreation} constraint annotation.
@@ -36,6 +42,7 @@ public class TimestampAfterStoreCreationValidator implements ConstraintValidator
     /**
      * Validates the given {@link LogCourierLocationRequest} to ensure that the
      * timestamp is after the creation time of the nearest store within a 100-meter radius.
+     * The resolved store is kept in the {@link ResolvedStoreContext} so the service layer reuses it.
      *
      * @param request the {@link LogCourierLocationRequest} object containing the timestamp, latitude, and longitude
      * @param context the {@link ConstraintValidatorContext} used for building error messages
@@ -53,16 +60,20 @@ public class TimestampAfterStoreCreationValidator implements ConstraintValidator
         double lng = request.getLng();
         LocalDateTime timestamp = request.getTimestamp();
 
+        if (pingDeduplicationWindow.find(request.getCourierId(), timestamp, lat, lng).isPresent()) {
+            return true;
+        }
+
         // Find the nearest store and validate the timestamp
+        long startedAt = System.nanoTime();
         try {
-            Optional<StoreEntity> nearestStore = storeRepository.findAll().stream()
-                    .filter(store -> DistanceUtils.isWithinRadius(lat, lng, store.getLat(), store.getLng(), 100.0))
-                    .findFirst();
+            Optional<CatalogStore> nearestStore = resolvedStoreContext.resolve(lat, lng);
 
             // If a nearby store is found, validate the timestamp
             if (nearestStore.isPresent()) {
-                StoreEntity store = nearestStore.get();
-                if (!timestamp.isAfter(store.getCreatedAt())) {
+                CatalogStore store = nearestStore.get();
+                if (!timestamp.isAfter(store.createdAt())) {
+                    courierMetrics.recordRejection(CourierMetrics.Rejection.TIMESTAMP_BEFORE_CREATION);
                     throw new TimestampAfterStoreCreationException("Timestamp must be after the nearest store's creation time");
                 }
             }
@@ -73,6 +84,8 @@ public class TimestampAfterStoreCreationValidator implements ConstraintValidator
             // Log the error and return false for validation failure
             log.error("Error during validation: {}", e.getMessage());
             return false;
+        } finally {
+            courierMetrics.recordStage(CourierMetrics.Stage.VALIDATION, startedAt);
         }
     }
 
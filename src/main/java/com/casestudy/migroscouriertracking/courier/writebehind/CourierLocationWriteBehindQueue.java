@@ -0,0 +1,352 @@
+package com.casestudy.migroscouriertracking.courier.writebehind;
+
+import com.casestudy.migroscouriertracking.courier.cache.CourierQueryResultCache;
+import com.casestudy.migroscouriertracking.courier.cache.LastVisitCache;
+import com.casestudy.migroscouriertracking.courier.cache.PingDeduplicationWindow;
+import com.casestudy.migroscouriertracking.courier.exception.LocationQueueFullException;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.service.CourierTravelSummaryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind queue named {@link CourierLocationWriteBehindQueue} that takes accepted courier locations off the
+ * request path and persists them in group commits.
+ * Locations wait in a bounded queue that a single writer thread drains into one transaction per group, flushed once
+ * it holds {@code batch-size} rows or its oldest row has waited {@code max-delay}; each group is written with the
+ * multi-row {@link CourierRepository#batchInsert(List)} and added to the travel summaries in the same transaction,
+ * which also invalidates the cached query results of its couriers in the {@link CourierQueryResultCache}.
+ * A full queue pushes back on callers with a {@link LocationQueueFullException} instead of growing without bound.
+ * On shutdown the queue stops accepting locations and the writer drains what is left before the data source closes;
+ * a caller checks and fills the queue under the read lock that shutdown takes exclusively, so no location can be
+ * queued after the writer's last look at the queue.
+ * A group that still fails after {@value #MAX_ATTEMPTS} attempts is dropped and its visits are evicted from the
+ * {@link LastVisitCache} and the {@link PingDeduplicationWindow}, so neither the re-entry rule nor a retry
+ * counts locations that were never stored.
+ * It is only started when {@code courier.write-behind.enabled} is true.
+ */
+@Component
+@Slf4j
+public class CourierLocationWriteBehindQueue implements SmartLifecycle {
+
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final long IDLE_POLL_INTERVAL_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final CourierRepository courierRepository;
+    private final CourierTravelSummaryService courierTravelSummaryService;
+    private final LastVisitCache lastVisitCache;
+    private final PingDeduplicationWindow pingDeduplicationWindow;
+    private final CourierQueryResultCache courierQueryResultCache;
+    private final TransactionOperations transactionOperations;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxDelayInNanos;
+    private final long offerTimeoutInNanos;
+    private final Duration shutdownTimeout;
+
+    private final BlockingQueue<CourierEntity> queue;
+    private final ReadWriteLock acceptingLock = new ReentrantReadWriteLock();
+
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter committedCounter;
+    private final Counter droppedCounter;
+    private final Counter rejectedCounter;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Creates the queue with the configured bounds.
+     *
+     * @param courierRepository           the repository the locations are written with
+     * @param courierTravelSummaryService the service adding written locations to the travel summaries
+     * @param lastVisitCache              the cache the visits of dropped locations are evicted from
+     * @param pingDeduplicationWindow     the window dropped locations are evicted from
+     * @param courierQueryResultCache     the cache the query results of couriers with written locations are invalidated in
+     * @param transactionOperations       the template each group commit runs in
+     * @param meterRegistry               the registry the queue metrics are published to
+     * @param enabled                     whether locations are written behind at all
+     * @param capacity                    the maximum number of locations waiting in the queue
+     * @param batchSize                   the maximum number of locations in one group commit
+     * @param maxDelay                    how long the oldest location of a group may wait before the group is committed
+     * @param offerTimeout                how long a caller waits for space in a full queue before it is rejected
+     * @param shutdownTimeout             how long shutdown waits for the queue to drain
+     */
+    @Autowired
+    public CourierLocationWriteBehindQueue(CourierRepository courierRepository,
+                                           CourierTravelSummaryService courierTravelSummaryService,
+                                           LastVisitCache lastVisitCache,
+                                           PingDeduplicationWindow pingDeduplicationWindow,
+                                           CourierQueryResultCache courierQueryResultCache,
+                                           TransactionOperations transactionOperations,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${courier.write-behind.enabled:false}") boolean enabled,
+                                           @Value("${courier.write-behind.capacity:10000}") int capacity,
+                                           @Value("${courier.write-behind.batch-size:500}") int batchSize,
+                                           @Value("${courier.write-behind.max-delay:PT0.05S}") Duration maxDelay,
+                                           @Value("${courier.write-behind.offer-timeout:PT0.1S}") Duration offerTimeout,
+                                           @Value("${courier.write-behind.shutdown-timeout:PT20S}") Duration shutdownTimeout) {
+        this.courierRepository = courierRepository;
+        this.courierTravelSummaryService = courierTravelSummaryService;
+        this.lastVisitCache = lastVisitCache;
+        this.pingDeduplicationWindow = pingDeduplicationWindow;
+        this.courierQueryResultCache = courierQueryResultCache;
+        this.transactionOperations = transactionOperations;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxDelayInNanos = maxDelay.toNanos();
+        this.offerTimeoutInNanos = offerTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("courier.write_behind.queue.depth", queue, Collection::size)
+                .description("Accepted courier locations waiting to be written")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("courier.write_behind.commit")
+                .description("Duration of one group commit, including the travel summary update")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("courier.write_behind.batch.size")
+                .description("Number of courier locations written by one group commit")
+                .register(meterRegistry);
+        this.committedCounter = Counter.builder("courier.write_behind.locations")
+                .tag("result", "committed")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("courier.write_behind.locations")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("courier.write_behind.locations")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether locations are written behind, or synchronously by the caller.
+     *
+     * @return true if locations should be passed to {@link #enqueue(CourierEntity)}; false otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues an accepted courier location for the next group commit, waiting up to the offer timeout
+     * for space if the queue is full.
+     * The queue is checked and filled under the read lock, so {@link #stop()} waits for the location to be queued
+     * before it stops accepting locations.
+     *
+     * @param courier the courier location to write
+     * @throws LocationQueueFullException if the queue stayed full or the application is shutting down
+     */
+    public void enqueue(CourierEntity courier) {
+        acceptingLock.readLock().lock();
+        try {
+            if (!accepting) {
+                rejectedCounter.increment();
+                throw new LocationQueueFullException("Location queue is not accepting locations. Please retry later.");
+            }
+            if (!queue.offer(courier, offerTimeoutInNanos, TimeUnit.NANOSECONDS)) {
+                rejectedCounter.increment();
+                throw new LocationQueueFullException("Location queue is full. Please retry later.");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            rejectedCounter.increment();
+            throw new LocationQueueFullException("Interrupted while waiting for space in the location queue.");
+        } finally {
+            acceptingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of locations waiting to be written.
+     *
+     * @return the depth of the queue
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Starts the writer thread if write-behind is enabled.
+     */
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        accepting = true;
+        writer = Thread.ofPlatform()
+                .name("courier-location-writer")
+                .start(this::writeUntilStopped);
+        log.info("Courier location write-behind started with batches of up to {} rows every {} ms",
+                batchSize, TimeUnit.NANOSECONDS.toMillis(maxDelayInNanos));
+    }
+
+    /**
+     * Stops accepting locations and waits for the writer to drain the queue.
+     * Callers already queueing a location are waited for, so the writer only stops once nothing more can be queued.
+     * Locations the writer could not drain within the shutdown timeout are written by the calling thread.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        acceptingLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptingLock.writeLock().unlock();
+        }
+        running = false;
+        try {
+            writer.join(shutdownTimeout);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Courier location writer did not drain {} locations within {}", queue.size(), shutdownTimeout);
+            writer.interrupt();
+        }
+
+        List<CourierEntity> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            commit(remaining.subList(from, Math.min(remaining.size(), from + batchSize)));
+        }
+        log.info("Courier location write-behind stopped");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server, so requests still in flight during a graceful shutdown can queue their locations,
+     * and before the data source is closed.
+     *
+     * @return the lifecycle phase of the queue
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Collects and commits groups of locations until the queue is stopped and empty.
+     */
+    private void writeUntilStopped() {
+        List<CourierEntity> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                commit(batch);
+                return;
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Waits for the first location of a group and collects more until the group is full,
+     * its first location has waited the maximum delay or the queue is stopped.
+     *
+     * @param batch the list the collected locations are added to
+     * @throws InterruptedException if the writer is interrupted while waiting
+     */
+    private void collect(List<CourierEntity> batch) throws InterruptedException {
+        CourierEntity first = queue.poll(IDLE_POLL_INTERVAL_IN_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + maxDelayInNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remainingNanos = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remainingNanos <= 0 || !running) {
+                return;
+            }
+            CourierEntity next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Writes a group of locations and adds them to the travel summaries in one transaction,
+     * retrying a failed group before it is dropped.
+     *
+     * @param batch the locations to write
+     */
+    void commit(List<CourierEntity> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            long startedAt = System.nanoTime();
+            try {
+                transactionOperations.executeWithoutResult(status -> {
+                    courierRepository.batchInsert(batch);
+                    courierTravelSummaryService.recordAcceptedLocations(batch);
+                    batch.stream()
+                            .map(CourierEntity::getCourierId)
+                            .distinct()
+                            .forEach(courierQueryResultCache::invalidate);
+                });
+                commitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                batchSizeSummary.record(batch.size());
+                committedCounter.increment(batch.size());
+                return;
+            } catch (RuntimeException exception) {
+                log.warn("Group commit of {} courier locations failed (attempt {} of {})",
+                        batch.size(), attempt, MAX_ATTEMPTS, exception);
+            }
+        }
+
+        log.error("Dropping {} courier locations after {} failed group commits", batch.size(), MAX_ATTEMPTS);
+        droppedCounter.increment(batch.size());
+        batch.forEach(courier -> {
+            lastVisitCache.evict(courier.getCourierId(), courier.getStoreKey(), courier.getTimestamp());
+            pingDeduplicationWindow.evict(courier.getCourierId(), courier.getTimestamp(), courier.getLat(), courier.getLng());
+        });
+    }
+
+}
@@ -0,0 +1,9 @@
+-- Newest accepted visit of each courier to each store, the authority for the store re-entry rule: a ping locks the row
+-- of its courier and store, so pings of the same courier at the same store are decided one after another on every instance
+CREATE TABLE IF NOT EXISTS courier_store_visits
+(
+    courier_id VARCHAR(255) NOT NULL,
+    store_key  INT          NOT NULL,
+    last_visit DATETIME(6)  NULL,
+    PRIMARY KEY (courier_id, store_key)
+) ENGINE = InnoDB;
@@ -0,0 +1,30 @@
+CREATE TABLE IF NOT EXISTS stores
+(
+    id         VARCHAR(255) NOT NULL,
+    name       VARCHAR(255) NOT NULL,
+    lat        DOUBLE       NOT NULL,
+    lng        DOUBLE       NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS couriers
+(
+    id         VARCHAR(255) NOT NULL,
+    courier_id VARCHAR(255) NOT NULL,
+    lat        DOUBLE       NOT NULL,
+    lng        DOUBLE       NOT NULL,
+    store_name VARCHAR(255) NOT NULL,
+    timestamp  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS courier_travel_summaries
+(
+    courier_id                   VARCHAR(255) NOT NULL,
+    total_distance_in_kilometers DOUBLE       NOT NULL,
+    last_lat                     DOUBLE       NOT NULL,
+    last_lng                     DOUBLE       NOT NULL,
+    last_timestamp               DATETIME(6)  NOT NULL,
+    PRIMARY KEY (courier_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,7 @@
+-- Serves the store re-entry check and the travels by store and time range endpoint:
+-- WHERE courier_id = ? AND store_name = ? AND timestamp BETWEEN ? AND ? ORDER BY timestamp DESC
+CREATE INDEX idx_couriers_courier_id_store_name_timestamp ON couriers (courier_id, store_name, timestamp);
+
+-- Serves the past travels and total distance lookups:
+-- WHERE courier_id = ? ORDER BY timestamp
+CREATE INDEX idx_couriers_courier_id_timestamp ON couriers (courier_id, timestamp);
@@ -0,0 +1,2 @@
+-- Store names identify stores in courier travel records, so they must stay unique once stores can be managed at runtime
+CREATE UNIQUE INDEX uk_stores_name ON stores (name);
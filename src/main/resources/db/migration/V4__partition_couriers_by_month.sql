@@ -0,0 +1,27 @@
+-- Every unique key of a partitioned table must contain the partitioning column, so the timestamp joins the primary key
+ALTER TABLE couriers DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp);
+
+-- Range-partitions couriers by timestamp. Rows logged before 2024 stay in p_history, and every month from 2024 up to
+-- three months after the current one gets a partition of its own while the table is rebuilt here anyway. That leaves
+-- p_future empty, so the partition maintenance job only ever splits an empty partition instead of copying live rows
+SET SESSION group_concat_max_len = 65535;
+
+WITH RECURSIVE months (month_start) AS (
+    SELECT DATE('2024-01-01')
+    UNION ALL
+    SELECT month_start + INTERVAL 1 MONTH FROM months
+    WHERE month_start < DATE_FORMAT(CURRENT_DATE, '%Y-%m-01') + INTERVAL 3 MONTH
+)
+SELECT GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(month_start, '%Y%m'), ' VALUES LESS THAN (''',
+                           DATE_FORMAT(month_start + INTERVAL 1 MONTH, '%Y-%m-%d 00:00:00'), ''')')
+                    ORDER BY month_start SEPARATOR ', ')
+INTO @month_partitions
+FROM months;
+
+SET @partition_couriers = CONCAT('ALTER TABLE couriers PARTITION BY RANGE COLUMNS (timestamp) (',
+                                 'PARTITION p_history VALUES LESS THAN (''2024-01-01 00:00:00''), ',
+                                 @month_partitions, ', ',
+                                 'PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+PREPARE partition_couriers FROM @partition_couriers;
+EXECUTE partition_couriers;
+DEALLOCATE PREPARE partition_couriers;
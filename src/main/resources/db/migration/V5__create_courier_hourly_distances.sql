@@ -0,0 +1,9 @@
+-- Distance of the segments each courier finished within an hour, so range totals read one row per hour
+-- instead of every location: WHERE courier_id = ? AND bucket_start >= ? AND bucket_start < ?
+CREATE TABLE IF NOT EXISTS courier_hourly_distances
+(
+    courier_id             VARCHAR(255) NOT NULL,
+    bucket_start           DATETIME     NOT NULL,
+    distance_in_kilometers DOUBLE       NOT NULL,
+    PRIMARY KEY (courier_id, bucket_start)
+) ENGINE = InnoDB;
@@ -0,0 +1,14 @@
+-- A retried ping repeats the courier, timestamp and coordinates of the original one, so keep only the first copy
+-- of every ping logged more than once before the unique key existed
+DELETE duplicate
+FROM couriers duplicate
+         JOIN couriers original
+              ON original.courier_id = duplicate.courier_id
+                  AND original.timestamp = duplicate.timestamp
+                  AND original.lat = duplicate.lat
+                  AND original.lng = duplicate.lng
+                  AND original.id < duplicate.id;
+
+-- Backs the in-memory ping deduplication window: a retry it misses is skipped by the insert instead of stored twice.
+-- The key contains the partitioning column, as every unique key of the partitioned table must
+CREATE UNIQUE INDEX uk_couriers_ping ON couriers (courier_id, timestamp, lat, lng);
@@ -0,0 +1,20 @@
+-- Stores primary keys as the 16 bytes of a UUID instead of its 36 character text. New keys are time-ordered UUIDs
+-- of version 7 generated by the application, so inserts append to the right edge of the clustered index;
+-- existing random keys keep their value and are only converted. UUID_TO_BIN is called without the swap flag,
+-- as version 7 UUIDs already sort by time in their natural byte order
+ALTER TABLE couriers ADD COLUMN id_bin BINARY(16) NULL FIRST;
+UPDATE couriers SET id_bin = UUID_TO_BIN(id);
+-- The timestamp stays in the primary key, as every unique key of the partitioned table must contain it
+ALTER TABLE couriers
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL FIRST,
+    ADD PRIMARY KEY (id, timestamp);
+
+ALTER TABLE stores ADD COLUMN id_bin BINARY(16) NULL FIRST;
+UPDATE stores SET id_bin = UUID_TO_BIN(id);
+ALTER TABLE stores
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL FIRST,
+    ADD PRIMARY KEY (id);
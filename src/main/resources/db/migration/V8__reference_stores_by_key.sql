@@ -0,0 +1,29 @@
+-- Gives every store a compact integer key for courier locations to reference instead of repeating the store name.
+-- Deleted stores are kept with their deletion time, so locations logged at them still resolve to a name
+ALTER TABLE stores
+    ADD COLUMN store_key  INT         NOT NULL AUTO_INCREMENT AFTER id,
+    ADD COLUMN deleted_at DATETIME(6) NULL,
+    ADD UNIQUE INDEX uk_stores_store_key (store_key);
+
+-- Locations logged under a name no store has any more, after a rename or a delete, get a deleted store of that name
+INSERT INTO stores (id, name, lat, lng, created_at, deleted_at)
+SELECT UUID_TO_BIN(UUID()), orphan.store_name, 0, 0, orphan.first_timestamp, NOW(6)
+FROM (SELECT c.store_name, MIN(c.timestamp) AS first_timestamp
+      FROM couriers c
+      WHERE NOT EXISTS (SELECT 1 FROM stores s WHERE s.name = c.store_name)
+      GROUP BY c.store_name) orphan;
+
+-- Names stay unique among the stores that are not deleted; a deleted store only collides with itself
+ALTER TABLE stores
+    DROP INDEX uk_stores_name,
+    ADD UNIQUE INDEX uk_stores_name (name, (IF(deleted_at IS NULL, 0, store_key)));
+
+ALTER TABLE couriers ADD COLUMN store_key INT NULL AFTER lng;
+UPDATE couriers c JOIN stores s ON s.name = c.store_name SET c.store_key = s.store_key;
+
+-- Re-entry checks and store travel queries now filter on the 4 byte key instead of the name
+ALTER TABLE couriers
+    DROP INDEX idx_couriers_courier_id_store_name_timestamp,
+    DROP COLUMN store_name,
+    MODIFY COLUMN store_key INT NOT NULL,
+    ADD INDEX idx_couriers_courier_id_store_key_timestamp (courier_id, store_key, timestamp);
@@ -0,0 +1,10 @@
+-- Single-row heartbeat refreshed on the primary; once a replica has applied a heartbeat it has applied every change
+-- committed before it, so the age of the heartbeat read from the replica bounds how stale the replica is
+CREATE TABLE IF NOT EXISTS replication_heartbeat
+(
+    id      TINYINT     NOT NULL,
+    beat_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, UTC_TIMESTAMP(6));
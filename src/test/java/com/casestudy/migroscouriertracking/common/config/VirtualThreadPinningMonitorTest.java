@@ -0,0 +1,87 @@
+package com.casestudy.migroscouriertracking.common.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link VirtualThreadPinningMonitor} class, validating that a virtual thread blocking inside
+ * a monitor is reported while one blocking under a {@link ReentrantLock} is not.
+ */
+class VirtualThreadPinningMonitorTest {
+
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(5));
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void start_shouldReportVirtualThreadBlockingInsideMonitor() throws Exception {
+
+        // Given
+        monitor.start();
+        Object lock = new Object();
+
+        // When
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                sleep(50);
+            }
+        }).join();
+
+        // Then
+        assertTrue(awaitPinnedCount(1));
+        assertEquals(0, monitor.getJdbcPinnedCount());
+
+    }
+
+    @Test
+    void start_shouldNotReportVirtualThreadBlockingUnderReentrantLock() throws Exception {
+
+        // Given
+        monitor.start();
+        ReentrantLock lock = new ReentrantLock();
+
+        // When
+        Thread.ofVirtual().start(() -> {
+            lock.lock();
+            try {
+                sleep(50);
+            } finally {
+                lock.unlock();
+            }
+        }).join();
+
+        // Then
+        assertFalse(awaitPinnedCount(1));
+
+    }
+
+    private boolean awaitPinnedCount(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(3).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (monitor.getPinnedCount() >= expected) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.casestudy.migroscouriertracking.common.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link ReadWriteRoutingDataSource} class, validating that only read-only transactions
+ * are routed to the replica, and only while the replica is fresh enough.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+
+    private final DataSource replica = mock(DataSource.class);
+
+    private final ReplicaLagMonitor replicaLagMonitor = mock(ReplicaLagMonitor.class);
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replicaConnection = mock(Connection.class);
+
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        readWriteRoutingDataSource = new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_shouldRouteToReplica_insideReadOnlyTransaction_ifReplicaIsUsable() throws SQLException {
+
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+
+        // Then
+        assertSame(replicaConnection, readWriteRoutingDataSource.getConnection());
+
+        // Verify
+        verify(primary, never()).getConnection();
+
+    }
+
+    @Test
+    void getConnection_shouldFallBackToPrimary_insideReadOnlyTransaction_ifReplicaIsStale() throws SQLException {
+
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(false);
+
+        // Then
+        assertSame(primaryConnection, readWriteRoutingDataSource.getConnection());
+
+        // Verify
+        verify(replica, never()).getConnection();
+
+    }
+
+    @Test
+    void getConnection_shouldRouteToPrimary_outsideReadOnlyTransaction() throws SQLException {
+
+        // When
+        when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+
+        // Then
+        assertSame(primaryConnection, readWriteRoutingDataSource.getConnection());
+
+        // Verify
+        verify(replica, never()).getConnection();
+
+    }
+
+}
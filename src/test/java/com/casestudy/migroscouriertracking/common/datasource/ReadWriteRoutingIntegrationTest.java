@@ -0,0 +1,228 @@
+package com.casestudy.migroscouriertracking.common.datasource;
+
+import com.casestudy.migroscouriertracking.base.AbstractTestContainerConfiguration;
+import com.casestudy.migroscouriertracking.courier.exception.CourierNotFoundException;
+import com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex;
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.TravelQueryRequest;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.service.CourierService;
+import com.casestudy.migroscouriertracking.courier.utils.UuidV7Utils;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests running the application against two MySQL containers, a primary and a read replica,
+ * validating that the travel history and total distance queries are served by the replica while it is fresh,
+ * fall back to the primary once its heartbeat is too old, and that writes always go to the primary.
+ * The containers do not replicate, so each test writes the rows and the heartbeat of the replica itself,
+ * which lets the tests tell from the returned rows which database served a query.
+ */
+@SpringBootTest
+class ReadWriteRoutingIntegrationTest extends AbstractTestContainerConfiguration {
+
+    // A database name of its own keeps a reusable primary container from being reused as the replica
+    static MySQLContainer<?> REPLICA_CONTAINER = new MySQLContainer<>("mysql:8.0.33").withDatabaseName("replica");
+
+    private static final String STORE_NAME = "Ataşehir MMM Migros";
+
+    @Autowired
+    private CourierService courierService;
+
+    @Autowired
+    private CourierRepository courierRepository;
+
+    @Autowired
+    private StoreSpatialIndex storeSpatialIndex;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primaryJdbcTemplate;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    private final String courierId = UUID.randomUUID().toString();
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 6, 1, 8, 0);
+
+    @BeforeAll
+    static void startReplica() {
+        REPLICA_CONTAINER.start();
+        // Stands in for the schema the replica would receive from the primary
+        Flyway.configure()
+                .dataSource(REPLICA_CONTAINER.getJdbcUrl(), REPLICA_CONTAINER.getUsername(), REPLICA_CONTAINER.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @DynamicPropertySource
+    private static void overrideReplicaProps(DynamicPropertyRegistry dynamicPropertyRegistry) {
+        dynamicPropertyRegistry.add("courier.datasource.replica.enabled", () -> "true");
+        dynamicPropertyRegistry.add("courier.datasource.replica.url", REPLICA_CONTAINER::getJdbcUrl);
+        dynamicPropertyRegistry.add("courier.datasource.replica.username", REPLICA_CONTAINER::getUsername);
+        dynamicPropertyRegistry.add("courier.datasource.replica.password", REPLICA_CONTAINER::getPassword);
+        dynamicPropertyRegistry.add("courier.datasource.replica.max-lag", () -> "PT1M");
+        // Lag checks are run by the tests
+        dynamicPropertyRegistry.add("courier.datasource.replica.lag-check-interval", () -> "PT1H");
+    }
+
+    @BeforeEach
+    void setUp() {
+        primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        replicateHeartbeat(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (JdbcTemplate jdbcTemplate : List.of(primaryJdbcTemplate, replicaJdbcTemplate)) {
+            jdbcTemplate.update("DELETE FROM couriers");
+            jdbcTemplate.update("DELETE FROM courier_travel_summaries");
+            jdbcTemplate.update("DELETE FROM courier_hourly_distances");
+        }
+    }
+
+    @Test
+    void readOnlyQueries_shouldBeServedByReplica_whileReplicaIsFresh() {
+
+        // Given
+        int storeKey = storeSpatialIndex.dictionary().keyOf(STORE_NAME).orElseThrow();
+        insertLocation(replicaJdbcTemplate, storeKey, start);
+        insertLocation(replicaJdbcTemplate, storeKey, start.plusMinutes(5));
+        insertSummary(replicaJdbcTemplate, 1.5);
+        TravelQueryRequest travelQueryRequest = TravelQueryRequest.builder()
+                .storeName(STORE_NAME)
+                .start(start)
+                .end(start.plusHours(1))
+                .build();
+
+        // When
+        List<Courier> pastTravels = courierService.getPastTravelsByCourierId(courierId);
+        List<Courier> storeTravels = courierService.getTravelsByCourierIdStoreNameAndTimeRange(courierId, travelQueryRequest);
+        double totalDistance = courierService.getTotalTravelDistance(courierId);
+
+        // Then
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertEquals(2, pastTravels.size());
+        assertEquals(2, storeTravels.size());
+        assertEquals(STORE_NAME, storeTravels.get(0).getStoreName());
+        assertEquals(1.5, totalDistance);
+
+    }
+
+    @Test
+    void readOnlyQueries_shouldFallBackToPrimary_ifReplicaIsStale() {
+
+        // Given
+        int storeKey = storeSpatialIndex.dictionary().keyOf(STORE_NAME).orElseThrow();
+        insertLocation(replicaJdbcTemplate, storeKey, start);
+        insertSummary(replicaJdbcTemplate, 1.5);
+        replicateHeartbeat(120);
+
+        // Then
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        assertThrows(CourierNotFoundException.class, () -> courierService.getPastTravelsByCourierId(courierId));
+
+        insertLocation(primaryJdbcTemplate, storeKey, start);
+        insertSummary(primaryJdbcTemplate, 2.5);
+        assertEquals(1, courierService.getPastTravelsByCourierId(courierId).size());
+        assertEquals(2.5, courierService.getTotalTravelDistance(courierId));
+
+    }
+
+    @Test
+    void getTotalTravelDistance_shouldRebuildSummaryOnPrimary_ifReplicaHasNoSummary() {
+
+        // Given
+        int storeKey = storeSpatialIndex.dictionary().keyOf(STORE_NAME).orElseThrow();
+        insertLocation(primaryJdbcTemplate, storeKey, start);
+
+        // When
+        double totalDistance = courierService.getTotalTravelDistance(courierId);
+
+        // Then
+        assertEquals(0.0, totalDistance);
+        assertEquals(1, countSummaries(primaryJdbcTemplate));
+        assertEquals(0, countSummaries(replicaJdbcTemplate));
+
+    }
+
+    @Test
+    void writes_shouldGoToPrimary_whileReplicaIsFresh() {
+
+        // Given
+        int storeKey = storeSpatialIndex.dictionary().keyOf(STORE_NAME).orElseThrow();
+
+        // When
+        courierRepository.batchInsert(List.of(CourierEntity.builder()
+                .courierId(courierId)
+                .lat(40.9923307)
+                .lng(29.1244229)
+                .storeKey(storeKey)
+                .timestamp(start)
+                .build()));
+
+        // Then
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertEquals(1, countLocations(primaryJdbcTemplate));
+        assertEquals(0, countLocations(replicaJdbcTemplate));
+
+    }
+
+    /**
+     * Makes the replica apply a heartbeat written the given number of seconds ago and runs a lag check.
+     */
+    private void replicateHeartbeat(int ageInSeconds) {
+        replicaJdbcTemplate.update("UPDATE replication_heartbeat SET beat_at = UTC_TIMESTAMP(6) - INTERVAL ? SECOND WHERE id = 1",
+                ageInSeconds);
+        replicaLagMonitor.check();
+    }
+
+    private void insertLocation(JdbcTemplate jdbcTemplate, int storeKey, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO couriers (id, courier_id, lat, lng, store_key, timestamp) VALUES (?, ?, ?, ?, ?, ?)",
+                UuidV7Utils.toBytes(UuidV7Utils.randomUuid()), courierId, 40.9923307, 29.1244229, storeKey, Timestamp.valueOf(timestamp));
+    }
+
+    private void insertSummary(JdbcTemplate jdbcTemplate, double totalDistanceInKilometers) {
+        jdbcTemplate.update("INSERT INTO courier_travel_summaries (courier_id, total_distance_in_kilometers, last_lat, last_lng, last_timestamp) " +
+                "VALUES (?, ?, ?, ?, ?)", courierId, totalDistanceInKilometers, 40.9923307, 29.1244229, Timestamp.valueOf(start));
+    }
+
+    private int countLocations(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM couriers WHERE courier_id = ?", Integer.class, courierId);
+    }
+
+    private int countSummaries(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM courier_travel_summaries WHERE courier_id = ?", Integer.class, courierId);
+    }
+
+}
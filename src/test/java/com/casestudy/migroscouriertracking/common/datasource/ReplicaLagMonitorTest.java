@@ -0,0 +1,120 @@
+package com.casestudy.migroscouriertracking.common.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link ReplicaLagMonitor} class, validating how the measured lag of the replica
+ * and the time elapsed since the last check decide whether the replica is usable.
+ */
+class ReplicaLagMonitorTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final JdbcTemplate primaryJdbcTemplate = mock(JdbcTemplate.class);
+
+    private final JdbcTemplate replicaJdbcTemplate = mock(JdbcTemplate.class);
+
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor = new ReplicaLagMonitor(primaryJdbcTemplate, replicaJdbcTemplate, Duration.ofSeconds(5), nanoTime::get);
+    }
+
+    @Test
+    void isReplicaUsable_shouldReturnFalse_beforeFirstCheck() {
+
+        // Then
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+
+    }
+
+    @Test
+    void check_shouldKeepReplicaUsable_untilLagPlusElapsedTimeExceedsMaxLag() {
+
+        // Given
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagMonitor.READ_HEARTBEAT_AGE_SQL, Long.class))
+                .thenReturn(Duration.ofSeconds(1).toNanos() / 1_000);
+
+        // When
+        replicaLagMonitor.check();
+
+        // Then
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        nanoTime.addAndGet(Duration.ofMillis(3_999).toNanos());
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        nanoTime.addAndGet(Duration.ofMillis(1).toNanos());
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+
+        // Verify
+        verify(primaryJdbcTemplate).update(ReplicaLagMonitor.REFRESH_HEARTBEAT_SQL);
+
+    }
+
+    @Test
+    void check_shouldMakeReplicaUnusable_ifLagExceedsMaxLag() {
+
+        // Given
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagMonitor.READ_HEARTBEAT_AGE_SQL, Long.class))
+                .thenReturn(0L)
+                .thenReturn(Duration.ofSeconds(6).toNanos() / 1_000);
+
+        // When
+        replicaLagMonitor.check();
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        replicaLagMonitor.check();
+
+        // Then
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+
+    }
+
+    @Test
+    void check_shouldMakeReplicaUnusable_ifReplicaCannotBeRead() {
+
+        // Given
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagMonitor.READ_HEARTBEAT_AGE_SQL, Long.class))
+                .thenReturn(0L)
+                .thenThrow(new CannotGetJdbcConnectionException("Replica is down"))
+                .thenThrow(new EmptyResultDataAccessException(1));
+
+        // Then
+        replicaLagMonitor.check();
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        replicaLagMonitor.check();
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+        replicaLagMonitor.check();
+        assertFalse(replicaLagMonitor.isReplicaUsable());
+
+        // Verify
+        verify(primaryJdbcTemplate, times(3)).update(ReplicaLagMonitor.REFRESH_HEARTBEAT_SQL);
+
+    }
+
+    @Test
+    void check_shouldNotThrow_ifHeartbeatCannotBeRefreshedOnPrimary() {
+
+        // Given
+        when(replicaJdbcTemplate.queryForObject(ReplicaLagMonitor.READ_HEARTBEAT_AGE_SQL, Long.class)).thenReturn(0L);
+        when(primaryJdbcTemplate.update(ReplicaLagMonitor.REFRESH_HEARTBEAT_SQL)).thenThrow(new QueryTimeoutException("Primary is slow"));
+
+        // When
+        assertDoesNotThrow(replicaLagMonitor::check);
+
+        // Then
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+
+    }
+
+}
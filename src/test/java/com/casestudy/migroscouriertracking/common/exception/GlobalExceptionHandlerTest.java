@@ -9,6 +9,7 @@ import jakarta.validation.Path;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -339,6 +340,101 @@ class GlobalExceptionHandlerTest extends AbstractRestControllerTest {
     }
 
 
+    @Test
+    @DisplayName("Given InvalidCursorException - When HandleInvalidCursor - Then Return RespondWithBadRequest")
+    void givenInvalidCursorException_whenHandleInvalidCursor_thenReturnRespondWithBadRequest() {
+
+        // Given
+        InvalidCursorException ex = new InvalidCursorException("Invalid cursor: abc");
+
+        CustomError expectedError = CustomError.builder()
+                .httpStatus(HttpStatus.BAD_REQUEST)
+                .header(CustomError.Header.BAD_REQUEST.getName())
+                .message("Invalid cursor: abc")
+                .isSuccess(false)
+                .build();
+
+        // When
+        ResponseEntity<CustomError> responseEntity = globalExceptionHandler.handleInvalidCursor(ex);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        CustomError actualError = responseEntity.getBody();
+        checkCustomError(expectedError, actualError);
+    }
+
+
+    @Test
+    @DisplayName("Given LocationQueueFullException - When HandleLocationQueueFull - Then Return RespondWithServiceUnavailable")
+    void givenLocationQueueFullException_whenHandleLocationQueueFull_thenReturnRespondWithServiceUnavailable() {
+
+        // Given
+        LocationQueueFullException ex = new LocationQueueFullException("Location queue is full. Please retry later.");
+
+        CustomError expectedError = CustomError.builder()
+                .httpStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(CustomError.Header.PROCESS_ERROR.getName())
+                .message("Location queue is full. Please retry later.")
+                .isSuccess(false)
+                .build();
+
+        // When
+        ResponseEntity<CustomError> responseEntity = globalExceptionHandler.handleLocationQueueFull(ex);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        CustomError actualError = responseEntity.getBody();
+        checkCustomError(expectedError, actualError);
+    }
+
+
+    @Test
+    @DisplayName("Given StoreAlreadyExistsException - When HandleStoreAlreadyExists - Then Return RespondWithConflict")
+    void givenStoreAlreadyExistsException_whenHandleStoreAlreadyExists_thenReturnRespondWithConflict() {
+
+        // Given
+        StoreAlreadyExistsException ex = new StoreAlreadyExistsException("Store with name Novada MMM Migros already exists.");
+
+        CustomError expectedError = CustomError.builder()
+                .httpStatus(HttpStatus.CONFLICT)
+                .header(CustomError.Header.API_ERROR.getName())
+                .message("Store with name Novada MMM Migros already exists.")
+                .isSuccess(false)
+                .build();
+
+        // When
+        ResponseEntity<CustomError> responseEntity = globalExceptionHandler.handleStoreAlreadyExists(ex);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        CustomError actualError = responseEntity.getBody();
+        checkCustomError(expectedError, actualError);
+    }
+
+
+    @Test
+    @DisplayName("Given StoreFarAwayException With Nearest Store - When HandleStoreFarAway - Then Return Nearest Store As Sub Errors")
+    void givenStoreFarAwayExceptionWithNearestStore_whenHandleStoreFarAway_thenReturnNearestStoreAsSubErrors() {
+
+        // Given
+        StoreFarAwayException ex = new StoreFarAwayException("Courier is far away from all stores.", "Novada MMM Migros", 1234.6);
+
+        // When
+        ResponseEntity<CustomError> responseEntity = globalExceptionHandler.handleStoreFarAway(ex);
+
+        // Then
+        assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        CustomError actualError = responseEntity.getBody();
+        assertThat(actualError).isNotNull();
+        assertThat(actualError.getSubErrors()).hasSize(2);
+        assertThat(actualError.getSubErrors().get(0).getField()).isEqualTo("nearestStore");
+        assertThat(actualError.getSubErrors().get(0).getValue()).isEqualTo("Novada MMM Migros");
+        assertThat(actualError.getSubErrors().get(1).getField()).isEqualTo("nearestStoreDistanceInMeters");
+        assertThat(actualError.getSubErrors().get(1).getValue()).isEqualTo(1235L);
+    }
+
+
     private void checkCustomError(CustomError expectedError, CustomError actualError) {
 
         assertThat(actualError).isNotNull();
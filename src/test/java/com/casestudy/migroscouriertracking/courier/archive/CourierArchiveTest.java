@@ -0,0 +1,225 @@
+package com.casestudy.migroscouriertracking.courier.archive;
+
+import com.casestudy.migroscouriertracking.courier.index.StoreDictionary;
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CourierArchive} class, validating daily segment files, merging locations into an
+ * existing day, reading archived locations one segment or one page at a time, resolving their store names when read
+ * and dropping locations that are both archived and still in the database.
+ */
+class CourierArchiveTest {
+
+    @TempDir
+    private Path directory;
+
+    private final String courierId = UUID.randomUUID().toString();
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 6, 1, 23, 58);
+
+    private StoreDictionary storeDictionary = dictionary("Ataşehir MMM Migros");
+
+    @Test
+    void append_shouldWriteOneSegmentPerDay() {
+
+        // Given
+        CourierArchive courierArchive = archive(directory);
+        List<CourierEntity> travels = List.of(travel(start), travel(start.plusMinutes(1)), travel(start.plusMinutes(3)));
+
+        // When
+        courierArchive.append(courierId, travels);
+
+        // Then
+        assertTrue(Files.exists(directory.resolve(courierId).resolve("2024-06-01.seg")));
+        assertTrue(Files.exists(directory.resolve(courierId).resolve("2024-06-02.seg")));
+        assertTrue(courierArchive.existsByCourierId(courierId));
+        assertEquals(idsOf(travels), courierArchive.findByCourierId(courierId).stream().map(Courier::getId).toList());
+
+    }
+
+    @Test
+    void append_shouldMergeIntoExistingSegmentWithoutDuplicates() {
+
+        // Given
+        CourierArchive courierArchive = archive(directory);
+        CourierEntity first = travel(start);
+        CourierEntity second = travel(start.plusSeconds(30));
+
+        // When
+        courierArchive.append(courierId, List.of(second));
+        courierArchive.append(courierId, List.of(first, second));
+
+        // Then
+        assertEquals(idsOf(List.of(first, second)), courierArchive.findByCourierId(courierId).stream().map(Courier::getId).toList());
+
+    }
+
+    @Test
+    void findByCourierId_shouldReturnEmptyList_ifCourierHasNoSegmentsOrIdIsNotUuid() {
+
+        // Given
+        CourierArchive courierArchive = archive(directory.resolve("missing"));
+
+        // Then
+        assertTrue(courierArchive.findByCourierId(courierId).isEmpty());
+        assertTrue(courierArchive.findByCourierId("../" + courierId).isEmpty());
+        assertFalse(courierArchive.existsByCourierId(courierId));
+        assertThrows(IllegalArgumentException.class, () -> courierArchive.append("../etc", List.of(travel(start))));
+
+    }
+
+    @Test
+    void forEachByCourierId_shouldPassArchivedTravelsInTimestampOrder() {
+
+        // Given
+        CourierArchive courierArchive = archive(directory);
+        List<CourierEntity> travels = List.of(travel(start), travel(start.plusMinutes(1)), travel(start.plusMinutes(3)));
+        courierArchive.append(courierId, travels.reversed());
+        List<Courier> received = new ArrayList<>();
+
+        // When
+        courierArchive.forEachByCourierId(courierId, received::add);
+
+        // Then
+        assertEquals(idsOf(travels), received.stream().map(Courier::getId).toList());
+
+    }
+
+    @Test
+    void findPageByCourierIdAfter_shouldReturnTravelsFollowingPositionAcrossDays() {
+
+        // Given
+        CourierArchive courierArchive = archive(directory);
+        List<CourierEntity> travels = new ArrayList<>(List.of(travel(start), travel(start), travel(start.plusMinutes(1)),
+                travel(start.plusMinutes(3)), travel(start.plusMinutes(4))));
+        travels.sort(Comparator.comparing(CourierEntity::getTimestamp).thenComparing(travel -> travel.getId().toString()));
+        courierArchive.append(courierId, travels);
+
+        // When
+        List<Courier> first = courierArchive.findPageByCourierIdAfter(courierId, null, null, 2);
+        Courier last = first.get(first.size() - 1);
+        List<Courier> second = courierArchive.findPageByCourierIdAfter(courierId, last.getTimestamp(), last.getId(), 2);
+        last = second.get(second.size() - 1);
+        List<Courier> third = courierArchive.findPageByCourierIdAfter(courierId, last.getTimestamp(), last.getId(), 2);
+
+        // Then
+        assertEquals(idsOf(travels.subList(0, 2)), first.stream().map(Courier::getId).toList());
+        assertEquals(idsOf(travels.subList(2, 4)), second.stream().map(Courier::getId).toList());
+        assertEquals(idsOf(travels.subList(4, 5)), third.stream().map(Courier::getId).toList());
+
+    }
+
+    @Test
+    void notArchivedFilter_shouldOnlyDropTravelsThatAreArchived() {
+
+        // Given
+        CourierArchive courierArchive = archive(directory);
+        Courier archived = courier(start);
+        Courier lateOnArchivedDay = courier(start.plusMinutes(1));
+        Courier live = courier(start.plusDays(2));
+        courierArchive.append(courierId, List.of(CourierEntity.builder()
+                .id(UUID.fromString(archived.getId()))
+                .courierId(courierId)
+                .lat(archived.getLat())
+                .lng(archived.getLng())
+                .storeKey(1)
+                .timestamp(archived.getTimestamp())
+                .build()));
+
+        // When
+        List<Courier> notArchived = Stream.of(archived, lateOnArchivedDay, live)
+                .filter(courierArchive.notArchivedFilter(courierId))
+                .toList();
+
+        // Then
+        assertEquals(List.of(lateOnArchivedDay, live), notArchived);
+        assertTrue(archive(directory.resolve("missing")).notArchivedFilter(courierId).test(archived));
+
+    }
+
+    @Test
+    void merge_shouldSkipLiveTravelsThatAreAlreadyArchived() {
+
+        // Given
+        Courier archived = courier(start);
+        Courier live = courier(start.plusMinutes(5));
+
+        // When
+        List<Courier> merged = CourierArchive.merge(List.of(archived), List.of(archived, live));
+
+        // Then
+        assertEquals(List.of(archived, live), merged);
+
+    }
+
+    @Test
+    void findByCourierId_shouldResolveCurrentStoreName_ifStoreIsRenamedAfterArchiving() {
+
+        // Given
+        CourierArchive courierArchive = archive(directory);
+        courierArchive.append(courierId, List.of(travel(start), travel(start.plusDays(1))));
+
+        // When
+        storeDictionary = dictionary("Ataşehir Migros Jet");
+
+        // Then
+        assertTrue(courierArchive.findByCourierId(courierId).stream()
+                .allMatch(courier -> "Ataşehir Migros Jet".equals(courier.getStoreName())));
+        assertEquals("Ataşehir Migros Jet",
+                courierArchive.findPageByCourierIdAfter(courierId, null, null, 1).get(0).getStoreName());
+
+    }
+
+    private CourierArchive archive(Path directory) {
+        return new CourierArchive(directory.toString(), () -> storeDictionary);
+    }
+
+    private static StoreDictionary dictionary(String storeName) {
+        return StoreDictionary.of(List.of(StoreEntity.builder().storeKey(1).name(storeName).build()));
+    }
+
+    private static List<String> idsOf(List<CourierEntity> travels) {
+        return travels.stream().map(travel -> travel.getId().toString()).toList();
+    }
+
+    private CourierEntity travel(LocalDateTime timestamp) {
+        return CourierEntity.builder()
+                .id(UUID.randomUUID())
+                .courierId(courierId)
+                .lat(40.9923307)
+                .lng(29.1244229)
+                .storeKey(1)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private Courier courier(LocalDateTime timestamp) {
+        return Courier.builder()
+                .id(UUID.randomUUID().toString())
+                .courierId(courierId)
+                .lat(40.9923307)
+                .lng(29.1244229)
+                .storeName("Ataşehir MMM Migros")
+                .timestamp(timestamp)
+                .build();
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.casestudy.migroscouriertracking.courier.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CourierSegmentCodec} class, validating round trips, the size of encoded segments,
+ * and that unknown versions and corrupt input are rejected instead of being decoded into garbage or exhausting memory.
+ */
+class CourierSegmentCodecTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 6, 1, 8, 0);
+
+    @Test
+    void decode_shouldReturnEncodedTravelsInTimestampOrder() {
+
+        // Given
+        List<ArchivedLocation> travels = travels(new Random(7L), 500);
+        List<ArchivedLocation> shuffled = new ArrayList<>(travels);
+        Collections.shuffle(shuffled, new Random(3L));
+
+        // When
+        List<ArchivedLocation> decoded = decode(CourierSegmentCodec.encode(shuffled));
+
+        // Then
+        assertEquals(travels.size(), decoded.size());
+        for (int index = 0; index < travels.size(); index++) {
+            ArchivedLocation expected = travels.get(index);
+            ArchivedLocation actual = decoded.get(index);
+            assertEquals(expected.id(), actual.id());
+            assertEquals(expected.lat(), actual.lat(), 1e-7);
+            assertEquals(expected.lng(), actual.lng(), 1e-7);
+            assertEquals(expected.storeKey(), actual.storeKey());
+            assertEquals(expected.timestamp(), actual.timestamp());
+        }
+
+    }
+
+    @Test
+    void decode_shouldKeepIdsThatAreNotUuids() {
+
+        // Given
+        List<ArchivedLocation> travels = List.of(
+                new ArchivedLocation("legacy-1", 40.9923307, 29.1244229, 1, start),
+                new ArchivedLocation("legacy-2", -33.8688, 151.2093, null, start.plusSeconds(1)));
+
+        // When
+        List<ArchivedLocation> decoded = decode(CourierSegmentCodec.encode(travels));
+
+        // Then
+        assertEquals(List.of("legacy-1", "legacy-2"), decoded.stream().map(ArchivedLocation::id).toList());
+        assertEquals(1, decoded.get(0).storeKey());
+        assertNull(decoded.get(1).storeKey());
+        assertEquals(-33.8688, decoded.get(1).lat(), 1e-7);
+
+    }
+
+    @Test
+    void decode_shouldRejectSegmentOfUnknownVersion() {
+
+        // Given
+        byte[] segment = CourierSegmentCodec.encode(travels(new Random(9L), 3));
+        segment[Integer.BYTES] = CourierSegmentCodec.VERSION + 1;
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> decode(segment));
+
+    }
+
+    @Test
+    void decode_shouldReturnEmptyList_forEmptySegment() {
+
+        // When
+        List<ArchivedLocation> decoded = decode(CourierSegmentCodec.encode(List.of()));
+
+        // Then
+        assertTrue(decoded.isEmpty());
+
+    }
+
+    @Test
+    void encode_shouldStoreEachTravelInFewerBytesThanItsIdAndTwoCoordinates() {
+
+        // Given
+        List<ArchivedLocation> travels = travels(new Random(11L), 1440);
+
+        // When
+        byte[] segment = CourierSegmentCodec.encode(travels);
+
+        // Then
+        // A raw row needs 16 bytes of ID, 16 bytes of coordinates and 8 bytes of timestamp before any store key
+        assertTrue(segment.length < travels.size() * 32, "Segment of " + segment.length + " bytes");
+
+    }
+
+    @Test
+    void decode_shouldRejectTruncatedSegments() {
+
+        // Given
+        byte[] segment = CourierSegmentCodec.encode(travels(new Random(5L), 50));
+
+        // Then
+        for (int length = 0; length < segment.length; length++) {
+            ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(segment, length));
+            assertThrows(IllegalArgumentException.class, () -> CourierSegmentCodec.decode(truncated));
+        }
+
+    }
+
+    @Test
+    void decode_shouldNeverFailWithAnythingButIllegalArgumentException_forRandomOrCorruptedInput() {
+
+        // Given
+        Random random = new Random(13L);
+        byte[] segment = CourierSegmentCodec.encode(travels(random, 50));
+
+        // Then
+        for (int round = 0; round < 5000; round++) {
+            byte[] input;
+            if (round % 2 == 0) {
+                input = segment.clone();
+                for (int flips = 1 + random.nextInt(4); flips > 0; flips--) {
+                    input[random.nextInt(input.length)] ^= (byte) (1 << random.nextInt(8));
+                }
+            } else {
+                input = new byte[random.nextInt(256)];
+                random.nextBytes(input);
+                if (input.length >= 5 && random.nextBoolean()) {
+                    ByteBuffer.wrap(input).putInt(CourierSegmentCodec.MAGIC).put(CourierSegmentCodec.VERSION);
+                }
+            }
+
+            try {
+                decode(input);
+            } catch (IllegalArgumentException expected) {
+                // Corrupt input must only ever be rejected this way
+            }
+        }
+
+    }
+
+    private List<ArchivedLocation> decode(byte[] segment) {
+        return CourierSegmentCodec.decode(ByteBuffer.wrap(segment));
+    }
+
+    private List<ArchivedLocation> travels(Random random, int count) {
+        List<Integer> stores = List.of(1, 2, 300);
+        List<ArchivedLocation> travels = new ArrayList<>(count);
+        double lat = 40.9923307;
+        double lng = 29.1244229;
+        LocalDateTime timestamp = start;
+        for (int index = 0; index < count; index++) {
+            lat += (random.nextDouble() - 0.5) * 0.001;
+            lng += (random.nextDouble() - 0.5) * 0.001;
+            timestamp = timestamp.plusSeconds(30 + random.nextInt(60)).plusNanos(random.nextInt(1_000_000) * 1000L);
+            travels.add(new ArchivedLocation(UUID.randomUUID().toString(), lat, lng, stores.get(random.nextInt(stores.size())),
+                    timestamp));
+        }
+        return travels;
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.casestudy.migroscouriertracking.courier.cache;
+
+import com.casestudy.migroscouriertracking.courier.exception.CourierNotFoundException;
+import com.casestudy.migroscouriertracking.courier.index.StoreChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link CourierQueryResultCache} class, validating hits, misses, TTL and size based eviction,
+ * invalidation per courier, including results still loading, and the published statistics.
+ */
+class CourierQueryResultCacheTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final String courierId = UUID.randomUUID().toString();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private CourierQueryResultCache courierQueryResultCache;
+
+    @BeforeEach
+    void setUp() {
+        courierQueryResultCache = new CourierQueryResultCache(true, 1000, Duration.ofSeconds(30), nanoTime::get);
+    }
+
+    @Test
+    void get_shouldLoadOnMissAndServeRepeatedQueryFromCache() {
+
+        // When
+        double first = courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+        double second = courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(2.5));
+
+        // Then
+        assertEquals(1.5, first);
+        assertEquals(1.5, second);
+        assertEquals(1, loads.get());
+        assertEquals(new CourierQueryResultCache.Stats(1, 1, 1, 0, 0), courierQueryResultCache.stats());
+
+    }
+
+    @Test
+    void get_shouldKeepResultsOfQueriesAndCouriersApart() {
+
+        // When
+        courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+        List<String> travels = courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.PAST_TRAVELS, () -> load(List.of("travel")));
+        double otherDistance = courierQueryResultCache.get(UUID.randomUUID().toString(), CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(7.0));
+
+        // Then
+        assertEquals(List.of("travel"), travels);
+        assertEquals(7.0, otherDistance);
+        assertEquals(3, loads.get());
+
+    }
+
+    @Test
+    void get_shouldReloadResult_afterTtl() {
+
+        // When
+        courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+        nanoTime.addAndGet(Duration.ofSeconds(30).plusNanos(1).toNanos());
+        double reloaded = courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(2.5));
+
+        // Then
+        assertEquals(2.5, reloaded);
+        assertEquals(2, loads.get());
+        assertEquals(1, courierQueryResultCache.stats().evictionCount());
+
+    }
+
+    @Test
+    void get_shouldNotCacheFailedQuery() {
+
+        // Then
+        assertThrows(CourierNotFoundException.class, () -> courierQueryResultCache.get(courierId,
+                CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> {
+                    throw new CourierNotFoundException("No travel records found for Courier ID " + courierId + ".");
+                }));
+        assertEquals(0, courierQueryResultCache.size());
+        assertEquals(1.5, courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5)));
+
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsedResults_whenCacheIsFull() {
+
+        // Given
+        CourierQueryResultCache smallCache = new CourierQueryResultCache(true, 1, Duration.ofSeconds(30), nanoTime::get);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            smallCache.get(UUID.randomUUID().toString(), CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.0));
+        }
+
+        // Then
+        assertTrue(smallCache.size() <= CourierQueryResultCache.STRIPE_COUNT);
+        assertEquals(1000 - smallCache.size(), smallCache.stats().evictionCount());
+
+    }
+
+    @Test
+    void get_shouldBypassCache_ifDisabled() {
+
+        // Given
+        CourierQueryResultCache disabledCache = new CourierQueryResultCache(false, 1000, Duration.ofSeconds(30), nanoTime::get);
+
+        // When
+        disabledCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+        disabledCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(0, disabledCache.size());
+
+    }
+
+    @Test
+    void invalidate_shouldDropEveryResultOfCourierOnly() {
+
+        // Given
+        String otherCourierId = UUID.randomUUID().toString();
+        courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+        courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.PAST_TRAVELS, () -> load(List.of("travel")));
+        courierQueryResultCache.get(otherCourierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(7.0));
+
+        // When
+        courierQueryResultCache.invalidate(courierId);
+
+        // Then
+        assertEquals(1, courierQueryResultCache.size());
+        assertEquals(2, courierQueryResultCache.stats().invalidationCount());
+        assertEquals(2.5, courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(2.5)));
+        assertEquals(7.0, courierQueryResultCache.get(otherCourierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(8.0)));
+
+    }
+
+    @Test
+    void invalidate_shouldNotStoreResultLoadedWhileCourierWasInvalidated() {
+
+        // When
+        double loaded = courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> {
+            courierQueryResultCache.invalidate(courierId);
+            return load(1.5);
+        });
+
+        // Then
+        assertEquals(1.5, loaded);
+        assertEquals(0, courierQueryResultCache.size());
+        assertEquals(0, courierQueryResultCache.stats().putCount());
+
+    }
+
+    @Test
+    void invalidate_shouldDropResultCachedBeforeTransactionCompletes() {
+
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Then
+        try {
+            courierQueryResultCache.invalidate(courierId);
+            // A query reading the rows before the saving transaction commits
+            courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+            assertEquals(1, courierQueryResultCache.size());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, courierQueryResultCache.size());
+
+    }
+
+    @Test
+    void onStoreChanged_shouldInvalidateAllResults() {
+
+        // Given
+        courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.PAST_TRAVELS, () -> load(List.of("travel")));
+        courierQueryResultCache.get(UUID.randomUUID().toString(), CourierQueryResultCache.Query.PAST_TRAVELS, () -> load(List.of("travel")));
+
+        // When
+        courierQueryResultCache.onStoreChanged(new StoreChangedEvent(UUID.randomUUID()));
+
+        // Then
+        assertEquals(0, courierQueryResultCache.size());
+        assertEquals(2, courierQueryResultCache.stats().invalidationCount());
+
+    }
+
+    @Test
+    void bindTo_shouldPublishCacheStatistics() {
+
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        courierQueryResultCache.bindTo(meterRegistry);
+
+        // When
+        courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+        courierQueryResultCache.get(courierId, CourierQueryResultCache.Query.TOTAL_DISTANCE, () -> load(1.5));
+        courierQueryResultCache.invalidate(courierId);
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", CourierQueryResultCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", CourierQueryResultCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.puts").tag("cache", CourierQueryResultCache.CACHE_NAME).functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("cache.evictions").tag("cache", CourierQueryResultCache.CACHE_NAME).functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.invalidations").tag("cache", CourierQueryResultCache.CACHE_NAME).functionCounter().count());
+        assertEquals(0.0, meterRegistry.get("cache.size").tag("cache", CourierQueryResultCache.CACHE_NAME).gauge().value());
+
+    }
+
+    private <T> T load(T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+}
@@ -0,0 +1,368 @@
+package com.casestudy.migroscouriertracking.courier.cache;
+
+import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierStoreVisitEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierStoreVisitId;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierStoreVisitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link LastVisitCache} class, validating the re-entry decision on the locked visit row,
+ * the fallback to the stored locations, the fast negative check of the cache, TTL and size based eviction,
+ * rollback eviction, forgetting dropped visits, concurrent visits of the same courier on one or several instances
+ * and database work running outside the lock of the stripe.
+ */
+class LastVisitCacheTest extends AbstractBaseServiceTest {
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private CourierStoreVisitRepository courierStoreVisitRepository;
+
+    private final Map<CourierStoreVisitId, CourierStoreVisitEntity> visitRows = new ConcurrentHashMap<>();
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final String courierId = UUID.randomUUID().toString();
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private LastVisitCache lastVisitCache;
+
+    @BeforeEach
+    void setUp() {
+        lastVisitCache = new LastVisitCache(courierRepository, courierStoreVisitRepository, 1000, Duration.ofSeconds(70), nanoTime::get);
+
+        // The visit rows are kept in a map, as the database would keep them
+        doAnswer(invocation -> {
+            CourierStoreVisitId id = new CourierStoreVisitId(invocation.getArgument(0), invocation.getArgument(1));
+            visitRows.putIfAbsent(id, new CourierStoreVisitEntity(id, null));
+            return null;
+        }).when(courierStoreVisitRepository).insertIfAbsent(any(), any());
+        when(courierStoreVisitRepository.findByCourierIdAndStoreKeyForUpdate(any(), any())).thenAnswer(invocation ->
+                Optional.ofNullable(visitRows.get(new CourierStoreVisitId(invocation.getArgument(0), invocation.getArgument(1)))));
+        doAnswer(invocation -> {
+            CourierStoreVisitId id = new CourierStoreVisitId(invocation.getArgument(0), invocation.getArgument(1));
+            visitRows.computeIfPresent(id, (key, row) -> invocation.getArgument(2).equals(row.getLastVisit()) ? null : row);
+            return null;
+        }).when(courierStoreVisitRepository).deleteByCourierIdAndStoreKeyAndLastVisit(any(), any(), any());
+    }
+
+    @Test
+    void tryRecordVisit_shouldRejectSecondVisitWithinWindowWithoutQueryingDatabase() {
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+
+        // Then
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+        assertFalse(lastVisitCache.tryRecordVisit(courierId, 1, now.plusSeconds(30)));
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now.plusMinutes(2)));
+
+        // Verify
+        verify(courierRepository, times(1)).findLastTimestampByCourierIdAndStoreKey(courierId, 1);
+        verify(courierStoreVisitRepository, times(2)).findByCourierIdAndStoreKeyForUpdate(courierId, 1);
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldRecordVisitInVisitRowCreatedBeforeLocking() {
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+
+        // Then
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+        assertEquals(now, visitRows.get(new CourierStoreVisitId(courierId, 1)).getLastVisit());
+
+        // Verify
+        InOrder visitRowOrder = inOrder(courierStoreVisitRepository);
+        visitRowOrder.verify(courierStoreVisitRepository).insertIfAbsent(courierId, 1);
+        visitRowOrder.verify(courierStoreVisitRepository).findByCourierIdAndStoreKeyForUpdate(courierId, 1);
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldRejectVisit_ifVisitRowHasVisitWithinWindow() {
+
+        // Given
+        CourierStoreVisitId id = new CourierStoreVisitId(courierId, 1);
+        visitRows.put(id, new CourierStoreVisitEntity(id, now.minusSeconds(30)));
+
+        // Then
+        assertFalse(lastVisitCache.tryRecordVisit(courierId, 1, now));
+
+        // Verify
+        verify(courierRepository, never()).findLastTimestampByCourierIdAndStoreKey(any(), any());
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldRejectVisit_ifAnotherInstanceRecordedVisitWithinWindow() {
+
+        // Given
+        LastVisitCache otherInstance = new LastVisitCache(courierRepository, courierStoreVisitRepository, 1000,
+                Duration.ofSeconds(70), nanoTime::get);
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+
+        // Then
+        assertTrue(otherInstance.tryRecordVisit(courierId, 1, now));
+        assertFalse(lastVisitCache.tryRecordVisit(courierId, 1, now.plusSeconds(30)));
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldRejectVisit_ifDatabaseHasVisitWithinWindow() {
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1))
+                .thenReturn(Optional.of(now.minusSeconds(30)));
+
+        // Then
+        assertFalse(lastVisitCache.tryRecordVisit(courierId, 1, now));
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldAcceptVisit_ifLastVisitIsOutsideWindow() {
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1))
+                .thenReturn(Optional.of(now.minusSeconds(90)));
+
+        // Then
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldQueryWindow_ifVisitIsOlderThanNewestKnownVisit() {
+
+        // Given
+        LocalDateTime olderVisit = now.minusMinutes(10);
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKeyAndTimestampBetween(courierId, 1,
+                olderVisit.minusMinutes(1), olderVisit)).thenReturn(Optional.empty());
+
+        // Then
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, olderVisit));
+        assertFalse(lastVisitCache.tryRecordVisit(courierId, 1, now.plusSeconds(10)));
+
+        // Verify
+        verify(courierRepository).findLastTimestampByCourierIdAndStoreKeyAndTimestampBetween(courierId, 1,
+                olderVisit.minusMinutes(1), olderVisit);
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldDecideOnVisitRow_ifEntryExpired() {
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+
+        // Then
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+        nanoTime.addAndGet(Duration.ofSeconds(71).toNanos());
+        assertFalse(lastVisitCache.tryRecordVisit(courierId, 1, now.plusSeconds(30)));
+
+        // Verify
+        verify(courierRepository, times(1)).findLastTimestampByCourierIdAndStoreKey(courierId, 1);
+        verify(courierStoreVisitRepository, times(2)).findByCourierIdAndStoreKeyForUpdate(courierId, 1);
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldBoundNumberOfEntries() {
+
+        // Given
+        LastVisitCache smallCache = new LastVisitCache(courierRepository, courierStoreVisitRepository, LastVisitCache.STRIPE_COUNT,
+                Duration.ofSeconds(70), nanoTime::get);
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(any(), any())).thenReturn(Optional.empty());
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            smallCache.tryRecordVisit(UUID.randomUUID().toString(), 1, now);
+        }
+
+        assertTrue(smallCache.size() <= LastVisitCache.STRIPE_COUNT);
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldEvictVisit_ifTransactionRollsBack() {
+
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+
+        // Then
+        try {
+            assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+            // The visit row is rolled back with the transaction
+            visitRows.clear();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, lastVisitCache.size());
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now.plusSeconds(30)));
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldNotHoldStripeWhileQueryingDatabase() {
+
+        // Given
+        String stripeNeighbour = neighbourOf(courierId);
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(stripeNeighbour, 1)).thenReturn(Optional.empty());
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenAnswer(invocation -> {
+            // A courier in the same stripe is decided while this lookup is still running
+            assertTrue(CompletableFuture.supplyAsync(() -> lastVisitCache.tryRecordVisit(stripeNeighbour, 1, now))
+                    .get(5, TimeUnit.SECONDS));
+            return Optional.empty();
+        });
+
+        // Then
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+        assertFalse(lastVisitCache.tryRecordVisit(stripeNeighbour, 1, now.plusSeconds(30)));
+
+    }
+
+    @Test
+    void evict_shouldForgetVisitInVisitRowAndCache() {
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+
+        // Then
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+        lastVisitCache.evict(courierId, 1, now);
+
+        assertEquals(0, lastVisitCache.size());
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now.plusSeconds(30)));
+
+        // Verify
+        verify(courierStoreVisitRepository).deleteByCourierIdAndStoreKeyAndLastVisit(courierId, 1, now);
+
+    }
+
+    @Test
+    void evict_shouldKeepNewerVisitInVisitRow() {
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+
+        // Then
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now.plusMinutes(2)));
+        lastVisitCache.evict(courierId, 1, now);
+
+        assertFalse(lastVisitCache.tryRecordVisit(courierId, 1, now.plusMinutes(2).plusSeconds(30)));
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldReleaseKey_ifDatabaseLookupFails() {
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenReturn(Optional.empty());
+
+        // Then
+        assertThrows(IllegalStateException.class, () -> lastVisitCache.tryRecordVisit(courierId, 1, now));
+        assertTrue(lastVisitCache.tryRecordVisit(courierId, 1, now));
+
+    }
+
+    @Test
+    void tryRecordVisit_shouldAcceptOnlyOneOfConcurrentVisitsOfSameCourier() throws Exception {
+
+        // Given
+        int threadCount = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        when(courierRepository.findLastTimestampByCourierIdAndStoreKey(courierId, 1)).thenReturn(Optional.empty());
+
+        // Then
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (lastVisitCache.tryRecordVisit(courierId, 1, now)) {
+                        accepted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, accepted.get());
+
+        // Verify
+        verify(courierRepository, times(1)).findLastTimestampByCourierIdAndStoreKey(courierId, 1);
+        verify(courierRepository, never()).findLastTimestampByCourierIdAndStoreKeyAndTimestampBetween(any(), any(), any(), any());
+
+    }
+
+    private String neighbourOf(String courierId) {
+        int stripeIndex = LastVisitCache.stripeIndexOf(courierId, 1);
+        while (true) {
+            String candidate = UUID.randomUUID().toString();
+            if (LastVisitCache.stripeIndexOf(candidate, 1) == stripeIndex) {
+                return candidate;
+            }
+        }
+    }
+
+}
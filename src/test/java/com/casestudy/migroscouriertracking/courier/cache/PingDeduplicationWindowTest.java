@@ -0,0 +1,192 @@
+package com.casestudy.migroscouriertracking.courier.cache;
+
+import com.casestudy.migroscouriertracking.courier.exception.StoreFarAwayException;
+import com.casestudy.migroscouriertracking.courier.exception.StoreReentryTooSoonException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link PingDeduplicationWindow} class, validating remembered outcomes, the ping identity,
+ * TTL and size based eviction, rollback eviction of accepted pings and retries waiting for a ping in flight.
+ */
+class PingDeduplicationWindowTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final String courierId = UUID.randomUUID().toString();
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private PingDeduplicationWindow pingDeduplicationWindow;
+
+    @BeforeEach
+    void setUp() {
+        pingDeduplicationWindow = new PingDeduplicationWindow(1000, Duration.ofMinutes(5), nanoTime::get);
+    }
+
+    @Test
+    void find_shouldReturnOutcomeOfSamePingOnly() {
+
+        // When
+        pingDeduplicationWindow.recordAccepted(courierId, now, 40.9923307, 29.1244229);
+
+        // Then
+        Optional<PingDeduplicationWindow.Outcome> outcome = pingDeduplicationWindow.find(courierId, now, 40.9923307, 29.1244229);
+        assertTrue(outcome.isPresent());
+        assertTrue(outcome.get().isAccepted());
+
+        assertTrue(pingDeduplicationWindow.find(courierId, now.plusMinutes(1), 40.9923307, 29.1244229).isEmpty());
+        assertTrue(pingDeduplicationWindow.find(courierId, now, 40.9923308, 29.1244229).isEmpty());
+        assertTrue(pingDeduplicationWindow.find(UUID.randomUUID().toString(), now, 40.9923307, 29.1244229).isEmpty());
+
+    }
+
+    @Test
+    void find_shouldReturnRejectionOfRejectedPing() {
+
+        // Given
+        StoreFarAwayException rejection = new StoreFarAwayException("Courier is far away from all stores.", "store1", 250.0);
+
+        // When
+        pingDeduplicationWindow.recordRejected(courierId, now, 41.0, 29.0, rejection);
+
+        // Then
+        PingDeduplicationWindow.Outcome outcome = pingDeduplicationWindow.find(courierId, now, 41.0, 29.0).orElseThrow();
+        assertFalse(outcome.isAccepted());
+        assertEquals(PingDeduplicationWindow.Reason.FAR_AWAY, outcome.reason());
+
+        // Every retry gets an exception of its own
+        RuntimeException first = outcome.newRejection();
+        RuntimeException second = outcome.newRejection();
+        assertNotSame(first, second);
+        StoreFarAwayException farAway = assertInstanceOf(StoreFarAwayException.class, first);
+        assertEquals(rejection.getMessage(), farAway.getMessage());
+        assertEquals("store1", farAway.getNearestStoreName());
+        assertEquals(250.0, farAway.getNearestStoreDistanceInMeters());
+
+    }
+
+    @Test
+    void recordRejected_shouldNotReplaceAcceptedPing() {
+
+        // When
+        pingDeduplicationWindow.recordAccepted(courierId, now, 40.9923307, 29.1244229);
+        pingDeduplicationWindow.recordRejected(courierId, now, 40.9923307, 29.1244229,
+                new StoreReentryTooSoonException("Reentry to the same store's circumference is too soon."));
+
+        // Then
+        assertTrue(pingDeduplicationWindow.find(courierId, now, 40.9923307, 29.1244229).orElseThrow().isAccepted());
+
+    }
+
+    @Test
+    void findOrClaim_shouldLetRetryWaitForOutcomeOfPingInFlight() throws Exception {
+
+        // Given
+        assertTrue(pingDeduplicationWindow.findOrClaim(courierId, now, 40.9923307, 29.1244229).isEmpty());
+
+        // When
+        CompletableFuture<Optional<PingDeduplicationWindow.Outcome>> retry = CompletableFuture.supplyAsync(
+                () -> pingDeduplicationWindow.findOrClaim(courierId, now, 40.9923307, 29.1244229));
+
+        // Then
+        assertThrows(TimeoutException.class, () -> retry.get(200, TimeUnit.MILLISECONDS));
+        pingDeduplicationWindow.recordAccepted(courierId, now, 40.9923307, 29.1244229);
+        pingDeduplicationWindow.release(courierId, now, 40.9923307, 29.1244229);
+        assertTrue(retry.get(5, TimeUnit.SECONDS).orElseThrow().isAccepted());
+
+    }
+
+    @Test
+    void findOrClaim_shouldHandOverClaim_ifPingInFlightIsReleasedWithoutOutcome() throws Exception {
+
+        // Given
+        assertTrue(pingDeduplicationWindow.findOrClaim(courierId, now, 40.9923307, 29.1244229).isEmpty());
+
+        // When
+        CompletableFuture<Optional<PingDeduplicationWindow.Outcome>> retry = CompletableFuture.supplyAsync(
+                () -> pingDeduplicationWindow.findOrClaim(courierId, now, 40.9923307, 29.1244229));
+        pingDeduplicationWindow.release(courierId, now, 40.9923307, 29.1244229);
+
+        // Then
+        assertTrue(retry.get(5, TimeUnit.SECONDS).isEmpty());
+
+    }
+
+    @Test
+    void find_shouldForgetPing_afterTtl() {
+
+        // When
+        pingDeduplicationWindow.recordAccepted(courierId, now, 40.9923307, 29.1244229);
+        nanoTime.addAndGet(Duration.ofMinutes(5).plusNanos(1).toNanos());
+
+        // Then
+        assertTrue(pingDeduplicationWindow.find(courierId, now, 40.9923307, 29.1244229).isEmpty());
+        assertEquals(0, pingDeduplicationWindow.size());
+
+    }
+
+    @Test
+    void recordAccepted_shouldEvictLeastRecentlyUsedPings_whenWindowIsFull() {
+
+        // Given
+        PingDeduplicationWindow smallWindow = new PingDeduplicationWindow(1, Duration.ofMinutes(5), nanoTime::get);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            smallWindow.recordAccepted(courierId, now.plusMinutes(i), 40.9923307, 29.1244229);
+        }
+
+        // Then
+        assertTrue(smallWindow.size() <= PingDeduplicationWindow.STRIPE_COUNT);
+
+    }
+
+    @Test
+    void recordAccepted_shouldForgetPing_ifTransactionRollsBack() {
+
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Then
+        try {
+            pingDeduplicationWindow.recordAccepted(courierId, now, 40.9923307, 29.1244229);
+            pingDeduplicationWindow.recordRejected(courierId, now.plusMinutes(1), 41.0, 29.0,
+                    new StoreFarAwayException("Courier is far away from all stores."));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(pingDeduplicationWindow.find(courierId, now, 40.9923307, 29.1244229).isEmpty());
+        assertTrue(pingDeduplicationWindow.find(courierId, now.plusMinutes(1), 41.0, 29.0).isPresent());
+
+    }
+
+    @Test
+    void evict_shouldForgetPing() {
+
+        // When
+        pingDeduplicationWindow.recordAccepted(courierId, now, 40.9923307, 29.1244229);
+        pingDeduplicationWindow.evict(courierId, now, 40.9923307, 29.1244229);
+
+        // Then
+        assertTrue(pingDeduplicationWindow.find(courierId, now, 40.9923307, 29.1244229).isEmpty());
+
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.casestudy.migroscouriertracking.courier.codec;
+
+import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link LocationPingCodec} class, validating round trips, the fixed layout of frames
+ * and that corrupt input is rejected instead of being decoded into garbage or exhausting memory.
+ */
+class LocationPingCodecTest {
+
+    private final ZoneId zone = ZoneId.of("Europe/Istanbul");
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 6, 1, 8, 0);
+
+    @Test
+    void decode_shouldReturnEncodedPingsInOrder() {
+
+        // Given
+        List<LogCourierLocationRequest> pings = pings(new Random(7L), LocationPingCodec.MAX_PINGS);
+
+        // When
+        List<LogCourierLocationRequest> decoded = LocationPingCodec.decode(ByteBuffer.wrap(LocationPingCodec.encode(pings, zone)), zone);
+
+        // Then
+        assertEquals(pings.size(), decoded.size());
+        for (int index = 0; index < pings.size(); index++) {
+            LogCourierLocationRequest expected = pings.get(index);
+            LogCourierLocationRequest actual = decoded.get(index);
+            assertEquals(expected.getCourierId(), actual.getCourierId());
+            assertEquals(expected.getLat(), actual.getLat());
+            assertEquals(expected.getLng(), actual.getLng());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        }
+
+    }
+
+    @Test
+    void decode_shouldReturnEmptyList_forEmptyFrame() {
+
+        // When
+        List<LogCourierLocationRequest> decoded = LocationPingCodec.decode(ByteBuffer.wrap(LocationPingCodec.encode(List.of(), zone)), zone);
+
+        // Then
+        assertTrue(decoded.isEmpty());
+
+    }
+
+    @Test
+    void encode_shouldWriteEachPingAtFixedOffsets() {
+
+        // Given
+        UUID courierId = UUID.randomUUID();
+        LogCourierLocationRequest ping = ping(courierId.toString(), 40.9923307, 29.1244229, start.plusNanos(999_000_000));
+
+        // When
+        byte[] frame = LocationPingCodec.encode(List.of(ping), ZoneOffset.UTC);
+
+        // Then
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        assertEquals(LocationPingCodec.frameSize(1), frame.length);
+        assertEquals(LocationPingCodec.HEADER_SIZE + 40, frame.length);
+        assertEquals(LocationPingCodec.MAGIC, buffer.getInt());
+        assertEquals(LocationPingCodec.VERSION, buffer.get());
+        assertEquals(1, buffer.getInt());
+        assertEquals(courierId.getMostSignificantBits(), buffer.getLong());
+        assertEquals(courierId.getLeastSignificantBits(), buffer.getLong());
+        assertEquals(40.9923307, buffer.getDouble());
+        assertEquals(29.1244229, buffer.getDouble());
+        // Fractions of a second are dropped
+        assertEquals(start.toEpochSecond(ZoneOffset.UTC), buffer.getLong());
+
+    }
+
+    @Test
+    void decode_shouldReadTimestampsInGivenZone() {
+
+        // Given
+        byte[] frame = LocationPingCodec.encode(List.of(ping(UUID.randomUUID().toString(), 41.0, 29.0, start)), ZoneOffset.UTC);
+
+        // When
+        LogCourierLocationRequest decoded = LocationPingCodec.decode(ByteBuffer.wrap(frame), zone).get(0);
+
+        // Then
+        assertEquals(start.plusHours(3), decoded.getTimestamp());
+
+    }
+
+    @Test
+    void encode_shouldRejectCourierIdThatIsNotUuid() {
+
+        // Given
+        List<LogCourierLocationRequest> pings = List.of(ping("courier-1", 41.0, 29.0, start));
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.encode(pings, zone));
+
+    }
+
+    @Test
+    void decode_shouldRejectFrameWithWrongMagicOrVersion() {
+
+        // Given
+        byte[] wrongMagic = LocationPingCodec.encode(pings(new Random(3L), 2), zone);
+        wrongMagic[0] ^= 1;
+        byte[] wrongVersion = LocationPingCodec.encode(pings(new Random(3L), 2), zone);
+        wrongVersion[Integer.BYTES] = 2;
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(ByteBuffer.wrap(wrongMagic), zone));
+        assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(ByteBuffer.wrap(wrongVersion), zone));
+
+    }
+
+    @Test
+    void decode_shouldRejectCountThatDoesNotMatchFrameLength() {
+
+        // Given
+        byte[] frame = LocationPingCodec.encode(pings(new Random(5L), 3), zone);
+        byte[] tooLarge = frame.clone();
+        ByteBuffer.wrap(tooLarge).putInt(Integer.BYTES + Byte.BYTES, Integer.MAX_VALUE);
+        byte[] negative = frame.clone();
+        ByteBuffer.wrap(negative).putInt(Integer.BYTES + Byte.BYTES, -1);
+        byte[] trailing = Arrays.copyOf(frame, frame.length + 1);
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(ByteBuffer.wrap(tooLarge), zone));
+        assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(ByteBuffer.wrap(negative), zone));
+        assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(ByteBuffer.wrap(trailing), zone));
+
+    }
+
+    @Test
+    void decode_shouldRejectTruncatedFrames() {
+
+        // Given
+        byte[] frame = LocationPingCodec.encode(pings(new Random(5L), 3), zone);
+
+        // Then
+        for (int length = 0; length < frame.length; length++) {
+            ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(frame, length));
+            assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(truncated, zone));
+        }
+
+    }
+
+    @Test
+    void decode_shouldRejectCoordinatesThatAreNotFinite() {
+
+        // Given
+        int latOffset = LocationPingCodec.HEADER_SIZE + 2 * Long.BYTES;
+        for (double coordinate : new double[]{Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}) {
+            byte[] lat = LocationPingCodec.encode(pings(new Random(9L), 1), zone);
+            ByteBuffer.wrap(lat).putDouble(latOffset, coordinate);
+            byte[] lng = LocationPingCodec.encode(pings(new Random(9L), 1), zone);
+            ByteBuffer.wrap(lng).putDouble(latOffset + Double.BYTES, coordinate);
+
+            // Then
+            assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(ByteBuffer.wrap(lat), zone));
+            assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(ByteBuffer.wrap(lng), zone));
+        }
+
+    }
+
+    @Test
+    void decode_shouldRejectTimestampsOutOfRange() {
+
+        // Given
+        byte[] frame = LocationPingCodec.encode(pings(new Random(9L), 1), zone);
+        ByteBuffer.wrap(frame).putLong(LocationPingCodec.HEADER_SIZE + 2 * Long.BYTES + 2 * Double.BYTES, Long.MAX_VALUE);
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> LocationPingCodec.decode(ByteBuffer.wrap(frame), zone));
+
+    }
+
+    @Test
+    void decode_shouldNeverFailWithAnythingButIllegalArgumentException_forRandomOrCorruptedInput() {
+
+        // Given
+        Random random = new Random(13L);
+        byte[] frame = LocationPingCodec.encode(pings(random, 20), zone);
+
+        // Then
+        for (int round = 0; round < 5000; round++) {
+            byte[] input;
+            if (round % 2 == 0) {
+                input = frame.clone();
+                for (int flips = 1 + random.nextInt(4); flips > 0; flips--) {
+                    input[random.nextInt(input.length)] ^= (byte) (1 << random.nextInt(8));
+                }
+            } else {
+                input = new byte[random.nextInt(256)];
+                random.nextBytes(input);
+                if (input.length >= LocationPingCodec.HEADER_SIZE && random.nextBoolean()) {
+                    int count = (input.length - LocationPingCodec.HEADER_SIZE) / LocationPingCodec.PING_SIZE;
+                    ByteBuffer.wrap(input).putInt(LocationPingCodec.MAGIC).put(LocationPingCodec.VERSION)
+                            .putInt(random.nextBoolean() ? count : random.nextInt());
+                }
+            }
+
+            try {
+                List<LogCourierLocationRequest> decoded = LocationPingCodec.decode(ByteBuffer.wrap(input), zone);
+                assertEquals((input.length - LocationPingCodec.HEADER_SIZE) / LocationPingCodec.PING_SIZE, decoded.size());
+            } catch (IllegalArgumentException expected) {
+                // Corrupt input must only ever be rejected this way
+            }
+        }
+
+    }
+
+    private List<LogCourierLocationRequest> pings(Random random, int count) {
+        List<String> courierIds = List.of(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        List<LogCourierLocationRequest> pings = new ArrayList<>(count);
+        double lat = 40.9923307;
+        double lng = 29.1244229;
+        LocalDateTime timestamp = start;
+        for (int index = 0; index < count; index++) {
+            lat += (random.nextDouble() - 0.5) * 0.001;
+            lng += (random.nextDouble() - 0.5) * 0.001;
+            timestamp = timestamp.plusSeconds(1 + random.nextInt(60));
+            pings.add(ping(courierIds.get(random.nextInt(courierIds.size())), lat, lng, timestamp));
+        }
+        return pings;
+    }
+
+    private LogCourierLocationRequest ping(String courierId, double lat, double lng, LocalDateTime timestamp) {
+        return LogCourierLocationRequest.builder()
+                .courierId(courierId)
+                .lat(lat)
+                .lng(lng)
+                .timestamp(timestamp)
+                .build();
+    }
+
+}
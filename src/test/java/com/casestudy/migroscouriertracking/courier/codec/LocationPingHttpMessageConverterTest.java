@@ -0,0 +1,131 @@
+package com.casestudy.migroscouriertracking.courier.codec;
+
+import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link LocationPingHttpMessageConverter} class, validating which request bodies it reads
+ * and that unreadable frames are rejected as unreadable messages.
+ */
+class LocationPingHttpMessageConverterTest {
+
+    private static final Type PING_LIST_TYPE = new ParameterizedTypeReference<List<LogCourierLocationRequest>>() {
+    }.getType();
+
+    private final LocationPingHttpMessageConverter converter = new LocationPingHttpMessageConverter(ZoneOffset.UTC);
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 6, 1, 8, 0);
+
+    @Test
+    void canRead_shouldOnlyAcceptPingsSentAsFrames() {
+
+        // Given
+        Type mapType = new ParameterizedTypeReference<Map<String, LogCourierLocationRequest>>() {
+        }.getType();
+        Type stringListType = new ParameterizedTypeReference<List<String>>() {
+        }.getType();
+
+        // Then
+        assertTrue(converter.canRead(LogCourierLocationRequest.class, null, LocationPingHttpMessageConverter.MEDIA_TYPE));
+        assertTrue(converter.canRead(PING_LIST_TYPE, null, LocationPingHttpMessageConverter.MEDIA_TYPE));
+        assertFalse(converter.canRead(LogCourierLocationRequest.class, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(PING_LIST_TYPE, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(String.class, null, LocationPingHttpMessageConverter.MEDIA_TYPE));
+        assertFalse(converter.canRead(mapType, null, LocationPingHttpMessageConverter.MEDIA_TYPE));
+        assertFalse(converter.canRead(stringListType, null, LocationPingHttpMessageConverter.MEDIA_TYPE));
+        assertFalse(converter.canWrite(LogCourierLocationRequest.class, null, LocationPingHttpMessageConverter.MEDIA_TYPE));
+
+    }
+
+    @Test
+    void read_shouldReturnSinglePing_forFrameOfOnePing() throws Exception {
+
+        // Given
+        LogCourierLocationRequest ping = ping(start);
+        MockHttpInputMessage inputMessage = new MockHttpInputMessage(LocationPingCodec.encode(List.of(ping), ZoneOffset.UTC));
+
+        // When
+        LogCourierLocationRequest read = (LogCourierLocationRequest) converter.read(LogCourierLocationRequest.class, null, inputMessage);
+
+        // Then
+        assertEquals(ping.getCourierId(), read.getCourierId());
+        assertEquals(ping.getLat(), read.getLat());
+        assertEquals(ping.getLng(), read.getLng());
+        assertEquals(start, read.getTimestamp());
+
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void read_shouldReturnEveryPing_forListType() throws Exception {
+
+        // Given
+        List<LogCourierLocationRequest> pings = List.of(ping(start), ping(start.plusMinutes(1)), ping(start.plusMinutes(2)));
+        MockHttpInputMessage inputMessage = new MockHttpInputMessage(LocationPingCodec.encode(pings, ZoneOffset.UTC));
+
+        // When
+        List<LogCourierLocationRequest> read = (List<LogCourierLocationRequest>) converter.read(PING_LIST_TYPE, null, inputMessage);
+
+        // Then
+        assertEquals(pings.stream().map(LogCourierLocationRequest::getTimestamp).toList(),
+                read.stream().map(LogCourierLocationRequest::getTimestamp).toList());
+
+    }
+
+    @Test
+    void read_shouldRejectSinglePing_ifFrameDoesNotHoldExactlyOnePing() {
+
+        // Given
+        byte[] empty = LocationPingCodec.encode(List.of(), ZoneOffset.UTC);
+        byte[] two = LocationPingCodec.encode(List.of(ping(start), ping(start.plusMinutes(1))), ZoneOffset.UTC);
+
+        // Then
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(LogCourierLocationRequest.class, null, new MockHttpInputMessage(empty)));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(LogCourierLocationRequest.class, null, new MockHttpInputMessage(two)));
+
+    }
+
+    @Test
+    void read_shouldRejectCorruptOrOversizedFrames() {
+
+        // Given
+        byte[] corrupt = LocationPingCodec.encode(List.of(ping(start)), ZoneOffset.UTC);
+        corrupt[0] ^= 1;
+        byte[] oversized = new byte[LocationPingHttpMessageConverter.MAX_BODY_SIZE + 1];
+
+        // Then
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(PING_LIST_TYPE, null, new MockHttpInputMessage(corrupt)));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(PING_LIST_TYPE, null, new MockHttpInputMessage(oversized)));
+
+    }
+
+    private LogCourierLocationRequest ping(LocalDateTime timestamp) {
+        return LogCourierLocationRequest.builder()
+                .courierId(UUID.randomUUID().toString())
+                .lat(40.9923307)
+                .lng(29.1244229)
+                .timestamp(timestamp)
+                .build();
+    }
+
+}
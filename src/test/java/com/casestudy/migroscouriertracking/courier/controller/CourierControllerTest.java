@@ -1,10 +1,16 @@
 package com.casestudy.migroscouriertracking.courier.controller;
 
 import com.casestudy.migroscouriertracking.base.AbstractRestControllerTest;
+import com.casestudy.migroscouriertracking.courier.codec.LocationPingCodec;
+import com.casestudy.migroscouriertracking.courier.codec.LocationPingHttpMessageConverter;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.ResolvedStoreContext;
 import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.CourierTravelPage;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.TravelQueryRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.response.CourierResponse;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.LogCourierLocationResponse;
 import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
 import com.casestudy.migroscouriertracking.courier.model.mapper.CourierToCourierResponseMapper;
 import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
@@ -12,17 +18,29 @@ import com.casestudy.migroscouriertracking.courier.service.CourierService;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -37,6 +55,9 @@ class CourierControllerTest extends AbstractRestControllerTest {
     @MockBean
     private StoreRepository storeRepository;
 
+    @MockBean
+    private ResolvedStoreContext resolvedStoreContext;
+
     private final CourierToCourierResponseMapper courierToCourierResponseMapper = CourierToCourierResponseMapper.initialize();
 
     @Test
@@ -58,7 +79,7 @@ class CourierControllerTest extends AbstractRestControllerTest {
                 .build();
 
         // When
-        when(storeRepository.findAll()).thenReturn(List.of(mockStore));
+        when(resolvedStoreContext.resolve(logRequest.getLat(), logRequest.getLng())).thenReturn(Optional.of(CatalogStore.of(mockStore)));
         doNothing().when(courierService).logCourierLocation(any());
 
         // Then
@@ -74,6 +95,227 @@ class CourierControllerTest extends AbstractRestControllerTest {
     }
 
 
+    @Test
+    public void logCourierLocations_shouldReturnOutcomeOfEachPing() throws Exception {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime timestamp = LocalDateTime.now();
+
+        List<LogCourierLocationRequest> logRequests = List.of(
+                LogCourierLocationRequest.builder()
+                        .courierId(courierId)
+                        .lat(37.7749)
+                        .lng(-122.4194)
+                        .timestamp(timestamp)
+                        .build(),
+                LogCourierLocationRequest.builder()
+                        .courierId(courierId)
+                        .lat(38.0)
+                        .lng(-122.0)
+                        .timestamp(timestamp.plusMinutes(2))
+                        .build()
+        );
+
+        List<LogCourierLocationResponse> responses = List.of(
+                LogCourierLocationResponse.builder().index(0).courierId(courierId).timestamp(timestamp).logged(true).build(),
+                LogCourierLocationResponse.builder().index(1).courierId(courierId).timestamp(timestamp.plusMinutes(2)).logged(false)
+                        .message("Courier is far away from all stores.").build()
+        );
+
+        // When
+        when(courierService.logCourierLocations(anyList())).thenReturn(responses);
+
+        // Then
+        mockMvc.perform(post("/api/couriers/log-locations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(logRequests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response").isArray())
+                .andExpect(jsonPath("$.response[0].logged").value(true))
+                .andExpect(jsonPath("$.response[1].logged").value(false))
+                .andExpect(jsonPath("$.response[1].message").value("Courier is far away from all stores."));
+
+        // Verify
+        verify(courierService).logCourierLocations(anyList());
+
+    }
+
+    @Test
+    public void logCourierLocation_shouldReturnSuccessMessage_forLocationPingFrame() throws Exception {
+
+        // Given
+        LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
+                .courierId(UUID.randomUUID().toString())
+                .lat(37.7749)
+                .lng(-122.4194)
+                .timestamp(LocalDateTime.now().plusMinutes(1).withNano(0))
+                .build();
+
+        StoreEntity mockStore = StoreEntity.builder()
+                .lat(37.7749)
+                .lng(-122.4194)
+                .createdAt(LocalDateTime.now().minusDays(1))
+                .build();
+
+        // When
+        when(resolvedStoreContext.resolve(logRequest.getLat(), logRequest.getLng())).thenReturn(Optional.of(CatalogStore.of(mockStore)));
+        doNothing().when(courierService).logCourierLocation(any());
+
+        // Then
+        mockMvc.perform(post("/api/couriers/log-location")
+                        .contentType(LocationPingHttpMessageConverter.MEDIA_TYPE)
+                        .content(LocationPingCodec.encode(List.of(logRequest), ZoneId.systemDefault())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response").value("Location logged successfully."));
+
+        // Verify
+        verify(courierService).logCourierLocation(argThat(request ->
+                request.getCourierId().equals(logRequest.getCourierId())
+                        && request.getTimestamp().equals(logRequest.getTimestamp())));
+
+    }
+
+    @Test
+    public void logCourierLocations_shouldReturnOutcomeOfEachPing_forLocationPingFrame() throws Exception {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime timestamp = LocalDateTime.now().withNano(0);
+
+        List<LogCourierLocationRequest> logRequests = List.of(
+                LogCourierLocationRequest.builder().courierId(courierId).lat(37.7749).lng(-122.4194).timestamp(timestamp).build(),
+                LogCourierLocationRequest.builder().courierId(courierId).lat(38.0).lng(-122.0).timestamp(timestamp.plusMinutes(2)).build()
+        );
+
+        List<LogCourierLocationResponse> responses = List.of(
+                LogCourierLocationResponse.builder().index(0).courierId(courierId).timestamp(timestamp).logged(true).build(),
+                LogCourierLocationResponse.builder().index(1).courierId(courierId).timestamp(timestamp.plusMinutes(2)).logged(true).build()
+        );
+
+        // When
+        when(courierService.logCourierLocations(anyList())).thenReturn(responses);
+
+        // Then
+        mockMvc.perform(post("/api/couriers/log-locations")
+                        .contentType(LocationPingHttpMessageConverter.MEDIA_TYPE)
+                        .content(LocationPingCodec.encode(logRequests, ZoneId.systemDefault())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].logged").value(true))
+                .andExpect(jsonPath("$.response[1].logged").value(true));
+
+        // Verify
+        verify(courierService).logCourierLocations(argThat(requests -> requests.size() == 2
+                && requests.get(1).getTimestamp().equals(timestamp.plusMinutes(2))));
+
+    }
+
+    @Test
+    public void logCourierLocations_shouldReturnBadRequest_forCorruptLocationPingFrame() throws Exception {
+
+        // Then
+        mockMvc.perform(post("/api/couriers/log-locations")
+                        .contentType(LocationPingHttpMessageConverter.MEDIA_TYPE)
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.header").value("BAD REQUEST"));
+
+        // Verify
+        verify(courierService, never()).logCourierLocations(anyList());
+
+    }
+
+    @Test
+    public void getPastTravelsPage_shouldReturnPageWithNextCursor() throws Exception {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        Courier travel = Courier.builder()
+                .id(UUID.randomUUID().toString())
+                .courierId(courierId)
+                .lat(37.7749)
+                .lng(-122.4194)
+                .storeName("store1")
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        CourierTravelPage page = CourierTravelPage.builder()
+                .travels(List.of(travel))
+                .nextCursor("next-cursor")
+                .build();
+
+        // When
+        when(courierService.getPastTravelsPageByCourierId(courierId, "cursor", 1)).thenReturn(page);
+
+        // Then
+        mockMvc.perform(get("/api/couriers/travels/{courierId}/page", courierId)
+                        .param("cursor", "cursor")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response.travels[0].storeName").value("store1"))
+                .andExpect(jsonPath("$.response.nextCursor").value("next-cursor"));
+
+        // Verify
+        verify(courierService).getPastTravelsPageByCourierId(courierId, "cursor", 1);
+
+    }
+
+    @Test
+    public void streamPastTravels_shouldWriteOneJsonLinePerTravel() throws Exception {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        List<Courier> travels = List.of(
+                Courier.builder()
+                        .id(UUID.randomUUID().toString())
+                        .courierId(courierId)
+                        .lat(37.7749)
+                        .lng(-122.4194)
+                        .storeName("store1")
+                        .timestamp(LocalDateTime.now().minusHours(1))
+                        .build(),
+                Courier.builder()
+                        .id(UUID.randomUUID().toString())
+                        .courierId(courierId)
+                        .lat(37.7750)
+                        .lng(-122.4183)
+                        .storeName("store2")
+                        .timestamp(LocalDateTime.now())
+                        .build()
+        );
+
+        // When
+        doAnswer(invocation -> {
+            Consumer<Courier> consumer = invocation.getArgument(1);
+            travels.forEach(consumer);
+            return null;
+        }).when(courierService).streamPastTravelsByCourierId(eq(courierId), any());
+
+        // Then
+        MvcResult mvcResult = mockMvc.perform(get("/api/couriers/travels/{courierId}/stream", courierId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals("store1", objectMapper.readValue(lines.get(0), CourierResponse.class).getStoreName());
+        assertEquals("store2", objectMapper.readValue(lines.get(1), CourierResponse.class).getStoreName());
+
+        // Verify
+        verify(courierService).checkPastTravelsExist(courierId);
+        verify(courierService).streamPastTravelsByCourierId(eq(courierId), any());
+
+    }
+
     @Test
     public void getPastTravels_shouldReturnListOfTravels() throws Exception {
 
@@ -117,6 +359,56 @@ class CourierControllerTest extends AbstractRestControllerTest {
     }
 
 
+    @Test
+    public void getPastTravels_shouldReturnSimplifiedTrack_ifToleranceIsGiven() throws Exception {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime start = LocalDateTime.of(2024, 6, 1, 8, 0);
+
+        // Five locations on a straight line heading north
+        List<Courier> travels = IntStream.range(0, 5)
+                .mapToObj(index -> Courier.builder()
+                        .id(UUID.randomUUID().toString())
+                        .courierId(courierId)
+                        .lat(40.9900000 + index * 0.0010)
+                        .lng(29.1200000)
+                        .storeName("store1")
+                        .timestamp(start.plusMinutes(2L * index))
+                        .build())
+                .toList();
+
+        // When
+        when(courierService.getPastTravelsByCourierId(courierId)).thenReturn(travels);
+
+        // Then
+        mockMvc.perform(get("/api/couriers/travels/{courierId}", courierId)
+                        .param("tolerance", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Track-Point-Count", "5"))
+                .andExpect(header().exists("X-Track-Distance-Error-Meters"))
+                .andExpect(jsonPath("$.response.length()").value(2))
+                .andExpect(jsonPath("$.response[0].id").value(travels.get(0).getId()))
+                .andExpect(jsonPath("$.response[1].id").value(travels.get(4).getId()));
+
+    }
+
+    @Test
+    public void getPastTravels_shouldReturnBadRequest_ifToleranceIsNegative() throws Exception {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        // Then
+        mockMvc.perform(get("/api/couriers/travels/{courierId}", courierId)
+                        .param("tolerance", "-1"))
+                .andExpect(status().isBadRequest());
+
+        // Verify
+        verify(courierService, never()).getPastTravelsByCourierId(courierId);
+
+    }
+
     @Test
     public void getTravelsByCourierIdStoreNameAndTimeRange_shouldReturnFilteredTravels() throws Exception {
 
@@ -180,4 +472,46 @@ class CourierControllerTest extends AbstractRestControllerTest {
 
     }
 
+    @Test
+    public void getTotalTravelDistanceBetween_shouldReturnDistanceTraveledWithinRange() throws Exception {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double distance = 3.456;
+        String formattedDistance = String.format("%.2f km", distance);
+
+        // When
+        when(courierService.getTotalTravelDistanceBetween(eq(courierId), any())).thenReturn(distance);
+
+        // Then
+        mockMvc.perform(get("/api/couriers/travels/{courierId}/total-distance/range", courierId)
+                        .param("start", "01/06/2024 11:30")
+                        .param("end", "01/06/2024 14:15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response").value(formattedDistance));
+
+        // Verify
+        verify(courierService).getTotalTravelDistanceBetween(eq(courierId), argThat(request ->
+                request.getStart().equals(LocalDateTime.of(2024, 6, 1, 11, 30))
+                        && request.getEnd().equals(LocalDateTime.of(2024, 6, 1, 14, 15))));
+
+    }
+
+    @Test
+    public void getTotalTravelDistanceBetween_shouldReturnBadRequest_ifStartIsNotBeforeEnd() throws Exception {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        // Then
+        mockMvc.perform(get("/api/couriers/travels/{courierId}/total-distance/range", courierId)
+                        .param("start", "01/06/2024 14:15")
+                        .param("end", "01/06/2024 11:30"))
+                .andExpect(status().isBadRequest());
+
+        // Verify
+        verify(courierService, never()).getTotalTravelDistanceBetween(any(), any());
+
+    }
+
 }
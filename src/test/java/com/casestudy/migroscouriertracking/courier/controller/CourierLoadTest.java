@@ -0,0 +1,162 @@
+package com.casestudy.migroscouriertracking.courier.controller;
+
+import com.casestudy.migroscouriertracking.base.AbstractTestContainerConfiguration;
+import com.casestudy.migroscouriertracking.common.config.VirtualThreadPinningMonitor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load test that starts the application on a random port against MySQL and lets thousands of couriers
+ * log their locations concurrently, once with request handling on platform threads and once on virtual threads,
+ * logging the throughput of each mode and the number of times a virtual thread was pinned inside JDBC.
+ * It is skipped unless the {@code load-test} system property is true, e.g. {@code mvn test -Dtest=CourierLoadTest -Dload-test=true}.
+ * The number of couriers and pings per courier can be changed with {@code load-test.couriers}
+ * and {@code load-test.pings-per-courier}.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "courier.virtual-threads.pinning-monitor.enabled=true")
+@EnabledIfSystemProperty(named = "load-test", matches = "true")
+class CourierLoadTest extends AbstractTestContainerConfiguration {
+
+    private static final int COURIER_COUNT = Integer.getInteger("load-test.couriers", 2000);
+
+    private static final int PINGS_PER_COURIER = Integer.getInteger("load-test.pings-per-courier", 5);
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private static final double ATASEHIR_LAT = 40.9923307;
+    private static final double ATASEHIR_LNG = 29.1244229;
+
+    @Nested
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+    class PlatformThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private VirtualThreadPinningMonitor pinningMonitor;
+
+        @Test
+        void logCourierLocation_shouldAcceptEveryPing_whenRequestsRunOnPlatformThreads() throws Exception {
+            runLoad("platform threads", port, pinningMonitor);
+        }
+
+    }
+
+    @Nested
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private VirtualThreadPinningMonitor pinningMonitor;
+
+        @Test
+        void logCourierLocation_shouldAcceptEveryPing_whenRequestsRunOnVirtualThreads() throws Exception {
+            runLoad("virtual threads", port, pinningMonitor);
+        }
+
+    }
+
+    /**
+     * Opens one connection per courier, releases all couriers at once and lets each of them log
+     * {@link #PINGS_PER_COURIER} locations two minutes apart at the same store.
+     *
+     * @param mode           the name of the execution mode, used in the printed report
+     * @param port           the port the application listens on
+     * @param pinningMonitor the monitor counting pinned virtual threads
+     */
+    private static void runLoad(String mode, int port, VirtualThreadPinningMonitor pinningMonitor) throws Exception {
+
+        // Given
+        URI uri = URI.create("http://localhost:" + port + "/api/couriers/log-location");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long jdbcPinnedBefore = pinningMonitor.getJdbcPinnedCount();
+
+        try (ExecutorService couriers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(COURIER_COUNT);
+            for (int courier = 0; courier < COURIER_COUNT; courier++) {
+                futures.add(couriers.submit(() -> {
+                    HttpClient client = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_1_1)
+                            .connectTimeout(Duration.ofSeconds(30))
+                            .build();
+                    String courierId = UUID.randomUUID().toString();
+                    startSignal.await();
+                    for (int ping = 0; ping < PINGS_PER_COURIER; ping++) {
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .timeout(Duration.ofMinutes(1))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body(courierId, start.plusMinutes(2L * ping))))
+                                .build();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        (response.statusCode() == 200 ? accepted : failed).incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+
+            // When
+            long startedAt = System.nanoTime();
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+
+            // Then
+            int requests = COURIER_COUNT * PINGS_PER_COURIER;
+            log.info("[{}] {} couriers, {} requests in {} ms: {} requests/s, {} failed, {} pinned inside JDBC",
+                    mode, COURIER_COUNT, requests, elapsed.toMillis(),
+                    String.format(Locale.ROOT, "%.1f", requests * 1000.0 / Math.max(1, elapsed.toMillis())),
+                    failed.get(), pinningMonitor.getJdbcPinnedCount() - jdbcPinnedBefore);
+            assertEquals(requests, accepted.get());
+        }
+
+    }
+
+    /**
+     * Builds the JSON body of a location logged at the Ataşehir store.
+     *
+     * @param courierId the unique identifier of the courier
+     * @param timestamp the timestamp of the location
+     * @return the request body
+     */
+    private static String body(String courierId, LocalDateTime timestamp) {
+        return String.format(Locale.ROOT, "{\"courierId\":\"%s\",\"lat\":%s,\"lng\":%s,\"timestamp\":\"%s\"}",
+                courierId, ATASEHIR_LAT, ATASEHIR_LNG, TIMESTAMP_FORMAT.format(timestamp));
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.casestudy.migroscouriertracking.courier.controller;
+
+import com.casestudy.migroscouriertracking.base.AbstractRestControllerTest;
+import com.casestudy.migroscouriertracking.courier.exception.StoreAlreadyExistsException;
+import com.casestudy.migroscouriertracking.courier.exception.StoreNotFoundException;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.NearestStore;
+import com.casestudy.migroscouriertracking.courier.index.StoreCatalog;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.CreateStoreRequest;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.UpdateStoreRequest;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
+import com.casestudy.migroscouriertracking.courier.service.StoreService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the {@link StoreController} class, verifying the endpoints that manage the store catalog.
+ */
+class StoreControllerTest extends AbstractRestControllerTest {
+
+    @MockBean
+    private StoreService storeService;
+
+    @MockBean
+    private StoreRepository storeRepository;
+
+    private final StoreEntity store = StoreEntity.builder()
+            .id(UUID.randomUUID())
+            .name("Ataşehir MMM Migros")
+            .lat(40.9923307)
+            .lng(29.1244229)
+            .createdAt(LocalDateTime.now().minusDays(1))
+            .build();
+
+    @Test
+    public void getStores_shouldReturnCurrentCatalog() throws Exception {
+
+        // When
+        when(storeService.getStoreCatalog()).thenReturn(new StoreCatalog(3, List.of(CatalogStore.of(store))));
+
+        // Then
+        mockMvc.perform(get("/api/stores"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response.version").value(3))
+                .andExpect(jsonPath("$.response.stores[0].id").value(store.getId()))
+                .andExpect(jsonPath("$.response.stores[0].name").value(store.getName()));
+
+        // Verify
+        verify(storeService).getStoreCatalog();
+
+    }
+
+    @Test
+    public void getNearestStores_shouldReturnStoresRankedByDistance() throws Exception {
+
+        // Given
+        StoreEntity fartherStore = StoreEntity.builder()
+                .id(UUID.randomUUID())
+                .name("Novada MMM Migros")
+                .lat(40.986106)
+                .lng(29.1161293)
+                .build();
+
+        // When
+        when(storeService.findNearestStores(40.99, 29.12, 2))
+                .thenReturn(List.of(new NearestStore(CatalogStore.of(store), 320.5), new NearestStore(CatalogStore.of(fartherStore), 610.0)));
+
+        // Then
+        mockMvc.perform(get("/api/stores/nearest")
+                        .param("lat", "40.99")
+                        .param("lng", "29.12")
+                        .param("k", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response[0].name").value(store.getName()))
+                .andExpect(jsonPath("$.response[0].distanceInMeters").value(320.5))
+                .andExpect(jsonPath("$.response[1].name").value(fartherStore.getName()));
+
+    }
+
+    @Test
+    public void getNearestStores_shouldReturnBadRequest_ifKIsOutOfRange() throws Exception {
+
+        // Then
+        mockMvc.perform(get("/api/stores/nearest")
+                        .param("lat", "40.99")
+                        .param("lng", "29.12")
+                        .param("k", "0"))
+                .andExpect(status().isBadRequest());
+
+        // Verify
+        verify(storeService, never()).findNearestStores(anyDouble(), anyDouble(), anyInt());
+
+    }
+
+    @Test
+    public void getStore_shouldReturnNotFound_ifStoreDoesNotExist() throws Exception {
+
+        // Given
+        String storeId = UUID.randomUUID().toString();
+
+        // When
+        when(storeService.getStoreById(storeId)).thenThrow(new StoreNotFoundException("Store with ID " + storeId + " not found."));
+
+        // Then
+        mockMvc.perform(get("/api/stores/{storeId}", storeId))
+                .andExpect(status().isNotFound());
+
+    }
+
+    @Test
+    public void createStore_shouldReturnCreatedStore() throws Exception {
+
+        // Given
+        CreateStoreRequest request = CreateStoreRequest.builder()
+                .name(store.getName())
+                .lat(store.getLat())
+                .lng(store.getLng())
+                .build();
+
+        // When
+        when(storeService.createStore(any(CreateStoreRequest.class))).thenReturn(store);
+
+        // Then
+        mockMvc.perform(post("/api/stores")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response.id").value(store.getId()))
+                .andExpect(jsonPath("$.response.lat").value(store.getLat()));
+
+    }
+
+    @Test
+    public void createStore_shouldReturnBadRequest_ifLocationIsInvalid() throws Exception {
+
+        // Given
+        CreateStoreRequest request = CreateStoreRequest.builder()
+                .name(store.getName())
+                .lat(91.0)
+                .lng(store.getLng())
+                .build();
+
+        // Then
+        mockMvc.perform(post("/api/stores")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        // Verify
+        verify(storeService, never()).createStore(any());
+
+    }
+
+    @Test
+    public void updateStore_shouldReturnConflict_ifNameIsTaken() throws Exception {
+
+        // Given
+        UpdateStoreRequest request = UpdateStoreRequest.builder()
+                .name("Novada MMM Migros")
+                .lat(store.getLat())
+                .lng(store.getLng())
+                .build();
+
+        // When
+        when(storeService.updateStore(eq(store.getId().toString()), any(UpdateStoreRequest.class)))
+                .thenThrow(new StoreAlreadyExistsException("Store with name Novada MMM Migros already exists."));
+
+        // Then
+        mockMvc.perform(put("/api/stores/{storeId}", store.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+
+    }
+
+    @Test
+    public void deleteStore_shouldReturnSuccessMessage() throws Exception {
+
+        // Then
+        mockMvc.perform(delete("/api/stores/{storeId}", store.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.response").value("Store deleted successfully."));
+
+        // Verify
+        verify(storeService).deleteStore(store.getId().toString());
+
+    }
+
+}
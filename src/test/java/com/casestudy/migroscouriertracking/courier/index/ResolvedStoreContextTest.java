@@ -0,0 +1,97 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link ResolvedStoreContext} class, validating that the resolved store is reused
+ * within a request and looked up again outside of one.
+ */
+class ResolvedStoreContextTest extends AbstractBaseServiceTest {
+
+    @InjectMocks
+    private ResolvedStoreContext resolvedStoreContext;
+
+    @Mock
+    private StoreSpatialIndex storeSpatialIndex;
+
+    private final CatalogStore store = new CatalogStore(UUID.randomUUID(), 1, "Ataşehir MMM Migros", 40.9923307, 29.1244229,
+            LocalDateTime.now().minusDays(1));
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void resolve_shouldLookupOnce_ifSameLocationIsResolvedWithinRequest() {
+
+        // Given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // When
+        when(storeSpatialIndex.findNearestStoreWithinRadius(40.99233, 29.12442, StoreSpatialIndex.STORE_RADIUS_IN_METERS))
+                .thenReturn(Optional.of(store));
+
+        // Then
+        Optional<CatalogStore> first = resolvedStoreContext.resolve(40.99233, 29.12442);
+        Optional<CatalogStore> second = resolvedStoreContext.resolve(40.99233, 29.12442);
+
+        assertSame(first.orElseThrow(), second.orElseThrow());
+
+        // Verify
+        verify(storeSpatialIndex, times(1)).findNearestStoreWithinRadius(40.99233, 29.12442, StoreSpatialIndex.STORE_RADIUS_IN_METERS);
+
+    }
+
+    @Test
+    void resolve_shouldLookupAgain_ifDifferentLocationIsResolvedWithinRequest() {
+
+        // Given
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // When
+        when(storeSpatialIndex.findNearestStoreWithinRadius(40.99233, 29.12442, StoreSpatialIndex.STORE_RADIUS_IN_METERS))
+                .thenReturn(Optional.of(store));
+        when(storeSpatialIndex.findNearestStoreWithinRadius(41.5, 29.5, StoreSpatialIndex.STORE_RADIUS_IN_METERS))
+                .thenReturn(Optional.empty());
+
+        // Then
+        assertEquals(Optional.of(store), resolvedStoreContext.resolve(40.99233, 29.12442));
+        assertEquals(Optional.empty(), resolvedStoreContext.resolve(41.5, 29.5));
+
+    }
+
+    @Test
+    void resolve_shouldLookupEveryTime_ifCalledOutsideRequest() {
+
+        // When
+        when(storeSpatialIndex.findNearestStoreWithinRadius(40.99233, 29.12442, StoreSpatialIndex.STORE_RADIUS_IN_METERS))
+                .thenReturn(Optional.of(store));
+
+        // Then
+        resolvedStoreContext.resolve(40.99233, 29.12442);
+        resolvedStoreContext.resolve(40.99233, 29.12442);
+
+        // Verify
+        verify(storeSpatialIndex, times(2)).findNearestStoreWithinRadius(40.99233, 29.12442, StoreSpatialIndex.STORE_RADIUS_IN_METERS);
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link StoreDictionary} class, validating the resolution of store keys to names
+ * and of names to keys, including deleted and renamed stores.
+ */
+class StoreDictionaryTest {
+
+    @Test
+    void nameOf_shouldResolveKeysOfActiveAndDeletedStores() {
+
+        // Given
+        StoreDictionary storeDictionary = StoreDictionary.of(List.of(
+                store(1, "Ataşehir MMM Migros", false),
+                store(2, "Ortaköy MMM Migros", true)));
+
+        // Then
+        assertEquals("Ataşehir MMM Migros", storeDictionary.nameOf(1));
+        assertEquals("Ortaköy MMM Migros", storeDictionary.nameOf(2));
+        assertNull(storeDictionary.nameOf(3));
+        assertNull(storeDictionary.nameOf(null));
+
+    }
+
+    @Test
+    void keyOf_shouldPreferActiveStore_ifDeletedStoreHadTheSameName() {
+
+        // Given
+        StoreDictionary storeDictionary = StoreDictionary.of(List.of(
+                store(3, "Caddebostan MMM Migros", false),
+                store(1, "Caddebostan MMM Migros", true),
+                store(2, "Novada MMM Migros", true),
+                store(4, "Novada MMM Migros", true)));
+
+        // Then
+        assertEquals(Optional.of(3), storeDictionary.keyOf("Caddebostan MMM Migros"));
+        assertEquals(Optional.of(4), storeDictionary.keyOf("Novada MMM Migros"));
+        assertTrue(storeDictionary.keyOf("Beylikdüzü 5M Migros").isEmpty());
+        assertTrue(storeDictionary.keyOf(null).isEmpty());
+
+    }
+
+    @Test
+    void of_shouldReflectRename_withoutChangingKey() {
+
+        // Given
+        StoreEntity store = store(1, "Ataşehir MMM Migros", false);
+        StoreDictionary before = StoreDictionary.of(List.of(store));
+
+        // When
+        store.setName("Ataşehir 5M Migros");
+        StoreDictionary after = StoreDictionary.of(List.of(store));
+
+        // Then
+        assertEquals("Ataşehir MMM Migros", before.nameOf(1));
+        assertEquals("Ataşehir 5M Migros", after.nameOf(1));
+        assertEquals(Optional.of(1), after.keyOf("Ataşehir 5M Migros"));
+        assertTrue(after.keyOf("Ataşehir MMM Migros").isEmpty());
+
+    }
+
+    private static StoreEntity store(int storeKey, String name, boolean deleted) {
+        return StoreEntity.builder()
+                .storeKey(storeKey)
+                .name(name)
+                .lat(40.9923307)
+                .lng(29.1244229)
+                .deletedAt(deleted ? LocalDateTime.now() : null)
+                .build();
+    }
+
+}
@@ -0,0 +1,321 @@
+package com.casestudy.migroscouriertracking.courier.index;
+
+import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import com.casestudy.migroscouriertracking.courier.cache.CourierQueryResultCache;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
+import com.casestudy.migroscouriertracking.courier.utils.HaversineUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link StoreSpatialIndex} class, validating grid lookups, nearest-store selection
+ * copying stores into immutable snapshots and rebuilding after stores change before other listeners of the change run.
+ */
+class StoreSpatialIndexTest extends AbstractBaseServiceTest {
+
+    @InjectMocks
+    private StoreSpatialIndex storeSpatialIndex;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Test
+    void findNearestStoreWithinRadius_shouldReturnStore_ifLocationIsWithinRadius() {
+
+        // Given
+        StoreEntity store = store("Ataşehir MMM Migros", 40.9923307, 29.1244229);
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of(store, store("Ortaköy MMM Migros", 41.055783, 29.0210292)));
+
+        // Then
+        Optional<CatalogStore> result = storeSpatialIndex.findNearestStoreWithinRadius(40.9923500, 29.1244500, StoreSpatialIndex.STORE_RADIUS_IN_METERS);
+
+        assertTrue(result.isPresent());
+        assertEquals(store.getName(), result.get().name());
+
+    }
+
+    @Test
+    void findNearestStoreWithinRadius_shouldReturnEmpty_ifLocationIsOutsideRadius() {
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of(store("Ataşehir MMM Migros", 40.9923307, 29.1244229)));
+
+        // Then
+        Optional<CatalogStore> result = storeSpatialIndex.findNearestStoreWithinRadius(40.9940, 29.1244229, StoreSpatialIndex.STORE_RADIUS_IN_METERS);
+
+        assertTrue(result.isEmpty());
+
+    }
+
+    @Test
+    void findNearestStoreWithinRadius_shouldFindStoreInNeighbouringCell() {
+
+        // Given
+        StoreEntity store = store("Cell Border Store", 40.99999, 29.00001);
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of(store));
+
+        // Then
+        Optional<CatalogStore> result = storeSpatialIndex.findNearestStoreWithinRadius(41.00001, 28.99999, StoreSpatialIndex.STORE_RADIUS_IN_METERS);
+
+        assertNotEquals(StoreSpatialIndex.latCellOf(40.99999), StoreSpatialIndex.latCellOf(41.00001));
+        assertTrue(result.isPresent());
+
+    }
+
+    @Test
+    void findNearestStoreWithinRadius_shouldReturnNearestStore_ifSeveralStoresAreWithinRadius() {
+
+        // Given
+        StoreEntity fartherStore = store("Farther Store", 40.9000, 29.0005);
+        StoreEntity nearerStore = store("Nearer Store", 40.9000, 29.0001);
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of(fartherStore, nearerStore));
+
+        // Then
+        Optional<CatalogStore> result = storeSpatialIndex.findNearestStoreWithinRadius(40.9000, 29.0000, StoreSpatialIndex.STORE_RADIUS_IN_METERS);
+
+        assertTrue(result.isPresent());
+        assertEquals(nearerStore.getName(), result.get().name());
+
+    }
+
+    @Test
+    void onStoreChanged_shouldRebuildIndexOnNextLookup() {
+
+        // Given
+        StoreEntity store = store("New Store", 40.9000, 29.0000);
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of());
+        storeSpatialIndex.refresh();
+        assertTrue(storeSpatialIndex.isEmpty());
+
+        when(storeRepository.findAll()).thenReturn(List.of(store));
+        storeSpatialIndex.onStoreChanged(new StoreChangedEvent(store.getId()));
+
+        // Then
+        assertFalse(storeSpatialIndex.isEmpty());
+        assertTrue(storeSpatialIndex.findNearestStoreWithinRadius(40.9000, 29.0000, StoreSpatialIndex.STORE_RADIUS_IN_METERS).isPresent());
+
+        // Verify
+        verify(storeRepository, times(2)).findAll();
+
+    }
+
+    @Test
+    void onStoreChanged_shouldRunBeforeQueryResultCacheIsInvalidated() throws Exception {
+
+        // When
+        Order indexOrder = AnnotationUtils.findAnnotation(
+                StoreSpatialIndex.class.getMethod("onStoreChanged", StoreChangedEvent.class), Order.class);
+        Order cacheOrder = AnnotationUtils.findAnnotation(
+                CourierQueryResultCache.class.getMethod("onStoreChanged", StoreChangedEvent.class), Order.class);
+
+        // Then
+        assertNotNull(indexOrder);
+        assertNotNull(cacheOrder);
+        assertTrue(indexOrder.value() < cacheOrder.value());
+
+    }
+
+    @Test
+    void refresh_shouldPublishNewSnapshotVersion() {
+
+        // Given
+        StoreEntity store = store("New Store", 40.9000, 29.0000);
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of());
+        storeSpatialIndex.refresh();
+        StoreCatalog before = storeSpatialIndex.catalog();
+
+        when(storeRepository.findAll()).thenReturn(List.of(store));
+        storeSpatialIndex.refresh();
+        StoreCatalog after = storeSpatialIndex.catalog();
+
+        // Then
+        assertEquals(before.version() + 1, after.version());
+        assertTrue(before.stores().isEmpty());
+        assertEquals(List.of(CatalogStore.of(store)), after.stores());
+        assertEquals(Optional.of(CatalogStore.of(store)), storeSpatialIndex.findById(store.getId()));
+        assertThrows(UnsupportedOperationException.class, () -> after.stores().add(CatalogStore.of(store)));
+
+    }
+
+    @Test
+    void refresh_shouldCopyStores_soChangesToTheEntitiesDoNotReachTheSnapshot() {
+
+        // Given
+        StoreEntity store = store("Ataşehir MMM Migros", 40.9923307, 29.1244229);
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of(store));
+        storeSpatialIndex.refresh();
+        store.setName("Renamed Store");
+        store.setLat(41.055783);
+
+        // Then
+        CatalogStore indexed = storeSpatialIndex.findById(store.getId()).orElseThrow();
+
+        assertEquals("Ataşehir MMM Migros", indexed.name());
+        assertEquals(40.9923307, indexed.lat());
+        assertTrue(storeSpatialIndex.findNearestStoreWithinRadius(40.9923307, 29.1244229, StoreSpatialIndex.STORE_RADIUS_IN_METERS).isPresent());
+
+    }
+
+    @Test
+    void findNearestStoreWithinRadius_shouldUsePreviousSnapshot_whileNextOneIsBuilt() throws Exception {
+
+        // Given
+        StoreEntity oldStore = store("Old Store", 40.9000, 29.0000);
+        StoreEntity newStore = store("New Store", 41.0000, 29.1000);
+        CountDownLatch rebuildStarted = new CountDownLatch(1);
+        CountDownLatch finishRebuild = new CountDownLatch(1);
+
+        when(storeRepository.findAll()).thenReturn(List.of(oldStore));
+        storeSpatialIndex.refresh();
+
+        // When
+        when(storeRepository.findAll()).thenAnswer(invocation -> {
+            rebuildStarted.countDown();
+            finishRebuild.await();
+            return List.of(newStore);
+        });
+        Thread writer = Thread.ofPlatform().start(() -> storeSpatialIndex.onStoreChanged(new StoreChangedEvent(newStore.getId())));
+        assertTrue(rebuildStarted.await(5, TimeUnit.SECONDS));
+
+        // Then
+        assertTrue(storeSpatialIndex.findNearestStoreWithinRadius(40.9000, 29.0000, StoreSpatialIndex.STORE_RADIUS_IN_METERS).isPresent());
+
+        finishRebuild.countDown();
+        writer.join();
+
+        assertTrue(storeSpatialIndex.findNearestStoreWithinRadius(40.9000, 29.0000, StoreSpatialIndex.STORE_RADIUS_IN_METERS).isEmpty());
+        assertTrue(storeSpatialIndex.findNearestStoreWithinRadius(41.0000, 29.1000, StoreSpatialIndex.STORE_RADIUS_IN_METERS).isPresent());
+
+    }
+
+    @Test
+    void findNearestStores_shouldMatchBruteForceRanking() {
+
+        // Given
+        Random random = new Random(42L);
+        List<StoreEntity> stores = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            stores.add(store("Store " + i, 40.80 + random.nextDouble() * 0.40, 28.60 + random.nextDouble() * 0.80));
+        }
+        double[][] locations = {{40.9923, 29.1244}, {41.0000, 29.0000}, {40.5000, 28.0000}, {-33.8688, 151.2093}};
+
+        // When
+        when(storeRepository.findAll()).thenReturn(stores);
+
+        // Then
+        for (double[] location : locations) {
+            for (int k : new int[]{1, 5, 50}) {
+                List<NearestStore> nearestStores = storeSpatialIndex.findNearestStores(location[0], location[1], k);
+                List<StoreEntity> expected = stores.stream()
+                        .sorted(Comparator.comparingDouble(store ->
+                                HaversineUtils.distanceInMeters(location[0], location[1], store.getLat(), store.getLng())))
+                        .limit(k)
+                        .toList();
+
+                assertEquals(expected.stream().map(CatalogStore::of).toList(), nearestStores.stream().map(NearestStore::store).toList());
+                assertEquals(HaversineUtils.distanceInMeters(location[0], location[1], expected.get(0).getLat(), expected.get(0).getLng()),
+                        nearestStores.get(0).distanceInMeters(), 1e-6);
+            }
+        }
+
+    }
+
+    @Test
+    void findNearestStores_shouldSearchAcrossAntimeridian() {
+
+        // Given
+        StoreEntity eastStore = store("East Store", 10.0, 179.9995);
+        StoreEntity westStore = store("West Store", 10.0, -179.9000);
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of(westStore, eastStore,
+                store("Store A", 0.0, 0.0), store("Store B", 1.0, 1.0), store("Store C", 2.0, 2.0)));
+
+        // Then
+        List<NearestStore> nearestStores = storeSpatialIndex.findNearestStores(10.0, -179.9995, 2);
+
+        assertEquals(List.of(CatalogStore.of(eastStore), CatalogStore.of(westStore)), nearestStores.stream().map(NearestStore::store).toList());
+
+    }
+
+    @Test
+    void findNearestStores_shouldReturnAllStoresSorted_ifKExceedsStoreCount() {
+
+        // Given
+        StoreEntity nearerStore = store("Nearer Store", 40.9000, 29.0001);
+        StoreEntity fartherStore = store("Farther Store", 40.9000, 29.0500);
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of(fartherStore, nearerStore));
+
+        // Then
+        assertEquals(List.of(CatalogStore.of(nearerStore), CatalogStore.of(fartherStore)),
+                storeSpatialIndex.findNearestStores(40.9000, 29.0000, 10).stream().map(NearestStore::store).toList());
+        assertTrue(storeSpatialIndex.findNearestStores(40.9000, 29.0000, 0).isEmpty());
+
+    }
+
+    @Test
+    void refresh_shouldLeaveDeletedStoresOutOfCatalogButKeepThemInDictionary() {
+
+        // Given
+        StoreEntity store = store("Ataşehir MMM Migros", 40.9923307, 29.1244229);
+        store.setStoreKey(1);
+        StoreEntity deletedStore = store("Ortaköy MMM Migros", 41.055783, 29.0210292);
+        deletedStore.setStoreKey(2);
+        deletedStore.setDeletedAt(LocalDateTime.now());
+
+        // When
+        when(storeRepository.findAll()).thenReturn(List.of(store, deletedStore));
+
+        // Then
+        assertEquals(List.of(CatalogStore.of(store)), storeSpatialIndex.catalog().stores());
+        assertTrue(storeSpatialIndex.findById(deletedStore.getId()).isEmpty());
+        assertTrue(storeSpatialIndex.findNearestStoreWithinRadius(41.055783, 29.0210292, StoreSpatialIndex.STORE_RADIUS_IN_METERS).isEmpty());
+        assertEquals("Ortaköy MMM Migros", storeSpatialIndex.dictionary().nameOf(2));
+        assertEquals(Optional.of(1), storeSpatialIndex.dictionary().keyOf("Ataşehir MMM Migros"));
+
+    }
+
+    private StoreEntity store(String name, double lat, double lng) {
+        return StoreEntity.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .lat(lat)
+                .lng(lng)
+                .createdAt(LocalDateTime.now().minusDays(1))
+                .build();
+    }
+
+}
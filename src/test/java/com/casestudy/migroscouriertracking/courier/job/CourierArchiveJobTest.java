@@ -0,0 +1,109 @@
+package com.casestudy.migroscouriertracking.courier.job;
+
+import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import com.casestudy.migroscouriertracking.courier.archive.CourierArchive;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link CourierArchiveJob} class, validating that locations are archived before they are deleted
+ * and that a failed courier keeps its locations in the database.
+ */
+class CourierArchiveJobTest extends AbstractBaseServiceTest {
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private CourierArchive courierArchive;
+
+    private CourierArchiveJob courierArchiveJob;
+
+    private final LocalDateTime cutoff = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        courierArchiveJob = new CourierArchiveJob(courierRepository, courierArchive,
+                TransactionOperations.withoutTransaction(), Duration.ofDays(90));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void archive_shouldAppendTravelsToArchiveAndThenDeleteThemById() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        List<CourierEntity> travels = List.of(travel(courierId, cutoff.minusDays(2)), travel(courierId, cutoff.minusDays(1)));
+
+        // When
+        when(courierRepository.findDistinctCourierIdsByTimestampBefore(cutoff)).thenReturn(List.of(courierId));
+        when(courierRepository.findByCourierIdAndTimestampBeforeOrderByTimestampAsc(courierId, cutoff)).thenReturn(travels);
+
+        courierArchiveJob.archive(cutoff);
+
+        // Verify
+        ArgumentCaptor<List<CourierEntity>> archived = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(courierArchive, courierRepository);
+        inOrder.verify(courierArchive).append(eq(courierId), archived.capture());
+        inOrder.verify(courierRepository).deleteAllByIdInBatch(List.of(travels.get(0).getId(), travels.get(1).getId()));
+        assertEquals(travels, archived.getValue());
+
+    }
+
+    @Test
+    void archive_shouldKeepTravelsInDatabase_ifArchivingFailsAndContinueWithNextCourier() {
+
+        // Given
+        String failingCourierId = UUID.randomUUID().toString();
+        String courierId = UUID.randomUUID().toString();
+        CourierEntity travel = travel(courierId, cutoff.minusDays(1));
+
+        // When
+        when(courierRepository.findDistinctCourierIdsByTimestampBefore(cutoff)).thenReturn(List.of(failingCourierId, courierId));
+        when(courierRepository.findByCourierIdAndTimestampBeforeOrderByTimestampAsc(failingCourierId, cutoff))
+                .thenReturn(List.of(travel(failingCourierId, cutoff.minusDays(1))));
+        when(courierRepository.findByCourierIdAndTimestampBeforeOrderByTimestampAsc(courierId, cutoff)).thenReturn(List.of(travel));
+        doThrow(new IllegalStateException("disk full")).when(courierArchive).append(eq(failingCourierId), anyList());
+
+        courierArchiveJob.archive(cutoff);
+
+        // Verify
+        verify(courierRepository).deleteAllByIdInBatch(List.of(travel.getId()));
+        verify(courierRepository, never()).deleteAllByIdInBatch(List.of());
+        verify(courierArchive).append(eq(courierId), any());
+
+    }
+
+    private CourierEntity travel(String courierId, LocalDateTime timestamp) {
+        return CourierEntity.builder()
+                .id(UUID.randomUUID())
+                .courierId(courierId)
+                .lat(40.9923307)
+                .lng(29.1244229)
+                .storeKey(1)
+                .timestamp(timestamp)
+                .build();
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.casestudy.migroscouriertracking.courier.job;
+
+import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import com.casestudy.migroscouriertracking.courier.model.CourierPartition;
+import com.casestudy.migroscouriertracking.courier.repository.CourierPartitionRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link CourierPartitionMaintenanceJob} class, validating which monthly partitions
+ * are created ahead of time, that a future partition holding rows is not split, which expired ones are dropped
+ * or archived and that the segment archive owns retention while it is enabled.
+ */
+class CourierPartitionMaintenanceJobTest extends AbstractBaseServiceTest {
+
+    @Mock
+    private CourierPartitionRepository courierPartitionRepository;
+
+    private final LocalDate today = LocalDate.of(2024, 6, 15);
+
+    @Test
+    void maintain_shouldAddMonthlyPartitionsUpToPremakeWindow() {
+
+        // Given
+        CourierPartitionMaintenanceJob job = new CourierPartitionMaintenanceJob(courierPartitionRepository, 2, 0, false, false, Duration.ofDays(90));
+
+        // When
+        when(courierPartitionRepository.findPartitions()).thenReturn(List.of(
+                partition("p_history", LocalDateTime.of(2024, 1, 1, 0, 0)),
+                partition("p202401", LocalDateTime.of(2024, 2, 1, 0, 0)),
+                partition("p202402", LocalDateTime.of(2024, 3, 1, 0, 0)),
+                partition("p202403", LocalDateTime.of(2024, 4, 1, 0, 0)),
+                partition("p202404", LocalDateTime.of(2024, 5, 1, 0, 0)),
+                partition("p202405", LocalDateTime.of(2024, 6, 1, 0, 0)),
+                partition("p202406", LocalDateTime.of(2024, 7, 1, 0, 0)),
+                partition(CourierPartitionRepository.FUTURE_PARTITION, null)));
+        when(courierPartitionRepository.isPartitionEmpty(CourierPartitionRepository.FUTURE_PARTITION)).thenReturn(true);
+
+        job.maintain(today);
+
+        // Verify
+        verify(courierPartitionRepository).addPartitions(List.of(
+                partition("p202407", LocalDateTime.of(2024, 8, 1, 0, 0)),
+                partition("p202408", LocalDateTime.of(2024, 9, 1, 0, 0))));
+        verify(courierPartitionRepository, never()).dropPartitions(anyList());
+
+    }
+
+    @Test
+    void maintain_shouldNotSplitFuturePartition_ifItHoldsRows() {
+
+        // Given
+        CourierPartitionMaintenanceJob job = new CourierPartitionMaintenanceJob(courierPartitionRepository, 2, 0, false, false, Duration.ofDays(90));
+
+        // When
+        when(courierPartitionRepository.findPartitions()).thenReturn(List.of(
+                partition("p_history", LocalDateTime.of(2024, 1, 1, 0, 0)),
+                partition(CourierPartitionRepository.FUTURE_PARTITION, null)));
+        when(courierPartitionRepository.isPartitionEmpty(CourierPartitionRepository.FUTURE_PARTITION)).thenReturn(false);
+
+        job.maintain(today);
+
+        // Verify
+        verify(courierPartitionRepository, never()).addPartitions(anyList());
+
+    }
+
+    @Test
+    void maintain_shouldNotAddPartitions_ifWindowIsAlreadyCovered() {
+
+        // Given
+        CourierPartitionMaintenanceJob job = new CourierPartitionMaintenanceJob(courierPartitionRepository, 1, 0, false, false, Duration.ofDays(90));
+
+        // When
+        when(courierPartitionRepository.findPartitions()).thenReturn(List.of(
+                partition("p202406", LocalDateTime.of(2024, 7, 1, 0, 0)),
+                partition("p202407", LocalDateTime.of(2024, 8, 1, 0, 0)),
+                partition(CourierPartitionRepository.FUTURE_PARTITION, null)));
+
+        job.maintain(today);
+
+        // Verify
+        verify(courierPartitionRepository, never()).addPartitions(anyList());
+
+    }
+
+    @Test
+    void maintain_shouldDropPartitionsPastRetention() {
+
+        // Given
+        CourierPartitionMaintenanceJob job = new CourierPartitionMaintenanceJob(courierPartitionRepository, 0, 3, false, false, Duration.ofDays(90));
+
+        // When
+        when(courierPartitionRepository.findPartitions()).thenReturn(List.of(
+                partition("p_history", LocalDateTime.of(2024, 1, 1, 0, 0)),
+                partition("p202401", LocalDateTime.of(2024, 2, 1, 0, 0)),
+                partition("p202402", LocalDateTime.of(2024, 3, 1, 0, 0)),
+                partition("p202403", LocalDateTime.of(2024, 4, 1, 0, 0)),
+                partition("p202404", LocalDateTime.of(2024, 5, 1, 0, 0)),
+                partition("p202405", LocalDateTime.of(2024, 6, 1, 0, 0)),
+                partition("p202406", LocalDateTime.of(2024, 7, 1, 0, 0)),
+                partition(CourierPartitionRepository.FUTURE_PARTITION, null)));
+
+        job.maintain(today);
+
+        // Verify
+        verify(courierPartitionRepository).dropPartitions(List.of("p_history", "p202401", "p202402"));
+        verify(courierPartitionRepository, never()).archivePartition(any());
+
+    }
+
+    @Test
+    void maintain_shouldArchiveExpiredPartitions_ifArchivingIsEnabled() {
+
+        // Given
+        CourierPartitionMaintenanceJob job = new CourierPartitionMaintenanceJob(courierPartitionRepository, 0, 1, true, false, Duration.ofDays(90));
+
+        // When
+        when(courierPartitionRepository.findPartitions()).thenReturn(List.of(
+                partition("p202404", LocalDateTime.of(2024, 5, 1, 0, 0)),
+                partition("p202405", LocalDateTime.of(2024, 6, 1, 0, 0)),
+                partition("p202406", LocalDateTime.of(2024, 7, 1, 0, 0)),
+                partition(CourierPartitionRepository.FUTURE_PARTITION, null)));
+        when(courierPartitionRepository.archivePartition("p202404")).thenReturn("couriers_archive_p202404");
+
+        job.maintain(today);
+
+        // Verify
+        verify(courierPartitionRepository).archivePartition("p202404");
+        verify(courierPartitionRepository, never()).archivePartition("p202405");
+        verify(courierPartitionRepository, never()).dropPartitions(anyList());
+
+    }
+
+    @Test
+    void maintain_shouldOnlyDropArchivedPartitions_ifSegmentArchiveIsEnabled() {
+
+        // Given
+        CourierPartitionMaintenanceJob job = new CourierPartitionMaintenanceJob(courierPartitionRepository, 0, 4, false, true, Duration.ofDays(90));
+
+        // When
+        when(courierPartitionRepository.findPartitions()).thenReturn(List.of(
+                partition("p_history", LocalDateTime.of(2024, 1, 1, 0, 0)),
+                partition("p202401", LocalDateTime.of(2024, 2, 1, 0, 0)),
+                partition("p202402", LocalDateTime.of(2024, 3, 1, 0, 0)),
+                partition("p202406", LocalDateTime.of(2024, 7, 1, 0, 0)),
+                partition(CourierPartitionRepository.FUTURE_PARTITION, null)));
+        when(courierPartitionRepository.isPartitionEmpty("p_history")).thenReturn(true);
+        when(courierPartitionRepository.isPartitionEmpty("p202401")).thenReturn(false);
+
+        job.maintain(today);
+
+        // Verify
+        verify(courierPartitionRepository).dropPartitions(List.of("p_history"));
+        verify(courierPartitionRepository, never()).isPartitionEmpty("p202402");
+
+    }
+
+    @Test
+    void constructor_shouldThrowIllegalStateException_ifRetentionIsShorterThanSegmentArchiveMaxAge() {
+
+        // Then
+        assertThrows(IllegalStateException.class,
+                () -> new CourierPartitionMaintenanceJob(courierPartitionRepository, 3, 3, false, true, Duration.ofDays(90)));
+        assertDoesNotThrow(() -> new CourierPartitionMaintenanceJob(courierPartitionRepository, 3, 3, false, false, Duration.ofDays(90)));
+        assertDoesNotThrow(() -> new CourierPartitionMaintenanceJob(courierPartitionRepository, 3, 0, false, true, Duration.ofDays(90)));
+
+    }
+
+    @Test
+    void maintain_shouldDoNothing_ifTableIsNotPartitioned() {
+
+        // Given
+        CourierPartitionMaintenanceJob job = new CourierPartitionMaintenanceJob(courierPartitionRepository, 3, 1, false, false, Duration.ofDays(90));
+
+        // When
+        when(courierPartitionRepository.findPartitions()).thenReturn(List.of());
+
+        job.maintain(today);
+
+        // Verify
+        verify(courierPartitionRepository, never()).addPartitions(anyList());
+        verify(courierPartitionRepository, never()).dropPartitions(anyList());
+
+    }
+
+    private CourierPartition partition(String name, LocalDateTime upperBound) {
+        return new CourierPartition(name, upperBound);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.casestudy.migroscouriertracking.courier.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CourierMetrics} class, validating that every meter is registered up front
+ * and that recordings end up on the meter of their tag.
+ */
+class CourierMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CourierMetrics courierMetrics = new CourierMetrics(meterRegistry);
+
+    @Test
+    void constructor_shouldRegisterOneMeterPerTagValue() {
+
+        // Then
+        assertEquals(CourierMetrics.Stage.values().length, meterRegistry.find("courier.ingest.stage").timers().size());
+        assertEquals(CourierMetrics.Rejection.values().length, meterRegistry.find("courier.ingest.rejections").counters().size());
+        assertEquals(CourierMetrics.TravelQuery.values().length, meterRegistry.find("courier.travels.query.rows").summaries().size());
+        assertEquals(CourierMetrics.DistanceComputation.values().length, meterRegistry.find("courier.distance.points").summaries().size());
+
+    }
+
+    @Test
+    void recordStage_shouldRecordElapsedTimeOnTimerOfStage() {
+
+        // Given
+        long startedAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+
+        // When
+        courierMetrics.recordStage(CourierMetrics.Stage.REENTRY_CHECK, startedAt);
+
+        // Then
+        Timer timer = meterRegistry.get("courier.ingest.stage").tag("stage", "reentry_check").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 5);
+        assertEquals(0, meterRegistry.get("courier.ingest.stage").tag("stage", "persistence").timer().count());
+
+    }
+
+    @Test
+    void recordRejection_shouldIncrementCounterOfReason() {
+
+        // When
+        courierMetrics.recordRejection(CourierMetrics.Rejection.FAR_AWAY);
+        courierMetrics.recordRejection(CourierMetrics.Rejection.FAR_AWAY);
+        courierMetrics.recordRejection(CourierMetrics.Rejection.TIMESTAMP_BEFORE_CREATION);
+
+        // Then
+        assertEquals(2.0, meterRegistry.get("courier.ingest.rejections").tag("reason", "far_away").counter().count());
+        assertEquals(1.0, meterRegistry.get("courier.ingest.rejections").tag("reason", "timestamp_before_creation").counter().count());
+        assertEquals(0.0, meterRegistry.get("courier.ingest.rejections").tag("reason", "reentry_too_soon").counter().count());
+
+    }
+
+    @Test
+    void recordTravelQueryRowsAndDistancePoints_shouldRecordOnSummaryOfTag() {
+
+        // When
+        courierMetrics.recordTravelQueryRows(CourierMetrics.TravelQuery.PAGE, 50);
+        courierMetrics.recordDistancePoints(CourierMetrics.DistanceComputation.SUMMARY_REBUILD, 1200);
+
+        // Then
+        DistributionSummary rows = meterRegistry.get("courier.travels.query.rows").tag("query", "page").summary();
+        assertEquals(1, rows.count());
+        assertEquals(50.0, rows.totalAmount());
+
+        DistributionSummary points = meterRegistry.get("courier.distance.points").tag("operation", "summary_rebuild").summary();
+        assertNotNull(points);
+        assertEquals(1200.0, points.max());
+
+    }
+
+}
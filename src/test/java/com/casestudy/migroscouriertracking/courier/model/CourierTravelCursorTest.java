@@ -0,0 +1,94 @@
+package com.casestudy.migroscouriertracking.courier.model;
+
+import com.casestudy.migroscouriertracking.courier.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CourierTravelCursor} class, validating that cursors survive encoding
+ * and that malformed tokens are rejected.
+ */
+class CourierTravelCursorTest {
+
+    @Test
+    void decode_shouldReturnEncodedCursor() {
+
+        // Given
+        CourierTravelCursor cursor = new CourierTravelCursor(LocalDateTime.of(2024, 6, 1, 12, 30, 15, 123_000_000),
+                UUID.randomUUID());
+
+        // When
+        String token = cursor.encode();
+
+        // Then
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor, CourierTravelCursor.decode(token));
+
+    }
+
+    @Test
+    void decode_shouldKeepWhetherCursorPointsIntoArchive() {
+
+        // Given
+        CourierTravelCursor cursor = new CourierTravelCursor(true, LocalDateTime.of(2024, 6, 1, 12, 30), UUID.randomUUID());
+
+        // When
+        CourierTravelCursor decoded = CourierTravelCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, decoded);
+        assertTrue(decoded.archived());
+        assertFalse(CourierTravelCursor.decode(new CourierTravelCursor(cursor.timestamp(), cursor.id()).encode()).archived());
+
+    }
+
+    @Test
+    void decode_shouldThrowInvalidCursorException_ifTokenIsNotBase64() {
+
+        // Then
+        assertThrows(InvalidCursorException.class, () -> CourierTravelCursor.decode("not a cursor"));
+
+    }
+
+    @Test
+    void decode_shouldThrowInvalidCursorException_ifTimestampIsMalformed() {
+
+        // Given
+        String token = Base64.getUrlEncoder().encodeToString("yesterday|abc".getBytes());
+
+        // Then
+        assertThrows(InvalidCursorException.class, () -> CourierTravelCursor.decode(token));
+
+    }
+
+    @Test
+    void decode_shouldThrowInvalidCursorException_ifIdIsMissing() {
+
+        // Given
+        String token = Base64.getUrlEncoder().encodeToString("2024-06-01T12:30|".getBytes());
+
+        // Then
+        assertThrows(InvalidCursorException.class, () -> CourierTravelCursor.decode(token));
+
+    }
+
+    @Test
+    void decode_shouldThrowInvalidCursorException_ifIdIsNotUuid() {
+
+        // Given
+        String token = Base64.getUrlEncoder().encodeToString("2024-06-01T12:30|abc".getBytes());
+
+        // Then
+        assertThrows(InvalidCursorException.class, () -> CourierTravelCursor.decode(token));
+
+    }
+
+}
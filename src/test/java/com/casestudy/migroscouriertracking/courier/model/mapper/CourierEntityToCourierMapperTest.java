@@ -1,7 +1,9 @@
 package com.casestudy.migroscouriertracking.courier.model.mapper;
 
+import com.casestudy.migroscouriertracking.courier.index.StoreDictionary;
 import com.casestudy.migroscouriertracking.courier.model.Courier;
 import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
@@ -18,25 +20,20 @@ class CourierEntityToCourierMapperTest {
 
     private final CourierEntityToCourierMapper mapper = CourierEntityToCourierMapper.initialize();
 
-    @Test
-    void testMapCourierEntityCollectionNull() {
-
-        List<Courier> result = mapper.map((Collection<CourierEntity>) null);
-        assertNull(result);
-
-    }
+    private final StoreDictionary storeDictionary = StoreDictionary.of(List.of(
+            StoreEntity.builder().storeKey(7).name("Migros").build()));
 
     @Test
     void testMapCourierEntityListNull() {
 
-        List<Courier> result = mapper.map((List<CourierEntity>) null);
+        List<Courier> result = mapper.map((List<CourierEntity>) null, storeDictionary);
         assertNull(result);
     }
 
     @Test
     void testMapCourierEntityListEmpty() {
 
-        List<Courier> result = mapper.map(Collections.emptyList());
+        List<Courier> result = mapper.map(Collections.emptyList(), storeDictionary);
         assertNotNull(result);
         assertTrue(result.isEmpty());
 
@@ -47,7 +44,7 @@ class CourierEntityToCourierMapperTest {
     void testMapCourierEntityListWithNullElements() {
 
         List<CourierEntity> courierEntities = Arrays.asList(new CourierEntity(), null);
-        List<Courier> result = mapper.map(courierEntities);
+        List<Courier> result = mapper.map(courierEntities, storeDictionary);
         assertNotNull(result);
         assertEquals(2, result.size());
         assertNull(result.get(1));
@@ -59,22 +56,22 @@ class CourierEntityToCourierMapperTest {
     void testMapSingleCourierEntity() {
 
         CourierEntity courierEntity = CourierEntity.builder()
-                .id(UUID.randomUUID().toString())
+                .id(UUID.randomUUID())
                 .courierId(UUID.randomUUID().toString())
                 .lat(47.0)
                 .lng(8.0)
-                .storeName("Migros")
+                .storeKey(7)
                 .timestamp(LocalDateTime.now())
                 .build();
 
-        Courier result = mapper.map(courierEntity);
+        Courier result = mapper.map(courierEntity, storeDictionary);
 
         assertNotNull(result);
-        assertEquals(courierEntity.getId(), result.getId());
+        assertEquals(courierEntity.getId().toString(), result.getId());
         assertEquals(courierEntity.getCourierId(), result.getCourierId());
         assertEquals(courierEntity.getLat(), result.getLat());
         assertEquals(courierEntity.getLng(), result.getLng());
-        assertEquals(courierEntity.getStoreName(), result.getStoreName());
+        assertEquals("Migros", result.getStoreName());
         assertEquals(courierEntity.getTimestamp(), result.getTimestamp());
 
     }
@@ -88,11 +85,12 @@ class CourierEntityToCourierMapperTest {
                 .timestamp(LocalDateTime.of(2024, 9, 29, 16, 30))
                 .build();
 
-        Courier result = mapper.map(courierEntity);
+        Courier result = mapper.map(courierEntity, storeDictionary);
 
         assertNotNull(result);
         assertEquals(Double.MAX_VALUE, result.getLat());
         assertEquals(Double.MIN_VALUE, result.getLng());
+        assertNull(result.getStoreName());
         assertEquals(LocalDateTime.of(2024, 9, 29, 16, 30), result.getTimestamp());
 
     }
@@ -0,0 +1,164 @@
+package com.casestudy.migroscouriertracking.courier.repository;
+
+import com.casestudy.migroscouriertracking.base.AbstractTestContainerConfiguration;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests that run {@code EXPLAIN} against the migrated MySQL schema and fail if the courier lookups
+ * issued by {@link CourierRepository} fall back to full table scans or sort their results in memory,
+ * or read more monthly partitions than their time range covers.
+ */
+@SpringBootTest
+class CourierQueryPlanTest extends AbstractTestContainerConfiguration {
+
+    private static final int COURIER_COUNT = 20;
+    private static final int LOCATIONS_PER_COURIER = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CourierRepository courierRepository;
+
+    private final List<String> courierIds = new ArrayList<>();
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 6, 1, 8, 0);
+
+    @BeforeEach
+    void setUp() {
+        List<CourierEntity> couriers = new ArrayList<>();
+        for (int courier = 0; courier < COURIER_COUNT; courier++) {
+            String courierId = UUID.randomUUID().toString();
+            courierIds.add(courierId);
+            for (int location = 0; location < LOCATIONS_PER_COURIER; location++) {
+                couriers.add(CourierEntity.builder()
+                        .courierId(courierId)
+                        .lat(40.9923307)
+                        .lng(29.1244229)
+                        .storeKey(location % 5)
+                        .timestamp(start.plusMinutes(2L * location))
+                        .build());
+            }
+        }
+        courierRepository.batchInsert(couriers);
+        jdbcTemplate.execute("ANALYZE TABLE couriers");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM couriers");
+    }
+
+    @Test
+    void findByCourierIdAndStoreKeyAndTimestampBetweenOrderByTimestampDesc_shouldUseCourierStoreTimestampIndex() {
+
+        // When
+        Map<String, Object> plan = explain(
+                "SELECT * FROM couriers WHERE courier_id = ? AND store_key = ? AND timestamp BETWEEN ? AND ? ORDER BY timestamp DESC",
+                courierIds.get(0), 1, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)));
+
+        // Then
+        assertNotEquals("ALL", plan.get("type"));
+        assertEquals("idx_couriers_courier_id_store_key_timestamp", plan.get("key"));
+        assertFalse(String.valueOf(plan.get("Extra")).contains("filesort"));
+
+    }
+
+    @Test
+    void findLastTimestampByCourierIdAndStoreKeyAndTimestampBetween_shouldBeServedFromIndexOnly() {
+
+        // When
+        Map<String, Object> plan = explain(
+                "SELECT timestamp FROM couriers WHERE courier_id = ? AND store_key = ? AND timestamp BETWEEN ? AND ? " +
+                        "ORDER BY timestamp DESC LIMIT 1",
+                courierIds.get(0), 1, Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(1)));
+
+        // Then
+        assertNotEquals("ALL", plan.get("type"));
+        assertEquals("idx_couriers_courier_id_store_key_timestamp", plan.get("key"));
+        assertTrue(String.valueOf(plan.get("Extra")).contains("Using index"));
+        assertFalse(String.valueOf(plan.get("Extra")).contains("filesort"));
+
+    }
+
+    @Test
+    void findLastTimestampByCourierIdAndStoreKey_shouldBeServedFromIndexOnly() {
+
+        // When
+        Map<String, Object> plan = explain(
+                "SELECT timestamp FROM couriers WHERE courier_id = ? AND store_key = ? ORDER BY timestamp DESC LIMIT 1",
+                courierIds.get(0), 1);
+
+        // Then
+        assertEquals("ref", plan.get("type"));
+        assertEquals("idx_couriers_courier_id_store_key_timestamp", plan.get("key"));
+        assertTrue(String.valueOf(plan.get("Extra")).contains("Using index"));
+        assertFalse(String.valueOf(plan.get("Extra")).contains("filesort"));
+
+    }
+
+    @Test
+    void findByCourierIdOrderByTimestampAsc_shouldUseCourierTimestampIndex() {
+
+        // When
+        Map<String, Object> plan = explain(
+                "SELECT * FROM couriers WHERE courier_id = ? ORDER BY timestamp ASC",
+                courierIds.get(0));
+
+        // Then
+        assertNotEquals("ALL", plan.get("type"));
+        assertEquals("idx_couriers_courier_id_timestamp", plan.get("key"));
+        assertFalse(String.valueOf(plan.get("Extra")).contains("filesort"));
+
+    }
+
+    @Test
+    void findByCourierId_shouldNotScanWholeTable() {
+
+        // When
+        Map<String, Object> plan = explain("SELECT * FROM couriers WHERE courier_id = ?", courierIds.get(0));
+
+        // Then
+        assertNotEquals("ALL", plan.get("type"));
+        assertEquals("ref", plan.get("type"));
+
+    }
+
+    @Test
+    void findByCourierIdAndStoreKeyAndTimestampBetweenOrderByTimestampDesc_shouldOnlyReadPartitionOfTheMonth() {
+
+        // When
+        Map<String, Object> plan = explain(
+                "SELECT * FROM couriers WHERE courier_id = ? AND store_key = ? AND timestamp BETWEEN ? AND ? ORDER BY timestamp DESC",
+                courierIds.get(0), 1, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)));
+
+        // Then
+        assertEquals("p202406", plan.get("partitions"));
+
+    }
+
+    private Map<String, Object> explain(String sql, Object... args) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+
+}
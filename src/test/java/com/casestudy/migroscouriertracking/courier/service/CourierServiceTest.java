@@ -1,30 +1,71 @@
 package com.casestudy.migroscouriertracking.courier.service;
 
 import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import com.casestudy.migroscouriertracking.courier.archive.CourierArchive;
+import com.casestudy.migroscouriertracking.courier.cache.CourierQueryResultCache;
+import com.casestudy.migroscouriertracking.courier.cache.LastVisitCache;
+import com.casestudy.migroscouriertracking.courier.cache.PingDeduplicationWindow;
+import com.casestudy.migroscouriertracking.courier.exception.CourierNotFoundException;
+import com.casestudy.migroscouriertracking.courier.exception.InvalidCursorException;
 import com.casestudy.migroscouriertracking.courier.exception.StoreFarAwayException;
+import com.casestudy.migroscouriertracking.courier.exception.StoreNotFoundException;
 import com.casestudy.migroscouriertracking.courier.exception.StoreReentryTooSoonException;
 import com.casestudy.migroscouriertracking.courier.exception.TimestampBeforeStoreCreateException;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.NearestStore;
+import com.casestudy.migroscouriertracking.courier.index.ResolvedStoreContext;
+import com.casestudy.migroscouriertracking.courier.index.StoreDictionary;
+import com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex;
+import com.casestudy.migroscouriertracking.courier.metrics.CourierMetrics;
 import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.CourierTravelCursor;
+import com.casestudy.migroscouriertracking.courier.model.CourierTravelPage;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.DistanceRangeQueryRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.LogCourierLocationRequest;
 import com.casestudy.migroscouriertracking.courier.model.dto.request.TravelQueryRequest;
+import com.casestudy.migroscouriertracking.courier.model.dto.response.LogCourierLocationResponse;
 import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
 import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
 import com.casestudy.migroscouriertracking.courier.model.enums.DistanceType;
 import com.casestudy.migroscouriertracking.courier.model.mapper.CourierEntityToCourierMapper;
 import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
-import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
 import com.casestudy.migroscouriertracking.courier.utils.DistanceUtils;
+import com.casestudy.migroscouriertracking.courier.writebehind.CourierLocationWriteBehindQueue;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,10 +82,45 @@ class CourierServiceTest extends AbstractBaseServiceTest {
     private CourierRepository courierRepository;
 
     @Mock
-    private StoreRepository storeRepository;
+    private StoreSpatialIndex storeSpatialIndex;
+
+    @Mock
+    private ResolvedStoreContext resolvedStoreContext;
+
+    @Mock
+    private LastVisitCache lastVisitCache;
+
+    @Mock
+    private PingDeduplicationWindow pingDeduplicationWindow;
+
+    @Spy
+    private CourierQueryResultCache courierQueryResultCache = new CourierQueryResultCache(true, 1000, Duration.ofMinutes(1));
+
+    @Mock
+    private CourierTravelSummaryService courierTravelSummaryService;
+
+    @Mock
+    private CourierLocationWriteBehindQueue courierLocationWriteBehindQueue;
+
+    @Mock
+    private CourierArchive courierArchive;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private CourierMetrics courierMetrics;
 
     private final CourierEntityToCourierMapper courierEntityToCourierMapper = CourierEntityToCourierMapper.initialize();
 
+    private final StoreDictionary storeDictionary = StoreDictionary.of(List.of(
+            StoreEntity.builder().storeKey(1).name("store1").build()));
+
+    @BeforeEach
+    void setUp() {
+        when(storeSpatialIndex.dictionary()).thenReturn(storeDictionary);
+        when(courierArchive.notArchivedFilter(any())).thenReturn(travel -> true);
+    }
 
     @Test
     void logCourierLocation_shouldSaveCourierLocation_ifWithinRadiusAndTimestampValid() {
@@ -63,31 +139,79 @@ class CourierServiceTest extends AbstractBaseServiceTest {
                 .build();
 
         StoreEntity store = StoreEntity.builder()
-                .id(UUID.randomUUID().toString())
+                .id(UUID.randomUUID())
+                .storeKey(1)
                 .name("store1")
                 .lat(37.7750)
                 .lng(-122.4183)
                 .createdAt(LocalDateTime.now().minusMinutes(10))
                 .build();
 
-        CourierEntity courierEntity = CourierEntity.builder()
-                .id(UUID.randomUUID().toString())
+        // When
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.of(CatalogStore.of(store)));
+        when(lastVisitCache.tryRecordVisit(courierId, store.getStoreKey(), timestamp)).thenReturn(true);
+
+        // Then
+        courierService.logCourierLocation(logRequest);
+
+        // Verify
+        ArgumentCaptor<List<CourierEntity>> insertedCaptor = ArgumentCaptor.forClass(List.class);
+        verify(courierRepository).batchInsert(insertedCaptor.capture());
+        assertEquals(1, insertedCaptor.getValue().size());
+        CourierEntity inserted = insertedCaptor.getValue().get(0);
+        assertEquals(courierId, inserted.getCourierId());
+        assertEquals(store.getStoreKey(), inserted.getStoreKey());
+        assertEquals(timestamp, inserted.getTimestamp());
+        verify(courierTravelSummaryService).recordAcceptedLocations(List.of(inserted));
+        verify(courierQueryResultCache).invalidate(courierId);
+        verify(pingDeduplicationWindow).recordAccepted(courierId, timestamp, lat, lng);
+        verify(courierMetrics).recordStage(eq(CourierMetrics.Stage.STORE_RESOLUTION), anyLong());
+        verify(courierMetrics).recordStage(eq(CourierMetrics.Stage.REENTRY_CHECK), anyLong());
+        verify(courierMetrics).recordStage(eq(CourierMetrics.Stage.PERSISTENCE), anyLong());
+        verify(courierMetrics, never()).recordRejection(any());
+
+    }
+
+    @Test
+    void logCourierLocation_shouldQueueCourierLocation_ifWriteBehindIsEnabled() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double lat = 37.7749;
+        double lng = -122.4194;
+        LocalDateTime timestamp = LocalDateTime.now();
+
+        LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
                 .courierId(courierId)
                 .lat(lat)
                 .lng(lng)
-                .storeName(store.getName())
                 .timestamp(timestamp)
                 .build();
 
+        StoreEntity store = StoreEntity.builder()
+                .id(UUID.randomUUID())
+                .storeKey(1)
+                .name("store1")
+                .lat(37.7750)
+                .lng(-122.4183)
+                .createdAt(LocalDateTime.now().minusMinutes(10))
+                .build();
+
         // When
-        when(storeRepository.findAll()).thenReturn(List.of(store));
-        when(courierRepository.save(any(CourierEntity.class))).thenReturn(courierEntity);
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.of(CatalogStore.of(store)));
+        when(lastVisitCache.tryRecordVisit(courierId, store.getStoreKey(), timestamp)).thenReturn(true);
+        when(courierLocationWriteBehindQueue.isEnabled()).thenReturn(true);
 
         // Then
         courierService.logCourierLocation(logRequest);
 
         // Verify
-        verify(courierRepository).save(any());
+        verify(courierLocationWriteBehindQueue).enqueue(argThat(courier -> courierId.equals(courier.getCourierId())
+                && store.getStoreKey().equals(courier.getStoreKey())
+                && timestamp.equals(courier.getTimestamp())));
+        verify(courierRepository, never()).batchInsert(anyList());
+        verify(courierTravelSummaryService, never()).recordAcceptedLocations(any());
+        verify(courierQueryResultCache, never()).invalidate(any());
 
     }
 
@@ -108,7 +232,8 @@ class CourierServiceTest extends AbstractBaseServiceTest {
                 .build();
 
         StoreEntity store = StoreEntity.builder()
-                .id(UUID.randomUUID().toString())
+                .id(UUID.randomUUID())
+                .storeKey(1)
                 .name("store1")
                 .lat(37.7750)
                 .lng(-122.4183)
@@ -117,44 +242,98 @@ class CourierServiceTest extends AbstractBaseServiceTest {
 
 
         // When
-        when(storeRepository.findAll()).thenReturn(List.of(store));
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.of(CatalogStore.of(store)));
 
         // Then
         assertThrows(TimestampBeforeStoreCreateException.class, () -> courierService.logCourierLocation(logRequest));
 
         // Verify
-        verify(storeRepository).findAll();
+        verify(resolvedStoreContext).resolve(lat, lng);
+        verify(courierMetrics).recordRejection(CourierMetrics.Rejection.TIMESTAMP_BEFORE_CREATION);
 
     }
 
     @Test
-    void logCourierLocation_shouldThrowStoreFarAwayException_ifCourierIsFarAwayFromAllStores() {
+    void logCourierLocation_shouldAttachNearestStoreToStoreFarAwayException() {
 
         // Given
-        String courierId = UUID.randomUUID().toString();
+        double lat = 37.7749;
+        double lng = -122.4194;
 
         LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
-                .courierId(courierId)
-                .lat(37.7749)
-                .lng(-122.4194)
+                .courierId(UUID.randomUUID().toString())
+                .lat(lat)
+                .lng(lng)
                 .timestamp(LocalDateTime.now())
                 .build();
 
         StoreEntity store = StoreEntity.builder()
+                .id(UUID.randomUUID())
+                .storeKey(1)
                 .name("store1")
-                .lat(37.7800)
-                .lng(-122.4200)
-                .createdAt(LocalDateTime.now().minusMinutes(10))
+                .lat(37.7850)
+                .lng(-122.4183)
+                .createdAt(LocalDateTime.now().minusDays(1))
+                .build();
+
+        // When
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.empty());
+        when(storeSpatialIndex.findNearestStores(lat, lng, 1)).thenReturn(List.of(new NearestStore(CatalogStore.of(store), 1125.4)));
+
+        // Then
+        StoreFarAwayException exception = assertThrows(StoreFarAwayException.class, () -> courierService.logCourierLocation(logRequest));
+
+        assertEquals("store1", exception.getNearestStoreName());
+        assertEquals(1125.4, exception.getNearestStoreDistanceInMeters());
+
+    }
+
+    @Test
+    void logCourierLocation_shouldThrowStoreFarAwayException_ifCourierIsFarAwayFromAllStores() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double lat = 37.7749;
+        double lng = -122.4194;
+
+        LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
+                .courierId(courierId)
+                .lat(lat)
+                .lng(lng)
+                .timestamp(LocalDateTime.now())
                 .build();
 
         // When
-        when(storeRepository.findAll()).thenReturn(List.of(store));
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.empty());
 
         // Then
         assertThrows(StoreFarAwayException.class, () -> courierService.logCourierLocation(logRequest));
 
         // Verify
-        verify(storeRepository).findAll();
+        verify(resolvedStoreContext).resolve(lat, lng);
+        verify(courierMetrics).recordRejection(CourierMetrics.Rejection.FAR_AWAY);
+
+    }
+
+    @Test
+    void logCourierLocation_shouldThrowStoreNotFoundException_ifThereAreNoStores() {
+
+        // Given
+        LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
+                .courierId(UUID.randomUUID().toString())
+                .lat(37.7749)
+                .lng(-122.4194)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        // When
+        when(storeSpatialIndex.isEmpty()).thenReturn(true);
+
+        // Then
+        assertThrows(StoreNotFoundException.class, () -> courierService.logCourierLocation(logRequest));
+
+        // Verify
+        verify(resolvedStoreContext, never()).resolve(anyDouble(), anyDouble());
 
     }
 
@@ -166,7 +345,6 @@ class CourierServiceTest extends AbstractBaseServiceTest {
         double lat = 37.7749;
         double lng = -122.4194;
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime lastEntryTimestamp = now.minusSeconds(30); // Last entry within 30 seconds
 
         LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
                 .courierId(courierId)
@@ -176,42 +354,314 @@ class CourierServiceTest extends AbstractBaseServiceTest {
                 .build();
 
         StoreEntity store = StoreEntity.builder()
-                .id(UUID.randomUUID().toString())
+                .id(UUID.randomUUID())
+                .storeKey(1)
                 .name("store1")
                 .lat(37.7750)
                 .lng(-122.4183)
                 .createdAt(now.minusMinutes(10))
                 .build();
 
-        CourierEntity lastTravelEntry = CourierEntity.builder()
-                .id(UUID.randomUUID().toString())
+        // When
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.of(CatalogStore.of(store)));
+        when(lastVisitCache.tryRecordVisit(courierId, store.getStoreKey(), now)).thenReturn(false); // Last visit within a minute
+
+        // Then
+        assertThrows(StoreReentryTooSoonException.class, () -> courierService.logCourierLocation(logRequest));
+
+        // Verify
+        verify(resolvedStoreContext).resolve(lat, lng);
+        verify(lastVisitCache).tryRecordVisit(courierId, store.getStoreKey(), now);
+        verify(courierRepository, never()).batchInsert(anyList());
+        verify(courierMetrics).recordRejection(CourierMetrics.Rejection.REENTRY_TOO_SOON);
+        verify(courierMetrics, never()).recordStage(eq(CourierMetrics.Stage.PERSISTENCE), anyLong());
+
+    }
+
+    @Test
+    void logCourierLocation_shouldNotProcessPingAgain_ifSamePingWasAcceptedBefore() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double lat = 37.7749;
+        double lng = -122.4194;
+        LocalDateTime now = LocalDateTime.now();
+
+        LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
                 .courierId(courierId)
                 .lat(lat)
                 .lng(lng)
-                .storeName(store.getName())
-                .timestamp(lastEntryTimestamp)
+                .timestamp(now)
                 .build();
 
         // When
-        when(storeRepository.findAll()).thenReturn(List.of(store));
-        when(courierRepository.findByCourierIdAndStoreNameAndTimestampBetweenOrderByTimestampDesc(
-                eq(courierId),
-                eq(store.getName()),
-                any(LocalDateTime.class),
-                any(LocalDateTime.class)
-        )).thenReturn(List.of(lastTravelEntry));
+        when(pingDeduplicationWindow.findOrClaim(courierId, now, lat, lng)).thenReturn(Optional.of(PingDeduplicationWindow.Outcome.ACCEPTED));
 
         // Then
-        assertThrows(StoreReentryTooSoonException.class, () -> courierService.logCourierLocation(logRequest));
+        courierService.logCourierLocation(logRequest);
 
         // Verify
-        verify(storeRepository).findAll();
-        verify(courierRepository).findByCourierIdAndStoreNameAndTimestampBetweenOrderByTimestampDesc(
-                eq(courierId),
-                eq(store.getName()),
-                any(LocalDateTime.class),
-                any(LocalDateTime.class)
-        );
+        verify(resolvedStoreContext, never()).resolve(anyDouble(), anyDouble());
+        verify(lastVisitCache, never()).tryRecordVisit(any(), anyInt(), any());
+        verify(courierRepository, never()).batchInsert(anyList());
+        verify(courierMetrics).recordDuplicate();
+
+    }
+
+    @Test
+    void logCourierLocation_shouldRethrowEarlierRejection_ifSamePingWasRejectedBefore() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double lat = 38.0;
+        double lng = -122.0;
+        LocalDateTime now = LocalDateTime.now();
+
+        LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
+                .courierId(courierId)
+                .lat(lat)
+                .lng(lng)
+                .timestamp(now)
+                .build();
+
+        StoreFarAwayException rejection = new StoreFarAwayException("Courier is far away from all stores.", "store1", 250.0);
+
+        // When
+        when(pingDeduplicationWindow.findOrClaim(courierId, now, lat, lng))
+                .thenReturn(Optional.of(PingDeduplicationWindow.Outcome.rejectedWith(rejection)));
+
+        // Then
+        StoreFarAwayException exception = assertThrows(StoreFarAwayException.class, () -> courierService.logCourierLocation(logRequest));
+        assertNotSame(rejection, exception);
+        assertEquals(rejection.getMessage(), exception.getMessage());
+        assertEquals("store1", exception.getNearestStoreName());
+        assertEquals(250.0, exception.getNearestStoreDistanceInMeters());
+
+        // Verify
+        verify(resolvedStoreContext, never()).resolve(anyDouble(), anyDouble());
+        verify(courierMetrics, never()).recordRejection(any());
+
+    }
+
+    @Test
+    void logCourierLocation_shouldTreatReentryAsRetry_ifSamePingIsAlreadyStored() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double lat = 37.7749;
+        double lng = -122.4194;
+        LocalDateTime now = LocalDateTime.now();
+
+        LogCourierLocationRequest logRequest = LogCourierLocationRequest.builder()
+                .courierId(courierId)
+                .lat(lat)
+                .lng(lng)
+                .timestamp(now)
+                .build();
+
+        StoreEntity store = StoreEntity.builder()
+                .id(UUID.randomUUID())
+                .storeKey(1)
+                .name("store1")
+                .lat(37.7750)
+                .lng(-122.4183)
+                .createdAt(now.minusMinutes(10))
+                .build();
+
+        // When
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.of(CatalogStore.of(store)));
+        when(lastVisitCache.tryRecordVisit(courierId, store.getStoreKey(), now)).thenReturn(false);
+        when(courierRepository.existsByCourierIdAndTimestampAndLatAndLng(courierId, now, lat, lng)).thenReturn(true);
+
+        // Then
+        assertDoesNotThrow(() -> courierService.logCourierLocation(logRequest));
+
+        // Verify
+        verify(courierRepository, never()).batchInsert(anyList());
+        verify(courierTravelSummaryService, never()).recordAcceptedLocations(any());
+        verify(pingDeduplicationWindow).recordAccepted(courierId, now, lat, lng);
+        verify(pingDeduplicationWindow).release(courierId, now, lat, lng);
+        verify(courierMetrics, never()).recordRejection(any());
+        verify(courierMetrics).recordDuplicate();
+
+    }
+
+    @Test
+    void logCourierLocations_shouldAnswerRetriedPingWithEarlierOutcome() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double lat = 37.7749;
+        double lng = -122.4194;
+        LocalDateTime now = LocalDateTime.now();
+
+        LogCourierLocationRequest acceptedBefore = LogCourierLocationRequest.builder()
+                .courierId(courierId).lat(lat).lng(lng).timestamp(now).build();
+        LogCourierLocationRequest rejectedBefore = LogCourierLocationRequest.builder()
+                .courierId(courierId).lat(lat).lng(lng).timestamp(now.plusSeconds(30)).build();
+
+        // When
+        when(validator.validate(any(LogCourierLocationRequest.class))).thenReturn(Set.of());
+        when(pingDeduplicationWindow.findOrClaim(courierId, acceptedBefore.getTimestamp(), lat, lng))
+                .thenReturn(Optional.of(PingDeduplicationWindow.Outcome.ACCEPTED));
+        when(pingDeduplicationWindow.findOrClaim(courierId, rejectedBefore.getTimestamp(), lat, lng))
+                .thenReturn(Optional.of(PingDeduplicationWindow.Outcome.rejectedWith(new StoreReentryTooSoonException("Too soon"))));
+
+        // Then
+        List<LogCourierLocationResponse> responses = courierService.logCourierLocations(List.of(acceptedBefore, rejectedBefore));
+
+        assertTrue(responses.get(0).getLogged());
+        assertFalse(responses.get(1).getLogged());
+        assertEquals("Too soon", responses.get(1).getMessage());
+
+        // Verify
+        verify(resolvedStoreContext, never()).resolve(anyDouble(), anyDouble());
+        verify(courierRepository).batchInsert(List.of());
+
+    }
+
+    @Test
+    void logCourierLocations_shouldBatchInsertAcceptedPingsAndReportEachOutcome() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double lat = 37.7749;
+        double lng = -122.4194;
+        double farLat = 38.0;
+        double farLng = -122.0;
+        LocalDateTime now = LocalDateTime.now();
+
+        StoreEntity store = StoreEntity.builder()
+                .id(UUID.randomUUID())
+                .storeKey(1)
+                .name("store1")
+                .lat(37.7750)
+                .lng(-122.4183)
+                .createdAt(now.minusDays(1))
+                .build();
+
+        LogCourierLocationRequest laterPing = LogCourierLocationRequest.builder()
+                .courierId(courierId).lat(lat).lng(lng).timestamp(now.plusMinutes(5)).build();
+        LogCourierLocationRequest tooSoonPing = LogCourierLocationRequest.builder()
+                .courierId(courierId).lat(lat).lng(lng).timestamp(now.plusSeconds(30)).build();
+        LogCourierLocationRequest farAwayPing = LogCourierLocationRequest.builder()
+                .courierId(courierId).lat(farLat).lng(farLng).timestamp(now.plusMinutes(3)).build();
+        LogCourierLocationRequest firstPing = LogCourierLocationRequest.builder()
+                .courierId(courierId).lat(lat).lng(lng).timestamp(now).build();
+
+        // When
+        when(storeSpatialIndex.isEmpty()).thenReturn(false);
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.of(CatalogStore.of(store)));
+        when(resolvedStoreContext.resolve(farLat, farLng)).thenReturn(Optional.empty());
+        when(lastVisitCache.tryRecordVisit(courierId, store.getStoreKey(), firstPing.getTimestamp())).thenReturn(true);
+        when(lastVisitCache.tryRecordVisit(courierId, store.getStoreKey(), tooSoonPing.getTimestamp())).thenReturn(false);
+        when(lastVisitCache.tryRecordVisit(courierId, store.getStoreKey(), laterPing.getTimestamp())).thenReturn(true);
+
+        // Then
+        List<LogCourierLocationResponse> responses = courierService.logCourierLocations(
+                List.of(laterPing, tooSoonPing, farAwayPing, firstPing));
+
+        assertEquals(4, responses.size());
+        assertEquals(List.of(0, 1, 2, 3), responses.stream().map(LogCourierLocationResponse::getIndex).toList());
+        assertTrue(responses.get(0).getLogged());
+        assertFalse(responses.get(1).getLogged());
+        assertFalse(responses.get(2).getLogged());
+        assertEquals("Courier is far away from all stores.", responses.get(2).getMessage());
+        assertTrue(responses.get(3).getLogged());
+
+        // Verify
+        ArgumentCaptor<List<CourierEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(courierRepository).batchInsert(captor.capture());
+        assertEquals(List.of(firstPing.getTimestamp(), laterPing.getTimestamp()),
+                captor.getValue().stream().map(CourierEntity::getTimestamp).toList());
+        verify(courierTravelSummaryService).recordAcceptedLocations(captor.getValue());
+        verify(courierQueryResultCache).invalidate(courierId);
+        verify(courierRepository, never()).save(any());
+        InOrder visitOrder = inOrder(lastVisitCache);
+        visitOrder.verify(lastVisitCache).tryRecordVisit(courierId, store.getStoreKey(), firstPing.getTimestamp());
+        visitOrder.verify(lastVisitCache).tryRecordVisit(courierId, store.getStoreKey(), tooSoonPing.getTimestamp());
+        visitOrder.verify(lastVisitCache).tryRecordVisit(courierId, store.getStoreKey(), laterPing.getTimestamp());
+
+    }
+
+    @Test
+    void logCourierLocations_shouldRejectInvalidPingWithoutRejectingBatch() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double lat = 37.7749;
+        double lng = -122.4194;
+
+        StoreEntity store = StoreEntity.builder()
+                .storeKey(1)
+                .name("store1")
+                .lat(37.7750)
+                .lng(-122.4183)
+                .createdAt(LocalDateTime.now().minusDays(1))
+                .build();
+
+        LogCourierLocationRequest invalidPing = LogCourierLocationRequest.builder()
+                .courierId("not-a-uuid").lat(lat).lng(lng).timestamp(LocalDateTime.now()).build();
+        LogCourierLocationRequest validPing = LogCourierLocationRequest.builder()
+                .courierId(courierId).lat(lat).lng(lng).timestamp(LocalDateTime.now()).build();
+
+        @SuppressWarnings("unchecked")
+        ConstraintViolation<LogCourierLocationRequest> violation = mock(ConstraintViolation.class);
+
+        // When
+        when(violation.getMessage()).thenReturn("Invalid UUID format");
+        when(validator.validate(invalidPing)).thenReturn(Set.of(violation));
+        when(resolvedStoreContext.resolve(lat, lng)).thenReturn(Optional.of(CatalogStore.of(store)));
+        when(lastVisitCache.tryRecordVisit(courierId, store.getStoreKey(), validPing.getTimestamp())).thenReturn(true);
+
+        // Then
+        List<LogCourierLocationResponse> responses = courierService.logCourierLocations(List.of(invalidPing, validPing));
+
+        assertFalse(responses.get(0).getLogged());
+        assertEquals("Invalid UUID format", responses.get(0).getMessage());
+        assertTrue(responses.get(1).getLogged());
+
+        // Verify
+        verify(courierRepository).batchInsert(argThat(couriers -> couriers.size() == 1));
+
+    }
+
+    @Test
+    void getPastTravelsByCourierId_shouldReturnArchivedTravelsBeforeTravelsInDatabase() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+
+        CourierEntity archivedEntity = travelEntity(courierId, now.minusDays(100));
+        CourierEntity liveEntity = travelEntity(courierId, now);
+        List<Courier> archivedTravels = courierEntityToCourierMapper.map(List.of(archivedEntity), storeDictionary);
+
+        // When
+        when(courierArchive.findByCourierId(courierId)).thenReturn(archivedTravels);
+        // The archived travel is still in the table until the archive job deletes it
+        when(courierRepository.findByCourierId(courierId)).thenReturn(List.of(archivedEntity, liveEntity));
+
+        // Then
+        List<Courier> result = courierService.getPastTravelsByCourierId(courierId);
+
+        assertEquals(List.of(archivedEntity.getId().toString(), liveEntity.getId().toString()), result.stream().map(Courier::getId).toList());
+
+    }
+
+    @Test
+    void getPastTravelsByCourierId_shouldReturnArchivedTravels_ifNoTravelIsLeftInDatabase() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        List<Courier> archivedTravels = courierEntityToCourierMapper.map(List.of(travelEntity(courierId, LocalDateTime.now().minusDays(100))), storeDictionary);
+
+        // When
+        when(courierArchive.findByCourierId(courierId)).thenReturn(archivedTravels);
+        when(courierRepository.findByCourierId(courierId)).thenReturn(List.of());
+
+        // Then
+        assertEquals(archivedTravels, courierService.getPastTravelsByCourierId(courierId));
 
     }
 
@@ -222,15 +672,15 @@ class CourierServiceTest extends AbstractBaseServiceTest {
         String courierId = UUID.randomUUID().toString();
 
         List<CourierEntity> courierEntities = List.of(CourierEntity.builder()
-                .id(UUID.randomUUID().toString())
+                .id(UUID.randomUUID())
                 .courierId(courierId)
                 .lat(37.7749)
                 .lng(-122.4194)
-                .storeName("store1")
+                .storeKey(1)
                 .timestamp(LocalDateTime.now())
                 .build());
 
-        List<Courier> couriers = courierEntityToCourierMapper.map(courierEntities);
+        List<Courier> couriers = courierEntityToCourierMapper.map(courierEntities, storeDictionary);
 
         // When
         when(courierRepository.findByCourierId(courierId)).thenReturn(courierEntities);
@@ -240,12 +690,260 @@ class CourierServiceTest extends AbstractBaseServiceTest {
 
         assertFalse(result.isEmpty());
         assertEquals(couriers.get(0).getCourierId(), result.get(0).getCourierId());
+        assertEquals("store1", result.get(0).getStoreName());
 
         // Verify
         verify(courierRepository).findByCourierId(courierId);
 
     }
 
+    @Test
+    void getPastTravelsByCourierId_shouldServeRepeatedQueryFromCache_untilLocationOfCourierIsSaved() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        CourierEntity courierEntity = travelEntity(courierId, LocalDateTime.now());
+
+        // When
+        when(courierRepository.findByCourierId(courierId)).thenReturn(List.of(courierEntity));
+
+        // Then
+        List<Courier> first = courierService.getPastTravelsByCourierId(courierId);
+        List<Courier> second = courierService.getPastTravelsByCourierId(courierId);
+        assertSame(first, second);
+
+        courierQueryResultCache.invalidate(courierId);
+        assertEquals(1, courierService.getPastTravelsByCourierId(courierId).size());
+
+        // Verify
+        verify(courierRepository, times(2)).findByCourierId(courierId);
+        verify(courierMetrics, times(2)).recordTravelQueryRows(CourierMetrics.TravelQuery.PAST, 1);
+
+    }
+
+    @Test
+    void getPastTravelsPageByCourierId_shouldReturnFirstPageWithCursorOfNextPage() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        List<CourierEntity> entities = List.of(
+                travelEntity(courierId, now),
+                travelEntity(courierId, now.plusMinutes(2)),
+                travelEntity(courierId, now.plusMinutes(4))
+        );
+
+        // When
+        when(courierRepository.findPageByCourierId(courierId, PageRequest.ofSize(3))).thenReturn(entities);
+
+        // Then
+        CourierTravelPage page = courierService.getPastTravelsPageByCourierId(courierId, null, 2);
+
+        assertEquals(2, page.getTravels().size());
+        assertEquals(new CourierTravelCursor(entities.get(1).getTimestamp(), entities.get(1).getId()),
+                CourierTravelCursor.decode(page.getNextCursor()));
+
+        // Verify
+        verify(courierRepository).findPageByCourierId(courierId, PageRequest.ofSize(3));
+
+    }
+
+    @Test
+    void getPastTravelsPageByCourierId_shouldReturnLastPageWithoutCursor_ifCursorIsGiven() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        CourierTravelCursor cursor = new CourierTravelCursor(now, UUID.randomUUID());
+        List<CourierEntity> entities = List.of(travelEntity(courierId, now.plusMinutes(2)));
+
+        // When
+        when(courierRepository.findPageByCourierIdAfter(courierId, cursor.timestamp(), cursor.id(), PageRequest.ofSize(3)))
+                .thenReturn(entities);
+
+        // Then
+        CourierTravelPage page = courierService.getPastTravelsPageByCourierId(courierId, cursor.encode(), 2);
+
+        assertEquals(1, page.getTravels().size());
+        assertNull(page.getNextCursor());
+
+    }
+
+    @Test
+    void getPastTravelsPageByCourierId_shouldReturnArchivedTravelsWithArchiveCursor_ifArchiveFillsPage() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime archivedAt = LocalDateTime.now().minusDays(100);
+        List<Courier> archivedTravels = courierEntityToCourierMapper.map(List.of(
+                travelEntity(courierId, archivedAt),
+                travelEntity(courierId, archivedAt.plusMinutes(2)),
+                travelEntity(courierId, archivedAt.plusMinutes(4))), storeDictionary);
+
+        // When
+        when(courierArchive.findPageByCourierIdAfter(courierId, null, null, 3)).thenReturn(archivedTravels);
+
+        // Then
+        CourierTravelPage page = courierService.getPastTravelsPageByCourierId(courierId, null, 2);
+
+        assertEquals(archivedTravels.subList(0, 2), page.getTravels());
+        assertEquals(CourierTravelCursor.afterArchived(archivedTravels.get(1)), CourierTravelCursor.decode(page.getNextCursor()));
+
+        // Verify
+        verify(courierRepository, never()).findPageByCourierId(any(), any());
+
+    }
+
+    @Test
+    void getPastTravelsPageByCourierId_shouldContinueWithTravelsInDatabase_onceArchiveIsExhausted() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        Courier archivedTravel = courierEntityToCourierMapper.map(List.of(travelEntity(courierId, now.minusDays(100))), storeDictionary).get(0);
+        CourierTravelCursor cursor = CourierTravelCursor.afterArchived(archivedTravel);
+        CourierEntity duplicate = travelEntity(courierId, now.minusDays(100).plusMinutes(1));
+        List<CourierEntity> entities = List.of(duplicate, travelEntity(courierId, now), travelEntity(courierId, now.plusMinutes(2)));
+        Courier lastArchivedTravel = courierEntityToCourierMapper.map(List.of(duplicate), storeDictionary).get(0);
+
+        // When
+        when(courierArchive.findPageByCourierIdAfter(courierId, cursor.timestamp(), cursor.id().toString(), 3))
+                .thenReturn(List.of(lastArchivedTravel));
+        when(courierRepository.findPageByCourierId(courierId, PageRequest.ofSize(2))).thenReturn(entities.subList(0, 2));
+        // The first row of the table is being archived and is in the archive as well
+        when(courierArchive.notArchivedFilter(courierId)).thenReturn(travel -> !travel.getId().equals(duplicate.getId().toString()));
+
+        // Then
+        CourierTravelPage page = courierService.getPastTravelsPageByCourierId(courierId, cursor.encode(), 2);
+
+        assertEquals(List.of(lastArchivedTravel.getId()), page.getTravels().stream().map(Courier::getId).toList());
+        assertEquals(new CourierTravelCursor(duplicate.getTimestamp(), duplicate.getId()), CourierTravelCursor.decode(page.getNextCursor()));
+
+    }
+
+    @Test
+    void getPastTravelsPageByCourierId_shouldPointCursorIntoArchive_ifPageEndsWithLastArchivedTravel() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        List<Courier> archivedTravels = courierEntityToCourierMapper.map(List.of(
+                travelEntity(courierId, now.minusDays(100)),
+                travelEntity(courierId, now.minusDays(99))), storeDictionary);
+
+        // When
+        when(courierArchive.findPageByCourierIdAfter(courierId, null, null, 3)).thenReturn(archivedTravels);
+        when(courierRepository.findPageByCourierId(courierId, PageRequest.ofSize(1))).thenReturn(List.of(travelEntity(courierId, now)));
+
+        // Then
+        CourierTravelPage page = courierService.getPastTravelsPageByCourierId(courierId, null, 2);
+
+        assertEquals(archivedTravels, page.getTravels());
+        assertEquals(CourierTravelCursor.afterArchived(archivedTravels.get(1)), CourierTravelCursor.decode(page.getNextCursor()));
+
+    }
+
+    @Test
+    void getPastTravelsPageByCourierId_shouldThrowCourierNotFoundException_ifFirstPageIsEmpty() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        // When
+        when(courierRepository.findPageByCourierId(eq(courierId), any())).thenReturn(List.of());
+
+        // Then
+        assertThrows(CourierNotFoundException.class, () -> courierService.getPastTravelsPageByCourierId(courierId, null, 50));
+
+    }
+
+    @Test
+    void getPastTravelsPageByCourierId_shouldThrowInvalidCursorException_ifCursorIsMalformed() {
+
+        // Then
+        assertThrows(InvalidCursorException.class,
+                () -> courierService.getPastTravelsPageByCourierId(UUID.randomUUID().toString(), "not a cursor", 50));
+
+        // Verify
+        verify(courierRepository, never()).findPageByCourierIdAfter(any(), any(), any(), any());
+
+    }
+
+    @Test
+    void streamPastTravelsByCourierId_shouldPassEveryTravelToConsumerAndCloseStream() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        Courier first = Courier.builder().id(UUID.randomUUID().toString()).courierId(courierId).build();
+        Courier second = Courier.builder().id(UUID.randomUUID().toString()).courierId(courierId).build();
+        AtomicBoolean closed = new AtomicBoolean();
+        List<Courier> received = new ArrayList<>();
+
+        // When
+        when(courierRepository.streamByCourierId(courierId)).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+
+        // Then
+        courierService.streamPastTravelsByCourierId(courierId, received::add);
+
+        assertEquals(List.of(first, second), received);
+        assertTrue(closed.get());
+
+    }
+
+    @Test
+    void streamPastTravelsByCourierId_shouldPassArchivedTravelsBeforeTravelsInDatabase() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        Courier archived = Courier.builder().id(UUID.randomUUID().toString()).courierId(courierId).build();
+        Courier live = Courier.builder().id(UUID.randomUUID().toString()).courierId(courierId).build();
+        List<Courier> received = new ArrayList<>();
+
+        // When
+        doAnswer(invocation -> {
+            invocation.<Consumer<Courier>>getArgument(1).accept(archived);
+            return null;
+        }).when(courierArchive).forEachByCourierId(eq(courierId), any());
+        // The archived travel is still in the table until the archive job deletes it
+        when(courierRepository.streamByCourierId(courierId)).thenReturn(Stream.of(archived, live));
+        when(courierArchive.notArchivedFilter(courierId)).thenReturn(travel -> travel != archived);
+
+        // Then
+        courierService.streamPastTravelsByCourierId(courierId, received::add);
+
+        assertEquals(List.of(archived, live), received);
+
+    }
+
+    @Test
+    void checkPastTravelsExist_shouldPass_ifCourierOnlyHasArchivedTravels() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        // When
+        when(courierRepository.existsByCourierId(courierId)).thenReturn(false);
+        when(courierArchive.existsByCourierId(courierId)).thenReturn(true);
+
+        // Then
+        assertDoesNotThrow(() -> courierService.checkPastTravelsExist(courierId));
+
+    }
+
+    @Test
+    void checkPastTravelsExist_shouldThrowCourierNotFoundException_ifCourierHasNoTravels() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        // When
+        when(courierRepository.existsByCourierId(courierId)).thenReturn(false);
+
+        // Then
+        assertThrows(CourierNotFoundException.class, () -> courierService.checkPastTravelsExist(courierId));
+
+    }
+
     @Test
     void getTravelsByCourierIdAndTravelQueryRequest_shouldReturnTravelsWithinTimeRange() {
 
@@ -259,19 +957,19 @@ class CourierServiceTest extends AbstractBaseServiceTest {
                 .build();
 
         List<CourierEntity> courierEntities = List.of(CourierEntity.builder()
-                .id(UUID.randomUUID().toString())
+                .id(UUID.randomUUID())
                 .courierId(courierId)
                 .lat(37.7749)
                 .lng(-122.4194)
-                .storeName("store1")
+                .storeKey(1)
                 .timestamp(LocalDateTime.now())
                 .build());
 
-        List<Courier> couriers = courierEntityToCourierMapper.map(courierEntities);
+        List<Courier> couriers = courierEntityToCourierMapper.map(courierEntities, storeDictionary);
 
         // When
-        when(courierRepository.findByCourierIdAndStoreNameAndTimestampBetweenOrderByTimestampDesc(courierId,
-                request.getStoreName(),
+        when(courierRepository.findByCourierIdAndStoreKeyAndTimestampBetweenOrderByTimestampDesc(courierId,
+                1,
                 request.getStart(),
                 request.getEnd())).thenReturn(courierEntities);
 
@@ -280,51 +978,46 @@ class CourierServiceTest extends AbstractBaseServiceTest {
 
         assertFalse(result.isEmpty());
         assertEquals(couriers.get(0).getCourierId(), result.get(0).getCourierId());
+        assertEquals("store1", result.get(0).getStoreName());
 
         // Verify
-        verify(courierRepository).findByCourierIdAndStoreNameAndTimestampBetweenOrderByTimestampDesc(courierId,
-                request.getStoreName(),
+        verify(courierRepository).findByCourierIdAndStoreKeyAndTimestampBetweenOrderByTimestampDesc(courierId,
+                1,
                 request.getStart(),
                 request.getEnd());
 
     }
 
     @Test
-    void getTotalTravelDistance_shouldReturnTotalDistanceTraveledByCourier() {
+    void getTravelsByCourierIdAndTravelQueryRequest_shouldThrowCourierNotFoundException_ifNoStoreEverHadTheName() {
 
         // Given
         String courierId = UUID.randomUUID().toString();
-        LocalDateTime timestamp1 = LocalDateTime.now().minusMinutes(2);
-        LocalDateTime timestamp2 = LocalDateTime.now();
-        double lat1 = 37.7749;
-        double lng1 = -122.4194;
-        double lat2 = 37.7750;
-        double lng2 = -122.4183;
 
-        List<CourierEntity> travels = List.of(
-                CourierEntity.builder()
-                        .id(UUID.randomUUID().toString())
-                        .courierId(courierId)
-                        .lat(lat1)
-                        .lng(lng1)
-                        .storeName("store1")
-                        .timestamp(timestamp1)
-                        .build(),
-                CourierEntity.builder()
-                        .id(UUID.randomUUID().toString())
-                        .courierId(courierId)
-                        .lat(lat2)
-                        .lng(lng2)
-                        .storeName("store1")
-                        .timestamp(timestamp2)
-                        .build()
-        );
+        TravelQueryRequest request = TravelQueryRequest.builder()
+                .storeName("unknown store")
+                .start(LocalDateTime.now().minusHours(1))
+                .end(LocalDateTime.now())
+                .build();
+
+        // Then
+        assertThrows(CourierNotFoundException.class,
+                () -> courierService.getTravelsByCourierIdStoreNameAndTimeRange(courierId, request));
+
+        // Verify
+        verify(courierRepository, never()).findByCourierIdAndStoreKeyAndTimestampBetweenOrderByTimestampDesc(any(), any(), any(), any());
+
+    }
+
+    @Test
+    void getTotalTravelDistance_shouldReturnTotalDistanceFromTravelSummary() {
 
-        // Calculate the distance between two points in kilometers
-        double distanceInKilometers = DistanceUtils.calculateDistance(lat1, lng1, lat2, lng2, DistanceType.KILOMETERS);
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        double distanceInKilometers = DistanceUtils.calculateDistance(37.7749, -122.4194, 37.7750, -122.4183, DistanceType.KILOMETERS);
 
         // When
-        when(courierRepository.findByCourierIdOrderByTimestampAsc(courierId)).thenReturn(travels);
+        when(courierTravelSummaryService.findSummarizedTotalDistanceInKilometers(courierId)).thenReturn(Optional.of(distanceInKilometers));
 
         // Then
         double totalDistance = courierService.getTotalTravelDistance(courierId);
@@ -332,8 +1025,140 @@ class CourierServiceTest extends AbstractBaseServiceTest {
         assertEquals(distanceInKilometers, totalDistance, 0.001); // Allow a small tolerance for floating point comparisons
 
         // Verify
-        verify(courierRepository).findByCourierIdOrderByTimestampAsc(courierId);
+        verify(courierTravelSummaryService).findSummarizedTotalDistanceInKilometers(courierId);
+        verify(courierTravelSummaryService, never()).findTotalDistanceInKilometers(any());
+        verify(courierRepository, never()).findByCourierIdOrderByTimestampAsc(any());
+
+    }
+
+    @Test
+    void getTotalTravelDistance_shouldFindOrRebuildSummaryOnPrimary_ifNoSummaryIsReadable() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        // When
+        when(courierTravelSummaryService.findSummarizedTotalDistanceInKilometers(courierId)).thenReturn(Optional.empty());
+        when(courierTravelSummaryService.findTotalDistanceInKilometers(courierId)).thenReturn(Optional.of(4.2));
+
+        // Then
+        assertEquals(4.2, courierService.getTotalTravelDistance(courierId));
+
+        // Verify
+        verify(courierTravelSummaryService).findSummarizedTotalDistanceInKilometers(courierId);
+        verify(courierTravelSummaryService).findTotalDistanceInKilometers(courierId);
+
+    }
 
+    @Test
+    void getTotalTravelDistance_shouldServeRepeatedQueryFromCache() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        // When
+        when(courierTravelSummaryService.findSummarizedTotalDistanceInKilometers(courierId)).thenReturn(Optional.of(3.0));
+
+        // Then
+        assertEquals(3.0, courierService.getTotalTravelDistance(courierId));
+        assertEquals(3.0, courierService.getTotalTravelDistance(courierId));
+
+        // Verify
+        verify(courierTravelSummaryService).findSummarizedTotalDistanceInKilometers(courierId);
+
+    }
+
+    @Test
+    void getTotalTravelDistance_shouldThrowCourierNotFoundException_ifCourierHasNoTravels() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+
+        // When
+        when(courierTravelSummaryService.findTotalDistanceInKilometers(courierId)).thenReturn(Optional.empty());
+
+        // Then
+        assertThrows(CourierNotFoundException.class, () -> courierService.getTotalTravelDistance(courierId));
+
+        // Verify
+        verify(courierTravelSummaryService).findTotalDistanceInKilometers(courierId);
+
+    }
+
+    @Test
+    void getTotalTravelDistanceBetween_shouldReturnDistanceWithinRangeFromTravelSummaryService() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        DistanceRangeQueryRequest request = DistanceRangeQueryRequest.builder()
+                .start(LocalDateTime.of(2024, 6, 1, 11, 30))
+                .end(LocalDateTime.of(2024, 6, 1, 14, 15))
+                .build();
+
+        // When
+        when(courierRepository.existsByCourierId(courierId)).thenReturn(true);
+        when(courierTravelSummaryService.findDistanceInKilometersBetween(courierId, request.getStart(), request.getEnd())).thenReturn(7.5);
+
+        // Then
+        assertEquals(7.5, courierService.getTotalTravelDistanceBetween(courierId, request));
+
+        // Verify
+        verify(courierRepository, never()).findByCourierIdOrderByTimestampAsc(any());
+        verify(courierTravelSummaryService, never()).findTotalDistanceInKilometers(any());
+
+    }
+
+    @Test
+    void getTotalTravelDistanceBetween_shouldThrowCourierNotFoundException_ifCourierHasNoTravels() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        DistanceRangeQueryRequest request = DistanceRangeQueryRequest.builder()
+                .start(LocalDateTime.of(2024, 6, 1, 11, 30))
+                .end(LocalDateTime.of(2024, 6, 1, 14, 15))
+                .build();
+
+        // When
+        when(courierRepository.existsByCourierId(courierId)).thenReturn(false);
+        when(courierArchive.existsByCourierId(courierId)).thenReturn(false);
+
+        // Then
+        assertThrows(CourierNotFoundException.class, () -> courierService.getTotalTravelDistanceBetween(courierId, request));
+
+        // Verify
+        verify(courierTravelSummaryService, never()).findDistanceInKilometersBetween(any(), any(), any());
+
+    }
+
+    @Test
+    void getTotalTravelDistanceBetween_shouldReturnDistance_ifCourierOnlyHasArchivedTravels() {
+
+        // Given
+        String courierId = UUID.randomUUID().toString();
+        DistanceRangeQueryRequest request = DistanceRangeQueryRequest.builder()
+                .start(LocalDateTime.of(2024, 6, 1, 11, 30))
+                .end(LocalDateTime.of(2024, 6, 1, 14, 15))
+                .build();
+
+        // When
+        when(courierRepository.existsByCourierId(courierId)).thenReturn(false);
+        when(courierArchive.existsByCourierId(courierId)).thenReturn(true);
+        when(courierTravelSummaryService.findDistanceInKilometersBetween(courierId, request.getStart(), request.getEnd())).thenReturn(3.0);
+
+        // Then
+        assertEquals(3.0, courierService.getTotalTravelDistanceBetween(courierId, request));
+
+    }
+
+    private CourierEntity travelEntity(String courierId, LocalDateTime timestamp) {
+        return CourierEntity.builder()
+                .id(UUID.randomUUID())
+                .courierId(courierId)
+                .lat(37.7749)
+                .lng(-122.4194)
+                .storeKey(1)
+                .timestamp(timestamp)
+                .build();
     }
 
 }
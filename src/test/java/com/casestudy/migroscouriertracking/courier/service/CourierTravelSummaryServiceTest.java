@@ -0,0 +1,439 @@
+package com.casestudy.migroscouriertracking.courier.service;
+
+import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import com.casestudy.migroscouriertracking.courier.archive.CourierArchive;
+import com.casestudy.migroscouriertracking.courier.metrics.CourierMetrics;
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierTravelSummaryEntity;
+import com.casestudy.migroscouriertracking.courier.model.enums.DistanceType;
+import com.casestudy.migroscouriertracking.courier.repository.CourierHourlyDistanceRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.repository.CourierTravelSummaryRepository;
+import com.casestudy.migroscouriertracking.courier.utils.DistanceUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.doubleThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link CourierTravelSummaryService} class, validating incremental updates,
+ * splicing out-of-order locations, creating summaries, rebuilds covering archived locations, hourly distance buckets
+ * and reading the total travel distance.
+ */
+class CourierTravelSummaryServiceTest extends AbstractBaseServiceTest {
+
+    @InjectMocks
+    private CourierTravelSummaryService courierTravelSummaryService;
+
+    @Mock
+    private CourierTravelSummaryRepository courierTravelSummaryRepository;
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private CourierArchive courierArchive;
+
+    @Mock
+    private CourierHourlyDistanceRepository courierHourlyDistanceRepository;
+
+    @Mock
+    private CourierMetrics courierMetrics;
+
+    private final String courierId = UUID.randomUUID().toString();
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void recordAcceptedLocations_shouldAppendSegmentsToExistingSummary() {
+
+        // Given
+        CourierTravelSummaryEntity summary = CourierTravelSummaryEntity.builder()
+                .courierId(courierId)
+                .totalDistanceInKilometers(1.0)
+                .lastLat(40.9923307)
+                .lastLng(29.1244229)
+                .lastTimestamp(now)
+                .build();
+
+        CourierEntity second = location(40.986106, 29.1161293, now.plusMinutes(4));
+        CourierEntity first = location(40.9900000, 29.1200000, now.plusMinutes(2));
+
+        double expected = 1.0
+                + DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.9900000, 29.1200000, DistanceType.KILOMETERS)
+                + DistanceUtils.calculateDistance(40.9900000, 29.1200000, 40.986106, 29.1161293, DistanceType.KILOMETERS);
+
+        // When
+        when(courierTravelSummaryRepository.existsById(courierId)).thenReturn(true);
+        when(courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)).thenReturn(Optional.of(summary));
+
+        // Then
+        courierTravelSummaryService.recordAcceptedLocations(List.of(second, first));
+
+        assertEquals(expected, summary.getTotalDistanceInKilometers(), 1e-9);
+        assertEquals(second.getTimestamp(), summary.getLastTimestamp());
+        assertEquals(second.getLat(), summary.getLastLat());
+
+        // Verify
+        verify(courierTravelSummaryRepository).save(summary);
+        verify(courierRepository, never()).findByCourierIdOrderByTimestampAsc(any());
+
+    }
+
+    @Test
+    void recordAcceptedLocations_shouldSpliceLocationBetweenNeighbours_ifLocationIsOlderThanLastSummarizedLocation() {
+
+        // Given
+        CourierTravelSummaryEntity summary = CourierTravelSummaryEntity.builder()
+                .courierId(courierId)
+                .totalDistanceInKilometers(5.0)
+                .lastLat(40.986106)
+                .lastLng(29.1161293)
+                .lastTimestamp(now.plusMinutes(10))
+                .build();
+
+        CourierEntity previous = location(40.9923307, 29.1244229, now);
+        CourierEntity late = location(40.9900000, 29.1200000, now.plusMinutes(5));
+        CourierEntity next = location(40.986106, 29.1161293, now.plusMinutes(10));
+
+        double spliced = DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.9900000, 29.1200000, DistanceType.KILOMETERS)
+                + DistanceUtils.calculateDistance(40.9900000, 29.1200000, 40.986106, 29.1161293, DistanceType.KILOMETERS)
+                - DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.986106, 29.1161293, DistanceType.KILOMETERS);
+
+        // When
+        when(courierTravelSummaryRepository.existsById(courierId)).thenReturn(true);
+        when(courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)).thenReturn(Optional.of(summary));
+        when(courierRepository.findFirstByCourierIdAndTimestampBeforeOrderByTimestampDesc(courierId, late.getTimestamp()))
+                .thenReturn(Optional.of(previous));
+        when(courierRepository.findFirstByCourierIdAndTimestampAfterAndIdNotInOrderByTimestampAsc(eq(courierId), eq(late.getTimestamp()), any()))
+                .thenReturn(Optional.of(next));
+
+        // Then
+        courierTravelSummaryService.recordAcceptedLocations(List.of(late));
+
+        assertEquals(5.0 + spliced, summary.getTotalDistanceInKilometers(), 1e-9);
+        assertEquals(now.plusMinutes(10), summary.getLastTimestamp());
+
+        // Verify
+        verify(courierTravelSummaryRepository).save(summary);
+        verify(courierRepository, never()).findByCourierIdOrderByTimestampAsc(any());
+        verify(courierHourlyDistanceRepository, never()).deleteByCourierId(any());
+        verify(courierHourlyDistanceRepository).addDistance(eq(courierId), eq(now), doubleThat(distance -> Math.abs(distance - spliced) < 1e-9));
+
+    }
+
+    @Test
+    void recordAcceptedLocations_shouldRebuildSummary_ifOutOfOrderLocationHasNoLaterLocation() {
+
+        // Given
+        CourierTravelSummaryEntity summary = CourierTravelSummaryEntity.builder()
+                .courierId(courierId)
+                .totalDistanceInKilometers(5.0)
+                .lastLat(40.986106)
+                .lastLng(29.1161293)
+                .lastTimestamp(now.plusMinutes(10))
+                .build();
+
+        CourierEntity first = location(40.9923307, 29.1244229, now);
+        CourierEntity late = location(40.9900000, 29.1200000, now.plusMinutes(5));
+
+        double expected = DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.9900000, 29.1200000, DistanceType.KILOMETERS);
+
+        // When
+        when(courierTravelSummaryRepository.existsById(courierId)).thenReturn(true);
+        when(courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)).thenReturn(Optional.of(summary));
+        when(courierRepository.findByCourierIdOrderByTimestampAsc(courierId)).thenReturn(List.of(first, late));
+        when(courierTravelSummaryRepository.save(summary)).thenReturn(summary);
+
+        // Then
+        courierTravelSummaryService.recordAcceptedLocations(List.of(late));
+
+        assertEquals(expected, summary.getTotalDistanceInKilometers(), 1e-9);
+        assertEquals(late.getTimestamp(), summary.getLastTimestamp());
+
+        // Verify
+        verify(courierRepository).findByCourierIdOrderByTimestampAsc(courierId);
+        verify(courierHourlyDistanceRepository).deleteByCourierId(courierId);
+
+    }
+
+    @Test
+    void recordAcceptedLocations_shouldInsertSummaryBeforeLockingIt_ifCourierHasNoSummary() {
+
+        // Given
+        CourierEntity location = location(40.9923307, 29.1244229, now);
+        CourierTravelSummaryEntity inserted = CourierTravelSummaryEntity.builder()
+                .courierId(courierId)
+                .totalDistanceInKilometers(0.0)
+                .lastLat(location.getLat())
+                .lastLng(location.getLng())
+                .lastTimestamp(now)
+                .build();
+
+        // When
+        when(courierTravelSummaryRepository.existsById(courierId)).thenReturn(false);
+        when(courierRepository.existsByCourierIdAndIdNotIn(eq(courierId), any())).thenReturn(false);
+        when(courierArchive.existsByCourierId(courierId)).thenReturn(false);
+        when(courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)).thenReturn(Optional.of(inserted));
+
+        // Then
+        courierTravelSummaryService.recordAcceptedLocations(List.of(location));
+
+        assertEquals(0.0, inserted.getTotalDistanceInKilometers());
+        assertEquals(now, inserted.getLastTimestamp());
+
+        // Verify
+        InOrder inOrder = inOrder(courierTravelSummaryRepository);
+        inOrder.verify(courierTravelSummaryRepository).insertIfAbsent(courierId, location.getLat(), location.getLng(), now);
+        inOrder.verify(courierTravelSummaryRepository).findByCourierIdForUpdate(courierId);
+        inOrder.verify(courierTravelSummaryRepository).save(inserted);
+        verify(courierRepository, never()).findByCourierIdOrderByTimestampAsc(any());
+        verify(courierHourlyDistanceRepository, never()).addDistance(any(), any(), any(Double.class));
+
+    }
+
+    @Test
+    void recordAcceptedLocations_shouldCreateSummaryFromHistory_ifCourierHasTravelsButNoSummary() {
+
+        // Given
+        CourierEntity earlier = location(40.9923307, 29.1244229, now);
+        CourierEntity location = location(40.9900000, 29.1200000, now.plusMinutes(5));
+
+        double expected = DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.9900000, 29.1200000, DistanceType.KILOMETERS);
+
+        // When
+        when(courierTravelSummaryRepository.existsById(courierId)).thenReturn(false);
+        when(courierRepository.existsByCourierIdAndIdNotIn(eq(courierId), any())).thenReturn(true);
+        when(courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)).thenReturn(Optional.empty());
+        when(courierRepository.findByCourierIdOrderByTimestampAsc(courierId)).thenReturn(List.of(earlier, location));
+        when(courierTravelSummaryRepository.save(any(CourierTravelSummaryEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Then
+        courierTravelSummaryService.recordAcceptedLocations(List.of(location));
+
+        // Verify
+        ArgumentCaptor<CourierTravelSummaryEntity> captor = ArgumentCaptor.forClass(CourierTravelSummaryEntity.class);
+        verify(courierTravelSummaryRepository).insertIfAbsent(courierId, earlier.getLat(), earlier.getLng(), now);
+        verify(courierTravelSummaryRepository).save(captor.capture());
+        assertEquals(courierId, captor.getValue().getCourierId());
+        assertEquals(expected, captor.getValue().getTotalDistanceInKilometers(), 1e-9);
+        assertEquals(now.plusMinutes(5), captor.getValue().getLastTimestamp());
+
+    }
+
+    @Test
+    void findTotalDistanceInKilometers_shouldRebuildSummaryFromArchiveAndDatabase() {
+
+        // Given
+        CourierEntity archivedLocation = location(40.9923307, 29.1244229, now);
+        CourierEntity persistedLocation = location(40.986106, 29.1161293, now.plusMinutes(2));
+        Courier archivedTravel = Courier.builder()
+                .id(archivedLocation.getId().toString())
+                .courierId(courierId)
+                .lat(archivedLocation.getLat())
+                .lng(archivedLocation.getLng())
+                .storeName("store1")
+                .timestamp(archivedLocation.getTimestamp())
+                .build();
+
+        double expected = DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.986106, 29.1161293, DistanceType.KILOMETERS);
+
+        // When
+        when(courierTravelSummaryRepository.findById(courierId)).thenReturn(Optional.empty());
+        when(courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)).thenReturn(Optional.empty());
+        when(courierArchive.findByCourierId(courierId)).thenReturn(List.of(archivedTravel));
+        // The archived location is still in the table until the archive job deletes it
+        when(courierRepository.findByCourierIdOrderByTimestampAsc(courierId)).thenReturn(List.of(archivedLocation, persistedLocation));
+        when(courierTravelSummaryRepository.save(any(CourierTravelSummaryEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Then
+        Optional<Double> totalDistance = courierTravelSummaryService.findTotalDistanceInKilometers(courierId);
+
+        assertTrue(totalDistance.isPresent());
+        assertEquals(expected, totalDistance.get(), 1e-9);
+
+    }
+
+    @Test
+    void findTotalDistanceInKilometers_shouldReadSummaryWithoutLoadingHistory() {
+
+        // Given
+        CourierTravelSummaryEntity summary = CourierTravelSummaryEntity.builder()
+                .courierId(courierId)
+                .totalDistanceInKilometers(12.5)
+                .lastLat(40.9923307)
+                .lastLng(29.1244229)
+                .lastTimestamp(now)
+                .build();
+
+        // When
+        when(courierTravelSummaryRepository.findById(courierId)).thenReturn(Optional.of(summary));
+
+        // Then
+        assertEquals(Optional.of(12.5), courierTravelSummaryService.findTotalDistanceInKilometers(courierId));
+
+        // Verify
+        verify(courierRepository, never()).findByCourierIdOrderByTimestampAsc(any());
+
+    }
+
+    @Test
+    void findSummarizedTotalDistanceInKilometers_shouldNotRebuildMissingSummary() {
+
+        // When
+        when(courierTravelSummaryRepository.findById(courierId)).thenReturn(Optional.empty());
+
+        // Then
+        assertTrue(courierTravelSummaryService.findSummarizedTotalDistanceInKilometers(courierId).isEmpty());
+
+        // Verify
+        verify(courierRepository, never()).findByCourierIdOrderByTimestampAsc(any());
+        verify(courierTravelSummaryRepository, never()).save(any());
+
+    }
+
+    @Test
+    void findTotalDistanceInKilometers_shouldReturnEmpty_ifCourierHasNoTravels() {
+
+        // When
+        when(courierTravelSummaryRepository.findById(courierId)).thenReturn(Optional.empty());
+        when(courierRepository.findByCourierIdOrderByTimestampAsc(courierId)).thenReturn(List.of());
+
+        // Then
+        assertTrue(courierTravelSummaryService.findTotalDistanceInKilometers(courierId).isEmpty());
+
+        // Verify
+        verify(courierTravelSummaryRepository, never()).save(any());
+
+    }
+
+    @Test
+    void recordAcceptedLocations_shouldAddEachSegmentToTheBucketOfTheHourItEndsIn() {
+
+        // Given
+        CourierTravelSummaryEntity summary = CourierTravelSummaryEntity.builder()
+                .courierId(courierId)
+                .totalDistanceInKilometers(0.0)
+                .lastLat(40.9923307)
+                .lastLng(29.1244229)
+                .lastTimestamp(now.plusMinutes(50))
+                .build();
+
+        CourierEntity beforeHour = location(40.9900000, 29.1200000, now.plusMinutes(55));
+        CourierEntity afterHour = location(40.986106, 29.1161293, now.plusMinutes(65));
+
+        double firstSegment = DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.9900000, 29.1200000, DistanceType.KILOMETERS);
+        double secondSegment = DistanceUtils.calculateDistance(40.9900000, 29.1200000, 40.986106, 29.1161293, DistanceType.KILOMETERS);
+
+        // When
+        when(courierTravelSummaryRepository.existsById(courierId)).thenReturn(true);
+        when(courierTravelSummaryRepository.findByCourierIdForUpdate(courierId)).thenReturn(Optional.of(summary));
+
+        // Then
+        courierTravelSummaryService.recordAcceptedLocations(List.of(afterHour, beforeHour));
+
+        // Verify
+        verify(courierHourlyDistanceRepository).addDistance(eq(courierId), eq(now), doubleThat(distance -> Math.abs(distance - firstSegment) < 1e-9));
+        verify(courierHourlyDistanceRepository).addDistance(eq(courierId), eq(now.plusHours(1)), doubleThat(distance -> Math.abs(distance - secondSegment) < 1e-9));
+        verify(courierHourlyDistanceRepository, never()).deleteByCourierId(any());
+
+    }
+
+    @Test
+    void findDistanceInKilometersBetween_shouldAddWholeHourBucketsToSegmentsEndingInPartialHours() {
+
+        // Given
+        LocalDateTime start = now.minusMinutes(30);
+        LocalDateTime end = now.plusHours(2).plusMinutes(15);
+
+        CourierEntity beforeStart = location(40.9923307, 29.1244229, now.minusMinutes(40));
+        CourierEntity inLeadingHour = location(40.9900000, 29.1200000, now.minusMinutes(20));
+        Courier archivedBeforeTrailingHour = Courier.builder()
+                .id(UUID.randomUUID().toString())
+                .courierId(courierId)
+                .lat(40.9880000)
+                .lng(29.1180000)
+                .storeName("store1")
+                .timestamp(now.plusMinutes(110))
+                .build();
+        CourierEntity inTrailingHour = location(40.986106, 29.1161293, now.plusMinutes(130));
+
+        double expected = 10.0
+                + DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.9900000, 29.1200000, DistanceType.KILOMETERS)
+                + DistanceUtils.calculateDistance(40.9880000, 29.1180000, 40.986106, 29.1161293, DistanceType.KILOMETERS);
+
+        // When
+        when(courierHourlyDistanceRepository.sumDistanceInKilometers(courierId, now, now.plusHours(2))).thenReturn(10.0);
+        when(courierRepository.findByCourierIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(courierId, start, now))
+                .thenReturn(List.of(inLeadingHour));
+        when(courierRepository.findFirstByCourierIdAndTimestampBeforeOrderByTimestampDesc(courierId, start))
+                .thenReturn(Optional.of(beforeStart));
+        when(courierRepository.findByCourierIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(courierId, now.plusHours(2), end))
+                .thenReturn(List.of(inTrailingHour));
+        when(courierRepository.findFirstByCourierIdAndTimestampBeforeOrderByTimestampDesc(courierId, now.plusHours(2)))
+                .thenReturn(Optional.of(inLeadingHour));
+        when(courierArchive.findLastBefore(courierId, now.plusHours(2))).thenReturn(Optional.of(archivedBeforeTrailingHour));
+
+        // Then
+        assertEquals(expected, courierTravelSummaryService.findDistanceInKilometersBetween(courierId, start, end), 1e-9);
+
+        // Verify
+        verify(courierRepository, never()).findByCourierIdOrderByTimestampAsc(any());
+
+    }
+
+    @Test
+    void findDistanceInKilometersBetween_shouldOnlyReadLocations_ifRangeHasNoWholeHour() {
+
+        // Given
+        LocalDateTime start = now.plusMinutes(10);
+        LocalDateTime end = now.plusMinutes(50);
+
+        CourierEntity first = location(40.9923307, 29.1244229, now.plusMinutes(20));
+        CourierEntity second = location(40.986106, 29.1161293, now.plusMinutes(40));
+
+        double expected = DistanceUtils.calculateDistance(40.9923307, 29.1244229, 40.986106, 29.1161293, DistanceType.KILOMETERS);
+
+        // When
+        when(courierRepository.findByCourierIdAndTimestampGreaterThanEqualAndTimestampLessThanOrderByTimestampAsc(courierId, start, end))
+                .thenReturn(List.of(first, second));
+        when(courierRepository.findFirstByCourierIdAndTimestampBeforeOrderByTimestampDesc(courierId, start))
+                .thenReturn(Optional.empty());
+
+        // Then
+        assertEquals(expected, courierTravelSummaryService.findDistanceInKilometersBetween(courierId, start, end), 1e-9);
+
+        // Verify
+        verify(courierHourlyDistanceRepository, never()).sumDistanceInKilometers(any(), any(), any());
+
+    }
+
+    private CourierEntity location(double lat, double lng, LocalDateTime timestamp) {
+        return CourierEntity.builder()
+                .id(UUID.randomUUID())
+                .courierId(courierId)
+                .lat(lat)
+                .lng(lng)
+                .storeKey(1)
+                .timestamp(timestamp)
+                .build();
+    }
+
+}
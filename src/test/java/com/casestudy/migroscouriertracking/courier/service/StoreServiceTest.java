@@ -0,0 +1,220 @@
+package com.casestudy.migroscouriertracking.courier.service;
+
+import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import com.casestudy.migroscouriertracking.courier.exception.StoreAlreadyExistsException;
+import com.casestudy.migroscouriertracking.courier.exception.StoreNotFoundException;
+import com.casestudy.migroscouriertracking.courier.index.CatalogStore;
+import com.casestudy.migroscouriertracking.courier.index.NearestStore;
+import com.casestudy.migroscouriertracking.courier.index.StoreSpatialIndex;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.CreateStoreRequest;
+import com.casestudy.migroscouriertracking.courier.model.dto.request.UpdateStoreRequest;
+import com.casestudy.migroscouriertracking.courier.model.entity.StoreEntity;
+import com.casestudy.migroscouriertracking.courier.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link StoreService} class, validating reads from the store snapshot
+ * and creating, updating and deleting stores.
+ */
+class StoreServiceTest extends AbstractBaseServiceTest {
+
+    @InjectMocks
+    private StoreService storeService;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Mock
+    private StoreSpatialIndex storeSpatialIndex;
+
+    private final StoreEntity store = StoreEntity.builder()
+            .id(UUID.randomUUID())
+            .name("Ataşehir MMM Migros")
+            .lat(40.9923307)
+            .lng(29.1244229)
+            .createdAt(LocalDateTime.now().minusDays(1))
+            .build();
+
+    @Test
+    void getStoreById_shouldReturnStoreFromSnapshot() {
+
+        // When
+        CatalogStore catalogStore = CatalogStore.of(store);
+        when(storeSpatialIndex.findById(store.getId())).thenReturn(Optional.of(catalogStore));
+
+        // Then
+        assertSame(catalogStore, storeService.getStoreById(store.getId().toString()));
+
+        // Verify
+        verify(storeRepository, never()).findById(any());
+
+    }
+
+    @Test
+    void getStoreById_shouldThrowStoreNotFoundException_ifStoreIsNotInSnapshot() {
+
+        // When
+        when(storeSpatialIndex.findById(store.getId())).thenReturn(Optional.empty());
+
+        // Then
+        assertThrows(StoreNotFoundException.class, () -> storeService.getStoreById(store.getId().toString()));
+
+    }
+
+    @Test
+    void findNearestStores_shouldReturnStoresRankedBySnapshot() {
+
+        // Given
+        List<NearestStore> nearestStores = List.of(new NearestStore(CatalogStore.of(store), 12.5));
+
+        // When
+        when(storeSpatialIndex.findNearestStores(40.99, 29.12, 3)).thenReturn(nearestStores);
+
+        // Then
+        assertSame(nearestStores, storeService.findNearestStores(40.99, 29.12, 3));
+
+        // Verify
+        verify(storeRepository, never()).findAll();
+
+    }
+
+    @Test
+    void createStore_shouldSaveStore_withGivenCreationTime() {
+
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 9, 0);
+        CreateStoreRequest request = CreateStoreRequest.builder()
+                .name("Kadıköy MMM Migros")
+                .lat(40.99)
+                .lng(29.03)
+                .createdAt(createdAt)
+                .build();
+
+        // When
+        when(storeRepository.existsByNameAndDeletedAtIsNull(request.getName())).thenReturn(false);
+        when(storeRepository.save(any(StoreEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Then
+        StoreEntity created = storeService.createStore(request);
+
+        assertEquals(request.getName(), created.getName());
+        assertEquals(createdAt, created.getCreatedAt());
+
+    }
+
+    @Test
+    void createStore_shouldThrowStoreAlreadyExistsException_ifNameIsTaken() {
+
+        // Given
+        CreateStoreRequest request = CreateStoreRequest.builder()
+                .name(store.getName())
+                .lat(store.getLat())
+                .lng(store.getLng())
+                .build();
+
+        // When
+        when(storeRepository.existsByNameAndDeletedAtIsNull(store.getName())).thenReturn(true);
+
+        // Then
+        assertThrows(StoreAlreadyExistsException.class, () -> storeService.createStore(request));
+
+        // Verify
+        verify(storeRepository, never()).save(any());
+
+    }
+
+    @Test
+    void updateStore_shouldChangeNameAndLocation() {
+
+        // Given
+        UpdateStoreRequest request = UpdateStoreRequest.builder()
+                .name("Ataşehir 5M Migros")
+                .lat(40.9930)
+                .lng(29.1250)
+                .build();
+
+        // When
+        when(storeRepository.findByIdAndDeletedAtIsNull(store.getId())).thenReturn(Optional.of(store));
+        when(storeRepository.existsByNameAndIdNotAndDeletedAtIsNull(request.getName(), store.getId())).thenReturn(false);
+        when(storeRepository.save(store)).thenReturn(store);
+
+        // Then
+        storeService.updateStore(store.getId().toString(), request);
+
+        // Verify
+        verify(storeRepository).save(argThat(saved -> "Ataşehir 5M Migros".equals(saved.getName())
+                && saved.getLat() == 40.9930 && saved.getLng() == 29.1250));
+
+    }
+
+    @Test
+    void updateStore_shouldThrowStoreAlreadyExistsException_ifAnotherStoreHasName() {
+
+        // Given
+        UpdateStoreRequest request = UpdateStoreRequest.builder()
+                .name("Novada MMM Migros")
+                .lat(store.getLat())
+                .lng(store.getLng())
+                .build();
+
+        // When
+        when(storeRepository.findByIdAndDeletedAtIsNull(store.getId())).thenReturn(Optional.of(store));
+        when(storeRepository.existsByNameAndIdNotAndDeletedAtIsNull(request.getName(), store.getId())).thenReturn(true);
+
+        // Then
+        assertThrows(StoreAlreadyExistsException.class, () -> storeService.updateStore(store.getId().toString(), request));
+
+        // Verify
+        verify(storeRepository, never()).save(any());
+
+    }
+
+    @Test
+    void deleteStore_shouldThrowStoreNotFoundException_ifStoreDoesNotExist() {
+
+        // When
+        when(storeRepository.findByIdAndDeletedAtIsNull(store.getId())).thenReturn(Optional.empty());
+
+        // Then
+        assertThrows(StoreNotFoundException.class, () -> storeService.deleteStore(store.getId().toString()));
+
+        // Verify
+        verify(storeRepository, never()).save(any());
+
+    }
+
+    @Test
+    void deleteStore_shouldMarkStoreAsDeletedInsteadOfRemovingIt() {
+
+        // When
+        when(storeRepository.findByIdAndDeletedAtIsNull(store.getId())).thenReturn(Optional.of(store));
+
+        // Then
+        storeService.deleteStore(store.getId().toString());
+
+        assertTrue(store.isDeleted());
+
+        // Verify
+        verify(storeRepository).save(store);
+        verify(storeRepository, never()).delete(any());
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.casestudy.migroscouriertracking.courier.utils;
+
+import com.casestudy.migroscouriertracking.courier.model.Location;
+import com.casestudy.migroscouriertracking.courier.strategy.DistanceInKilometersCalculatorStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link HaversineUtils} class, verifying the primitive haversine kernel,
+ * the precomputed radian variant and the equirectangular pre-check.
+ */
+class HaversineUtilsTest {
+
+    private static final double ATASEHIR_LAT = 40.9923307;
+    private static final double ATASEHIR_LNG = 29.1244229;
+    private static final double NOVADA_LAT = 40.986106;
+    private static final double NOVADA_LNG = 29.1161293;
+
+    @Test
+    void distanceInKilometers_shouldMatchLocationBasedStrategy() {
+
+        // Given
+        double expected = new DistanceInKilometersCalculatorStrategy().calculateDistance(
+                new Location(ATASEHIR_LAT, ATASEHIR_LNG), new Location(NOVADA_LAT, NOVADA_LNG));
+
+        // When
+        double distance = HaversineUtils.distanceInKilometers(ATASEHIR_LAT, ATASEHIR_LNG, NOVADA_LAT, NOVADA_LNG);
+
+        // Then
+        assertEquals(expected, distance, 1e-12);
+        assertEquals(distance * 1000.0, HaversineUtils.distanceInMeters(ATASEHIR_LAT, ATASEHIR_LNG, NOVADA_LAT, NOVADA_LNG), 1e-6);
+
+    }
+
+    @Test
+    void centralAngleOfRadians_shouldMatchDegreeBasedCentralAngle() {
+
+        // Given
+        double latOne = Math.toRadians(ATASEHIR_LAT);
+        double latTwo = Math.toRadians(NOVADA_LAT);
+
+        // When
+        double centralAngle = HaversineUtils.centralAngleOfRadians(latOne, Math.toRadians(ATASEHIR_LNG), Math.cos(latOne),
+                latTwo, Math.toRadians(NOVADA_LNG), Math.cos(latTwo));
+
+        // Then
+        assertEquals(HaversineUtils.centralAngle(ATASEHIR_LAT, ATASEHIR_LNG, NOVADA_LAT, NOVADA_LNG), centralAngle, 1e-15);
+
+    }
+
+    @Test
+    void equirectangularDistanceInMeters_shouldApproximateHaversineForShortDistances() {
+
+        // Given
+        double lat = ATASEHIR_LAT + 0.0005;
+        double lng = ATASEHIR_LNG + 0.0005;
+        double latOne = Math.toRadians(ATASEHIR_LAT);
+
+        // When
+        double approximate = HaversineUtils.equirectangularDistanceInMeters(latOne, Math.toRadians(ATASEHIR_LNG), Math.cos(latOne),
+                Math.toRadians(lat), Math.toRadians(lng));
+
+        // Then
+        assertEquals(HaversineUtils.distanceInMeters(ATASEHIR_LAT, ATASEHIR_LNG, lat, lng), approximate, 0.01);
+
+    }
+
+    @Test
+    void distanceInMetersWithinRadius_shouldReturnExactDistance_ifLocationIsNearby() {
+
+        // Given
+        double lat = ATASEHIR_LAT + 0.0003;
+        double latOne = Math.toRadians(ATASEHIR_LAT);
+
+        // When
+        double distance = HaversineUtils.distanceInMetersWithinRadius(latOne, Math.toRadians(ATASEHIR_LNG), Math.cos(latOne),
+                lat, ATASEHIR_LNG, 100.0);
+
+        // Then
+        assertEquals(HaversineUtils.distanceInMeters(ATASEHIR_LAT, ATASEHIR_LNG, lat, ATASEHIR_LNG), distance, 1e-9);
+
+    }
+
+    @Test
+    void distanceInMetersWithinRadius_shouldReturnInfinity_ifLocationIsClearlyOutsideRadius() {
+
+        // Given
+        double latOne = Math.toRadians(ATASEHIR_LAT);
+
+        // When
+        double distance = HaversineUtils.distanceInMetersWithinRadius(latOne, Math.toRadians(ATASEHIR_LNG), Math.cos(latOne),
+                NOVADA_LAT, NOVADA_LNG, 100.0);
+
+        // Then
+        assertTrue(Double.isInfinite(distance));
+
+    }
+
+}
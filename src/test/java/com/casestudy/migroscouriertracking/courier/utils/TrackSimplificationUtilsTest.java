@@ -0,0 +1,190 @@
+package com.casestudy.migroscouriertracking.courier.utils;
+
+import com.casestudy.migroscouriertracking.courier.model.Courier;
+import com.casestudy.migroscouriertracking.courier.model.SimplifiedTrack;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TrackSimplificationUtils} class, validating which locations Douglas-Peucker keeps,
+ * the reported distance error and that long tracks are simplified without recursion.
+ */
+class TrackSimplificationUtilsTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2024, 6, 1, 8, 0);
+
+    @Test
+    void simplify_shouldKeepOnlyEndpoints_ofStraightTrack() {
+
+        // Given
+        List<Courier> track = new ArrayList<>();
+        for (int index = 0; index < 100; index++) {
+            track.add(travel(index, 40.9900000 + index * 0.0001, 29.1200000));
+        }
+
+        // When
+        SimplifiedTrack simplified = TrackSimplificationUtils.simplify(track, 1.0);
+
+        // Then
+        assertEquals(List.of(track.get(0), track.get(99)), simplified.getTravels());
+        assertEquals(100, simplified.getOriginalPointCount());
+        assertEquals(0.0, simplified.getDistanceErrorInMeters(), 0.01);
+
+    }
+
+    @Test
+    void simplify_shouldKeepCorner_andReturnTravelsInTimestampOrder() {
+
+        // Given
+        List<Courier> track = new ArrayList<>();
+        for (int index = 0; index <= 10; index++) {
+            track.add(travel(index, 40.9900000 + index * 0.0001, 29.1200000));
+        }
+        for (int index = 1; index <= 10; index++) {
+            track.add(travel(10 + index, 40.9910000, 29.1200000 + index * 0.0001));
+        }
+        List<Courier> shuffled = new ArrayList<>(track);
+        Collections.shuffle(shuffled, new Random(1L));
+
+        // When
+        SimplifiedTrack simplified = TrackSimplificationUtils.simplify(shuffled, 5.0);
+
+        // Then
+        assertEquals(List.of(track.get(0), track.get(10), track.get(20)), simplified.getTravels());
+
+    }
+
+    @Test
+    void simplify_shouldKeepFarEndOfRoundTrip() {
+
+        // Given
+        Courier departure = travel(0, 40.9900000, 29.1200000);
+        Courier turningPoint = travel(1, 41.0000000, 29.1200000);
+        Courier arrival = travel(2, 40.9900000, 29.1200000);
+
+        // When
+        SimplifiedTrack simplified = TrackSimplificationUtils.simplify(List.of(departure, turningPoint, arrival), 50.0);
+
+        // Then
+        assertEquals(List.of(departure, turningPoint, arrival), simplified.getTravels());
+
+    }
+
+    @Test
+    void simplify_shouldKeepEveryDroppedTravelWithinTolerance_andReportExactDistanceError() {
+
+        // Given
+        Random random = new Random(42L);
+        List<Courier> track = new ArrayList<>();
+        double lat = 40.99;
+        double lng = 29.12;
+        for (int index = 0; index < 2000; index++) {
+            lat += (random.nextDouble() - 0.3) * 0.0002;
+            lng += (random.nextDouble() - 0.3) * 0.0002;
+            track.add(travel(index, lat, lng));
+        }
+
+        // When
+        SimplifiedTrack simplified = TrackSimplificationUtils.simplify(track, 10.0);
+
+        // Then
+        assertTrue(simplified.getTravels().size() < track.size() / 4);
+        assertEquals(lengthInMeters(track) - lengthInMeters(simplified.getTravels()), simplified.getDistanceErrorInMeters(), 1e-6);
+        assertTrue(simplified.getDistanceErrorInMeters() >= 0);
+
+        List<Courier> kept = simplified.getTravels();
+        int segment = 0;
+        for (Courier travel : track) {
+            while (kept.get(segment + 1).getTimestamp().isBefore(travel.getTimestamp())) {
+                segment++;
+            }
+            Courier from = kept.get(segment);
+            Courier to = kept.get(segment + 1);
+            assertTrue(distanceToSegmentInMeters(travel, from, to) <= 10.5,
+                    "Travel at " + travel.getTimestamp() + " is farther than the tolerance from the simplified track");
+        }
+
+    }
+
+    @Test
+    void simplify_shouldHandleLongTracksWithoutRecursion() {
+
+        // Given
+        // A zig-zag keeps every location, and each split only peels the location next to the start of its range,
+        // so a recursive implementation would nest once per location
+        List<Courier> track = new ArrayList<>(20_000);
+        for (int index = 0; index < 20_000; index++) {
+            track.add(travel(index, 40.99 + index * 1e-5, 29.12 + (index % 2) * 0.001));
+        }
+
+        // When
+        SimplifiedTrack simplified = TrackSimplificationUtils.simplify(track, 1.0);
+
+        // Then
+        assertEquals(track.size(), simplified.getTravels().size());
+
+    }
+
+    @Test
+    void simplify_shouldReturnShortTracksUnchanged() {
+
+        // Given
+        Courier only = travel(0, 40.99, 29.12);
+
+        // When
+        SimplifiedTrack simplified = TrackSimplificationUtils.simplify(List.of(only), 100.0);
+
+        // Then
+        assertSame(only, simplified.getTravels().get(0));
+        assertEquals(0.0, simplified.getDistanceErrorInMeters());
+        assertTrue(TrackSimplificationUtils.simplify(List.of(), 100.0).getTravels().isEmpty());
+
+    }
+
+    private double lengthInMeters(List<Courier> track) {
+        double length = 0;
+        for (int index = 1; index < track.size(); index++) {
+            length += HaversineUtils.distanceInMeters(track.get(index - 1).getLat(), track.get(index - 1).getLng(),
+                    track.get(index).getLat(), track.get(index).getLng());
+        }
+        return length;
+    }
+
+    private double distanceToSegmentInMeters(Courier point, Courier from, Courier to) {
+        double metersPerDegree = Math.toRadians(1) * HaversineUtils.EARTH_RADIUS_IN_METERS;
+        double cosLat = Math.cos(Math.toRadians(point.getLat()));
+        double ax = from.getLng() * metersPerDegree * cosLat;
+        double ay = from.getLat() * metersPerDegree;
+        double bx = to.getLng() * metersPerDegree * cosLat;
+        double by = to.getLat() * metersPerDegree;
+        double px = point.getLng() * metersPerDegree * cosLat;
+        double py = point.getLat() * metersPerDegree;
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        return Math.hypot(px - (ax + t * dx), py - (ay + t * dy));
+    }
+
+    private Courier travel(int minute, double lat, double lng) {
+        return Courier.builder()
+                .id(UUID.randomUUID().toString())
+                .courierId("courier")
+                .lat(lat)
+                .lng(lng)
+                .storeName("store1")
+                .timestamp(start.plusMinutes(minute))
+                .build();
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.casestudy.migroscouriertracking.courier.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link UuidV7Utils} class, verifying the layout of generated UUIDs,
+ * their ordering and the conversion to and from bytes.
+ */
+class UuidV7UtilsTest {
+
+    @Test
+    void utilityClass_ShouldNotBeInstantiated() {
+        assertThrows(InvocationTargetException.class, () -> {
+            // Attempt to use reflection to create an instance of the utility class
+            java.lang.reflect.Constructor<UuidV7Utils> constructor = UuidV7Utils.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            constructor.newInstance();
+        });
+    }
+
+    @Test
+    void randomUuid_shouldHaveVersion7AndRfc9562Variant() {
+
+        // When
+        UUID uuid = UuidV7Utils.randomUuid();
+
+        // Then
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(uuid, UUID.fromString(uuid.toString()));
+
+    }
+
+    @Test
+    void randomUuid_shouldEmbedCurrentTime() {
+
+        // Given
+        long before = System.currentTimeMillis();
+
+        // When
+        UUID uuid = UuidV7Utils.randomUuid();
+
+        // Then
+        long timestamp = UuidV7Utils.timestampOf(uuid);
+        assertTrue(timestamp >= before);
+        assertTrue(timestamp <= System.currentTimeMillis() + 1);
+
+    }
+
+    @Test
+    void randomUuid_shouldBeStrictlyIncreasingInTextAndByteOrder() {
+
+        // When
+        List<UUID> uuids = IntStream.range(0, 100_000).mapToObj(i -> UuidV7Utils.randomUuid()).toList();
+
+        // Then
+        for (int i = 1; i < uuids.size(); i++) {
+            assertTrue(uuids.get(i - 1).toString().compareTo(uuids.get(i).toString()) < 0);
+            assertTrue(Arrays.compareUnsigned(UuidV7Utils.toBytes(uuids.get(i - 1)), UuidV7Utils.toBytes(uuids.get(i))) < 0);
+        }
+
+    }
+
+    @Test
+    void randomUuid_shouldBeUniqueAcrossThreads() throws InterruptedException {
+
+        // Given
+        Set<UUID> uuids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    uuids.add(UuidV7Utils.randomUuid());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertEquals(40_000, uuids.size());
+
+    }
+
+    @Test
+    void timestampOf_shouldThrowIllegalArgumentException_ifUuidIsNotVersion7() {
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> UuidV7Utils.timestampOf(UUID.randomUUID()));
+
+    }
+
+    @Test
+    void fromBytes_shouldReturnUuidConvertedByToBytes() {
+
+        // Given
+        Set<UUID> uuids = new HashSet<>(List.of(UuidV7Utils.randomUuid(), UUID.randomUUID(),
+                UUID.fromString("0190163d-8694-739b-aea5-966c26f8ad91")));
+
+        // Then
+        for (UUID uuid : uuids) {
+            byte[] bytes = UuidV7Utils.toBytes(uuid);
+            assertEquals(16, bytes.length);
+            assertEquals(uuid, UuidV7Utils.fromBytes(bytes));
+        }
+        assertEquals((byte) 0x01, UuidV7Utils.toBytes(UUID.fromString("0190163d-8694-739b-aea5-966c26f8ad91"))[0]);
+
+    }
+
+    @Test
+    void fromBytes_shouldThrowIllegalArgumentException_ifLengthIsNot16() {
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> UuidV7Utils.fromBytes(new byte[15]));
+
+    }
+
+}
@@ -0,0 +1,275 @@
+package com.casestudy.migroscouriertracking.courier.writebehind;
+
+import com.casestudy.migroscouriertracking.base.AbstractBaseServiceTest;
+import com.casestudy.migroscouriertracking.courier.cache.CourierQueryResultCache;
+import com.casestudy.migroscouriertracking.courier.cache.LastVisitCache;
+import com.casestudy.migroscouriertracking.courier.cache.PingDeduplicationWindow;
+import com.casestudy.migroscouriertracking.courier.exception.LocationQueueFullException;
+import com.casestudy.migroscouriertracking.courier.model.entity.CourierEntity;
+import com.casestudy.migroscouriertracking.courier.repository.CourierRepository;
+import com.casestudy.migroscouriertracking.courier.service.CourierTravelSummaryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for the {@link CourierLocationWriteBehindQueue} class, validating group commits by size and by delay,
+ * backpressure on a full queue, draining on shutdown and eviction of dropped visits.
+ */
+class CourierLocationWriteBehindQueueTest extends AbstractBaseServiceTest {
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private CourierTravelSummaryService courierTravelSummaryService;
+
+    @Mock
+    private LastVisitCache lastVisitCache;
+
+    @Mock
+    private PingDeduplicationWindow pingDeduplicationWindow;
+
+    @Mock
+    private CourierQueryResultCache courierQueryResultCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<List<CourierEntity>> committedBatches = new CopyOnWriteArrayList<>();
+
+    private CourierLocationWriteBehindQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void enqueue_shouldCommitFullBatches_ifBatchSizeIsReached() throws Exception {
+
+        // Given
+        queue = queue(100, 3, Duration.ofMinutes(1));
+        CountDownLatch committed = recordCommits(2);
+        queue.start();
+
+        // When
+        for (int i = 0; i < 6; i++) {
+            queue.enqueue(location());
+        }
+
+        // Then
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+        queue.stop();
+        assertEquals(List.of(3, 3), committedBatches.stream().map(List::size).toList());
+        assertEquals(6.0, meterRegistry.get("courier.write_behind.locations").tag("result", "committed").counter().count());
+        assertEquals(2, meterRegistry.get("courier.write_behind.commit").timer().count());
+
+        // Verify
+        verify(courierTravelSummaryService, times(2)).recordAcceptedLocations(anyList());
+
+    }
+
+    @Test
+    void enqueue_shouldCommitPartialBatch_ifMaxDelayHasPassed() throws Exception {
+
+        // Given
+        queue = queue(100, 50, Duration.ofMillis(20));
+        CountDownLatch committed = recordCommits(1);
+        queue.start();
+
+        // When
+        queue.enqueue(location());
+        queue.enqueue(location());
+
+        // Then
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, committedBatches.stream().mapToInt(List::size).sum());
+
+    }
+
+    @Test
+    void enqueue_shouldThrowLocationQueueFullException_ifQueueStaysFull() throws Exception {
+
+        // Given
+        queue = queue(2, 1, Duration.ofMillis(10));
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writerBlocked.countDown();
+            releaseWriter.await();
+            return null;
+        }).when(courierRepository).batchInsert(anyList());
+        queue.start();
+
+        // When
+        queue.enqueue(location());
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+        queue.enqueue(location());
+        queue.enqueue(location());
+
+        // Then
+        assertThrows(LocationQueueFullException.class, () -> queue.enqueue(location()));
+        assertEquals(2, meterRegistry.get("courier.write_behind.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("courier.write_behind.locations").tag("result", "rejected").counter().count());
+
+        releaseWriter.countDown();
+
+    }
+
+    @Test
+    void stop_shouldDrainQueuedLocations_andRejectNewOnes() {
+
+        // Given
+        queue = queue(100, 50, Duration.ofMinutes(1));
+        recordCommits(1);
+        queue.start();
+        for (int i = 0; i < 10; i++) {
+            queue.enqueue(location());
+        }
+
+        // When
+        queue.stop();
+
+        // Then
+        assertEquals(10, committedBatches.stream().mapToInt(List::size).sum());
+        assertEquals(0, queue.size());
+        assertFalse(queue.isRunning());
+        assertThrows(LocationQueueFullException.class, () -> queue.enqueue(location()));
+
+    }
+
+    @Test
+    void stop_shouldCommitEveryAcceptedLocation_ifLocationsAreQueuedConcurrently() throws Exception {
+
+        // Given
+        queue = queue(100, 10, Duration.ofMillis(5));
+        recordCommits(1);
+        queue.start();
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch producing = new CountDownLatch(4);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            producers.add(Thread.ofPlatform().start(() -> {
+                producing.countDown();
+                while (true) {
+                    try {
+                        queue.enqueue(location());
+                        accepted.incrementAndGet();
+                    } catch (LocationQueueFullException exception) {
+                        if (!queue.isRunning()) {
+                            return;
+                        }
+                    }
+                }
+            }));
+        }
+
+        // When
+        assertTrue(producing.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        queue.stop();
+        for (Thread producer : producers) {
+            producer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        // Then
+        assertEquals(accepted.get(), committedBatches.stream().mapToInt(List::size).sum());
+        assertEquals(0, queue.size());
+
+    }
+
+    @Test
+    void commit_shouldEvictVisitsOfDroppedLocations_ifEveryAttemptFails() {
+
+        // Given
+        queue = queue(100, 50, Duration.ofMinutes(1));
+        CourierEntity location = location();
+        doThrow(new IllegalStateException("database down")).when(courierRepository).batchInsert(anyList());
+
+        // When
+        queue.commit(List.of(location));
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("courier.write_behind.locations").tag("result", "dropped").counter().count());
+
+        // Verify
+        verify(courierRepository, times(CourierLocationWriteBehindQueue.MAX_ATTEMPTS)).batchInsert(List.of(location));
+        verify(courierTravelSummaryService, never()).recordAcceptedLocations(anyList());
+        verify(lastVisitCache).evict(location.getCourierId(), location.getStoreKey(), location.getTimestamp());
+        verify(pingDeduplicationWindow).evict(location.getCourierId(), location.getTimestamp(), location.getLat(), location.getLng());
+
+    }
+
+    @Test
+    void commit_shouldRetryFailedGroupCommit() {
+
+        // Given
+        queue = queue(100, 50, Duration.ofMinutes(1));
+        CourierEntity location = location();
+        doThrow(new IllegalStateException("deadlock")).doNothing().when(courierRepository).batchInsert(anyList());
+
+        // When
+        queue.commit(List.of(location));
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("courier.write_behind.locations").tag("result", "committed").counter().count());
+
+        // Verify
+        verify(courierRepository, times(2)).batchInsert(List.of(location));
+        verify(courierQueryResultCache).invalidate(location.getCourierId());
+        verify(lastVisitCache, never()).evict(location.getCourierId(), location.getStoreKey(), location.getTimestamp());
+
+    }
+
+    private CourierLocationWriteBehindQueue queue(int capacity, int batchSize, Duration maxDelay) {
+        return new CourierLocationWriteBehindQueue(courierRepository, courierTravelSummaryService, lastVisitCache, pingDeduplicationWindow,
+                courierQueryResultCache, TransactionOperations.withoutTransaction(), meterRegistry, true, capacity, batchSize, maxDelay,
+                Duration.ofMillis(50), Duration.ofSeconds(5));
+    }
+
+    private CountDownLatch recordCommits(int expectedCommits) {
+        CountDownLatch committed = new CountDownLatch(expectedCommits);
+        doAnswer(invocation -> {
+            committedBatches.add(List.copyOf(invocation.getArgument(0)));
+            committed.countDown();
+            return null;
+        }).when(courierRepository).batchInsert(anyList());
+        return committed;
+    }
+
+    private static CourierEntity location() {
+        return CourierEntity.builder()
+                .courierId(UUID.randomUUID().toString())
+                .lat(40.9923307)
+                .lng(29.1244229)
+                .storeKey(1)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+}